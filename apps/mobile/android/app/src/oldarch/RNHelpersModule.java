@@ -5,6 +5,7 @@ import android.content.ClipData;
 import android.content.Intent;
 import android.content.pm.ResolveInfo;
 import android.net.Uri;
+import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.core.content.FileProvider;
 
@@ -12,19 +13,19 @@ import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.ReadableMap;
+import com.rnfs.FileCopier;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public class RNHelpersModule extends SimplePackageSpec {
@@ -227,18 +228,18 @@ public class RNHelpersModule extends SimplePackageSpec {
       throw new IOException("Failed to overwrite staged share file: " + targetFile.getAbsolutePath());
     }
 
-    try (
-      FileInputStream inputStream = new FileInputStream(sourceFile);
-      FileOutputStream outputStream = new FileOutputStream(targetFile)
-    ) {
-      byte[] buffer = new byte[8192];
-      int length;
-
-      while ((length = inputStream.read(buffer)) > 0) {
-        outputStream.write(buffer, 0, length);
-      }
-
-      outputStream.flush();
-    }
+    // The staged copy is only read by the share target, so a hard link is as good as a copy.
+    FileCopier.Result result = FileCopier.copyFile(sourceFile, targetFile, true);
+    Log.i(
+      NAME,
+      String.format(
+        Locale.US,
+        "[share-file] strategy=%s bytes=%d duration_ms=%d bytes_per_sec=%.0f",
+        result.strategy,
+        result.bytes,
+        result.durationMs(),
+        result.bytesPerSecond()
+      )
+    );
   }
 }
@@ -28,6 +28,31 @@ var getJobId = () => {
   return jobId;
 };
 
+// Android batches download/upload progress of all jobs into one TransferProgress
+// event per frame; a single shared listener routes each entry to its job.
+var transferProgressListeners = {};
+var transferProgressSubscription = null;
+
+var addTransferProgressListener = (jobId: number, callback: Function) => {
+  if (!transferProgressSubscription) {
+    transferProgressSubscription = RNFS_NativeEventEmitter.addListener(
+      'TransferProgress',
+      batch => {
+        batch.jobs.forEach(res => {
+          var listener = transferProgressListeners[res.jobId];
+          if (listener) listener(res);
+        });
+      },
+    );
+  }
+  transferProgressListeners[jobId] = callback;
+  return {
+    remove: () => {
+      delete transferProgressListeners[jobId];
+    },
+  };
+};
+
 var normalizeFilePath = (path: string) =>
   path.startsWith('file://') ? path.slice(7) : path;
 
@@ -64,6 +89,68 @@ function getNativeFS() {
   return global.__RabbyNativeFS;
 }
 
+// JSI metadata calls (stat, readDir, mkdir, ...) only take plain paths;
+// content URIs and unavailable bindings fall back to the bridge.
+function getNativeFileOperation(name: string, ...paths: string[]) {
+  if (paths.some(path => path.indexOf('://') !== -1) || !installNativeFS()) {
+    return null;
+  }
+  const operation = global.__RabbyNativeFS[name];
+  return typeof operation === 'function' ? operation : null;
+}
+
+// Native messages start with the errno code, as RNFSManager rejections do.
+function toNativeFSError(error: any) {
+  const message = typeof error === 'string' ? error : error?.message;
+  if (typeof message !== 'string') {
+    return error;
+  }
+  const result = error instanceof Error ? error : new Error(message);
+  const match = /^([A-Z][A-Z0-9]+): /.exec(message);
+  if (match && result.code === undefined) {
+    result.code = match[1];
+  }
+  return result;
+}
+
+function callNativeFileOperation(name: string, ...args: Array<any>) {
+  try {
+    return getNativeFS()[name](...args);
+  } catch (error) {
+    throw toNativeFSError(error);
+  }
+}
+
+function callNativeFileOperationAsync(
+  operation: Function,
+  ...args: Array<any>
+) {
+  return operation(...args).catch(error =>
+    Promise.reject(toNativeFSError(error)),
+  );
+}
+
+// JSI results use the Android type codes (0 file, 1 directory); iOS exposes
+// NSFileType strings as RNFSFileTypeRegular/Directory instead.
+function fromNativeFileType<T: Object>(result: T): T {
+  if (!isIOS) {
+    return result;
+  }
+  return {
+    ...result,
+    type: result.type === 1 ? RNFSFileTypeDirectory : RNFSFileTypeRegular,
+  };
+}
+
+function getFSInfoPaths(): string[] {
+  return isIOS
+    ? [RNFSManager.RNFSDocumentDirectoryPath]
+    : [
+        RNFSManager.RNFSDocumentDirectoryPath,
+        RNFSManager.RNFSExternalStorageDirectoryPath,
+      ];
+}
+
 function requireByteInput(contents) {
   if (contents instanceof ArrayBuffer) {
     return contents;
@@ -143,7 +230,9 @@ function createNativeAsyncWriteStream(
 
 function createNativeAsyncReadStream(
   filepath: string,
-  optionsOrBufferSize?: { bufferSize?: number } | number,
+  optionsOrBufferSize?:
+    | { bufferSize?: number, mapped?: boolean, allowWritable?: boolean }
+    | number,
 ) {
   const nativeFS = getNativeFS();
   const createAsyncReadStream = nativeFS.createAsyncReadStream;
@@ -158,8 +247,261 @@ function createNativeAsyncReadStream(
     typeof optionsOrBufferSize === 'number'
       ? optionsOrBufferSize
       : optionsOrBufferSize?.bufferSize;
+  const mapped =
+    typeof optionsOrBufferSize === 'object' &&
+    optionsOrBufferSize?.mapped === true;
+  const allowWritable =
+    typeof optionsOrBufferSize === 'object' &&
+    optionsOrBufferSize?.allowWritable === true;
+
+  try {
+    return createAsyncReadStream(
+      normalizeFilePath(filepath),
+      bufferSize,
+      mapped,
+      allowWritable,
+    );
+  } catch (error) {
+    throw toNativeFSError(error);
+  }
+}
+
+type NativeFSAppendLogOptions = {
+  segmentBytes?: number,
+  bufferSize?: number,
+  bufferCount?: number,
+};
+
+function openNativeAppendLog(
+  dirpath: string,
+  options: NativeFSAppendLogOptions = {},
+) {
+  const openAppendLog = getNativeFS().openAppendLog;
+
+  if (typeof openAppendLog !== 'function') {
+    throw new Error(
+      '@rabby-wallet/react-native-fs native append log is not available',
+    );
+  }
 
-  return createAsyncReadStream(normalizeFilePath(filepath), bufferSize);
+  return openAppendLog(
+    normalizeFilePath(dirpath),
+    options.segmentBytes,
+    options.bufferSize,
+    options.bufferCount,
+  );
+}
+
+type NativeFSMappedFile = {
+  bytes: Uint8Array, // Backed by the mapping; reads zeros after unmap()
+  byteLength: number,
+  offset: number,
+  unmap: () => boolean, // False when already unmapped or empty
+};
+
+type NativeFSReadFileChunksOptions = {
+  chunkSize?: number,
+  mapped?: boolean, // Unset maps read-only files and copies writable ones
+  allowWritable?: boolean,
+};
+
+type NativeFSDiagnosticsOptions = {
+  logcat?: boolean,
+  events?: boolean,
+  traceCounters?: boolean,
+};
+
+// Reads the layout written by encodeDiagnosticsSnapshot in RabbyNativeFS.cpp.
+function decodeNativeDiagnosticsSnapshot(bytes: Uint8Array) {
+  const view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+  let offset = 0;
+  const u8 = () => view.getUint8(offset++);
+  const u16 = () => {
+    const value = view.getUint16(offset, true);
+    offset += 2;
+    return value;
+  };
+  const u32 = () => {
+    const value = view.getUint32(offset, true);
+    offset += 4;
+    return value;
+  };
+  const u64 = () => u32() + u32() * 0x100000000;
+  const str = () => {
+    const length = u8();
+    let binary = '';
+    for (let index = 0; index < length; index += 1) {
+      binary += String.fromCharCode(bytes[offset + index]);
+    }
+    offset += length;
+    try {
+      return utf8.decode(binary);
+    } catch (e) {
+      // Path tails and messages are cut by bytes and may end mid-character.
+      return binary;
+    }
+  };
+  const histogram = () => {
+    const buckets = {};
+    for (let used = u16(); used > 0; used -= 1) {
+      const bucket = u16();
+      buckets[bucket] = u32();
+    }
+    return buckets;
+  };
+
+  const magic = String.fromCharCode(u8(), u8(), u8(), u8());
+  const version = u16();
+  if (magic !== 'RNFD' || version !== 1) {
+    throw new Error('Unsupported native diagnostics snapshot');
+  }
+  const subBucketBits = u16();
+  const bucketCount = u16();
+  const droppedEvents = u64();
+
+  const operations = {};
+  for (let count = u32(); count > 0; count -= 1) {
+    const name = str();
+    operations[name] = {
+      count: u64(),
+      errorCount: u64(),
+      totalUs: u64(),
+      maxUs: u64(),
+      totalBytes: u64(),
+      maxBytes: u64(),
+      latencyBucketsUs: histogram(),
+      sizeBuckets: histogram(),
+    };
+  }
+
+  const events = [];
+  for (let count = u32(); count > 0; count -= 1) {
+    events.push({
+      id: u64(),
+      durationUs: u64(),
+      bytes: u64(),
+      tid: u32(),
+      isError: u8() === 1,
+      category: str(),
+      operation: str(),
+      pathTail: str(),
+      message: str(),
+    });
+  }
+
+  return { subBucketBits, bucketCount, droppedEvents, operations, events };
+}
+
+let crc32Table = null;
+
+// CRC-32 (IEEE), matching crc32Update in RabbyNativeFS.cpp.
+function crc32(crc: number, bytes: Uint8Array, start: number, end: number) {
+  if (crc32Table === null) {
+    crc32Table = new Uint32Array(256);
+    for (let index = 0; index < 256; index += 1) {
+      let value = index;
+      for (let bit = 0; bit < 8; bit += 1) {
+        value = value & 1 ? 0xedb88320 ^ (value >>> 1) : value >>> 1;
+      }
+      crc32Table[index] = value;
+    }
+  }
+  let value = ~crc;
+  for (let index = start; index < end; index += 1) {
+    value = crc32Table[(value ^ bytes[index]) & 0xff] ^ (value >>> 8);
+  }
+  return ~value >>> 0;
+}
+
+const APPEND_LOG_HEADER_BYTES = 8;
+const APPEND_LOG_MAX_RECORD_BYTES = 16 * 1024 * 1024;
+const APPEND_LOG_CHECKSUM_MASK = 0xa282ead8;
+
+// Reads one append log segment, framed as in RabbyNativeFS.cpp: [length u32
+// LE][checksum u32 LE][payload], the checksum being the CRC-32 of the length
+// bytes and the payload, xored with a mask. Stops at the first torn or
+// corrupt record; validBytes is where opening the log would cut the segment.
+function decodeNativeAppendLogSegment(bytes: Uint8Array) {
+  const view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+  const records = [];
+  let offset = 0;
+  while (bytes.byteLength - offset >= APPEND_LOG_HEADER_BYTES) {
+    const length = view.getUint32(offset, true);
+    const payloadStart = offset + APPEND_LOG_HEADER_BYTES;
+    if (
+      length > APPEND_LOG_MAX_RECORD_BYTES ||
+      bytes.byteLength - payloadStart < length
+    ) {
+      break;
+    }
+    const lengthCrc = crc32(0, bytes, offset, offset + 4);
+    const payloadCrc = crc32(
+      lengthCrc,
+      bytes,
+      payloadStart,
+      payloadStart + length,
+    );
+    if (
+      (payloadCrc ^ APPEND_LOG_CHECKSUM_MASK) >>> 0 !==
+      view.getUint32(offset + 4, true)
+    ) {
+      break;
+    }
+    records.push(bytes.subarray(payloadStart, payloadStart + length));
+    offset = payloadStart + length;
+  }
+  return { records, validBytes: offset };
+}
+
+function readNativeFileChunks(
+  filepath: string,
+  onChunk: (chunk: Uint8Array) => void | Promise<void>,
+  options: NativeFSReadFileChunksOptions = {},
+): Promise<number> {
+  if (typeof onChunk !== 'function') {
+    return Promise.reject(
+      new Error('readFileChunks expected onChunk to be a function'),
+    );
+  }
+
+  let stream;
+  try {
+    stream = createNativeAsyncReadStream(filepath, {
+      bufferSize: options.chunkSize,
+      mapped: options.mapped !== false,
+      allowWritable: options.allowWritable,
+    });
+  } catch (error) {
+    // Writable files are refused for mapping; unless the caller asked for a
+    // mapped read, fall back to copying chunks.
+    if (options.mapped !== undefined || error?.code !== 'EPERM') {
+      return Promise.reject(error);
+    }
+    try {
+      stream = createNativeAsyncReadStream(filepath, {
+        bufferSize: options.chunkSize,
+      });
+    } catch (fallbackError) {
+      return Promise.reject(fallbackError);
+    }
+  }
+
+  let bytesRead = 0;
+  const readNext = () =>
+    stream.readChunk().then(chunk => {
+      if (chunk === null) {
+        return stream.close().then(() => bytesRead);
+      }
+      bytesRead += chunk.byteLength;
+      return Promise.resolve(onChunk(chunk)).then(readNext);
+    });
+
+  return readNext().catch(error =>
+    stream
+      .close()
+      .catch(() => undefined)
+      .then(() => Promise.reject(error)),
+  );
 }
 
 type NativeFSZipArchiveEntry = {
@@ -171,6 +513,7 @@ type NativeFSZipArchiveEntry = {
 
 type NativeFSZipArchiveOptions = {
   compressionLevel?: number,
+  parallel?: boolean,
 };
 
 type NativeFSZipEntryExtractionOptions = {
@@ -178,6 +521,11 @@ type NativeFSZipEntryExtractionOptions = {
   entryNameSuffix?: string,
 };
 
+type NativeFSZipEntriesExtractionOptions = {
+  entryNames?: string[],
+  entryNameSuffix?: string,
+};
+
 type NativeFSZipEntryListingOptions = {
   entryNameSuffix?: string,
   includeDirectories?: boolean,
@@ -191,6 +539,7 @@ type NativeFSZipEntryInfo = {
   uncompressedSize: number,
   crc32: number,
   method: number,
+  encrypted: boolean, // Extracting an encrypted entry rejects with ENOTSUP
   mtimeMs?: number,
 };
 
@@ -200,6 +549,120 @@ type NativeFSZipEntryListingResult = {
   totalEntries: number,
   totalBytes: number,
   durationMs: number,
+  indexCached?: boolean,
+};
+
+type NativeFSFileHashResult = {
+  path: string,
+  digests: { [algorithm: string]: string },
+  bytes: number,
+  durationMs: number,
+};
+
+type NativeFSHashFilesResult = {
+  files: NativeFSFileHashResult[],
+  fileCount: number,
+  parallelism: number,
+  totalBytes: number,
+  durationMs: number,
+  bytesPerSecond: number,
+};
+
+type NativeFSDiskUsageOptions = {
+  topCount?: number, // Largest files to return, default 20, max 1000
+  parallelism?: number, // Directory walkers, default the DISK lane size
+};
+
+type NativeFSDiskUsageEntry = {
+  path: string,
+  size: number,
+  mtime: number, // Seconds
+};
+
+type NativeFSDiskUsageResult = {
+  path: string,
+  totalBytes: number, // Sum of file sizes; hard links counted once
+  allocatedBytes: number, // Blocks actually used on disk
+  fileCount: number,
+  directoryCount: number,
+  otherCount: number, // Symlinks, sockets and other non-regular entries
+  errorCount: number, // Entries that vanished or could not be read during the walk
+  largest: NativeFSDiskUsageEntry[], // Biggest first
+  parallelism: number,
+  durationMs: number,
+};
+
+type NativeFSExtractAssetsOptions = {
+  parallel?: boolean, // Extract on several DISK threads, default true
+};
+
+type NativeFSExtractedAsset = {
+  assetPath: string,
+  path?: string, // Extracted file in internal storage
+  extracted?: boolean, // False when it was already cached for this app version
+  durationMs?: number,
+  error?: string, // ENOENT for a missing asset
+};
+
+type NativeFSExtractAssetsResult = {
+  version: string, // Version code and install time of the app
+  directory: string,
+  entries: NativeFSExtractedAsset[],
+  extractedCount: number,
+  errorCount: number,
+  parallelism: number,
+  durationMs: number,
+};
+
+type NativeFSCacheStoreOptions = {
+  maxBytes?: number, // Byte budget, default 64 MB
+  policy?: 'lru' | 'lfu', // Default 'lru'
+};
+
+type NativeFSCacheStorePutOptions = {
+  move?: boolean, // Rename the source into the store instead of copying it
+};
+
+type NativeFSCacheStoreEntry = {
+  path: string,
+  size: number,
+};
+
+type NativeFSCacheStoreStats = {
+  name: string,
+  entries: number,
+  bytes: number,
+  maxBytes: number,
+  policy: 'lru' | 'lfu',
+  hits: number,
+  misses: number,
+  evictions: number,
+  evictedBytes: number,
+};
+
+type NativeFSIOSchedulerOptions = {
+  diskThreads?: number,
+  networkThreads?: number,
+  segmentThreads?: number, // Range requests of segmented downloads, default 4
+  cpuThreads?: number,
+};
+
+type NativeFSIOSchedulerLaneStats = {
+  threads: number,
+  activeThreads: number,
+  queueDepth: number,
+  maxQueueDepth: number,
+  submitted: number,
+  completed: number,
+  totalWaitMs: number,
+  maxWaitMs: number,
+};
+
+type NativeFSIOSchedulerStats = {
+  disk: NativeFSIOSchedulerLaneStats,
+  network: NativeFSIOSchedulerLaneStats,
+  segment: NativeFSIOSchedulerLaneStats,
+  cpu: NativeFSIOSchedulerLaneStats,
 };
 
 type NativeFSPersistFileOptions = {
@@ -217,6 +680,8 @@ type NativeFSPersistFileResult = {
   mode: 'copy' | 'move',
   bytesWritten: number,
   durationMs: number,
+  strategy?: 'rename' | 'hardlink' | 'transfer' | 'buffered',
+  bytesPerSecond?: number,
 };
 
 function normalizeZipArchiveEntries(entries: NativeFSZipArchiveEntry[]) {
@@ -267,6 +732,30 @@ function normalizeZipEntryExtractionOptions(
   return normalizedOptions;
 }
 
+function normalizeZipEntriesExtractionOptions(
+  options: NativeFSZipEntriesExtractionOptions = {},
+) {
+  const normalizedOptions = {};
+
+  if (Array.isArray(options.entryNames)) {
+    normalizedOptions.entryNames = options.entryNames.map(entryName => {
+      if (typeof entryName !== 'string' || entryName.length === 0) {
+        throw new Error('extractZipEntries entryNames must be strings');
+      }
+      return entryName;
+    });
+  }
+
+  if (
+    typeof options.entryNameSuffix === 'string' &&
+    options.entryNameSuffix.length > 0
+  ) {
+    normalizedOptions.entryNameSuffix = options.entryNameSuffix;
+  }
+
+  return normalizedOptions;
+}
+
 function normalizeZipEntryListingOptions(
   options: NativeFSZipEntryListingOptions = {},
 ) {
@@ -290,6 +779,18 @@ function normalizeZipEntryListingOptions(
   return normalizedOptions;
 }
 
+function normalizeIOSchedulerOptions(options: NativeFSIOSchedulerOptions = {}) {
+  const normalizedOptions = {};
+
+  ['diskThreads', 'networkThreads', 'segmentThreads', 'cpuThreads'].forEach(key => {
+    if (typeof options[key] === 'number' && options[key] > 0) {
+      normalizedOptions[key] = Math.floor(options[key]);
+    }
+  });
+
+  return normalizedOptions;
+}
+
 function normalizePersistFileOptions(options: NativeFSPersistFileOptions = {}) {
   return {
     ...options,
@@ -308,6 +809,14 @@ type FileOptions = {
   NSFileProtectionKey?: string, // IOS only
 };
 
+type WriteOptions = {
+  encoding?: string,
+  atomic?: boolean, // writeFile only: temp file, fsync, rename (Android only)
+  durability?: 'none' | 'fsync' | 'group', // Android only
+  groupCommitWindowMs?: number, // Android only, default 10, max 100
+  NSFileProtectionKey?: string, // IOS only
+};
+
 type ReadDirItem = {
   ctime: ?Date, // The creation date of the file (iOS only)
   mtime: ?Date, // The last modified date of the file
@@ -318,6 +827,23 @@ type ReadDirItem = {
   isDirectory: () => boolean, // Is the file a directory?
 };
 
+type ReadDirPageOptions = {
+  cursor?: string, // Continue the listing returned by a previous page
+  pageSize?: number, // Entries per page, default 500, max 5000
+  prefix?: string, // Only names starting with this, case-insensitive
+  suffixes?: string[], // Only names ending with one of these, case-insensitive
+  type?: 'file' | 'directory' | 'any', // Default 'any'
+  fields?: Array<'type' | 'size' | 'mtime'>, // Stat fields to fill in, default all; [] skips stat entirely
+  includeHidden?: boolean, // Include dot files, default true
+};
+
+type ReadDirPage = {
+  items: ReadDirItem[],
+  cursor: ?string, // Null once the listing is complete
+  scanned: number, // Directory entries looked at for this page, matching or not
+  durationMs: number,
+};
+
 type StatResult = {
   name: ?string, // The name of the item TODO: why is this not documented?
   path: string, // The absolute path to the item
@@ -330,6 +856,35 @@ type StatResult = {
   isDirectory: () => boolean, // Is the file a directory?
 };
 
+type BatchStatItem = {
+  path: string,
+  exists: boolean,
+  error: ?string, // Errno code when the path exists but could not be stat'ed, e.g. EACCES
+  stat: ?StatResult, // Null when exists is false
+};
+
+type UnlinkAsyncOptions = {
+  progress?: (res: UnlinkProgressCallbackResult) => void,
+  wait?: boolean, // Default true; false resolves once the path is free and deletes in the background. Ignored for files and for directories that cannot be moved aside
+};
+
+type UnlinkProgressCallbackResult = {
+  jobId: number,
+  filesDeleted: number,
+  bytesDeleted: number,
+};
+
+type UnlinkAsyncResult = {
+  path: string,
+  pending: boolean, // True when resolved early with wait: false
+  files?: number,
+  directories?: number,
+  bytes?: number, // Sum of deleted file sizes
+  errorCount?: number, // Entries that could not be deleted; they stay in a hidden tombstone
+  parallelism?: number,
+  durationMs?: number,
+};
+
 type Headers = { [name: string]: string };
 type Fields = { [name: string]: string };
 
@@ -348,6 +903,50 @@ type DownloadFileOptions = {
   connectionTimeout?: number, // only supported on Android yet
   readTimeout?: number, // supported on Android and iOS
   backgroundTimeout?: number, // Maximum time (in milliseconds) to download an entire resource (iOS only, useful for timing out background downloads)
+  resume?: boolean, // Continue a stopped or failed download of the same URL into the same file (Android only)
+  segments?: number, // Fetch up to this many byte ranges concurrently when the server supports it (Android only, ignored with resume)
+  transport?: HttpTransport, // 'okhttp' (default) shares the app's OkHttp client; 'urlconnection' uses HttpURLConnection (Android only)
+  priority?: TransferPriority, // Queue position when the transfer limits are reached (Android only)
+  retries?: number, // Retry transient failures (I/O errors, 408/429/5xx) with backoff this many times (Android only)
+  persist?: boolean, // Journal the download so it can be resumed with resumeJournaledDownloads after process death (Android only)
+};
+
+type TransferPriority = 'high' | 'normal' | 'low';
+
+type TransferLimits = {
+  maxConcurrent?: number, // Default 4; the network lane grows to match
+  maxPerHost?: number, // Default 4
+};
+
+type TransferQueueStats = {
+  queued: number,
+  running: number,
+  maxConcurrent: number,
+  maxPerHost: number,
+};
+
+type JournaledDownload = {
+  fromUrl: string,
+  toFile: string,
+  headers: Headers, // Credential headers are not journaled
+  redactedHeaders: string[], // Names of the headers left out, to be passed again on resume
+  priority: TransferPriority,
+  retries: number,
+  segments: number,
+  transport?: HttpTransport,
+  createdAt: number, // Milliseconds since epoch
+};
+
+type HttpTransport = 'okhttp' | 'urlconnection';
+
+type HttpTimings = {
+  transport: HttpTransport,
+  protocol?: string, // e.g. 'h2' or 'http/1.1'
+  connectionReused: boolean, // true when a pooled connection was used
+  dnsMs: number, // -1 when not measured
+  connectMs: number, // -1 when not measured
+  tlsMs: number, // -1 when not measured
+  ttfbMs: number, // Time from the start of the request to the response headers
 };
 
 type DownloadBeginCallbackResult = {
@@ -367,6 +966,9 @@ type DownloadResult = {
   jobId: number, // The download job ID, required if one wishes to cancel the download. See `stopDownload`.
   statusCode: number, // The HTTP status code
   bytesWritten: number, // The number of bytes written to the file
+  bytesResumed?: number, // Bytes kept from an earlier partial download (Android only)
+  segments?: number, // Number of concurrent ranges used by a segmented download (Android only)
+  timings?: HttpTimings, // Connection timings (Android only)
 };
 
 type UploadFileOptions = {
@@ -380,6 +982,12 @@ type UploadFileOptions = {
   progressCallback?: (res: UploadProgressCallbackResult) => void, // deprecated
   begin?: (res: UploadBeginCallbackResult) => void,
   progress?: (res: UploadProgressCallbackResult) => void,
+  transport?: HttpTransport, // Android only
+  priority?: TransferPriority, // Android only
+  retries?: number, // Retry transient failures with backoff this many times (Android only)
+  chunked?: boolean, // Send the body with chunked transfer encoding instead of a precomputed Content-Length (Android only)
+  readTimeout?: number, // Milliseconds a read or body write may stall, default 0 waits forever (Android only)
+  responseFile?: string, // Write the response body to this path instead of returning it as `body` (Android only)
 };
 
 type UploadFileItem = {
@@ -404,6 +1012,9 @@ type UploadResult = {
   statusCode: number, // The HTTP status code
   headers: Headers, // The HTTP response headers from the server
   body: string, // The HTTP response body
+  timings?: HttpTimings, // Connection timings (Android only)
+  responseBytes?: number, // Size of the response body (Android only)
+  responseFile?: string, // Set when the body was written to `responseFile` (Android only)
 };
 
 type FSInfoResult = {
@@ -450,20 +1061,128 @@ function readFileGeneric(
   });
 }
 
+// appendFile and write only take the durable path when asked to, and where it exists.
+function isDurableWrite(options: WriteOptions): boolean {
+  return (
+    !!options.durability &&
+    options.durability !== 'none' &&
+    typeof RNFSManager.writeWithOptions === 'function'
+  );
+}
+
+function toStatResult(filepath: string, result: Object): StatResult {
+  return {
+    path: filepath,
+    ctime: new Date(result.ctime * 1000),
+    mtime: new Date(result.mtime * 1000),
+    size: result.size,
+    mode: result.mode,
+    originalFilepath: result.originalFilepath,
+    isFile: () => result.type === RNFSFileTypeRegular,
+    isDirectory: () => result.type === RNFSFileTypeDirectory,
+  };
+}
+
+function toBatchStatItems(
+  filepaths: string[],
+  results: Object[],
+): BatchStatItem[] {
+  return results.map((result, index) => ({
+    path: filepaths[index],
+    exists: result.exists,
+    error: result.error || null,
+    stat: result.exists ? toStatResult(filepaths[index], result) : null,
+  }));
+}
+
 /**
  * Generic function used by readDir and readDirAssets
  */
 function readDirGeneric(dirpath: string, command: Function) {
   return command(normalizeFilePath(dirpath)).then(files => {
-    return files.map(file => ({
-      ctime: (file.ctime && new Date(file.ctime * 1000)) || null,
-      mtime: (file.mtime && new Date(file.mtime * 1000)) || null,
-      name: file.name,
-      path: file.path,
-      size: file.size,
-      isFile: () => file.type === RNFSFileTypeRegular,
-      isDirectory: () => file.type === RNFSFileTypeDirectory,
-    }));
+    return files.map(toReadDirItem);
+  });
+}
+
+function toReadDirItem(file: Object): ReadDirItem {
+  return {
+    ctime: (file.ctime && new Date(file.ctime * 1000)) || null,
+    mtime: (file.mtime && new Date(file.mtime * 1000)) || null,
+    name: file.name,
+    path: file.path,
+    size: file.size,
+    isFile: () => file.type === RNFSFileTypeRegular,
+    isDirectory: () => file.type === RNFSFileTypeDirectory,
+  };
+}
+
+function callNativeCacheStore(method: string, ...args: Array<mixed>): Promise<any> {
+  if (typeof RNFSManager[method] !== 'function') {
+    return Promise.reject(
+      new Error(
+        '@rabby-wallet/react-native-fs native cache store is not available',
+      ),
+    );
+  }
+
+  return RNFSManager[method](...args);
+}
+
+function readNativeDirPage(
+  dirpath: string,
+  options: ReadDirPageOptions = {},
+): Promise<ReadDirPage> {
+  if (typeof RNFSManager.readDirPage !== 'function') {
+    return Promise.reject(
+      new Error(
+        '@rabby-wallet/react-native-fs native paged readDir is not available',
+      ),
+    );
+  }
+
+  return RNFSManager.readDirPage(normalizeFilePath(dirpath), options).then(
+    page => ({
+      items: page.entries.map(toReadDirItem),
+      cursor: page.cursor || null,
+      scanned: page.scanned,
+      durationMs: page.durationMs,
+    }),
+  );
+}
+
+function readNativeDirPages(
+  dirpath: string,
+  onPage: (items: ReadDirItem[]) => void | Promise<void>,
+  options: ReadDirPageOptions = {},
+): Promise<number> {
+  if (typeof onPage !== 'function') {
+    return Promise.reject(
+      new Error('readDirPages expected onPage to be a function'),
+    );
+  }
+
+  let cursor = null;
+  let itemCount = 0;
+  const readNext = pageOptions =>
+    readNativeDirPage(dirpath, pageOptions).then(page => {
+      cursor = page.cursor;
+      itemCount += page.items.length;
+      // Filtered listings can return empty pages while the scan continues.
+      const delivered = page.items.length
+        ? Promise.resolve(onPage(page.items))
+        : Promise.resolve();
+      return delivered.then(() =>
+        cursor === null ? itemCount : readNext({ cursor }),
+      );
+    });
+
+  return readNext(options).catch(error => {
+    if (cursor === null) {
+      return Promise.reject(error);
+    }
+    return RNFSManager.closeReadDirCursor(cursor)
+      .catch(() => undefined)
+      .then(() => Promise.reject(error));
   });
 }
 
@@ -480,6 +1199,21 @@ var RNFS = {
     return getNativeFS().readFileBytes(normalizeFilePath(filepath));
   },
 
+  mapFile(
+    filepath: string,
+    offset: number = 0,
+    length: number = 0,
+    options: { allowWritable?: boolean } = {},
+  ): NativeFSMappedFile {
+    return callNativeFileOperation(
+      'mapFile',
+      normalizeFilePath(filepath),
+      offset,
+      length,
+      options.allowWritable === true,
+    );
+  },
+
   readBytes(
     filepath: string,
     length: number = 0,
@@ -566,11 +1300,29 @@ var RNFS = {
 
   createAsyncReadStream(
     filepath: string,
-    optionsOrBufferSize?: { bufferSize?: number } | number,
+    optionsOrBufferSize?:
+      | { bufferSize?: number, mapped?: boolean, allowWritable?: boolean }
+      | number,
   ) {
     return createNativeAsyncReadStream(filepath, optionsOrBufferSize);
   },
 
+  readFileChunks(
+    filepath: string,
+    onChunk: (chunk: Uint8Array) => void | Promise<void>,
+    options: NativeFSReadFileChunksOptions = {},
+  ): Promise<number> {
+    return readNativeFileChunks(filepath, onChunk, options);
+  },
+
+  openAppendLog(dirpath: string, options: NativeFSAppendLogOptions = {}) {
+    return openNativeAppendLog(dirpath, options);
+  },
+
+  decodeAppendLogSegment(bytes: Uint8Array) {
+    return decodeNativeAppendLogSegment(bytes);
+  },
+
   isNativeZipArchiveAvailable(): boolean {
     return typeof RNFSManager.createZipArchive === 'function';
   },
@@ -579,6 +1331,10 @@ var RNFS = {
     return typeof RNFSManager.extractZipEntry === 'function';
   },
 
+  isNativeZipEntriesExtractionAvailable(): boolean {
+    return typeof RNFSManager.extractZipEntries === 'function';
+  },
+
   isNativeZipEntryListingAvailable(): boolean {
     return typeof RNFSManager.listZipEntries === 'function';
   },
@@ -601,6 +1357,7 @@ var RNFS = {
       normalizeZipArchiveEntries(entries),
       {
         compressionLevel: options.compressionLevel,
+        parallel: options.parallel === true,
       },
     );
   },
@@ -625,6 +1382,26 @@ var RNFS = {
     );
   },
 
+  extractZipEntries(
+    archivePath: string,
+    targetDirectory: string,
+    options: NativeFSZipEntriesExtractionOptions = {},
+  ) {
+    if (typeof RNFSManager.extractZipEntries !== 'function') {
+      return Promise.reject(
+        new Error(
+          '@rabby-wallet/react-native-fs native zip batch extraction is not available',
+        ),
+      );
+    }
+
+    return RNFSManager.extractZipEntries(
+      normalizeFilePath(archivePath),
+      normalizeFilePath(targetDirectory),
+      normalizeZipEntriesExtractionOptions(options),
+    );
+  },
+
   listZipEntries(
     archivePath: string,
     options: NativeFSZipEntryListingOptions = {},
@@ -643,6 +1420,38 @@ var RNFS = {
     );
   },
 
+  isNativeIOSchedulerAvailable(): boolean {
+    return typeof RNFSManager.getIOSchedulerStats === 'function';
+  },
+
+  configureIOScheduler(
+    options: NativeFSIOSchedulerOptions = {},
+  ): Promise<NativeFSIOSchedulerStats> {
+    if (typeof RNFSManager.configureIOScheduler !== 'function') {
+      return Promise.reject(
+        new Error(
+          '@rabby-wallet/react-native-fs native IO scheduler is not available',
+        ),
+      );
+    }
+
+    return RNFSManager.configureIOScheduler(
+      normalizeIOSchedulerOptions(options),
+    );
+  },
+
+  getIOSchedulerStats(): Promise<NativeFSIOSchedulerStats> {
+    if (typeof RNFSManager.getIOSchedulerStats !== 'function') {
+      return Promise.reject(
+        new Error(
+          '@rabby-wallet/react-native-fs native IO scheduler is not available',
+        ),
+      );
+    }
+
+    return RNFSManager.getIOSchedulerStats();
+  },
+
   getDiagnosticsSnapshot() {
     return getNativeFS().getDiagnosticsSnapshot();
   },
@@ -651,14 +1460,39 @@ var RNFS = {
     getNativeFS().clearDiagnostics();
   },
 
+  getDiagnosticsBinarySnapshot(): Uint8Array {
+    return getNativeFS().getDiagnosticsBinarySnapshot();
+  },
+
+  decodeDiagnosticsSnapshot(bytes: Uint8Array) {
+    return decodeNativeDiagnosticsSnapshot(bytes);
+  },
+
+  configureDiagnostics(options: NativeFSDiagnosticsOptions = {}) {
+    return getNativeFS().configureDiagnostics(options);
+  },
+
   existsSync(filepath: string): boolean {
     return getNativeFS().exists(normalizeFilePath(filepath));
   },
 
+  existsManySync(filepaths: string[]): boolean[] {
+    return getNativeFS().existsMany(filepaths.map(normalizeFilePath));
+  },
+
   mkdir(filepath: string, options: MkdirOptions = {}): Promise<void> {
-    return RNFSManager.mkdir(normalizeFilePath(filepath), options).then(
-      () => void 0,
-    );
+    const path = normalizeFilePath(filepath);
+    const mkdirAsync =
+      Object.keys(options).length === 0 &&
+      getNativeFileOperation('mkdirAsync', path);
+    if (mkdirAsync) {
+      return callNativeFileOperationAsync(mkdirAsync, path);
+    }
+    return RNFSManager.mkdir(path, options).then(() => void 0);
+  },
+
+  mkdirSync(filepath: string): void {
+    callNativeFileOperation('mkdir', normalizeFilePath(filepath));
   },
 
   moveFile(
@@ -666,11 +1500,23 @@ var RNFS = {
     destPath: string,
     options: FileOptions = {},
   ): Promise<void> {
-    return RNFSManager.moveFile(
+    const from = normalizeFilePath(filepath);
+    const to = normalizeFilePath(destPath);
+    const moveFileAsync =
+      Object.keys(options).length === 0 &&
+      getNativeFileOperation('moveFileAsync', from, to);
+    if (moveFileAsync) {
+      return callNativeFileOperationAsync(moveFileAsync, from, to);
+    }
+    return RNFSManager.moveFile(from, to, options).then(() => void 0);
+  },
+
+  moveFileSync(filepath: string, destPath: string): void {
+    callNativeFileOperation(
+      'moveFile',
       normalizeFilePath(filepath),
       normalizeFilePath(destPath),
-      options,
-    ).then(() => void 0);
+    );
   },
 
   copyFile(
@@ -714,9 +1560,20 @@ var RNFS = {
   },
 
   getFSInfo(): Promise<FSInfoResult> {
+    const getFSInfoAsync = getNativeFileOperation('getFSInfoAsync');
+    if (getFSInfoAsync) {
+      return callNativeFileOperationAsync(
+        getFSInfoAsync,
+        ...getFSInfoPaths(),
+      );
+    }
     return RNFSManager.getFSInfo();
   },
 
+  getFSInfoSync(): FSInfoResult {
+    return callNativeFileOperation('getFSInfo', ...getFSInfoPaths());
+  },
+
   getAllExternalFilesDirs(): Promise<string> {
     return RNFSManager.getAllExternalFilesDirs();
   },
@@ -725,10 +1582,68 @@ var RNFS = {
     return RNFSManager.unlink(normalizeFilePath(filepath)).then(() => void 0);
   },
 
+  // A directory is moved aside right away and emptied in the background.
+  unlinkSync(filepath: string): void {
+    callNativeFileOperation('unlink', normalizeFilePath(filepath));
+  },
+
   exists(filepath: string): Promise<boolean> {
     return RNFSManager.exists(normalizeFilePath(filepath));
   },
 
+  // Android only
+  unlinkAsync(
+    filepath: string,
+    options: UnlinkAsyncOptions = {},
+  ): { jobId: number, promise: Promise<UnlinkAsyncResult> } {
+    var jobId = getJobId();
+    if (typeof RNFSManager.unlinkAsync !== 'function') {
+      return {
+        jobId,
+        promise: RNFS.unlink(filepath).then(() => ({
+          path: filepath,
+          pending: false,
+        })),
+      };
+    }
+
+    var subscription = options.progress
+      ? addTransferProgressListener(jobId, options.progress)
+      : null;
+    var promise = RNFSManager.unlinkAsync(normalizeFilePath(filepath), {
+      jobId,
+      progress: !!options.progress,
+      wait: options.wait !== false,
+    });
+    if (subscription) {
+      var remove = subscription.remove;
+      promise.then(remove, remove);
+    }
+    return { jobId, promise };
+  },
+
+  // Android only
+  cancelUnlink(jobId: number): void {
+    if (typeof RNFSManager.cancelUnlink === 'function') {
+      RNFSManager.cancelUnlink(jobId);
+    }
+  },
+
+  // Android only
+  purgeTombstones(dirpath: string): Promise<UnlinkAsyncResult> {
+    if (typeof RNFSManager.purgeTombstones !== 'function') {
+      return Promise.resolve({ path: dirpath, pending: false });
+    }
+    return RNFSManager.purgeTombstones(normalizeFilePath(dirpath));
+  },
+
+  existsMany(filepaths: string[]): Promise<boolean[]> {
+    if (typeof RNFSManager.existsMany !== 'function') {
+      return Promise.all(filepaths.map(RNFS.exists));
+    }
+    return RNFSManager.existsMany(filepaths.map(normalizeFilePath));
+  },
+
   stopDownload(jobId: number): void {
     RNFSManager.stopDownload(jobId);
   },
@@ -745,14 +1660,119 @@ var RNFS = {
     RNFSManager.stopUpload(jobId);
   },
 
+  isNativeTransferQueueAvailable(): boolean {
+    return typeof RNFSManager.setTransferLimits === 'function';
+  },
+
+  // Android only
+  setTransferLimits(limits: TransferLimits): Promise<TransferQueueStats> {
+    if (typeof RNFSManager.setTransferLimits !== 'function') {
+      return Promise.reject(
+        new Error(
+          '@rabby-wallet/react-native-fs native transfer queue is not available',
+        ),
+      );
+    }
+
+    return RNFSManager.setTransferLimits(limits || {});
+  },
+
+  // Android only
+  getJournaledDownloads(): Promise<JournaledDownload[]> {
+    if (typeof RNFSManager.getJournaledDownloads !== 'function') {
+      return Promise.resolve([]);
+    }
+
+    return RNFSManager.getJournaledDownloads();
+  },
+
+  // Android only
+  clearJournaledDownloads(): Promise<void> {
+    if (typeof RNFSManager.clearJournaledDownloads !== 'function') {
+      return Promise.resolve();
+    }
+
+    return RNFSManager.clearJournaledDownloads();
+  },
+
+  // Android only
+  resumeJournaledDownloads(
+    options?: $Shape<DownloadFileOptions>,
+  ): Promise<Array<{ jobId: number, promise: Promise<DownloadResult> }>> {
+    return RNFS.getJournaledDownloads().then(downloads =>
+      downloads.map(download =>
+        RNFS.downloadFile({
+          ...options,
+          fromUrl: download.fromUrl,
+          toFile: download.toFile,
+          // Credentials are not journaled; take them from the caller's options.
+          headers: { ...download.headers, ...(options && options.headers) },
+          priority: download.priority,
+          retries: download.retries,
+          segments: download.segments,
+          transport: download.transport,
+          resume: true,
+          persist: true,
+        }),
+      ),
+    );
+  },
+
   completeHandlerIOS(jobId: number): void {
     return RNFSManager.completeHandlerIOS(jobId);
   },
 
   readDir(dirpath: string): Promise<ReadDirItem[]> {
+    const readDirAsync = getNativeFileOperation(
+      'readDirAsync',
+      normalizeFilePath(dirpath),
+    );
+    if (readDirAsync) {
+      return readDirGeneric(dirpath, path =>
+        callNativeFileOperationAsync(readDirAsync, path).then(files =>
+          files.map(fromNativeFileType),
+        ),
+      );
+    }
     return readDirGeneric(dirpath, RNFSManager.readDir);
   },
 
+  readDirSync(dirpath: string): ReadDirItem[] {
+    return callNativeFileOperation('readDir', normalizeFilePath(dirpath)).map(
+      file => toReadDirItem(fromNativeFileType(file)),
+    );
+  },
+
+  isNativeReadDirPageAvailable(): boolean {
+    return typeof RNFSManager.readDirPage === 'function';
+  },
+
+  // Android only
+  readDirPage(
+    dirpath: string,
+    options: ReadDirPageOptions = {},
+  ): Promise<ReadDirPage> {
+    return readNativeDirPage(dirpath, options);
+  },
+
+  // Android only
+  readDirPages(
+    dirpath: string,
+    onPage: (items: ReadDirItem[]) => void | Promise<void>,
+    options: ReadDirPageOptions = {},
+  ): Promise<number> {
+    return readNativeDirPages(dirpath, onPage, options);
+  },
+
+  // Android only
+  closeReadDirCursor(cursor: string): Promise<void> {
+    if (typeof RNFSManager.closeReadDirCursor !== 'function') {
+      return Promise.resolve();
+    }
+
+    return RNFSManager.closeReadDirCursor(cursor);
+  },
+
   // Android-only
   readDirAssets(dirpath: string): Promise<ReadDirItem[]> {
     if (!RNFSManager.readDirAssets) {
@@ -777,6 +1797,22 @@ var RNFS = {
     return RNFSManager.existsRes(filename);
   },
 
+  // Android-only
+  existsAssetsMany(filepaths: string[]): Promise<boolean[]> {
+    if (!RNFSManager.existsAssetsMany) {
+      throw new Error('existsAssetsMany is not available on this platform');
+    }
+    return RNFSManager.existsAssetsMany(filepaths);
+  },
+
+  // Android-only
+  existsResMany(filenames: string[]): Promise<boolean[]> {
+    if (!RNFSManager.existsResMany) {
+      throw new Error('existsResMany is not available on this platform');
+    }
+    return RNFSManager.existsResMany(filenames);
+  },
+
   // Node style version (lowercase d). Returns just the names
   readdir(dirpath: string): Promise<string[]> {
     return RNFS.readDir(normalizeFilePath(dirpath)).then(files => {
@@ -798,18 +1834,61 @@ var RNFS = {
   },
 
   stat(filepath: string): Promise<StatResult> {
-    return RNFSManager.stat(normalizeFilePath(filepath)).then(result => {
-      return {
-        path: filepath,
-        ctime: new Date(result.ctime * 1000),
-        mtime: new Date(result.mtime * 1000),
-        size: result.size,
-        mode: result.mode,
-        originalFilepath: result.originalFilepath,
-        isFile: () => result.type === RNFSFileTypeRegular,
-        isDirectory: () => result.type === RNFSFileTypeDirectory,
-      };
-    });
+    const path = normalizeFilePath(filepath);
+    const statAsync = getNativeFileOperation('statAsync', path);
+    const promise = statAsync
+      ? callNativeFileOperationAsync(statAsync, path).then(fromNativeFileType)
+      : RNFSManager.stat(path);
+    return promise.then(result => toStatResult(filepath, result));
+  },
+
+  statSync(filepath: string): StatResult {
+    return toStatResult(
+      filepath,
+      fromNativeFileType(
+        callNativeFileOperation('stat', normalizeFilePath(filepath)),
+      ),
+    );
+  },
+
+  statMany(filepaths: string[]): Promise<BatchStatItem[]> {
+    const normalized = filepaths.map(normalizeFilePath);
+    const plainPaths = normalized.every(path => path.indexOf('://') === -1);
+    // Plain paths skip the bridge; content URIs need the native module to resolve them.
+    if (
+      plainPaths &&
+      installNativeFS() &&
+      typeof global.__RabbyNativeFS.statManyAsync === 'function'
+    ) {
+      return global.__RabbyNativeFS
+        .statManyAsync(normalized)
+        .then(results =>
+          toBatchStatItems(filepaths, results.map(fromNativeFileType)),
+        );
+    }
+    if (typeof RNFSManager.statMany === 'function') {
+      return RNFSManager.statMany(normalized).then(results =>
+        toBatchStatItems(filepaths, results),
+      );
+    }
+
+    return Promise.all(
+      filepaths.map(filepath =>
+        RNFS.stat(filepath).then(
+          stat => ({ path: filepath, exists: true, error: null, stat }),
+          () => ({ path: filepath, exists: false, error: null, stat: null }),
+        ),
+      ),
+    );
+  },
+
+  statManySync(filepaths: string[]): BatchStatItem[] {
+    return toBatchStatItems(
+      filepaths,
+      getNativeFS()
+        .statMany(filepaths.map(normalizeFilePath))
+        .map(fromNativeFileType),
+    );
   },
 
   readFile(filepath: string, encodingOrOptions?: any): Promise<string> {
@@ -880,7 +1959,141 @@ var RNFS = {
   },
 
   hash(filepath: string, algorithm: string): Promise<string> {
-    return RNFSManager.hash(normalizeFilePath(filepath), algorithm);
+    const path = normalizeFilePath(filepath);
+    const hashAsync = getNativeFileOperation('hashAsync', path);
+    if (hashAsync) {
+      return callNativeFileOperationAsync(hashAsync, path, algorithm);
+    }
+    return RNFSManager.hash(path, algorithm);
+  },
+
+  // Reads the whole file on the JS thread; prefer hash() for large files.
+  hashSync(filepath: string, algorithm: string): string {
+    return callNativeFileOperation(
+      'hash',
+      normalizeFilePath(filepath),
+      algorithm,
+    );
+  },
+
+  isNativeHashFilesAvailable(): boolean {
+    return typeof RNFSManager.hashFiles === 'function';
+  },
+
+  // Android only
+  hashFiles(
+    filepaths: string[],
+    algorithms: string[],
+  ): Promise<NativeFSHashFilesResult> {
+    if (typeof RNFSManager.hashFiles !== 'function') {
+      return Promise.reject(
+        new Error(
+          '@rabby-wallet/react-native-fs native batch hash is not available',
+        ),
+      );
+    }
+
+    return RNFSManager.hashFiles(filepaths.map(normalizeFilePath), algorithms);
+  },
+
+  isNativeDiskUsageAvailable(): boolean {
+    return typeof RNFSManager.getDiskUsage === 'function';
+  },
+
+  // Android only
+  getDiskUsage(
+    path: string,
+    options: NativeFSDiskUsageOptions = {},
+  ): { scanId: number, promise: Promise<NativeFSDiskUsageResult> } {
+    var scanId = getJobId();
+    if (typeof RNFSManager.getDiskUsage !== 'function') {
+      return {
+        scanId,
+        promise: Promise.reject(
+          new Error(
+            '@rabby-wallet/react-native-fs native disk usage is not available',
+          ),
+        ),
+      };
+    }
+
+    return {
+      scanId,
+      promise: RNFSManager.getDiskUsage(normalizeFilePath(path), {
+        ...options,
+        scanId,
+      }),
+    };
+  },
+
+  // Android only
+  cancelDiskUsage(scanId: number): void {
+    if (typeof RNFSManager.cancelDiskUsage === 'function') {
+      RNFSManager.cancelDiskUsage(scanId);
+    }
+  },
+
+  isNativeCacheStoreAvailable(): boolean {
+    return typeof RNFSManager.openCacheStore === 'function';
+  },
+
+  // Android only
+  openCacheStore(
+    name: string,
+    options: NativeFSCacheStoreOptions = {},
+  ): Promise<NativeFSCacheStoreStats> {
+    return callNativeCacheStore('openCacheStore', name, options);
+  },
+
+  // Android only
+  cacheStoreGet(name: string, key: string): Promise<?string> {
+    return callNativeCacheStore('cacheStoreGet', name, key);
+  },
+
+  // Android only
+  cacheStorePut(
+    name: string,
+    key: string,
+    sourcePath: string,
+    options: NativeFSCacheStorePutOptions = {},
+  ): Promise<NativeFSCacheStoreEntry> {
+    return callNativeCacheStore(
+      'cacheStorePut',
+      name,
+      key,
+      normalizeFilePath(sourcePath),
+      options,
+    );
+  },
+
+  // Android only
+  cacheStoreTouch(name: string, key: string): Promise<boolean> {
+    return callNativeCacheStore('cacheStoreTouch', name, key);
+  },
+
+  // Android only
+  cacheStoreRemove(name: string, key: string): Promise<boolean> {
+    return callNativeCacheStore('cacheStoreRemove', name, key);
+  },
+
+  // Android only
+  cacheStoreClear(name: string): Promise<void> {
+    return callNativeCacheStore('cacheStoreClear', name);
+  },
+
+  // Android only
+  getCacheStoreStats(name: string): Promise<NativeFSCacheStoreStats> {
+    return callNativeCacheStore('getCacheStoreStats', name);
+  },
+
+  // Android only
+  hashMulti(
+    filepath: string,
+    algorithms: string[],
+  ): Promise<NativeFSFileHashResult> {
+    return RNFS.hashFiles([filepath], algorithms).then(
+      result => result.files[0],
+    );
   },
 
   // Android only
@@ -894,6 +2107,33 @@ var RNFS = {
     ).then(() => void 0);
   },
 
+  // Android only
+  extractAssets(
+    filepaths: string[],
+    options: NativeFSExtractAssetsOptions = {},
+  ): Promise<NativeFSExtractAssetsResult> {
+    if (!RNFSManager.extractAssets) {
+      throw new Error('extractAssets is not available on this platform');
+    }
+    return RNFSManager.extractAssets(filepaths, options);
+  },
+
+  // Android only
+  getCachedAssetPath(filepath: string): Promise<string> {
+    if (!RNFSManager.getCachedAssetPath) {
+      throw new Error('getCachedAssetPath is not available on this platform');
+    }
+    return RNFSManager.getCachedAssetPath(filepath);
+  },
+
+  // Android only
+  clearAssetCache(): Promise<void> {
+    if (!RNFSManager.clearAssetCache) {
+      throw new Error('clearAssetCache is not available on this platform');
+    }
+    return RNFSManager.clearAssetCache().then(() => void 0);
+  },
+
   // Android only
   copyFileRes(filename: string, destPath: string) {
     if (!RNFSManager.copyFileRes) {
@@ -1004,6 +2244,15 @@ var RNFS = {
       throw new Error('Invalid encoding type "' + options.encoding + '"');
     }
 
+    if (isDurableWrite(options)) {
+      return RNFSManager.writeWithOptions(
+        normalizeFilePath(filepath),
+        b64,
+        -1,
+        options,
+      ).then(() => void 0);
+    }
+
     return RNFSManager.appendFile(normalizeFilePath(filepath), b64);
   },
 
@@ -1041,6 +2290,15 @@ var RNFS = {
       position = -1;
     }
 
+    if (isDurableWrite(options)) {
+      return RNFSManager.writeWithOptions(
+        normalizeFilePath(filepath),
+        b64,
+        position,
+        options,
+      ).then(() => void 0);
+    }
+
     return RNFSManager.write(normalizeFilePath(filepath), b64, position).then(
       () => void 0,
     );
@@ -1087,6 +2345,8 @@ var RNFS = {
       throw new Error(
         'downloadFile: Invalid value for property `backgroundTimeout`',
       );
+    if (options.segments && typeof options.segments !== 'number')
+      throw new Error('downloadFile: Invalid value for property `segments`');
 
     var jobId = getJobId();
     var subscriptions = [];
@@ -1104,6 +2364,7 @@ var RNFS = {
         RNFS_NativeEventEmitter.addListener('DownloadProgress', res => {
           if (res.jobId === jobId) options.progress(res);
         }),
+        addTransferProgressListener(jobId, options.progress),
       );
     }
 
@@ -1129,6 +2390,12 @@ var RNFS = {
       hasBeginCallback: options.begin instanceof Function,
       hasProgressCallback: options.progress instanceof Function,
       hasResumableCallback: options.resumable instanceof Function,
+      resume: !!options.resume,
+      segments: options.segments || 1,
+      transport: options.transport || 'okhttp',
+      priority: options.priority || 'normal',
+      retries: options.retries || 0,
+      persist: !!options.persist,
     };
 
     return {
@@ -1139,6 +2406,7 @@ var RNFS = {
           return res;
         })
         .catch(e => {
+          subscriptions.forEach(sub => sub.remove());
           return Promise.reject(e);
         }),
     };
@@ -1172,6 +2440,8 @@ var RNFS = {
       throw new Error('uploadFiles: Invalid value for property `fields`');
     if (options.method && typeof options.method !== 'string')
       throw new Error('uploadFiles: Invalid value for property `method`');
+    if (options.readTimeout && typeof options.readTimeout !== 'number')
+      throw new Error('uploadFiles: Invalid value for property `readTimeout`');
 
     if (options.begin) {
       subscriptions.push(
@@ -1190,6 +2460,7 @@ var RNFS = {
     if (options.progress) {
       subscriptions.push(
         RNFS_NativeEventEmitter.addListener('UploadProgress', options.progress),
+        addTransferProgressListener(jobId, options.progress),
       );
     } else if (options.progressCallback) {
       // Deprecated
@@ -1198,6 +2469,7 @@ var RNFS = {
           'UploadProgress',
           options.progressCallback,
         ),
+        addTransferProgressListener(jobId, options.progressCallback),
       );
     }
 
@@ -1209,6 +2481,14 @@ var RNFS = {
       headers: options.headers || {},
       fields: options.fields || {},
       method: options.method || 'POST',
+      transport: options.transport || 'okhttp',
+      priority: options.priority || 'normal',
+      retries: options.retries || 0,
+      chunked: !!options.chunked,
+      readTimeout: options.readTimeout || 0,
+      responseFile: options.responseFile
+        ? normalizeFilePath(options.responseFile)
+        : null,
       hasBeginCallback:
         options.begin instanceof Function ||
         options.beginCallback instanceof Function,
@@ -1219,10 +2499,15 @@ var RNFS = {
 
     return {
       jobId,
-      promise: RNFSManager.uploadFiles(bridgeOptions).then(res => {
-        subscriptions.forEach(sub => sub.remove());
-        return res;
-      }),
+      promise: RNFSManager.uploadFiles(bridgeOptions)
+        .then(res => {
+          subscriptions.forEach(sub => sub.remove());
+          return res;
+        })
+        .catch(e => {
+          subscriptions.forEach(sub => sub.remove());
+          return Promise.reject(e);
+        }),
     };
   },
 
@@ -1235,10 +2520,26 @@ var RNFS = {
     if (isIOS) {
       ctimeTime = ctime && ctime.getTime();
     }
-    return RNFSManager.touch(
+    const path = normalizeFilePath(filepath);
+    // Native touch only sets mtime; iOS creation dates still need the bridge.
+    const touchAsync = !ctimeTime && getNativeFileOperation('touchAsync', path);
+    if (touchAsync) {
+      return callNativeFileOperationAsync(
+        touchAsync,
+        path,
+        mtime && mtime.getTime(),
+      );
+    }
+    return RNFSManager.touch(path, mtime && mtime.getTime(), ctimeTime);
+  },
+
+  touchSync(filepath: string, mtime?: Date): boolean {
+    if (mtime && !(mtime instanceof Date))
+      throw new Error('touch: Invalid value for argument `mtime`');
+    return callNativeFileOperation(
+      'touch',
       normalizeFilePath(filepath),
       mtime && mtime.getTime(),
-      ctimeTime,
     );
   },
 
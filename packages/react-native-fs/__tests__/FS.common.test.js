@@ -0,0 +1,313 @@
+jest.mock(
+  'react-native',
+  () => ({
+    NativeModules: { RNFSManager: {} },
+    NativeEventEmitter: class {
+      addListener() {
+        return { remove() {} };
+      }
+    },
+    Platform: { OS: 'android' },
+  }),
+  { virtual: true },
+);
+
+const RNFS = require('../FS.common');
+
+// Headers written by encodeAppendLogHeader in RabbyNativeFS.cpp for these
+// payloads: [length u32 LE][masked CRC-32 u32 LE].
+const NATIVE_RECORDS = [
+  { payload: '', header: [0x00, 0x00, 0x00, 0x00, 0xc4, 0x35, 0xc6, 0x83] },
+  { payload: 'a', header: [0x01, 0x00, 0x00, 0x00, 0xbb, 0x65, 0x75, 0x63] },
+  {
+    payload: 'hello, log',
+    header: [0x0a, 0x00, 0x00, 0x00, 0xed, 0x3b, 0x47, 0x93],
+  },
+  {
+    payload: 'x'.repeat(300),
+    header: [0x2c, 0x01, 0x00, 0x00, 0xe6, 0xfa, 0x33, 0x47],
+  },
+];
+
+const ascii = text => Array.from(text, char => char.charCodeAt(0));
+
+const segment = (...parts) =>
+  Uint8Array.from(parts.flatMap(part => Array.from(part)));
+
+const nativeRecord = index => [
+  ...NATIVE_RECORDS[index].header,
+  ...ascii(NATIVE_RECORDS[index].payload),
+];
+
+const decodedText = records =>
+  records.map(record => String.fromCharCode(...record));
+
+describe('decodeAppendLogSegment', () => {
+  it('reads records framed by the native log', () => {
+    const bytes = segment(
+      ...NATIVE_RECORDS.map((_, index) => nativeRecord(index)),
+    );
+
+    const { records, validBytes } = RNFS.decodeAppendLogSegment(bytes);
+
+    expect(decodedText(records)).toStrictEqual(
+      NATIVE_RECORDS.map(({ payload }) => payload),
+    );
+    expect(validBytes).toBe(bytes.byteLength);
+  });
+
+  it('reads an empty segment', () => {
+    expect(RNFS.decodeAppendLogSegment(new Uint8Array(0))).toStrictEqual({
+      records: [],
+      validBytes: 0,
+    });
+  });
+
+  it('reads a segment at an offset into a larger buffer', () => {
+    const backing = segment([0xff, 0xff, 0xff], nativeRecord(2));
+
+    const { records, validBytes } = RNFS.decodeAppendLogSegment(
+      backing.subarray(3),
+    );
+
+    expect(decodedText(records)).toStrictEqual(['hello, log']);
+    expect(validBytes).toBe(backing.byteLength - 3);
+  });
+
+  it('stops at a record whose payload does not match its checksum', () => {
+    const corrupt = nativeRecord(2);
+    corrupt[8 + 4] ^= 0x01;
+    const bytes = segment(nativeRecord(1), corrupt, nativeRecord(3));
+
+    const { records, validBytes } = RNFS.decodeAppendLogSegment(bytes);
+
+    expect(decodedText(records)).toStrictEqual(['a']);
+    expect(validBytes).toBe(9);
+  });
+
+  it('stops at a record whose length does not match its checksum', () => {
+    // Same checksum, one byte shorter payload: the length is covered too.
+    const header = [...NATIVE_RECORDS[2].header];
+    header[0] = 0x09;
+    const bytes = segment(nativeRecord(1), header, ascii('hello, lo'));
+
+    const { records, validBytes } = RNFS.decodeAppendLogSegment(bytes);
+
+    expect(decodedText(records)).toStrictEqual(['a']);
+    expect(validBytes).toBe(9);
+  });
+
+  describe('torn tails', () => {
+    const intact = segment(nativeRecord(1), nativeRecord(2));
+
+    it.each([
+      ['a partial header', [0x0a, 0x00, 0x00]],
+      ['a header without its payload', NATIVE_RECORDS[3].header],
+      ['a partial payload', nativeRecord(3).slice(0, 100)],
+      ['a zero-filled tail', new Array(64).fill(0)],
+      [
+        'a length over the record limit',
+        [0x01, 0x00, 0x00, 0x02, 0x00, 0x00, 0x00, 0x00],
+      ],
+    ])('cuts %s back to the last whole record', (_, tail) => {
+      const { records, validBytes } = RNFS.decodeAppendLogSegment(
+        segment(intact, tail),
+      );
+
+      expect(decodedText(records)).toStrictEqual(['a', 'hello, log']);
+      expect(validBytes).toBe(intact.byteLength);
+    });
+
+    it('ignores valid records after the torn one', () => {
+      const bytes = segment(
+        nativeRecord(1),
+        nativeRecord(3).slice(0, 20),
+        nativeRecord(2),
+      );
+
+      const { records, validBytes } = RNFS.decodeAppendLogSegment(bytes);
+
+      expect(decodedText(records)).toStrictEqual(['a']);
+      expect(validBytes).toBe(9);
+    });
+  });
+});
+
+// Builds the little-endian layout written by encodeDiagnosticsSnapshot in
+// RabbyNativeFS.cpp.
+class SnapshotWriter {
+  constructor() {
+    this.bytes = [];
+  }
+
+  u8(value) {
+    this.bytes.push(value & 0xff);
+    return this;
+  }
+
+  put(value, width) {
+    let rest = BigInt(value);
+    for (let index = 0; index < width; index += 1) {
+      this.bytes.push(Number(rest & 0xffn));
+      rest >>= 8n;
+    }
+    return this;
+  }
+
+  u16(value) {
+    return this.put(value, 2);
+  }
+
+  u32(value) {
+    return this.put(value, 4);
+  }
+
+  u64(value) {
+    return this.put(value, 8);
+  }
+
+  string(value) {
+    const bytes = Array.from(Buffer.from(value, 'utf8')).slice(0, 255);
+    this.u8(bytes.length);
+    this.bytes.push(...bytes);
+    return this;
+  }
+
+  rawString(bytes) {
+    this.u8(bytes.length);
+    this.bytes.push(...bytes);
+    return this;
+  }
+
+  histogram(buckets) {
+    const used = Object.keys(buckets);
+    this.u16(used.length);
+    used.forEach(bucket => this.u16(Number(bucket)).u32(buckets[bucket]));
+    return this;
+  }
+
+  header({ magic = 'RNFD', version = 1, droppedEvents = 0 } = {}) {
+    ascii(magic).forEach(byte => this.u8(byte));
+    return this.u16(version).u16(3).u16(96).u64(droppedEvents);
+  }
+
+  take() {
+    return Uint8Array.from(this.bytes);
+  }
+}
+
+describe('decodeDiagnosticsSnapshot', () => {
+  it('decodes histograms and events', () => {
+    const bytes = new SnapshotWriter()
+      .header({ droppedEvents: 7 })
+      .u32(1)
+      .string('readFile')
+      .u64(12)
+      .u64(1)
+      .u64(3400)
+      .u64(900)
+      .u64(0x1_0000_0005)
+      .u64(4096)
+      .histogram({ 4: 10, 17: 2 })
+      .histogram({ 40: 12 })
+      .u32(1)
+      .u64(99)
+      .u64(250)
+      .u64(4096)
+      .u32(4321)
+      .u8(1)
+      .string('io')
+      .string('readFile')
+      .string('docs/wallet.json')
+      .string('ENOENT: no such file')
+      .take();
+
+    expect(RNFS.decodeDiagnosticsSnapshot(bytes)).toStrictEqual({
+      subBucketBits: 3,
+      bucketCount: 96,
+      droppedEvents: 7,
+      operations: {
+        readFile: {
+          count: 12,
+          errorCount: 1,
+          totalUs: 3400,
+          maxUs: 900,
+          totalBytes: 0x1_0000_0005,
+          maxBytes: 4096,
+          latencyBucketsUs: { 4: 10, 17: 2 },
+          sizeBuckets: { 40: 12 },
+        },
+      },
+      events: [
+        {
+          id: 99,
+          durationUs: 250,
+          bytes: 4096,
+          tid: 4321,
+          isError: true,
+          category: 'io',
+          operation: 'readFile',
+          pathTail: 'docs/wallet.json',
+          message: 'ENOENT: no such file',
+        },
+      ],
+    });
+  });
+
+  it('decodes an empty snapshot', () => {
+    const bytes = new SnapshotWriter().header().u32(0).u32(0).take();
+
+    expect(RNFS.decodeDiagnosticsSnapshot(bytes)).toStrictEqual({
+      subBucketBits: 3,
+      bucketCount: 96,
+      droppedEvents: 0,
+      operations: {},
+      events: [],
+    });
+  });
+
+  it('decodes UTF-8 strings and keeps ones cut mid-character', () => {
+    const cut = Array.from(Buffer.from('文件', 'utf8')).slice(0, 4);
+    const bytes = new SnapshotWriter()
+      .header()
+      .u32(0)
+      .u32(1)
+      .u64(1)
+      .u64(0)
+      .u64(0)
+      .u32(1)
+      .u8(0)
+      .string('io')
+      .string('stat')
+      .string('文件.txt')
+      .rawString(cut)
+      .take();
+
+    const [event] = RNFS.decodeDiagnosticsSnapshot(bytes).events;
+
+    expect(event.isError).toBe(false);
+    expect(event.pathTail).toBe('文件.txt');
+    expect(event.message).toBe(String.fromCharCode(...cut));
+  });
+
+  it('decodes a snapshot at an offset into a larger buffer', () => {
+    const snapshot = new SnapshotWriter().header().u32(0).u32(0).take();
+    const backing = new Uint8Array(snapshot.byteLength + 5);
+    backing.set(snapshot, 5);
+
+    expect(
+      RNFS.decodeDiagnosticsSnapshot(backing.subarray(5)).bucketCount,
+    ).toBe(96);
+  });
+
+  it.each([
+    ['magic', { magic: 'RNFX' }],
+    ['version', { version: 2 }],
+  ])('rejects an unknown %s', (_, header) => {
+    const bytes = new SnapshotWriter().header(header).u32(0).u32(0).take();
+
+    expect(() => RNFS.decodeDiagnosticsSnapshot(bytes)).toThrow(
+      'Unsupported native diagnostics snapshot',
+    );
+  });
+});
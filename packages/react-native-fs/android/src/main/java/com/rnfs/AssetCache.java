@@ -0,0 +1,247 @@
+package com.rnfs;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.os.Build;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Bundled assets extracted once to internal storage.
+ *
+ * Assets live inside the APK, so each read decompresses them again and every
+ * {@code copyFileAssets} copies them again. This cache extracts an asset to
+ * {@code files/rnfs-assets/<version>/<asset path>} the first time it is asked for. Afterwards
+ * callers get a plain file path that can be mapped or read directly. The version combines the
+ * version code with the install time, so reinstalled debug builds with the same version code
+ * extract again. Directories of other versions are deleted in the background on first use.
+ * Files appear under their final name only after they are fully written and synced, so an
+ * interrupted extraction is never served. Concurrent requests for one asset share one
+ * extraction.
+ */
+final class AssetCache {
+
+  static final String DIRECTORY_NAME = "rnfs-assets";
+
+  private static final String TEMP_INFIX = ".rnfs-extract-";
+  private static AssetCache instance;
+
+  static final class Entry {
+    final String assetPath;
+    final File file;
+    final boolean extracted;
+    final long durationNs;
+
+    Entry(String assetPath, File file, boolean extracted, long durationNs) {
+      this.assetPath = assetPath;
+      this.file = file;
+      this.extracted = extracted;
+      this.durationNs = durationNs;
+    }
+  }
+
+  private final AssetManager assetManager;
+  private final File root;
+  private final String version;
+  private final File directory;
+  private final ConcurrentHashMap<String, FutureTask<Entry>> extractions = new ConcurrentHashMap<>();
+
+  private AssetCache(Context context) {
+    assetManager = context.getAssets();
+    root = new File(context.getFilesDir(), DIRECTORY_NAME);
+    version = appVersion(context);
+    directory = new File(root, version);
+  }
+
+  static synchronized AssetCache getInstance(Context context) {
+    if (instance == null) {
+      instance = new AssetCache(context.getApplicationContext());
+      instance.purgeOtherVersions();
+    }
+    return instance;
+  }
+
+  String version() {
+    return version;
+  }
+
+  File directory() {
+    return directory;
+  }
+
+  /** The extracted file, or null when the asset has not been extracted for this version yet. */
+  File cachedFile(String assetPath) throws IORejectionException {
+    File file = new File(directory, normalize(assetPath));
+    return file.isFile() ? file : null;
+  }
+
+  /** Returns the extracted file, extracting it now if needed. */
+  Entry extract(String assetPath) throws Exception {
+    final String relativePath = normalize(assetPath);
+    File file = new File(directory, relativePath);
+    if (file.isFile()) {
+      return new Entry(assetPath, file, false, 0);
+    }
+
+    FutureTask<Entry> task = new FutureTask<>(new Callable<Entry>() {
+      @Override
+      public Entry call() throws Exception {
+        return extractNow(relativePath);
+      }
+    });
+    FutureTask<Entry> running = extractions.putIfAbsent(relativePath, task);
+    if (running != null) {
+      Entry entry = IOScheduler.awaitHelping(running);
+      return new Entry(assetPath, entry.file, false, 0);
+    }
+    try {
+      task.run();
+      return IOScheduler.awaitHelping(task);
+    } finally {
+      extractions.remove(relativePath, task);
+    }
+  }
+
+  /** Deletes every extracted asset of every version. */
+  void clear() throws Exception {
+    purge(root.listFiles(), null);
+  }
+
+  private Entry extractNow(String relativePath) throws Exception {
+    long startedAt = System.nanoTime();
+    File file = new File(directory, relativePath);
+    if (file.isFile()) {
+      return new Entry(relativePath, file, false, 0);
+    }
+    File parent = file.getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+      throw new IOException("Failed to create asset cache directory '" + parent.getPath() + "'");
+    }
+
+    File temp = new File(parent, "." + file.getName() + TEMP_INFIX + Thread.currentThread().getId());
+    try {
+      FileCopier.Result result = copyAsset(relativePath, temp);
+      if (!temp.renameTo(file)) {
+        throw new IOException("Failed to move extracted asset to '" + file.getPath() + "'");
+      }
+      Log.i(
+          "RabbyNativeFS",
+          String.format(
+              Locale.US,
+              "[assets] op=extract strategy=%s bytes=%d duration_ms=%d version=%s path_tail=%s",
+              result.strategy,
+              result.bytes,
+              result.durationMs(),
+              version,
+              relativePath));
+    } finally {
+      temp.delete();
+    }
+    return new Entry(relativePath, file, true, System.nanoTime() - startedAt);
+  }
+
+  /** Stored assets are a byte range of the APK and go through a channel transfer. */
+  private FileCopier.Result copyAsset(String relativePath, File target) throws Exception {
+    AssetFileDescriptor descriptor = null;
+    try {
+      descriptor = assetManager.openFd(relativePath);
+    } catch (IOException ignored) {
+      // Compressed, so only readable as a stream.
+    }
+
+    FileCopier.Result result;
+    if (descriptor != null) {
+      try (AssetFileDescriptor assetDescriptor = descriptor;
+           FileInputStream in = assetDescriptor.createInputStream()) {
+        result = FileCopier.copyRange(in, assetDescriptor.getStartOffset(), assetDescriptor.getLength(), target);
+      }
+      try (FileOutputStream out = new FileOutputStream(target, true)) {
+        out.getFD().sync();
+      }
+      return result;
+    }
+
+    InputStream in;
+    try {
+      in = assetManager.open(relativePath);
+    } catch (IOException ex) {
+      throw new IORejectionException("ENOENT", "ENOENT: no such asset, open '" + relativePath + "'");
+    }
+    try (InputStream assetStream = in;
+         FileOutputStream out = new FileOutputStream(target)) {
+      result = FileCopier.copyStream(assetStream, out);
+      out.getFD().sync();
+    }
+    return result;
+  }
+
+  private void purgeOtherVersions() {
+    final File[] children = root.listFiles();
+    if (children == null || children.length == 0) {
+      return;
+    }
+    IOScheduler.getInstance().execute(IOScheduler.Lane.DISK, new Runnable() {
+      @Override
+      public void run() {
+        try {
+          purge(children, version);
+        } catch (Exception ex) {
+          Log.w("RabbyNativeFS", "Failed to delete stale extracted assets", ex);
+        }
+      }
+    });
+  }
+
+  private static void purge(File[] children, String keep) throws Exception {
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      if (child.getName().equals(keep)) {
+        continue;
+      }
+      File tombstone = DeleteEngine.isTombstone(child.getName()) ? child : DeleteEngine.tombstone(child);
+      new DeleteEngine(tombstone, null).run(1);
+    }
+  }
+
+  /** Asset paths are relative to the asset root and must stay inside the cache directory. */
+  private static String normalize(String assetPath) throws IORejectionException {
+    String path = assetPath;
+    while (path.startsWith("/")) {
+      path = path.substring(1);
+    }
+    if (path.isEmpty()) {
+      throw new IORejectionException("EINVAL", "EINVAL: empty asset path");
+    }
+    for (String segment : path.split("/")) {
+      if (segment.equals("..") || segment.equals(".")) {
+        throw new IORejectionException("EINVAL", "EINVAL: invalid asset path '" + assetPath + "'");
+      }
+    }
+    return path;
+  }
+
+  private static String appVersion(Context context) {
+    try {
+      PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+      long versionCode = Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+          ? info.getLongVersionCode()
+          : info.versionCode;
+      return versionCode + "-" + Long.toString(info.lastUpdateTime, 36);
+    } catch (Exception ex) {
+      return "unknown";
+    }
+  }
+}
@@ -0,0 +1,461 @@
+package com.rnfs;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keyed file cache with a byte budget.
+ *
+ * Each store owns one directory under the app cache dir: {@code data/} holds the cached files
+ * under generated names and {@code index.bin} maps keys to them together with size, last access
+ * time and hit count. The index lives in memory; changes to the entries are coalesced to one
+ * rewrite per second, while access times and hit counts alone are written at most once a minute,
+ * since losing them in a crash only blurs eviction order. When a put takes the store over budget, eviction runs on the DISK lane and drops
+ * least recently (or least frequently) used entries down to 90% of the budget, so a burst of
+ * puts costs one sort instead of one per put. On open, index entries without a file and files
+ * without an index entry are dropped, which also covers a lost or corrupt index.
+ */
+final class CacheStore {
+
+  static final int POLICY_LRU = 0;
+  static final int POLICY_LFU = 1;
+
+  static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+  private static final int INDEX_MAGIC = 0x524e4643; // "RNFC"
+  private static final int INDEX_VERSION = 1;
+  private static final String INDEX_FILE_NAME = "index.bin";
+  private static final String DATA_DIRECTORY_NAME = "data";
+  private static final long FLUSH_DELAY_MS = 1000;
+  private static final long ACCESS_FLUSH_DELAY_MS = 60 * 1000;
+  private static final double EVICTION_LOW_WATER = 0.9;
+  private static final int MAX_KEY_LENGTH = 4096;
+
+  static final class Entry {
+    final String key;
+    final String fileName;
+    final long size;
+    long accessedAt;
+    int hits;
+
+    Entry(String key, String fileName, long size, long accessedAt, int hits) {
+      this.key = key;
+      this.fileName = fileName;
+      this.size = size;
+      this.accessedAt = accessedAt;
+      this.hits = hits;
+    }
+  }
+
+  static final class Stats {
+    int entries;
+    long bytes;
+    long maxBytes;
+    int policy;
+    long hits;
+    long misses;
+    long evictions;
+    long evictedBytes;
+  }
+
+  private static final Comparator<Entry> LEAST_RECENT = new Comparator<Entry>() {
+    @Override
+    public int compare(Entry left, Entry right) {
+      return left.accessedAt < right.accessedAt ? -1 : (left.accessedAt == right.accessedAt ? 0 : 1);
+    }
+  };
+
+  private static final Comparator<Entry> LEAST_FREQUENT = new Comparator<Entry>() {
+    @Override
+    public int compare(Entry left, Entry right) {
+      if (left.hits != right.hits) {
+        return left.hits < right.hits ? -1 : 1;
+      }
+      return LEAST_RECENT.compare(left, right);
+    }
+  };
+
+  private final String name;
+  private final File dataDirectory;
+  private final File indexFile;
+  private final HashMap<String, Entry> entries = new HashMap<>();
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final Object flushLock = new Object();
+  private long bytes;
+  private long maxBytes;
+  private int policy;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long evictedBytes;
+  private long nextFileId;
+  private boolean flushScheduled;
+  // The scheduled flush carries more than access times, so it runs after FLUSH_DELAY_MS.
+  private boolean flushSoon;
+  private boolean evictionScheduled;
+
+  private final Runnable flushRunnable = new Runnable() {
+    @Override
+    public void run() {
+      IOScheduler.getInstance().execute(IOScheduler.Lane.DISK, new Runnable() {
+        @Override
+        public void run() {
+          flush();
+        }
+      });
+    }
+  };
+
+  CacheStore(File directory, String name) {
+    this.name = name;
+    this.dataDirectory = new File(directory, DATA_DIRECTORY_NAME);
+    this.indexFile = new File(directory, INDEX_FILE_NAME);
+  }
+
+  static int parsePolicy(String policy) {
+    return "lfu".equals(policy) ? POLICY_LFU : POLICY_LRU;
+  }
+
+  static String policyName(int policy) {
+    return policy == POLICY_LFU ? "lfu" : "lru";
+  }
+
+  /** Loads the index and reconciles it with the data directory. Call once, off the main thread. */
+  void open(long maxBytes, int policy) throws IOException {
+    if (!dataDirectory.isDirectory() && !dataDirectory.mkdirs()) {
+      throw new IOException("Failed to create cache store directory: " + dataDirectory.getPath());
+    }
+
+    List<Entry> loaded = readIndex();
+    HashSet<String> referenced = new HashSet<>();
+    synchronized (this) {
+      this.maxBytes = maxBytes;
+      this.policy = policy;
+      for (Entry entry : loaded) {
+        File file = new File(dataDirectory, entry.fileName);
+        if (file.length() != entry.size || !file.isFile()) {
+          continue;
+        }
+        Entry previous = entries.put(entry.key, entry);
+        if (previous != null) {
+          bytes -= previous.size;
+          referenced.remove(previous.fileName);
+        }
+        bytes += entry.size;
+        referenced.add(entry.fileName);
+      }
+    }
+
+    String[] names = dataDirectory.list();
+    int orphans = 0;
+    for (int index = 0; names != null && index < names.length; index += 1) {
+      if (!referenced.contains(names[index]) && new File(dataDirectory, names[index]).delete()) {
+        orphans += 1;
+      }
+    }
+    if (orphans > 0 || referenced.size() != loaded.size()) {
+      Log.w(
+          "RabbyNativeFS",
+          String.format(
+              Locale.US,
+              "[cache] op=open store=%s dropped_entries=%d orphan_files=%d",
+              name,
+              loaded.size() - referenced.size(),
+              orphans));
+      scheduleFlush();
+    }
+    scheduleEvictionIfNeeded();
+  }
+
+  void configure(long maxBytes, int policy) {
+    synchronized (this) {
+      this.maxBytes = maxBytes;
+      this.policy = policy;
+    }
+    scheduleEvictionIfNeeded();
+  }
+
+  /** Returns the cached file for {@code key} and records the access, or null on a miss. */
+  File get(String key) {
+    File file;
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        misses += 1;
+        return null;
+      }
+      file = new File(dataDirectory, entry.fileName);
+    }
+
+    if (!file.isFile()) {
+      // Deleted behind our back, e.g. by the system clearing the cache dir.
+      synchronized (this) {
+        misses += 1;
+        Entry entry = entries.get(key);
+        if (entry != null && entry.fileName.equals(file.getName())) {
+          entries.remove(key);
+          bytes -= entry.size;
+        }
+      }
+      scheduleFlush();
+      return null;
+    }
+
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry != null) {
+        hits += 1;
+        entry.accessedAt = System.currentTimeMillis();
+        entry.hits += 1;
+      }
+    }
+    scheduleAccessFlush();
+    return file;
+  }
+
+  boolean touch(String key) {
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        return false;
+      }
+      entry.accessedAt = System.currentTimeMillis();
+    }
+    scheduleAccessFlush();
+    return true;
+  }
+
+  /**
+   * Adds {@code source} under {@code key}, replacing any previous entry. With {@code move} the
+   * source is renamed into the store when it is on the same volume.
+   */
+  File put(String key, File source, boolean move) throws IOException, IORejectionException {
+    if (key.length() > MAX_KEY_LENGTH) {
+      throw new IORejectionException("EINVAL", "EINVAL: cache key longer than " + MAX_KEY_LENGTH + " characters");
+    }
+    if (!source.isFile()) {
+      throw new IORejectionException("ENOENT", "ENOENT: no such file or directory, open '" + source.getPath() + "'");
+    }
+
+    String fileName;
+    synchronized (this) {
+      fileName = Long.toString(System.currentTimeMillis(), 36) + "-" + Long.toString(nextFileId++, 36);
+    }
+    File target = new File(dataDirectory, fileName);
+    FileCopier.Result copied = move ? FileCopier.moveFile(source, target) : FileCopier.copyFile(source, target, false);
+
+    Entry previous;
+    synchronized (this) {
+      Entry entry = new Entry(key, fileName, copied.bytes, System.currentTimeMillis(), 0);
+      previous = entries.put(key, entry);
+      bytes += entry.size;
+      if (previous != null) {
+        bytes -= previous.size;
+      }
+    }
+    if (previous != null) {
+      new File(dataDirectory, previous.fileName).delete();
+    }
+    scheduleFlush();
+    scheduleEvictionIfNeeded();
+    return target;
+  }
+
+  boolean remove(String key) {
+    Entry entry;
+    synchronized (this) {
+      entry = entries.remove(key);
+      if (entry == null) {
+        return false;
+      }
+      bytes -= entry.size;
+    }
+    new File(dataDirectory, entry.fileName).delete();
+    scheduleFlush();
+    return true;
+  }
+
+  void clear() {
+    ArrayList<Entry> removed;
+    synchronized (this) {
+      removed = new ArrayList<>(entries.values());
+      entries.clear();
+      bytes = 0;
+    }
+    for (Entry entry : removed) {
+      new File(dataDirectory, entry.fileName).delete();
+    }
+    scheduleFlush();
+  }
+
+  synchronized Stats stats() {
+    Stats stats = new Stats();
+    stats.entries = entries.size();
+    stats.bytes = bytes;
+    stats.maxBytes = maxBytes;
+    stats.policy = policy;
+    stats.hits = hits;
+    stats.misses = misses;
+    stats.evictions = evictions;
+    stats.evictedBytes = evictedBytes;
+    return stats;
+  }
+
+  private void scheduleEvictionIfNeeded() {
+    synchronized (this) {
+      if (evictionScheduled || bytes <= maxBytes) {
+        return;
+      }
+      evictionScheduled = true;
+    }
+    IOScheduler.getInstance().execute(IOScheduler.Lane.DISK, new Runnable() {
+      @Override
+      public void run() {
+        evict();
+      }
+    });
+  }
+
+  private void evict() {
+    ArrayList<Entry> victims = new ArrayList<>();
+    long victimBytes = 0;
+    synchronized (this) {
+      evictionScheduled = false;
+      if (bytes <= maxBytes) {
+        return;
+      }
+      ArrayList<Entry> ordered = new ArrayList<>(entries.values());
+      Collections.sort(ordered, policy == POLICY_LFU ? LEAST_FREQUENT : LEAST_RECENT);
+      long target = (long) (maxBytes * EVICTION_LOW_WATER);
+      for (int index = 0; index < ordered.size() && bytes > target; index += 1) {
+        Entry entry = ordered.get(index);
+        entries.remove(entry.key);
+        bytes -= entry.size;
+        victims.add(entry);
+        victimBytes += entry.size;
+      }
+      evictions += victims.size();
+      evictedBytes += victimBytes;
+    }
+
+    for (Entry entry : victims) {
+      new File(dataDirectory, entry.fileName).delete();
+    }
+    Log.i(
+        "RabbyNativeFS",
+        String.format(
+            Locale.US,
+            "[cache] op=evict store=%s policy=%s entries=%d bytes=%d",
+            name,
+            policyName(policy),
+            victims.size(),
+            victimBytes));
+    scheduleFlush();
+  }
+
+  private void scheduleFlush() {
+    synchronized (this) {
+      if (flushScheduled && flushSoon) {
+        return;
+      }
+      flushScheduled = true;
+      flushSoon = true;
+    }
+    // Brings forward a pending access-only flush.
+    handler.removeCallbacks(flushRunnable);
+    handler.postDelayed(flushRunnable, FLUSH_DELAY_MS);
+  }
+
+  private void scheduleAccessFlush() {
+    synchronized (this) {
+      if (flushScheduled) {
+        return;
+      }
+      flushScheduled = true;
+    }
+    handler.postDelayed(flushRunnable, ACCESS_FLUSH_DELAY_MS);
+  }
+
+  /** Writes the index now; pending delayed writes become no-ops. */
+  void flush() {
+    ArrayList<Entry> snapshot = new ArrayList<>();
+    synchronized (flushLock) {
+      synchronized (this) {
+        flushScheduled = false;
+        flushSoon = false;
+        for (Entry entry : entries.values()) {
+          snapshot.add(new Entry(entry.key, entry.fileName, entry.size, entry.accessedAt, entry.hits));
+        }
+      }
+
+      File temp = new File(indexFile.getPath() + ".tmp");
+      try {
+        try (FileOutputStream fileStream = new FileOutputStream(temp, false)) {
+          DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(fileStream));
+          outputStream.writeInt(INDEX_MAGIC);
+          outputStream.writeInt(INDEX_VERSION);
+          outputStream.writeInt(snapshot.size());
+          for (Entry entry : snapshot) {
+            outputStream.writeUTF(entry.key);
+            outputStream.writeUTF(entry.fileName);
+            outputStream.writeLong(entry.size);
+            outputStream.writeLong(entry.accessedAt);
+            outputStream.writeInt(entry.hits);
+          }
+          outputStream.flush();
+          fileStream.getFD().sync();
+        }
+        if (!temp.renameTo(indexFile)) {
+          temp.delete();
+          throw new IOException("rename failed");
+        }
+      } catch (IOException ex) {
+        // The data files are still valid; a stale index only loses recency information.
+        Log.w("RabbyNativeFS", "Failed to write cache store index", ex);
+      }
+    }
+  }
+
+  private List<Entry> readIndex() {
+    ArrayList<Entry> loaded = new ArrayList<>();
+    if (!indexFile.isFile()) {
+      return loaded;
+    }
+
+    try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+      if (inputStream.readInt() != INDEX_MAGIC || inputStream.readInt() != INDEX_VERSION) {
+        throw new IOException("unknown index format");
+      }
+      int count = inputStream.readInt();
+      for (int index = 0; index < count; index += 1) {
+        loaded.add(new Entry(
+            inputStream.readUTF(),
+            inputStream.readUTF(),
+            inputStream.readLong(),
+            inputStream.readLong(),
+            inputStream.readInt()));
+      }
+    } catch (IOException ex) {
+      Log.w("RabbyNativeFS", "Ignoring unreadable cache store index", ex);
+      loaded.clear();
+    }
+    return loaded;
+  }
+}
@@ -0,0 +1,174 @@
+package com.rnfs;
+
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+import android.system.StructStat;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes a directory tree in the background.
+ *
+ * The tree is first renamed to a hidden tombstone next to it, which is one rename on the same
+ * volume, so the original path is free for reuse before any file has been removed. The
+ * tombstone is then emptied by a few workers on the DISK lane through a {@link DirectoryWalk},
+ * as in {@link DiskUsageScanner}; every directory counts its outstanding
+ * subdirectories and is removed by whichever worker finishes the last of them. Entries are
+ * lstat'ed, so a symlink to a directory is removed as a link and its target is left alone.
+ * Tombstones left behind by a crash or a cancel are found again by their name prefix.
+ */
+final class DeleteEngine {
+
+  static final String TOMBSTONE_PREFIX = ".rnfs-trash-";
+
+  private static final AtomicLong nextTombstoneId = new AtomicLong();
+
+  interface ProgressListener {
+    void onProgress(long files, long bytes);
+  }
+
+  static final class Result {
+    long files;
+    long directories;
+    long bytes;
+    int errorCount;
+    int parallelism;
+  }
+
+  private static final class Node {
+    final String path;
+    final Node parent;
+    // One for the node's own listing plus one per subdirectory still being deleted.
+    final AtomicInteger remaining = new AtomicInteger(1);
+
+    Node(String path, Node parent) {
+      this.path = path;
+      this.parent = parent;
+    }
+  }
+
+  private final File root;
+  private final ProgressListener listener;
+  private final DirectoryWalk<Node> walk = new DirectoryWalk<>();
+  private final AtomicLong files = new AtomicLong();
+  private final AtomicLong directoryCount = new AtomicLong();
+  private final AtomicLong bytes = new AtomicLong();
+  private final AtomicInteger errorCount = new AtomicInteger();
+
+  DeleteEngine(File root, ProgressListener listener) {
+    this.root = root;
+    this.listener = listener;
+  }
+
+  static boolean isTombstone(String name) {
+    return name.startsWith(TOMBSTONE_PREFIX);
+  }
+
+  /**
+   * Moves {@code target} out of the way under a tombstone name in the same directory and
+   * returns the tombstone, or {@code target} itself if it could not be renamed.
+   */
+  static File tombstone(File target) {
+    File parent = target.getAbsoluteFile().getParentFile();
+    if (parent == null) {
+      return target;
+    }
+    File tombstone = new File(
+        parent,
+        TOMBSTONE_PREFIX + Long.toString(System.currentTimeMillis(), 36) + "-" + nextTombstoneId.incrementAndGet());
+    return target.renameTo(tombstone) ? tombstone : target;
+  }
+
+  void cancel() {
+    walk.cancel();
+  }
+
+  Result run(int parallelism) throws Exception {
+    Result result = new Result();
+    StructStat stat;
+    try {
+      stat = Os.lstat(root.getAbsolutePath());
+    } catch (ErrnoException ex) {
+      throw new IORejectionException("ENOENT", "ENOENT: no such file or directory, unlink '" + root.getPath() + "'");
+    }
+
+    int workerCount = 1;
+    if (OsConstants.S_ISDIR(stat.st_mode)) {
+      workerCount = Math.max(1, parallelism);
+      DirectoryWalk.Handler<Node> handler = new DirectoryWalk.Handler<Node>() {
+        @Override
+        public void handle(Node node) {
+          list(node);
+        }
+      };
+      walk.run(new Node(root.getAbsolutePath(), null), Collections.nCopies(workerCount, handler));
+    } else if (!walk.isCancelled()) {
+      deleteFile(root.getAbsolutePath(), stat);
+    }
+
+    if (walk.isCancelled()) {
+      throw new IORejectionException("ECANCELED", "ECANCELED: delete cancelled, unlink '" + root.getPath() + "'");
+    }
+    result.files = files.get();
+    result.directories = directoryCount.get();
+    result.bytes = bytes.get();
+    result.errorCount = errorCount.get();
+    result.parallelism = workerCount;
+    return result;
+  }
+
+  private void list(Node node) {
+    String[] names = new File(node.path).list();
+    if (names == null) {
+      errorCount.incrementAndGet();
+    }
+    for (int index = 0; names != null && index < names.length && !walk.isCancelled(); index += 1) {
+      String path = node.path + "/" + names[index];
+      StructStat stat;
+      try {
+        stat = Os.lstat(path);
+      } catch (ErrnoException ex) {
+        errorCount.incrementAndGet();
+        continue;
+      }
+
+      if (OsConstants.S_ISDIR(stat.st_mode)) {
+        node.remaining.incrementAndGet();
+        walk.push(new Node(path, node));
+      } else {
+        deleteFile(path, stat);
+      }
+    }
+    if (!walk.isCancelled()) {
+      release(node);
+    }
+  }
+
+  /** Removes every directory on the way up whose last outstanding child just finished. */
+  private void release(Node node) {
+    while (node != null && node.remaining.decrementAndGet() == 0) {
+      if (new File(node.path).delete()) {
+        directoryCount.incrementAndGet();
+      } else {
+        errorCount.incrementAndGet();
+      }
+      node = node.parent;
+    }
+  }
+
+  private void deleteFile(String path, StructStat stat) {
+    if (!new File(path).delete()) {
+      errorCount.incrementAndGet();
+      return;
+    }
+    long fileCount = files.incrementAndGet();
+    long byteCount = bytes.addAndGet(stat.st_size);
+    if (listener != null) {
+      listener.onProgress(fileCount, byteCount);
+    }
+  }
+}
@@ -0,0 +1,271 @@
+package com.rnfs;
+
+import android.os.Build;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+import android.system.StructStat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cursor-based directory listing for directories too large to return in one bridge call.
+ *
+ * A listing is opened once and its name iterator is kept in a small session table; each page
+ * reads the next names from it, applies the name filters and only then stats the survivors, and
+ * only if a requested field or the type filter needs it. On API 26+ names come from a
+ * {@link DirectoryStream}, so memory stays bounded by the page size; older releases fall back to
+ * {@link File#list()}, which still saves the per-entry {@code File} objects and the three
+ * separate stat calls of {@code readDir}.
+ */
+final class DirectoryPager {
+
+  static final int TYPE_REGULAR = 0;
+  static final int TYPE_DIRECTORY = 1;
+  static final int TYPE_ANY = -1;
+
+  static final int FIELD_TYPE = 1;
+  static final int FIELD_SIZE = 1 << 1;
+  static final int FIELD_MTIME = 1 << 2;
+  static final int FIELD_ALL = FIELD_TYPE | FIELD_SIZE | FIELD_MTIME;
+
+  static final int DEFAULT_PAGE_SIZE = 500;
+  static final int MAX_PAGE_SIZE = 5000;
+
+  private static final int MAX_SESSIONS = 32;
+  private static final long SESSION_IDLE_MS = 60000;
+  // Names looked at per page when filters reject most of them, so a page never scans unbounded.
+  private static final int MIN_SCAN_BUDGET = 4096;
+
+  static final class Options {
+    int pageSize = DEFAULT_PAGE_SIZE;
+    // Lower-cased by the caller; names are matched case-insensitively.
+    String prefix;
+    String[] suffixes;
+    int type = TYPE_ANY;
+    int fields = FIELD_ALL;
+    boolean includeHidden = true;
+  }
+
+  static final class Entry {
+    String name;
+    String path;
+    int type = TYPE_ANY;
+    long size = -1;
+    long mtimeMs = -1;
+  }
+
+  static final class Page {
+    final List<Entry> entries = new ArrayList<>();
+    String cursor;
+    int scanned;
+    int fields;
+  }
+
+  private static final class Session {
+    final String directory;
+    final Options options;
+    private DirectoryStream<Path> stream;
+    private Iterator<Path> paths;
+    private String[] names;
+    private int index;
+    long lastUsedAt;
+
+    Session(File directory, Options options) throws IOException {
+      this.directory = directory.getAbsolutePath();
+      this.options = options;
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+        stream = Files.newDirectoryStream(directory.toPath());
+        paths = stream.iterator();
+      } else {
+        names = directory.list();
+        if (names == null) {
+          throw new IOException("Failed to list directory: " + this.directory);
+        }
+      }
+    }
+
+    String nextName() {
+      if (paths != null) {
+        return paths.hasNext() ? paths.next().getFileName().toString() : null;
+      }
+      return index < names.length ? names[index++] : null;
+    }
+
+    void close() {
+      if (stream != null) {
+        try {
+          stream.close();
+        } catch (IOException ignored) {
+        }
+      }
+    }
+  }
+
+  private static final Map<String, Session> sessions = new LinkedHashMap<String, Session>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+      if (size() > MAX_SESSIONS) {
+        eldest.getValue().close();
+        return true;
+      }
+      return false;
+    }
+  };
+  private static long nextCursor;
+
+  private DirectoryPager() {
+  }
+
+  static Page open(File directory, Options options) throws Exception {
+    if (!directory.exists()) {
+      throw new IORejectionException("ENOENT", "ENOENT: no such file or directory, scandir '" + directory.getPath() + "'");
+    }
+    if (!directory.isDirectory()) {
+      throw new IORejectionException("ENOTDIR", "ENOTDIR: not a directory, scandir '" + directory.getPath() + "'");
+    }
+    options.pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, options.pageSize));
+    // Abandoned listings hold a directory stream each; sweep them here too, since a caller
+    // that only ever opens would otherwise never reach the sweep in next().
+    synchronized (sessions) {
+      expireIdle();
+    }
+    return read(new Session(directory, options), null);
+  }
+
+  static Page next(String cursor) throws Exception {
+    Session session;
+    synchronized (sessions) {
+      expireIdle();
+      // Taken out while in use so two concurrent calls with one cursor cannot interleave.
+      session = sessions.remove(cursor);
+    }
+    if (session == null) {
+      throw new IORejectionException("EINVAL", "EINVAL: unknown or expired directory cursor '" + cursor + "'");
+    }
+    return read(session, cursor);
+  }
+
+  static void close(String cursor) {
+    Session session;
+    synchronized (sessions) {
+      session = sessions.remove(cursor);
+    }
+    if (session != null) {
+      session.close();
+    }
+  }
+
+  private static Page read(Session session, String cursor) {
+    Options options = session.options;
+    Page page = new Page();
+    page.fields = options.fields;
+    boolean needsStat = options.fields != 0 || options.type != TYPE_ANY;
+    int scanBudget = Math.max(MIN_SCAN_BUDGET, options.pageSize * 8);
+    boolean exhausted = false;
+
+    try {
+      while (page.entries.size() < options.pageSize && page.scanned < scanBudget) {
+        String name = session.nextName();
+        if (name == null) {
+          exhausted = true;
+          break;
+        }
+        page.scanned += 1;
+        if (!matchesName(name, options)) {
+          continue;
+        }
+
+        Entry entry = new Entry();
+        entry.name = name;
+        entry.path = session.directory + "/" + name;
+        if (needsStat && !stat(entry)) {
+          // Removed between listing and stat.
+          continue;
+        }
+        if (options.type != TYPE_ANY && entry.type != options.type) {
+          continue;
+        }
+        page.entries.add(entry);
+      }
+    } catch (RuntimeException ex) {
+      // DirectoryIteratorException and friends: end the listing rather than leak the session.
+      session.close();
+      throw ex;
+    }
+
+    if (exhausted) {
+      session.close();
+      return page;
+    }
+
+    synchronized (sessions) {
+      page.cursor = cursor != null ? cursor : "rd" + (++nextCursor);
+      session.lastUsedAt = System.currentTimeMillis();
+      sessions.put(page.cursor, session);
+    }
+    return page;
+  }
+
+  private static boolean matchesName(String name, Options options) {
+    if (!options.includeHidden && name.startsWith(".")) {
+      return false;
+    }
+    String lowerName = name.toLowerCase(Locale.ROOT);
+    if (options.prefix != null && !lowerName.startsWith(options.prefix)) {
+      return false;
+    }
+    if (options.suffixes == null || options.suffixes.length == 0) {
+      return true;
+    }
+    for (String suffix : options.suffixes) {
+      if (lowerName.endsWith(suffix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** One stat per entry, following symlinks like {@code readDir}; dangling links fall back to lstat. */
+  private static boolean stat(Entry entry) {
+    StructStat stat;
+    try {
+      stat = Os.stat(entry.path);
+    } catch (ErrnoException ex) {
+      try {
+        stat = Os.lstat(entry.path);
+      } catch (ErrnoException ignored) {
+        return false;
+      }
+    }
+    entry.type = OsConstants.S_ISDIR(stat.st_mode) ? TYPE_DIRECTORY : TYPE_REGULAR;
+    entry.size = stat.st_size;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+      entry.mtimeMs = stat.st_mtim.tv_sec * 1000 + stat.st_mtim.tv_nsec / 1000000;
+    } else {
+      entry.mtimeMs = stat.st_mtime * 1000;
+    }
+    return true;
+  }
+
+  private static void expireIdle() {
+    long now = System.currentTimeMillis();
+    for (Iterator<Session> iterator = sessions.values().iterator(); iterator.hasNext(); ) {
+      Session session = iterator.next();
+      if (now - session.lastUsedAt > SESSION_IDLE_MS) {
+        session.close();
+        iterator.remove();
+      }
+    }
+  }
+}
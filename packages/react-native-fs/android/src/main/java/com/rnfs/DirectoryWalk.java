@@ -0,0 +1,88 @@
+package com.rnfs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared work queue for the parallel tree walks in {@link DiskUsageScanner} and
+ * {@link DeleteEngine}.
+ *
+ * Directories go into one deque and a few workers on the DISK lane take them off; whatever a
+ * worker finds while handling one is pushed back for whichever worker is free next, so one deep
+ * branch does not serialise the walk. The walk ends once every pushed directory has been
+ * handled, or as soon as it is cancelled.
+ */
+final class DirectoryWalk<T> {
+
+  interface Handler<T> {
+    void handle(T directory);
+  }
+
+  private static final long POLL_INTERVAL_MS = 5;
+
+  private final AtomicBoolean cancelled = new AtomicBoolean();
+  private final LinkedBlockingDeque<T> directories = new LinkedBlockingDeque<>();
+  // Directories queued or being handled; the walk is done when it drops to zero.
+  private final AtomicInteger pending = new AtomicInteger();
+
+  void cancel() {
+    cancelled.set(true);
+  }
+
+  boolean isCancelled() {
+    return cancelled.get();
+  }
+
+  void push(T directory) {
+    pending.incrementAndGet();
+    // Depth first keeps the deque short on wide trees.
+    directories.addFirst(directory);
+  }
+
+  /**
+   * Walks from {@code root} with one worker per handler. The calling thread runs the first one,
+   * so the walk still completes on a saturated lane.
+   */
+  void run(T root, List<? extends Handler<T>> handlers) throws Exception {
+    push(root);
+    IOScheduler scheduler = IOScheduler.getInstance();
+    ArrayList<FutureTask<Void>> tasks = new ArrayList<>();
+    for (int index = 1; index < handlers.size(); index += 1) {
+      final Handler<T> handler = handlers.get(index);
+      tasks.add(scheduler.submit(IOScheduler.Lane.DISK, new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          drain(handler);
+          return null;
+        }
+      }));
+    }
+    drain(handlers.get(0));
+    for (FutureTask<Void> task : tasks) {
+      IOScheduler.awaitHelping(task);
+    }
+  }
+
+  private void drain(Handler<T> handler) throws InterruptedException {
+    while (!cancelled.get()) {
+      T directory = directories.pollFirst(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      if (directory == null) {
+        if (pending.get() == 0) {
+          break;
+        }
+        continue;
+      }
+      try {
+        handler.handle(directory);
+      } finally {
+        pending.decrementAndGet();
+      }
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package com.rnfs;
+
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+import android.system.StructStat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code du}-style walk of a directory tree.
+ *
+ * Directories are spread over a few workers on the DISK lane by a {@link DirectoryWalk}; each
+ * worker lists the directories it takes and lstats every child. Each worker keeps its own
+ * counters and top-N heap and they are merged once at the end, keeping the per-entry path free
+ * of shared writes. Symlinks are counted but not followed and hard-linked files are counted
+ * once.
+ */
+final class DiskUsageScanner {
+
+  static final int DEFAULT_TOP_COUNT = 20;
+  static final int MAX_TOP_COUNT = 1000;
+
+  static final class Entry {
+    final String path;
+    final long size;
+    final long mtimeMs;
+
+    Entry(String path, long size, long mtimeMs) {
+      this.path = path;
+      this.size = size;
+      this.mtimeMs = mtimeMs;
+    }
+  }
+
+  static final class Result {
+    long totalBytes;
+    long allocatedBytes;
+    int fileCount;
+    int directoryCount;
+    int otherCount;
+    int errorCount;
+    int parallelism;
+    /** Largest files, biggest first. */
+    List<Entry> largest = new ArrayList<>();
+  }
+
+  private static final Comparator<Entry> BY_SIZE = new Comparator<Entry>() {
+    @Override
+    public int compare(Entry left, Entry right) {
+      return left.size < right.size ? -1 : (left.size == right.size ? 0 : 1);
+    }
+  };
+
+  private final File root;
+  private final int topCount;
+  private final DirectoryWalk<String> walk = new DirectoryWalk<>();
+  private final Set<String> linkedInodes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  DiskUsageScanner(File root, int topCount) {
+    this.root = root;
+    this.topCount = Math.max(0, Math.min(MAX_TOP_COUNT, topCount));
+  }
+
+  void cancel() {
+    walk.cancel();
+  }
+
+  Result scan(int parallelism) throws Exception {
+    if (walk.isCancelled()) {
+      throw cancelledError();
+    }
+    if (!root.exists()) {
+      throw new IORejectionException("ENOENT", "ENOENT: no such file or directory, scandir '" + root.getPath() + "'");
+    }
+
+    Result result = new Result();
+    if (!root.isDirectory()) {
+      Worker worker = new Worker();
+      worker.visit(root.getAbsolutePath());
+      worker.mergeInto(result);
+      result.parallelism = 1;
+      finish(result, Collections.singletonList(worker));
+      return result;
+    }
+
+    result.directoryCount = 1;
+    int workerCount = Math.max(1, parallelism);
+    ArrayList<Worker> workers = new ArrayList<>();
+    for (int index = 0; index < workerCount; index += 1) {
+      workers.add(new Worker());
+    }
+    walk.run(root.getAbsolutePath(), workers);
+
+    if (walk.isCancelled()) {
+      throw cancelledError();
+    }
+    for (Worker worker : workers) {
+      worker.mergeInto(result);
+    }
+    result.parallelism = workerCount;
+    finish(result, workers);
+    return result;
+  }
+
+  private IORejectionException cancelledError() {
+    return new IORejectionException("ECANCELED", "ECANCELED: disk usage scan cancelled, scandir '" + root.getPath() + "'");
+  }
+
+  private void finish(Result result, List<Worker> workers) {
+    ArrayList<Entry> largest = new ArrayList<>();
+    for (Worker worker : workers) {
+      largest.addAll(worker.largest);
+    }
+    Collections.sort(largest, Collections.reverseOrder(BY_SIZE));
+    result.largest = largest.size() > topCount ? new ArrayList<>(largest.subList(0, topCount)) : largest;
+  }
+
+  private final class Worker implements DirectoryWalk.Handler<String> {
+    private final PriorityQueue<Entry> largest = new PriorityQueue<>(Math.max(1, topCount), BY_SIZE);
+    long totalBytes;
+    long allocatedBytes;
+    int fileCount;
+    int directoryCount;
+    int otherCount;
+    int errorCount;
+
+    @Override
+    public void handle(String directory) {
+      String[] names = new File(directory).list();
+      if (names == null) {
+        errorCount += 1;
+        return;
+      }
+      for (String name : names) {
+        if (walk.isCancelled()) {
+          return;
+        }
+        visit(directory + "/" + name);
+      }
+    }
+
+    void visit(String path) {
+      StructStat stat;
+      try {
+        stat = Os.lstat(path);
+      } catch (ErrnoException ex) {
+        // Removed while walking, or not readable.
+        errorCount += 1;
+        return;
+      }
+
+      if (OsConstants.S_ISDIR(stat.st_mode)) {
+        directoryCount += 1;
+        walk.push(path);
+        return;
+      }
+      if (!OsConstants.S_ISREG(stat.st_mode)) {
+        otherCount += 1;
+        return;
+      }
+      if (stat.st_nlink > 1 && !linkedInodes.add(stat.st_dev + ":" + stat.st_ino)) {
+        return;
+      }
+
+      fileCount += 1;
+      totalBytes += stat.st_size;
+      allocatedBytes += stat.st_blocks * 512;
+      if (topCount > 0 && (largest.size() < topCount || largest.peek().size < stat.st_size)) {
+        if (largest.size() >= topCount) {
+          largest.poll();
+        }
+        largest.add(new Entry(path, stat.st_size, stat.st_mtime * 1000));
+      }
+    }
+
+    void mergeInto(Result result) {
+      result.totalBytes += totalBytes;
+      result.allocatedBytes += allocatedBytes;
+      result.fileCount += fileCount;
+      result.directoryCount += directoryCount;
+      result.otherCount += otherCount;
+      result.errorCount += errorCount;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package com.rnfs;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sidecar describing a partially downloaded file, stored next to it as {@code <dest>.rnfs-download}.
+ *
+ * Only bytes that were flushed and synced before the checkpoint was written are trusted, so a
+ * crash can at worst cost the data received since the last save. The validator (strong ETag,
+ * otherwise Last-Modified) is sent back as If-Range, which makes the server fall back to a
+ * full 200 response if the resource changed in the meantime.
+ */
+final class DownloadCheckpoint {
+
+  static final String SUFFIX = ".rnfs-download";
+
+  String url;
+  String etag;
+  String lastModified;
+  long totalLength = -1;
+  long bytes;
+
+  static File fileFor(File dest) {
+    return new File(dest.getPath() + SUFFIX);
+  }
+
+  /**
+   * Loads the checkpoint for {@code dest} if it belongs to {@code url} and the partial file still
+   * holds at least the checkpointed bytes. Returns null when there is nothing to resume.
+   */
+  static DownloadCheckpoint load(File dest, String url) {
+    File file = fileFor(dest);
+    if (!file.isFile() || !dest.isFile()) {
+      return null;
+    }
+
+    try (InputStream inputStream = new FileInputStream(file)) {
+      byte[] data = new byte[(int) Math.min(file.length(), 64 * 1024)];
+      int length = 0;
+      int read;
+      while (length < data.length && (read = inputStream.read(data, length, data.length - length)) != -1) {
+        length += read;
+      }
+
+      JSONObject json = new JSONObject(new String(data, 0, length, StandardCharsets.UTF_8));
+      DownloadCheckpoint checkpoint = new DownloadCheckpoint();
+      checkpoint.url = json.optString("url", null);
+      checkpoint.etag = json.optString("etag", null);
+      checkpoint.lastModified = json.optString("lastModified", null);
+      checkpoint.totalLength = json.optLong("totalLength", -1);
+      checkpoint.bytes = json.optLong("bytes", 0);
+
+      if (!url.equals(checkpoint.url) || checkpoint.validator() == null) {
+        return null;
+      }
+      if (checkpoint.bytes <= 0 || checkpoint.bytes > dest.length()) {
+        return null;
+      }
+      return checkpoint;
+    } catch (IOException | JSONException ignored) {
+      return null;
+    }
+  }
+
+  /** Value for If-Range; weak ETags can not be used for range requests. */
+  String validator() {
+    if (etag != null && etag.length() > 0 && !etag.startsWith("W/")) {
+      return etag;
+    }
+    if (lastModified != null && lastModified.length() > 0) {
+      return lastModified;
+    }
+    return null;
+  }
+
+  void save(File dest) throws IOException {
+    JSONObject json = new JSONObject();
+    try {
+      json.put("url", url);
+      json.put("etag", etag);
+      json.put("lastModified", lastModified);
+      json.put("totalLength", totalLength);
+      json.put("bytes", bytes);
+    } catch (JSONException ex) {
+      throw new IOException(ex.getMessage());
+    }
+
+    File file = fileFor(dest);
+    File temp = new File(file.getPath() + ".tmp");
+    try (FileOutputStream outputStream = new FileOutputStream(temp, false)) {
+      outputStream.write(json.toString().getBytes(StandardCharsets.UTF_8));
+      outputStream.getFD().sync();
+    }
+    if (!temp.renameTo(file)) {
+      temp.delete();
+      throw new IOException("Failed to write download checkpoint for '" + dest.getPath() + "'");
+    }
+  }
+
+  static void delete(File dest) {
+    fileFor(dest).delete();
+  }
+
+  /** Drops anything past the checkpointed bytes so the next append continues at a trusted offset. */
+  static void truncate(File dest, long length) throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(dest, "rw")) {
+      if (file.length() != length) {
+        file.setLength(length);
+      }
+    }
+  }
+}
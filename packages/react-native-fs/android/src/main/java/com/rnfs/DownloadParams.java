@@ -26,6 +26,9 @@ public class DownloadParams {
   public float progressDivider;
   public int readTimeout;
   public int connectionTimeout;
+  public boolean resume;
+  public int segments;
+  public String transport;
   public OnTaskCompleted onTaskCompleted;
   public OnDownloadBegin onDownloadBegin;
   public OnDownloadProgress onDownloadProgress;
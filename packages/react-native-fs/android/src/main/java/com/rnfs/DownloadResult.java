@@ -3,5 +3,8 @@ package com.rnfs;
 public class DownloadResult {
   public int statusCode;
   public long bytesWritten;
+  public long bytesResumed;
+  public int segments;
+  HttpExchange.Timing timing;
   public Exception exception;
 }
@@ -2,8 +2,8 @@ package com.rnfs;
 
 import java.io.FileOutputStream;
 import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URL;
 import java.net.HttpURLConnection;
 import java.util.*;
@@ -13,54 +13,87 @@ import android.util.Log;
 
 import android.os.AsyncTask;
 
-import com.facebook.react.bridge.ReadableMapKeySetIterator;
-
 public class Downloader extends AsyncTask<DownloadParams, long[], DownloadResult> {
+  private static final long CHECKPOINT_INTERVAL_BYTES = 4L * 1024 * 1024;
+
   private DownloadParams mParam;
   private AtomicBoolean mAbort = new AtomicBoolean(false);
+  private double lastProgressValue = 0;
+  private long lastProgressEmitTimestamp = 0;
+  private volatile HttpExchange mExchange;
+  private volatile SegmentedDownload mSegmented;
   DownloadResult res;
 
   protected DownloadResult doInBackground(DownloadParams... params) {
     mParam = params[0];
     res = new DownloadResult();
 
-    new Thread(new Runnable() {
-      public void run() {
-        try {
-          download(mParam, res);
-          mParam.onTaskCompleted.onTaskCompleted(res);
-        } catch (Exception ex) {
-          res.exception = ex;
-          mParam.onTaskCompleted.onTaskCompleted(res);
-        }
-      }
-    }).start();
+    try {
+      download(mParam, res);
+    } catch (Exception ex) {
+      // A cancelled call surfaces as a socket error; report it as the abort it was.
+      res.exception = mAbort.get() ? new Exception("Download has been aborted") : ex;
+    }
+    mParam.onTaskCompleted.onTaskCompleted(res);
 
     return res;
   }
 
   private void download(DownloadParams param, DownloadResult res) throws Exception {
-    InputStream input = null;
-    OutputStream output = null;
-    HttpURLConnection connection = null;
-
-    try {
-      connection = (HttpURLConnection)param.src.openConnection();
-
-      ReadableMapKeySetIterator iterator = param.headers.keySetIterator();
+    SegmentedDownload.Fallback fallback = null;
+    if (param.segments > 1 && !param.resume) {
+      SegmentedDownload segmented = new SegmentedDownload(param, mAbort, new SegmentedDownload.Listener() {
+        @Override
+        public void onBegin(int statusCode, long contentLength, Map<String, String> headers) {
+          if (mParam.onDownloadBegin != null) {
+            mParam.onDownloadBegin.onDownloadBegin(statusCode, contentLength, headers);
+          }
+        }
 
-      while (iterator.hasNextKey()) {
-        String key = iterator.nextKey();
-        String value = param.headers.getString(key);
-        connection.setRequestProperty(key, value);
+        @Override
+        public void onProgress(long contentLength, long bytesWritten) {
+          reportProgress(contentLength, bytesWritten);
+        }
+      });
+      mSegmented = segmented;
+      try {
+        if (segmented.run(res)) {
+          return;
+        }
+        fallback = segmented.takeFallback();
+        if (fallback != null) {
+          mExchange = fallback.exchange;
+        }
+      } finally {
+        mSegmented = null;
       }
+    }
 
-      connection.setConnectTimeout(param.connectionTimeout);
-      connection.setReadTimeout(param.readTimeout);
-      connection.connect();
+    InputStream input = null;
+    FileOutputStream output = null;
+    HttpExchange connection = null;
+    DownloadCheckpoint checkpoint = param.resume ? DownloadCheckpoint.load(param.dest, param.src.toString()) : null;
+    long resumeFrom = checkpoint != null ? checkpoint.bytes : 0;
+    long total = 0;
+    boolean completed = false;
 
-      int statusCode = connection.getResponseCode();
-      long lengthOfFile = getContentLength(connection);
+    try {
+      int statusCode;
+      if (fallback != null) {
+        // The segmented probe already has the response; do not ask the server a second time.
+        connection = fallback.exchange;
+        statusCode = fallback.statusCode;
+      } else {
+        connection = HttpExchange.open(param.transport, param.src);
+        mExchange = connection;
+
+        connection.setHeaders(param.headers);
+        applyResumeHeaders(connection, checkpoint);
+        connection.setTimeouts(param.connectionTimeout, param.readTimeout);
+
+        statusCode = connection.execute();
+      }
+      long lengthOfFile = connection.contentLength();
 
       boolean isRedirect = (
         statusCode != HttpURLConnection.HTTP_OK &&
@@ -73,100 +106,211 @@ public class Downloader extends AsyncTask<DownloadParams, long[], DownloadResult
       );
 
       if (isRedirect) {
-        String redirectURL = connection.getHeaderField("Location");
-        connection.disconnect();
+        // Only HttpURLConnection gets here; OkHttp follows redirects across schemes itself.
+        String redirectURL = connection.header("Location");
+        connection.close();
 
-        connection = (HttpURLConnection) new URL(redirectURL).openConnection();
-        connection.setConnectTimeout(5000);
-        connection.connect();
+        connection = HttpExchange.open(param.transport, new URL(redirectURL));
+        mExchange = connection;
+        applyResumeHeaders(connection, checkpoint);
+        connection.setTimeouts(5000, -1);
 
-        statusCode = connection.getResponseCode();
-        lengthOfFile = getContentLength(connection);
+        statusCode = connection.execute();
+        lengthOfFile = connection.contentLength();
+      }
+      res.timing = connection.timing;
+
+      if (checkpoint != null) {
+        if (statusCode == 416 || (statusCode == 206 && getContentRangeStart(connection) != resumeFrom)) {
+          // The server can not continue from our offset; drop the partial file and start over.
+          connection.close();
+          connection = null;
+          DownloadCheckpoint.delete(param.dest);
+          download(param, res);
+          return;
+        }
+        if (statusCode != 206) {
+          // If-Range failed (resource changed) or the server ignores ranges: full body follows.
+          checkpoint = null;
+          resumeFrom = 0;
+        } else {
+          // The file ends up whole, so report it the way a plain 200 download would be.
+          statusCode = HttpURLConnection.HTTP_OK;
+        }
       }
-      if(statusCode >= 200 && statusCode < 300) {
-        Map<String, List<String>> headers = connection.getHeaderFields();
-
-        Map<String, String> headersFlat = new HashMap<>();
 
-        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
-          String headerKey = entry.getKey();
-          String valueKey = entry.getValue().get(0);
+      if (param.resume && statusCode >= 200 && statusCode < 300) {
+        checkpoint = updateCheckpoint(checkpoint, connection, param, resumeFrom, lengthOfFile);
+      }
+      if (lengthOfFile >= 0) {
+        lengthOfFile += resumeFrom;
+      }
 
-          if (headerKey != null && valueKey != null) {
-            headersFlat.put(headerKey, valueKey);
-          }
-        }
+      if(statusCode >= 200 && statusCode < 300) {
+        Map<String, String> headersFlat = connection.headers();
 
         if (mParam.onDownloadBegin != null) {
           mParam.onDownloadBegin.onDownloadBegin(statusCode, lengthOfFile, headersFlat);
         }
 
-        input = new BufferedInputStream(connection.getInputStream(), 8 * 1024);
-        output = new FileOutputStream(param.dest);
+        input = new BufferedInputStream(connection.body(), 8 * 1024);
+        if (resumeFrom > 0) {
+          DownloadCheckpoint.truncate(param.dest, resumeFrom);
+          output = new FileOutputStream(param.dest, true);
+        } else {
+          output = new FileOutputStream(param.dest);
+        }
 
         byte data[] = new byte[8 * 1024];
-        long total = 0;
+        long checkpointedAt = 0;
         int count;
-        double lastProgressValue = 0;
-        long lastProgressEmitTimestamp = 0;
-        boolean hasProgressCallback = mParam.onDownloadProgress != null;
 
         while ((count = input.read(data)) != -1) {
           if (mAbort.get()) throw new Exception("Download has been aborted");
 
           total += count;
-
-          if (hasProgressCallback) {
-            if (param.progressInterval > 0) {
-              long timestamp = System.currentTimeMillis();
-              if (timestamp - lastProgressEmitTimestamp > param.progressInterval) {
-                lastProgressEmitTimestamp = timestamp;
-                publishProgress(new long[]{lengthOfFile, total});
-              }
-            } else if (param.progressDivider <= 0) {
-              publishProgress(new long[]{lengthOfFile, total});
-            } else {
-              double progress = Math.round(((double) total * 100) / lengthOfFile);
-              if (progress % param.progressDivider == 0) {
-                if ((progress != lastProgressValue) || (total == lengthOfFile)) {
-                  Log.d("Downloader", "EMIT: " + String.valueOf(progress) + ", TOTAL:" + String.valueOf(total));
-                  lastProgressValue = progress;
-                  publishProgress(new long[]{lengthOfFile, total});
-                }
-              }
-            }
-          }
+          long downloaded = resumeFrom + total;
+          reportProgress(lengthOfFile, downloaded);
 
           output.write(data, 0, count);
+
+          if (checkpoint != null && total - checkpointedAt >= CHECKPOINT_INTERVAL_BYTES) {
+            saveCheckpoint(checkpoint, output, downloaded);
+            checkpointedAt = total;
+          }
         }
 
         output.flush();
+        if (lengthOfFile >= 0 && resumeFrom + total < lengthOfFile) {
+          throw new IOException("Download ended after " + (resumeFrom + total) + " of " + lengthOfFile + " bytes");
+        }
         res.bytesWritten = total;
+        res.bytesResumed = resumeFrom;
+        completed = true;
       }
       res.statusCode = statusCode;
  } finally {
-      if (output != null) output.close();
+      if (output != null) {
+        if (checkpoint != null) {
+          if (completed) {
+            DownloadCheckpoint.delete(param.dest);
+          } else {
+            try {
+              saveCheckpoint(checkpoint, output, resumeFrom + total);
+            } catch (Exception ex) {
+              Log.w("Downloader", "Failed to save download checkpoint", ex);
+            }
+          }
+        }
+        output.close();
+      }
       if (input != null) input.close();
-      if (connection != null) connection.disconnect();
+      if (connection != null) connection.close();
+      mExchange = null;
+    }
+  }
+
+  /**
+   * Applies the progressInterval / progressDivider throttling; segments call it concurrently.
+   * Accepted values go straight to the listener, which only records them for the next batch.
+   */
+  private synchronized void reportProgress(long lengthOfFile, long downloaded) {
+    if (mParam.onDownloadProgress == null) {
+      return;
+    }
+
+    if (mParam.progressInterval > 0) {
+      long timestamp = System.currentTimeMillis();
+      if (timestamp - lastProgressEmitTimestamp > mParam.progressInterval) {
+        lastProgressEmitTimestamp = timestamp;
+        mParam.onDownloadProgress.onDownloadProgress(lengthOfFile, downloaded);
+      }
+    } else if (mParam.progressDivider <= 0) {
+      mParam.onDownloadProgress.onDownloadProgress(lengthOfFile, downloaded);
+    } else {
+      double progress = Math.round(((double) downloaded * 100) / lengthOfFile);
+      if (progress % mParam.progressDivider == 0) {
+        if ((progress != lastProgressValue) || (downloaded == lengthOfFile)) {
+          lastProgressValue = progress;
+          mParam.onDownloadProgress.onDownloadProgress(lengthOfFile, downloaded);
+        }
+      }
+    }
+  }
+
+  private static void applyResumeHeaders(HttpExchange connection, DownloadCheckpoint checkpoint) {
+    if (checkpoint == null) {
+      return;
+    }
+    connection.setHeader("Range", "bytes=" + checkpoint.bytes + "-");
+    connection.setHeader("If-Range", checkpoint.validator());
+    // A transparently gunzipped body would not line up with byte offsets in the file.
+    connection.setHeader("Accept-Encoding", "identity");
+  }
+
+  static long getContentRangeStart(HttpExchange connection) {
+    // Content-Range: bytes <start>-<end>/<total>
+    String contentRange = connection.header("Content-Range");
+    if (contentRange == null || !contentRange.startsWith("bytes ")) {
+      return -1;
+    }
+    int dash = contentRange.indexOf('-', 6);
+    if (dash < 0) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(contentRange.substring(6, dash).trim());
+    } catch (NumberFormatException ex) {
+      return -1;
     }
   }
 
-  private long getContentLength(HttpURLConnection connection){
-    if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
-      return connection.getContentLengthLong();
+  /** Returns the checkpoint to keep for this response, or null when it can not be resumed later. */
+  private static DownloadCheckpoint updateCheckpoint(
+      DownloadCheckpoint checkpoint,
+      HttpExchange connection,
+      DownloadParams param,
+      long resumeFrom,
+      long contentLength) {
+    String etag = connection.header("ETag");
+    String lastModified = connection.header("Last-Modified");
+    if (checkpoint == null) {
+      checkpoint = new DownloadCheckpoint();
+      checkpoint.url = param.src.toString();
     }
-    return connection.getContentLength();
+    if (etag != null) {
+      checkpoint.etag = etag;
+    }
+    if (lastModified != null) {
+      checkpoint.lastModified = lastModified;
+    }
+    checkpoint.totalLength = contentLength >= 0 ? resumeFrom + contentLength : -1;
+    checkpoint.bytes = resumeFrom;
+
+    if (checkpoint.validator() == null) {
+      DownloadCheckpoint.delete(param.dest);
+      return null;
+    }
+    return checkpoint;
+  }
+
+  private void saveCheckpoint(DownloadCheckpoint checkpoint, FileOutputStream output, long bytes) throws Exception {
+    output.flush();
+    output.getFD().sync();
+    checkpoint.bytes = bytes;
+    checkpoint.save(mParam.dest);
   }
 
   protected void stop() {
     mAbort.set(true);
-  }
 
-  @Override
-  protected void onProgressUpdate(long[]... values) {
-    super.onProgressUpdate(values);
-    if (mParam.onDownloadProgress != null) {
-      mParam.onDownloadProgress.onDownloadProgress(values[0][0], values[0][1]);
+    HttpExchange exchange = mExchange;
+    if (exchange != null) {
+      exchange.cancel();
+    }
+    SegmentedDownload segmented = mSegmented;
+    if (segmented != null) {
+      segmented.cancel();
     }
   }
 
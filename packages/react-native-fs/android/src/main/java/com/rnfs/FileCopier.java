@@ -0,0 +1,179 @@
+package com.rnfs;
+
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * Shared copy engine for file-to-file and stream copies.
+ *
+ * Local files go through {@link FileChannel#transferTo}, which the platform turns into
+ * sendfile/copy_file_range so the bytes never enter the Java heap. Moves try a rename first and
+ * callers that only need a read-only duplicate can ask for a hard link. Streams that are not
+ * backed by a regular file (provider pipes, compressed assets) fall back to a 256 KB buffered
+ * loop. Every call reports the strategy that actually ran so slow paths show up in logs.
+ */
+public final class FileCopier {
+
+  public static final String STRATEGY_RENAME = "rename";
+  public static final String STRATEGY_HARD_LINK = "hardlink";
+  public static final String STRATEGY_TRANSFER = "transfer";
+  public static final String STRATEGY_BUFFERED = "buffered";
+
+  private static final int BUFFER_SIZE = 256 * 1024;
+  private static final long TRANSFER_CHUNK_SIZE = 8L * 1024 * 1024;
+
+  public static final class Result {
+    public String strategy;
+    public long bytes;
+    public long durationNs;
+
+    public long durationMs() {
+      return durationNs / 1000000;
+    }
+
+    public double bytesPerSecond() {
+      return durationNs > 0 ? bytes * 1e9 / durationNs : (double) bytes;
+    }
+  }
+
+  private FileCopier() {
+  }
+
+  /**
+   * Copies {@code source} over {@code target}. With {@code allowHardLink} the target may end up
+   * sharing the source inode, so only pass it when neither file is modified in place afterwards.
+   */
+  public static Result copyFile(File source, File target, boolean allowHardLink) throws IOException {
+    long startedAt = System.nanoTime();
+    Result result = new Result();
+
+    if (allowHardLink && deleteTarget(target) && link(source, target)) {
+      result.strategy = STRATEGY_HARD_LINK;
+      result.bytes = target.length();
+    } else {
+      try (FileInputStream inputStream = new FileInputStream(source)) {
+        result.strategy = STRATEGY_TRANSFER;
+        result.bytes = transfer(inputStream.getChannel(), 0, -1, target);
+      }
+    }
+
+    result.durationNs = System.nanoTime() - startedAt;
+    return result;
+  }
+
+  /** Renames {@code source} to {@code target}, copying and deleting the source when rename fails. */
+  public static Result moveFile(File source, File target) throws IOException {
+    long startedAt = System.nanoTime();
+    if (source.renameTo(target)) {
+      Result result = new Result();
+      result.strategy = STRATEGY_RENAME;
+      result.bytes = target.length();
+      result.durationNs = System.nanoTime() - startedAt;
+      return result;
+    }
+
+    Result result = copyFile(source, target, false);
+    if (source.exists() && !source.delete()) {
+      throw new IOException("Failed to delete source file after move: " + source.getPath());
+    }
+    result.durationNs = System.nanoTime() - startedAt;
+    return result;
+  }
+
+  /**
+   * Copies {@code length} bytes starting at {@code offset} of an already opened file, e.g. an
+   * uncompressed asset from {@code AssetFileDescriptor}. A negative length copies to the end.
+   */
+  public static Result copyRange(FileInputStream inputStream, long offset, long length, File target) throws IOException {
+    long startedAt = System.nanoTime();
+    Result result = new Result();
+    result.strategy = STRATEGY_TRANSFER;
+    result.bytes = transfer(inputStream.getChannel(), offset, length, target);
+    result.durationNs = System.nanoTime() - startedAt;
+    return result;
+  }
+
+  /**
+   * Copies a stream into a stream. A {@link FileInputStream} over a regular file paired with a
+   * {@link FileOutputStream} upgrades the copy to a channel transfer; this covers file:// and
+   * most content:// URIs, whose resolver streams wrap real descriptors.
+   */
+  public static Result copyStream(InputStream inputStream, OutputStream outputStream) throws IOException {
+    long startedAt = System.nanoTime();
+    Result result = new Result();
+
+    if (inputStream instanceof FileInputStream
+        && outputStream instanceof FileOutputStream
+        && isRegularFile((FileInputStream) inputStream)) {
+      FileChannel source = ((FileInputStream) inputStream).getChannel();
+      FileChannel target = ((FileOutputStream) outputStream).getChannel();
+      result.strategy = STRATEGY_TRANSFER;
+      result.bytes = transferAll(source, source.position(), -1, target);
+    } else {
+      result.strategy = STRATEGY_BUFFERED;
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        outputStream.write(buffer, 0, read);
+        result.bytes += read;
+      }
+    }
+
+    outputStream.flush();
+    result.durationNs = System.nanoTime() - startedAt;
+    return result;
+  }
+
+  private static long transfer(FileChannel source, long offset, long length, File target) throws IOException {
+    try (FileOutputStream outputStream = new FileOutputStream(target, false)) {
+      return transferAll(source, offset, length, outputStream.getChannel());
+    }
+  }
+
+  private static long transferAll(FileChannel source, long offset, long length, FileChannel target) throws IOException {
+    long end = length < 0 ? source.size() : offset + length;
+    long position = offset;
+    while (position < end) {
+      long transferred = source.transferTo(position, Math.min(TRANSFER_CHUNK_SIZE, end - position), target);
+      if (transferred <= 0) {
+        if (position >= source.size()) {
+          break;
+        }
+        throw new IOException("Failed to transfer file data at offset " + position);
+      }
+      position += transferred;
+    }
+    return position - offset;
+  }
+
+  private static boolean isRegularFile(FileInputStream inputStream) {
+    try {
+      return OsConstants.S_ISREG(Os.fstat(inputStream.getFD()).st_mode);
+    } catch (ErrnoException | IOException ignored) {
+      return false;
+    }
+  }
+
+  private static boolean deleteTarget(File target) {
+    return !target.exists() || target.delete();
+  }
+
+  private static boolean link(File source, File target) {
+    try {
+      Os.link(source.getAbsolutePath(), target.getAbsolutePath());
+      return true;
+    } catch (ErrnoException ignored) {
+      // EXDEV across mounts, EPERM on filesystems without links (sdcardfs, FAT): copy instead.
+      return false;
+    }
+  }
+}
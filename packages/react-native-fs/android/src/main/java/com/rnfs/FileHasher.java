@@ -0,0 +1,145 @@
+package com.rnfs;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Computes one or more digests of a file in a single pass.
+ *
+ * Large files are fed to every digest straight from read-only mappings, so adding a second
+ * algorithm costs CPU but no extra I/O. {@link MessageDigest} instances are cached per thread
+ * and reset by {@link MessageDigest#digest()}, which keeps provider lookups off the hot path
+ * when many files are hashed back to back.
+ */
+final class FileHasher {
+
+  private static final long MAPPED_WINDOW_SIZE = 16L * 1024 * 1024;
+  private static final int MIN_MAPPED_SIZE = 256 * 1024;
+  private static final int READ_BUFFER_SIZE = 256 * 1024;
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private static final Map<String, String> ALGORITHMS = new HashMap<>();
+
+  static {
+    ALGORITHMS.put("md5", "MD5");
+    ALGORITHMS.put("sha1", "SHA-1");
+    ALGORITHMS.put("sha224", "SHA-224");
+    ALGORITHMS.put("sha256", "SHA-256");
+    ALGORITHMS.put("sha384", "SHA-384");
+    ALGORITHMS.put("sha512", "SHA-512");
+  }
+
+  private static final ThreadLocal<Map<String, MessageDigest>> digests =
+      new ThreadLocal<Map<String, MessageDigest>>() {
+        @Override
+        protected Map<String, MessageDigest> initialValue() {
+          return new HashMap<>();
+        }
+      };
+
+  static final class Result {
+    /** Lower-case hex digests keyed by the algorithm names callers passed in, in order. */
+    final LinkedHashMap<String, String> digests = new LinkedHashMap<>();
+    long bytes;
+    long durationNs;
+  }
+
+  private FileHasher() {
+  }
+
+  static boolean isSupported(String algorithm) {
+    return ALGORITHMS.containsKey(algorithm);
+  }
+
+  static Result hash(File file, String... algorithms) throws Exception {
+    long startedAt = System.nanoTime();
+    ArrayList<String> names = new ArrayList<>(algorithms.length);
+    for (String algorithm : algorithms) {
+      if (!names.contains(algorithm)) {
+        names.add(algorithm);
+      }
+    }
+    if (names.isEmpty()) {
+      throw new Exception("At least one hash algorithm is required");
+    }
+
+    MessageDigest[] selected = new MessageDigest[names.size()];
+    for (int index = 0; index < selected.length; index += 1) {
+      selected[index] = digestFor(names.get(index));
+    }
+
+    Result result = new Result();
+    try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+      FileChannel channel = input.getChannel();
+      long size = channel.size();
+      if (size >= MIN_MAPPED_SIZE) {
+        for (long position = 0; position < size; position += MAPPED_WINDOW_SIZE) {
+          long length = Math.min(MAPPED_WINDOW_SIZE, size - position);
+          MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+          for (MessageDigest digest : selected) {
+            window.position(0);
+            digest.update(window);
+          }
+          result.bytes += length;
+        }
+      } else {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        int read;
+        while ((read = channel.read(buffer)) != -1) {
+          if (read == 0) {
+            continue;
+          }
+          for (MessageDigest digest : selected) {
+            digest.update(buffer.array(), 0, buffer.position());
+          }
+          result.bytes += buffer.position();
+          buffer.clear();
+        }
+      }
+    } catch (Exception ex) {
+      for (MessageDigest digest : selected) {
+        digest.reset();
+      }
+      throw ex;
+    }
+
+    for (int index = 0; index < selected.length; index += 1) {
+      result.digests.put(names.get(index), toHex(selected[index].digest()));
+    }
+    result.durationNs = System.nanoTime() - startedAt;
+    return result;
+  }
+
+  private static MessageDigest digestFor(String algorithm) throws Exception {
+    String name = ALGORITHMS.get(algorithm);
+    if (name == null) {
+      throw new Exception("Invalid hash algorithm");
+    }
+
+    Map<String, MessageDigest> cached = digests.get();
+    MessageDigest digest = cached.get(algorithm);
+    if (digest == null) {
+      digest = MessageDigest.getInstance(name);
+      cached.put(algorithm, digest);
+    }
+    return digest;
+  }
+
+  private static String toHex(byte[] bytes) {
+    char[] chars = new char[bytes.length * 2];
+    for (int index = 0; index < bytes.length; index += 1) {
+      int value = bytes[index] & 0xFF;
+      chars[index * 2] = HEX_DIGITS[value >>> 4];
+      chars[index * 2 + 1] = HEX_DIGITS[value & 0x0F];
+    }
+    return new String(chars);
+  }
+}
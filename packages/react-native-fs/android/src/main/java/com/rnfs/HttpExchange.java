@@ -0,0 +1,458 @@
+package com.rnfs;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.modules.network.OkHttpClientProvider;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.Proxy;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+
+/**
+ * One HTTP request/response used by downloads and uploads.
+ *
+ * The default transport runs on the app-wide client from {@link OkHttpClientProvider}, so
+ * transfers share its connection pool, pick up its cookie jar and interceptors (User-Agent) and
+ * can multiplex over HTTP/2. Calls are executed synchronously on the transfer's own thread, which
+ * bypasses the Dispatcher's maxRequests/maxRequestsPerHost; {@link TransferJobManager} is what
+ * limits concurrent and per-host transfers, counting a segmented download once.
+ * {@link #TRANSPORT_URL_CONNECTION} keeps the plain {@link HttpURLConnection} path. Both fill in
+ * a {@link Timing} so a slow transfer can be attributed to DNS, connect, TLS or the server.
+ */
+abstract class HttpExchange {
+
+  static final String TRANSPORT_OKHTTP = "okhttp";
+  static final String TRANSPORT_URL_CONNECTION = "urlconnection";
+
+  interface BodyWriter {
+    void writeTo(OutputStream outputStream) throws IOException;
+  }
+
+  static final class Timing {
+    String transport;
+    String protocol;
+    boolean connectionReused = true;
+    long dnsMs = -1;
+    long connectMs = -1;
+    long tlsMs = -1;
+    long ttfbMs = -1;
+  }
+
+  final Timing timing = new Timing();
+
+  static HttpExchange open(String transport, URL url) throws IOException {
+    if (TRANSPORT_URL_CONNECTION.equals(transport)) {
+      return new UrlConnectionExchange(url);
+    }
+    return new OkHttpExchange(url);
+  }
+
+  abstract void setMethod(String method);
+
+  abstract void setHeader(String name, String value);
+
+  void setHeaders(ReadableMap headers) {
+    if (headers == null) {
+      return;
+    }
+    ReadableMapKeySetIterator iterator = headers.keySetIterator();
+    while (iterator.hasNextKey()) {
+      String key = iterator.nextKey();
+      setHeader(key, headers.getString(key));
+    }
+  }
+
+  /**
+   * Timeouts in milliseconds; 0 waits forever, like {@link HttpURLConnection}. On OkHttp the read
+   * timeout also bounds each write of the request body.
+   */
+  abstract void setTimeouts(int connectTimeout, int readTimeout);
+
+  /** Streams a request body; a negative length switches to chunked transfer encoding. */
+  abstract void setBody(long contentLength, BodyWriter writer);
+
+  /** Sends the request (and body) and returns the response status code. */
+  abstract int execute() throws IOException;
+
+  /** Final URL after redirects. */
+  abstract URL url();
+
+  abstract String header(String name);
+
+  /** Response headers with the first value of each name, in the server's casing. */
+  abstract Map<String, String> headers();
+
+  abstract long contentLength();
+
+  /** Response body; error statuses throw the way {@link HttpURLConnection} does. */
+  abstract InputStream body() throws IOException;
+
+  /** Aborts a blocked connect, read or write from another thread. */
+  abstract void cancel();
+
+  abstract void close();
+
+  private static OkHttpClient sharedClient;
+
+  private static synchronized OkHttpClient sharedClient() {
+    if (sharedClient == null) {
+      // newBuilder() keeps the app client's pool, cookie jar and interceptors. The dispatcher
+      // only limits enqueue()d calls, so it does not apply to the execute() calls made here.
+      sharedClient = OkHttpClientProvider.getOkHttpClient()
+          .newBuilder()
+          .eventListenerFactory(new EventListener.Factory() {
+            @Override
+            public EventListener create(Call call) {
+              return new TimingListener(call.request().tag(Timing.class));
+            }
+          })
+          .build();
+    }
+    return sharedClient;
+  }
+
+  private static final class OkHttpExchange extends HttpExchange {
+    private final Request.Builder request = new Request.Builder();
+    private final URL url;
+    private String method = "GET";
+    private RequestBody requestBody;
+    private int connectTimeout = -1;
+    private int readTimeout = -1;
+    private volatile Call call;
+    private Response response;
+
+    OkHttpExchange(URL url) {
+      this.url = url;
+      timing.transport = TRANSPORT_OKHTTP;
+      request.url(url);
+    }
+
+    @Override
+    void setMethod(String method) {
+      this.method = method;
+    }
+
+    @Override
+    void setHeader(String name, String value) {
+      request.header(name, value);
+    }
+
+    @Override
+    void setTimeouts(int connectTimeout, int readTimeout) {
+      this.connectTimeout = connectTimeout;
+      this.readTimeout = readTimeout;
+    }
+
+    @Override
+    void setBody(final long contentLength, final BodyWriter writer) {
+      requestBody = new RequestBody() {
+        @Override
+        public MediaType contentType() {
+          // Leave Content-Type to the request headers so callers can override it.
+          return null;
+        }
+
+        @Override
+        public long contentLength() {
+          return contentLength;
+        }
+
+        @Override
+        public boolean isOneShot() {
+          return true;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+          writer.writeTo(sink.outputStream());
+        }
+      };
+    }
+
+    @Override
+    int execute() throws IOException {
+      OkHttpClient client = sharedClient();
+      if (connectTimeout >= 0 || readTimeout >= 0) {
+        OkHttpClient.Builder builder = client.newBuilder();
+        if (connectTimeout >= 0) {
+          builder.connectTimeout(connectTimeout, TimeUnit.MILLISECONDS);
+        }
+        if (readTimeout >= 0) {
+          builder.readTimeout(readTimeout, TimeUnit.MILLISECONDS);
+          builder.writeTimeout(readTimeout, TimeUnit.MILLISECONDS);
+        }
+        client = builder.build();
+      }
+
+      request.method(method, requestBody);
+      request.tag(Timing.class, timing);
+      call = client.newCall(request.build());
+      response = call.execute();
+      return response.code();
+    }
+
+    @Override
+    URL url() {
+      return response != null ? response.request().url().url() : url;
+    }
+
+    @Override
+    String header(String name) {
+      return response.header(name);
+    }
+
+    @Override
+    Map<String, String> headers() {
+      Headers headers = response.headers();
+      Map<String, String> headersFlat = new HashMap<>();
+      for (int index = 0; index < headers.size(); index += 1) {
+        if (!headersFlat.containsKey(headers.name(index))) {
+          headersFlat.put(headers.name(index), headers.value(index));
+        }
+      }
+      return headersFlat;
+    }
+
+    @Override
+    long contentLength() {
+      ResponseBody body = response.body();
+      return body != null ? body.contentLength() : -1;
+    }
+
+    @Override
+    InputStream body() throws IOException {
+      int statusCode = response.code();
+      if (statusCode >= 400) {
+        if (statusCode == 404 || statusCode == 410) {
+          throw new FileNotFoundException(url().toString());
+        }
+        throw new IOException("Server returned HTTP response code: " + statusCode + " for URL: " + url());
+      }
+      return response.body().byteStream();
+    }
+
+    @Override
+    void cancel() {
+      Call current = call;
+      if (current != null) {
+        current.cancel();
+      }
+    }
+
+    @Override
+    void close() {
+      if (response != null) {
+        response.close();
+      }
+    }
+  }
+
+  private static final class UrlConnectionExchange extends HttpExchange {
+    private final HttpURLConnection connection;
+    private BodyWriter bodyWriter;
+
+    UrlConnectionExchange(URL url) throws IOException {
+      connection = (HttpURLConnection) url.openConnection();
+      timing.transport = TRANSPORT_URL_CONNECTION;
+      timing.protocol = "http/1.1";
+      timing.connectionReused = false;
+    }
+
+    @Override
+    void setMethod(String method) {
+      try {
+        connection.setRequestMethod(method);
+      } catch (ProtocolException ex) {
+        throw new IllegalArgumentException(ex.getMessage());
+      }
+    }
+
+    @Override
+    void setHeader(String name, String value) {
+      connection.setRequestProperty(name, value);
+    }
+
+    @Override
+    void setTimeouts(int connectTimeout, int readTimeout) {
+      if (connectTimeout >= 0) {
+        connection.setConnectTimeout(connectTimeout);
+      }
+      if (readTimeout >= 0) {
+        connection.setReadTimeout(readTimeout);
+      }
+    }
+
+    @Override
+    void setBody(long contentLength, BodyWriter writer) {
+      connection.setDoOutput(true);
+      if (contentLength >= 0) {
+        connection.setFixedLengthStreamingMode(contentLength);
+      } else {
+        connection.setChunkedStreamingMode(0);
+      }
+      bodyWriter = writer;
+    }
+
+    @Override
+    int execute() throws IOException {
+      long startedAt = System.nanoTime();
+      connection.connect();
+      if (bodyWriter != null) {
+        try (OutputStream outputStream = connection.getOutputStream()) {
+          bodyWriter.writeTo(outputStream);
+        }
+      }
+      int statusCode = connection.getResponseCode();
+      timing.ttfbMs = (System.nanoTime() - startedAt) / 1000000;
+      return statusCode;
+    }
+
+    @Override
+    URL url() {
+      return connection.getURL();
+    }
+
+    @Override
+    String header(String name) {
+      return connection.getHeaderField(name);
+    }
+
+    @Override
+    Map<String, String> headers() {
+      Map<String, String> headersFlat = new HashMap<>();
+      for (Map.Entry<String, List<String>> entry : connection.getHeaderFields().entrySet()) {
+        String headerKey = entry.getKey();
+        String valueKey = entry.getValue().get(0);
+
+        if (headerKey != null && valueKey != null) {
+          headersFlat.put(headerKey, valueKey);
+        }
+      }
+      return headersFlat;
+    }
+
+    @Override
+    long contentLength() {
+      if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
+        return connection.getContentLengthLong();
+      }
+      return connection.getContentLength();
+    }
+
+    @Override
+    InputStream body() throws IOException {
+      return connection.getInputStream();
+    }
+
+    @Override
+    void cancel() {
+      connection.disconnect();
+    }
+
+    @Override
+    void close() {
+      connection.disconnect();
+    }
+  }
+
+  /** Turns OkHttp call events into phase durations; redirects and retries add up. */
+  private static final class TimingListener extends EventListener {
+    private final Timing timing;
+    private long callStartNs;
+    private long dnsStartNs;
+    private long connectStartNs;
+    private long secureConnectStartNs;
+
+    TimingListener(Timing timing) {
+      this.timing = timing;
+    }
+
+    @Override
+    public void callStart(Call call) {
+      callStartNs = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+      dnsStartNs = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+      if (timing != null) {
+        timing.dnsMs = add(timing.dnsMs, dnsStartNs);
+      }
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+      connectStartNs = System.nanoTime();
+      if (timing != null) {
+        timing.connectionReused = false;
+      }
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+      secureConnectStartNs = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+      if (timing != null) {
+        timing.tlsMs = add(timing.tlsMs, secureConnectStartNs);
+      }
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+      if (timing != null) {
+        timing.connectMs = add(timing.connectMs, connectStartNs);
+      }
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+      if (timing != null) {
+        timing.protocol = connection.protocol().toString();
+      }
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+      if (timing != null) {
+        timing.ttfbMs = (System.nanoTime() - callStartNs) / 1000000;
+      }
+    }
+
+    private static long add(long totalMs, long startNs) {
+      long elapsedMs = (System.nanoTime() - startNs) / 1000000;
+      return totalMs < 0 ? elapsedMs : totalMs + elapsedMs;
+    }
+  }
+}
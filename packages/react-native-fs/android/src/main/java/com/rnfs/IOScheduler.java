@@ -0,0 +1,223 @@
+package com.rnfs;
+
+import android.os.Process;
+
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide executors for RNFS background work.
+ *
+ * Work is split into lanes so a long download can not starve a backup restore and vice versa:
+ * DISK for copy/persist/list style file I/O, NETWORK for downloads and uploads, SEGMENT for the
+ * extra range requests of segmented downloads and CPU for zip compression. Segments get a lane of
+ * their own because every running transfer already holds a NETWORK thread; queued there, they
+ * would only run one after another on their coordinator. Each lane is a fixed-size pool with an unbounded FIFO queue and records
+ * queue depth and queue wait time so callers can see when a lane is saturated.
+ */
+final class IOScheduler {
+
+  enum Lane {
+    DISK("disk"),
+    NETWORK("network"),
+    SEGMENT("segment"),
+    CPU("cpu");
+
+    final String label;
+
+    Lane(String label) {
+      this.label = label;
+    }
+  }
+
+  static final int MAX_LANE_THREADS = 16;
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  private static volatile IOScheduler instance;
+
+  private final LaneExecutor[] lanes = new LaneExecutor[Lane.values().length];
+
+  private IOScheduler() {
+    int cpuCount = Math.max(1, Runtime.getRuntime().availableProcessors());
+    lanes[Lane.DISK.ordinal()] = new LaneExecutor(Lane.DISK, 2);
+    lanes[Lane.NETWORK.ordinal()] = new LaneExecutor(Lane.NETWORK, 4);
+    lanes[Lane.SEGMENT.ordinal()] = new LaneExecutor(Lane.SEGMENT, 4);
+    lanes[Lane.CPU.ordinal()] = new LaneExecutor(Lane.CPU, Math.max(1, Math.min(cpuCount - 1, 4)));
+  }
+
+  static IOScheduler getInstance() {
+    IOScheduler scheduler = instance;
+    if (scheduler == null) {
+      synchronized (IOScheduler.class) {
+        scheduler = instance;
+        if (scheduler == null) {
+          scheduler = new IOScheduler();
+          instance = scheduler;
+        }
+      }
+    }
+    return scheduler;
+  }
+
+  Executor executor(Lane lane) {
+    return lanes[lane.ordinal()];
+  }
+
+  void execute(Lane lane, Runnable runnable) {
+    lanes[lane.ordinal()].execute(runnable);
+  }
+
+  <T> FutureTask<T> submit(Lane lane, Callable<T> callable) {
+    FutureTask<T> task = new FutureTask<>(callable);
+    execute(lane, task);
+    return task;
+  }
+
+  /**
+   * Waits for a task from {@link #submit}, running it on the calling thread if no lane thread
+   * has picked it up yet. Coordinators that fan out onto the lane they are running on use this
+   * so a saturated lane can never deadlock on its own subtasks.
+   */
+  static <T> T awaitHelping(FutureTask<T> task) throws Exception {
+    task.run();
+    try {
+      return task.get();
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw ex;
+    }
+  }
+
+  int threadCount(Lane lane) {
+    return lanes[lane.ordinal()].pool.getMaximumPoolSize();
+  }
+
+  void setThreadCount(Lane lane, int threadCount) {
+    lanes[lane.ordinal()].setThreadCount(threadCount);
+  }
+
+  LaneStats stats(Lane lane) {
+    return lanes[lane.ordinal()].stats();
+  }
+
+  static final class LaneStats {
+    String lane;
+    int threads;
+    int activeThreads;
+    int queueDepth;
+    int maxQueueDepth;
+    long submitted;
+    long completed;
+    long totalWaitMs;
+    long maxWaitMs;
+  }
+
+  private static final class LaneExecutor implements Executor {
+    private final Lane lane;
+    private final ThreadPoolExecutor pool;
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalWaitNs = new AtomicLong();
+    private final AtomicLong maxWaitNs = new AtomicLong();
+
+    LaneExecutor(final Lane lane, int threadCount) {
+      this.lane = lane;
+      this.pool = new ThreadPoolExecutor(
+          threadCount,
+          threadCount,
+          KEEP_ALIVE_SECONDS,
+          TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(),
+          new ThreadFactory() {
+            private final AtomicInteger nextId = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+              Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                  Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                  runnable.run();
+                }
+              }, String.format(Locale.US, "rnfs-%s-%d", lane.label, nextId.getAndIncrement()));
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+      this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(final Runnable runnable) {
+      final long enqueuedAt = System.nanoTime();
+      submitted.incrementAndGet();
+      pool.execute(new Runnable() {
+        @Override
+        public void run() {
+          recordWait(System.nanoTime() - enqueuedAt);
+          try {
+            runnable.run();
+          } finally {
+            completed.incrementAndGet();
+          }
+        }
+      });
+
+      int depth = pool.getQueue().size();
+      int previous;
+      while (depth > (previous = maxQueueDepth.get())) {
+        if (maxQueueDepth.compareAndSet(previous, depth)) {
+          break;
+        }
+      }
+    }
+
+    private void recordWait(long waitNs) {
+      totalWaitNs.addAndGet(waitNs);
+      long previous;
+      while (waitNs > (previous = maxWaitNs.get())) {
+        if (maxWaitNs.compareAndSet(previous, waitNs)) {
+          break;
+        }
+      }
+    }
+
+    synchronized void setThreadCount(int threadCount) {
+      int normalized = Math.max(1, Math.min(threadCount, MAX_LANE_THREADS));
+      if (normalized > pool.getMaximumPoolSize()) {
+        pool.setMaximumPoolSize(normalized);
+        pool.setCorePoolSize(normalized);
+      } else {
+        pool.setCorePoolSize(normalized);
+        pool.setMaximumPoolSize(normalized);
+      }
+    }
+
+    LaneStats stats() {
+      LaneStats stats = new LaneStats();
+      stats.lane = lane.label;
+      stats.threads = pool.getMaximumPoolSize();
+      stats.activeThreads = pool.getActiveCount();
+      stats.queueDepth = pool.getQueue().size();
+      stats.maxQueueDepth = maxQueueDepth.get();
+      stats.submitted = submitted.get();
+      stats.completed = completed.get();
+      stats.totalWaitMs = totalWaitNs.get() / 1000000;
+      stats.maxWaitMs = maxWaitNs.get() / 1000000;
+      return stats;
+    }
+  }
+}
@@ -0,0 +1,384 @@
+package com.rnfs;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a zip archive whose entries are deflated in parallel.
+ *
+ * Every source file is cut into fixed-size blocks that are compressed on the CPU lane with
+ * their own {@link Deflater}. Each block is primed with the last 32 KB of the previous block
+ * and ends with a sync flush, so the blocks concatenate into one valid deflate stream per
+ * entry (the same trick pigz uses). The calling thread reads sources, keeps a bounded window
+ * of blocks in flight and writes finished blocks in order, using data descriptors because the
+ * CRC and sizes are only known after the last block. Output is a plain zip readable by
+ * {@link java.util.zip.ZipFile}; zip64 is not supported.
+ */
+final class ParallelZipArchiver {
+
+  static final class Source {
+    final File file;
+    final String archivePath;
+    final long mtimeMs;
+
+    Source(File file, String archivePath, long mtimeMs) {
+      this.file = file;
+      this.archivePath = archivePath;
+      this.mtimeMs = mtimeMs;
+    }
+  }
+
+  static final class Stats {
+    int entryCount;
+    int parallelism;
+    long bytesRead;
+    long readMs;
+    long compressMs;
+    long writeMs;
+    long waitMs;
+  }
+
+  private static final int BLOCK_SIZE = 1024 * 1024;
+  private static final int DICTIONARY_SIZE = 32 * 1024;
+  private static final long ZIP32_LIMIT = 0xFFFFFFFFL;
+  private static final int MAX_ZIP32_ENTRIES = 0xFFFF;
+
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+  private static final int VERSION_DEFLATE = 20;
+  private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+  private static final int FLAG_UTF8 = 0x0800;
+  private static final int METHOD_DEFLATED = 8;
+
+  private final int level;
+  private final int parallelism;
+  private final AtomicLong compressNs = new AtomicLong();
+
+  private OutputStream output;
+  private long offset;
+  private final ArrayList<CentralEntry> centralEntries = new ArrayList<>();
+
+  ParallelZipArchiver(int level) {
+    this.level = level;
+    this.parallelism = IOScheduler.getInstance().threadCount(IOScheduler.Lane.CPU) + 1;
+  }
+
+  private static final class Block {
+    final int sourceIndex;
+    final byte[] raw;
+    final int rawLength;
+    final byte[] dictionary;
+    boolean first;
+    boolean last;
+    FutureTask<byte[]> compressed;
+
+    Block(int sourceIndex, byte[] raw, int rawLength, byte[] dictionary) {
+      this.sourceIndex = sourceIndex;
+      this.raw = raw;
+      this.rawLength = rawLength;
+      this.dictionary = dictionary;
+    }
+  }
+
+  private static final class CentralEntry {
+    byte[] name;
+    int dosTime;
+    int dosDate;
+    long crc;
+    long compressedSize;
+    long size;
+    long headerOffset;
+  }
+
+  Stats write(File targetFile, List<Source> sources) throws Exception {
+    if (sources.size() > MAX_ZIP32_ENTRIES) {
+      throw new IOException("Parallel zip supports at most " + MAX_ZIP32_ENTRIES + " entries");
+    }
+
+    Stats stats = new Stats();
+    stats.parallelism = parallelism;
+    int window = parallelism * 2;
+    ArrayDeque<Block> inFlight = new ArrayDeque<>();
+    CRC32 crc = new CRC32();
+    CentralEntry current = null;
+    long readNs = 0;
+    long writeNs = 0;
+    long waitNs = 0;
+
+    try (OutputStream fileOutput = new BufferedOutputStream(new FileOutputStream(targetFile, false), 256 * 1024)) {
+      output = fileOutput;
+      offset = 0;
+
+      for (int index = 0; index < sources.size(); index += 1) {
+        Source source = sources.get(index);
+        try (InputStream inputStream = new FileInputStream(source.file)) {
+          long readStartedAt = System.nanoTime();
+          Block pending = readBlock(inputStream, index, null);
+          pending.first = true;
+          readNs += System.nanoTime() - readStartedAt;
+
+          while (pending != null) {
+            Block next = null;
+            if (pending.rawLength == BLOCK_SIZE) {
+              readStartedAt = System.nanoTime();
+              next = readBlock(inputStream, index, dictionaryTail(pending));
+              readNs += System.nanoTime() - readStartedAt;
+              if (next.rawLength == 0) {
+                next = null;
+              }
+            }
+            pending.last = next == null;
+            submit(pending);
+            inFlight.addLast(pending);
+            stats.bytesRead += pending.rawLength;
+
+            while (inFlight.size() >= window) {
+              Block block = inFlight.removeFirst();
+              long waitStartedAt = System.nanoTime();
+              byte[] compressed = IOScheduler.awaitHelping(block.compressed);
+              waitNs += System.nanoTime() - waitStartedAt;
+              long writeStartedAt = System.nanoTime();
+              current = drain(block, compressed, sources, crc, current);
+              writeNs += System.nanoTime() - writeStartedAt;
+            }
+            pending = next;
+          }
+        }
+      }
+
+      while (!inFlight.isEmpty()) {
+        Block block = inFlight.removeFirst();
+        long waitStartedAt = System.nanoTime();
+        byte[] compressed = IOScheduler.awaitHelping(block.compressed);
+        waitNs += System.nanoTime() - waitStartedAt;
+        long writeStartedAt = System.nanoTime();
+        current = drain(block, compressed, sources, crc, current);
+        writeNs += System.nanoTime() - writeStartedAt;
+      }
+
+      long writeStartedAt = System.nanoTime();
+      writeCentralDirectory();
+      writeNs += System.nanoTime() - writeStartedAt;
+    } finally {
+      for (Block block : inFlight) {
+        block.compressed.cancel(false);
+      }
+      output = null;
+    }
+
+    stats.entryCount = centralEntries.size();
+    stats.readMs = readNs / 1000000;
+    stats.compressMs = compressNs.get() / 1000000;
+    stats.writeMs = writeNs / 1000000;
+    stats.waitMs = waitNs / 1000000;
+    return stats;
+  }
+
+  private static Block readBlock(InputStream inputStream, int sourceIndex, byte[] dictionary) throws IOException {
+    byte[] raw = new byte[BLOCK_SIZE];
+    int length = 0;
+    int read;
+    while (length < raw.length && (read = inputStream.read(raw, length, raw.length - length)) != -1) {
+      length += read;
+    }
+    return new Block(sourceIndex, raw, length, dictionary);
+  }
+
+  private static byte[] dictionaryTail(Block block) {
+    int length = Math.min(DICTIONARY_SIZE, block.rawLength);
+    return Arrays.copyOfRange(block.raw, block.rawLength - length, block.rawLength);
+  }
+
+  private void submit(final Block block) {
+    block.compressed = IOScheduler.getInstance().submit(IOScheduler.Lane.CPU, new Callable<byte[]>() {
+      @Override
+      public byte[] call() {
+        long startedAt = System.nanoTime();
+        try {
+          return deflateBlock(block);
+        } finally {
+          compressNs.addAndGet(System.nanoTime() - startedAt);
+        }
+      }
+    });
+  }
+
+  private byte[] deflateBlock(Block block) {
+    Deflater deflater = new Deflater(level, true);
+    try {
+      if (block.dictionary != null && block.dictionary.length > 0) {
+        deflater.setDictionary(block.dictionary);
+      }
+      deflater.setInput(block.raw, 0, block.rawLength);
+
+      byte[] out = new byte[Math.max(64, block.rawLength + (block.rawLength >> 8) + 64)];
+      int length = 0;
+      if (block.last) {
+        deflater.finish();
+        while (!deflater.finished()) {
+          if (length == out.length) {
+            out = Arrays.copyOf(out, out.length * 2);
+          }
+          length += deflater.deflate(out, length, out.length - length);
+        }
+      } else {
+        while (true) {
+          if (length == out.length) {
+            out = Arrays.copyOf(out, out.length * 2);
+          }
+          int available = out.length - length;
+          int written = deflater.deflate(out, length, available, Deflater.SYNC_FLUSH);
+          length += written;
+          if (written < available) {
+            break;
+          }
+        }
+      }
+      return length == out.length ? out : Arrays.copyOf(out, length);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private CentralEntry drain(
+      Block block,
+      byte[] compressed,
+      List<Source> sources,
+      CRC32 crc,
+      CentralEntry current) throws IOException {
+    if (block.first) {
+      Source source = sources.get(block.sourceIndex);
+      current = new CentralEntry();
+      current.name = source.archivePath.getBytes(StandardCharsets.UTF_8);
+      int[] dosDateTime = toDosDateTime(source.mtimeMs);
+      current.dosDate = dosDateTime[0];
+      current.dosTime = dosDateTime[1];
+      current.headerOffset = offset;
+      crc.reset();
+      writeLocalHeader(current);
+    }
+
+    output.write(compressed);
+    offset += compressed.length;
+    crc.update(block.raw, 0, block.rawLength);
+    current.compressedSize += compressed.length;
+    current.size += block.rawLength;
+
+    if (block.last) {
+      if (current.size > ZIP32_LIMIT || current.compressedSize > ZIP32_LIMIT || offset > ZIP32_LIMIT) {
+        throw new IOException("Parallel zip does not support entries or archives larger than 4 GB");
+      }
+      current.crc = crc.getValue();
+      writeInt(DATA_DESCRIPTOR_SIGNATURE);
+      writeInt((int) current.crc);
+      writeInt((int) current.compressedSize);
+      writeInt((int) current.size);
+      centralEntries.add(current);
+      return null;
+    }
+    return current;
+  }
+
+  private void writeLocalHeader(CentralEntry entry) throws IOException {
+    writeInt(LOCAL_HEADER_SIGNATURE);
+    writeShort(VERSION_DEFLATE);
+    writeShort(FLAG_DATA_DESCRIPTOR | FLAG_UTF8);
+    writeShort(METHOD_DEFLATED);
+    writeShort(entry.dosTime);
+    writeShort(entry.dosDate);
+    writeInt(0);
+    writeInt(0);
+    writeInt(0);
+    writeShort(entry.name.length);
+    writeShort(0);
+    output.write(entry.name);
+    offset += entry.name.length;
+  }
+
+  private void writeCentralDirectory() throws IOException {
+    long centralDirectoryOffset = offset;
+    for (CentralEntry entry : centralEntries) {
+      writeInt(CENTRAL_HEADER_SIGNATURE);
+      writeShort(VERSION_DEFLATE);
+      writeShort(VERSION_DEFLATE);
+      writeShort(FLAG_DATA_DESCRIPTOR | FLAG_UTF8);
+      writeShort(METHOD_DEFLATED);
+      writeShort(entry.dosTime);
+      writeShort(entry.dosDate);
+      writeInt((int) entry.crc);
+      writeInt((int) entry.compressedSize);
+      writeInt((int) entry.size);
+      writeShort(entry.name.length);
+      writeShort(0);
+      writeShort(0);
+      writeShort(0);
+      writeShort(0);
+      writeInt(0);
+      writeInt((int) entry.headerOffset);
+      output.write(entry.name);
+      offset += entry.name.length;
+    }
+    long centralDirectorySize = offset - centralDirectoryOffset;
+    if (offset > ZIP32_LIMIT) {
+      throw new IOException("Parallel zip does not support archives larger than 4 GB");
+    }
+
+    writeInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+    writeShort(0);
+    writeShort(0);
+    writeShort(centralEntries.size());
+    writeShort(centralEntries.size());
+    writeInt((int) centralDirectorySize);
+    writeInt((int) centralDirectoryOffset);
+    writeShort(0);
+  }
+
+  private void writeShort(int value) throws IOException {
+    output.write(value & 0xff);
+    output.write((value >>> 8) & 0xff);
+    offset += 2;
+  }
+
+  private void writeInt(int value) throws IOException {
+    output.write(value & 0xff);
+    output.write((value >>> 8) & 0xff);
+    output.write((value >>> 16) & 0xff);
+    output.write((value >>> 24) & 0xff);
+    offset += 4;
+  }
+
+  // Same local-time DOS encoding ZipEntry.setTime uses, clamped to the 1980 epoch.
+  private static int[] toDosDateTime(long timeMs) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTimeInMillis(timeMs);
+    int year = calendar.get(Calendar.YEAR);
+    if (year < 1980) {
+      return new int[]{(1 << 5) | 1, 0};
+    }
+    int dosDate = ((year - 1980) << 9)
+        | ((calendar.get(Calendar.MONTH) + 1) << 5)
+        | calendar.get(Calendar.DAY_OF_MONTH);
+    int dosTime = (calendar.get(Calendar.HOUR_OF_DAY) << 11)
+        | (calendar.get(Calendar.MINUTE) << 5)
+        | (calendar.get(Calendar.SECOND) >> 1);
+    return new int[]{dosDate, dosTime};
+  }
+}
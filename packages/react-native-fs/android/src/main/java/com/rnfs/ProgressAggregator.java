@@ -0,0 +1,147 @@
+package com.rnfs;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces download, upload and delete progress of all active jobs into one event per frame.
+ *
+ * Transfer threads only store the latest byte counts in the job's preallocated {@link Job}
+ * slot, which allocates nothing. Both counts are written and read under the job's own lock,
+ * held just for the two fields, so a flush never pairs the total of one update with the
+ * current of another when several threads report for one job (delete workers do). The first
+ * update after a flush schedules the next one on the main looper; the flush then sends every
+ * job that changed in a single {@code TransferProgress} event, so N concurrent jobs cost one
+ * bridge call per frame instead of N per buffer.
+ */
+final class ProgressAggregator {
+
+  static final String EVENT_NAME = "TransferProgress";
+  static final int KIND_DOWNLOAD = 0;
+  static final int KIND_UPLOAD = 1;
+  // Deletes have no known total; the job's total slot carries files removed and current bytes.
+  static final int KIND_DELETE = 2;
+
+  private static final long FRAME_INTERVAL_MS = 16;
+
+  interface Emitter {
+    void emit(String eventName, WritableMap data);
+  }
+
+  static final class Job {
+    final int jobId;
+    final int kind;
+    final AtomicBoolean dirty = new AtomicBoolean();
+    private long total;
+    private long current;
+
+    Job(int jobId, int kind) {
+      this.jobId = jobId;
+      this.kind = kind;
+    }
+  }
+
+  private final Emitter emitter;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final CopyOnWriteArrayList<Job> jobs = new CopyOnWriteArrayList<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final Runnable flushRunnable = new Runnable() {
+    @Override
+    public void run() {
+      scheduled.set(false);
+      flush(null);
+    }
+  };
+
+  ProgressAggregator(Emitter emitter) {
+    this.emitter = emitter;
+  }
+
+  Job register(int jobId, int kind) {
+    Job job = new Job(jobId, kind);
+    jobs.add(job);
+    return job;
+  }
+
+  /** Safe to call from any thread at any rate. */
+  void update(Job job, long total, long current) {
+    synchronized (job) {
+      job.total = total;
+      job.current = current;
+    }
+    job.dirty.set(true);
+    if (scheduled.compareAndSet(false, true)) {
+      handler.postDelayed(flushRunnable, FRAME_INTERVAL_MS);
+    }
+  }
+
+  /**
+   * Stops tracking {@code job}, first sending its pending update so the last progress event
+   * reaches JS before the job's promise settles.
+   */
+  void unregister(Job job) {
+    if (job == null) {
+      return;
+    }
+    jobs.remove(job);
+    flush(job);
+  }
+
+  private synchronized void flush(Job only) {
+    WritableArray batch = null;
+    if (only != null) {
+      if (only.dirty.getAndSet(false)) {
+        batch = Arguments.createArray();
+        batch.pushMap(toMap(only));
+      }
+    } else {
+      for (Job job : jobs) {
+        if (!job.dirty.getAndSet(false)) {
+          continue;
+        }
+        if (batch == null) {
+          batch = Arguments.createArray();
+        }
+        batch.pushMap(toMap(job));
+      }
+    }
+
+    if (batch != null) {
+      WritableMap data = Arguments.createMap();
+      data.putArray("jobs", batch);
+      emitter.emit(EVENT_NAME, data);
+    }
+  }
+
+  private static WritableMap toMap(Job job) {
+    long total;
+    long current;
+    synchronized (job) {
+      total = job.total;
+      current = job.current;
+    }
+    WritableMap map = Arguments.createMap();
+    map.putInt("jobId", job.jobId);
+    if (job.kind == KIND_DOWNLOAD) {
+      map.putString("type", "download");
+      map.putDouble("contentLength", (double) total);
+      map.putDouble("bytesWritten", (double) current);
+    } else if (job.kind == KIND_DELETE) {
+      map.putString("type", "delete");
+      map.putDouble("filesDeleted", (double) total);
+      map.putDouble("bytesDeleted", (double) current);
+    } else {
+      map.putString("type", "upload");
+      map.putDouble("totalBytesExpectedToSend", (double) total);
+      map.putDouble("totalBytesSent", (double) current);
+    }
+    return map;
+  }
+}
@@ -6,8 +6,13 @@ import android.database.Cursor;
 import android.net.Uri;
 import android.os.AsyncTask;
 import android.os.Environment;
+import android.os.ParcelFileDescriptor;
 import android.os.StatFs;
 import android.provider.MediaStore;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+import android.system.StructStat;
 import android.util.Log;
 import android.util.Base64;
 import android.util.SparseArray;
@@ -26,6 +31,7 @@ import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.module.annotations.ReactModule;
@@ -33,6 +39,10 @@ import com.facebook.react.modules.core.RCTNativeAppEventEmitter;
 import com.facebook.react.turbomodule.core.CallInvokerHolderImpl;
 import com.facebook.react.turbomodule.core.interfaces.CallInvokerHolder;
 
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -44,15 +54,25 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.net.URL;
-import java.security.MessageDigest;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.Enumeration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.util.zip.ZipException;
 import java.util.zip.ZipOutputStream;
 
 @ReactModule(name = RNFSManager.MODULE_NAME)
@@ -73,9 +93,28 @@ public class RNFSManager extends ReactContextBaseJavaModule {
   private static final String RNFSFileTypeRegular = "RNFSFileTypeRegular";
   private static final String RNFSFileTypeDirectory = "RNFSFileTypeDirectory";
   private static final int RNFSPathTailMaxLength = 96;
+  // Never written to the transfer journal; callers resupply them when resuming.
+  private static final Set<String> RNFSCredentialHeaders = new HashSet<>(
+      Arrays.asList("authorization", "proxy-authorization", "cookie"));
+  private static final int RNFSDefaultGroupCommitWindowMs = 10;
+  // Multiple of 3 so every chunk encodes to Base64 without padding.
+  private static final int RNFSBase64ChunkSize = 3 * 64 * 1024;
 
   private SparseArray<Downloader> downloaders = new SparseArray<>();
   private SparseArray<Uploader> uploaders = new SparseArray<>();
+  private final SparseArray<DiskUsageScanner> diskUsageScans = new SparseArray<>();
+  private final SparseArray<DeleteJob> deleteJobs = new SparseArray<>();
+  // Shared across module instances so a reload never has two stores managing one directory.
+  // Each store is opened by the first caller outside the map lock; later callers wait on its task.
+  private static final Map<String, FutureTask<CacheStore>> cacheStores = new HashMap<>();
+  private final TransferJobManager transferJobs = new TransferJobManager();
+  private TransferJournal transferJournal;
+  private final ProgressAggregator progressAggregator = new ProgressAggregator(new ProgressAggregator.Emitter() {
+    @Override
+    public void emit(String eventName, WritableMap data) {
+      sendEvent(getReactApplicationContext(), eventName, data);
+    }
+  });
 
   private ReactApplicationContext reactContext;
 
@@ -93,6 +132,10 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     return "..." + path.substring(path.length() - RNFSPathTailMaxLength);
   }
 
+  private static Executor ioExecutor(IOScheduler.Lane lane) {
+    return IOScheduler.getInstance().executor(lane);
+  }
+
   public RNFSManager(ReactApplicationContext reactContext) {
     super(reactContext);
     this.reactContext = reactContext;
@@ -204,6 +247,35 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     return stream;
   }
 
+  /**
+   * Output stream for durable writes, which need a descriptor to fsync. A target that cannot
+   * provide one fails here, before a truncating open has emptied it.
+   */
+  private FileOutputStream getDurableOutputStream(String filepath, boolean append) throws IORejectionException {
+    Uri uri = getFileUri(filepath, false);
+    ParcelFileDescriptor descriptor;
+    try {
+      descriptor = reactContext.getContentResolver().openFileDescriptor(uri, append ? "wa" : getWriteAccessByAPILevel());
+    } catch (FileNotFoundException ex) {
+      throw new IORejectionException("ENOENT", "ENOENT: " + ex.getMessage() + ", open '" + filepath + "'");
+    }
+    if (descriptor == null) {
+      throw new IORejectionException("EINVAL", "EINVAL: durable writes need a file descriptor, open '" + filepath + "'");
+    }
+    return new ParcelFileDescriptor.AutoCloseOutputStream(descriptor);
+  }
+
+  /**
+   * Lets a queued atomic write to {@code filepath} land first, so a plain write issued after it
+   * goes into the file it produced and is not discarded by its rename.
+   */
+  private void awaitPendingReplace(String filepath) throws IORejectionException {
+    File target = getFileFromFileUri(filepath, true);
+    if (target != null) {
+      WriteCommitter.getInstance().awaitReplaces(target);
+    }
+  }
+
   private static byte[] getInputStreamBytes(InputStream inputStream) throws IOException {
     byte[] bytesResult;
     ByteArrayOutputStream byteBuffer = new ByteArrayOutputStream();
@@ -228,7 +300,18 @@ public class RNFSManager extends ReactContextBaseJavaModule {
   public void writeFile(String filepath, String base64Content, ReadableMap options, Promise promise) {
     try {
       byte[] bytes = Base64.decode(base64Content, Base64.DEFAULT);
+      boolean atomic = getBooleanOption(options, "atomic", false);
+      long commitWindowMs = getCommitWindowMs(options, atomic);
 
+      if (atomic) {
+        writeFileAtomic(filepath, bytes, commitWindowMs, promise);
+        return;
+      }
+      awaitPendingReplace(filepath);
+      if (commitWindowMs >= 0) {
+        writeAndCommit(filepath, getDurableOutputStream(filepath, false), bytes, commitWindowMs, promise);
+        return;
+      }
       OutputStream outputStream = getOutputStream(filepath, false);
       outputStream.write(bytes);
       outputStream.close();
@@ -244,6 +327,7 @@ public class RNFSManager extends ReactContextBaseJavaModule {
   public void appendFile(String filepath, String base64Content, Promise promise) {
     try {
       byte[] bytes = Base64.decode(base64Content, Base64.DEFAULT);
+      awaitPendingReplace(filepath);
 
       OutputStream outputStream = getOutputStream(filepath, true);
       outputStream.write(bytes);
@@ -260,6 +344,7 @@ public class RNFSManager extends ReactContextBaseJavaModule {
   public void write(String filepath, String base64Content, int position, Promise promise) {
     try {
       byte[] bytes = Base64.decode(base64Content, Base64.DEFAULT);
+      awaitPendingReplace(filepath);
 
       if (position < 0) {
         OutputStream outputStream = getOutputStream(filepath, true);
@@ -279,6 +364,109 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     }
   }
 
+  /** appendFile (position < 0) and write with the durability options of writeFile. */
+  @ReactMethod
+  public void writeWithOptions(String filepath, String base64Content, int position, ReadableMap options, Promise promise) {
+    try {
+      byte[] bytes = Base64.decode(base64Content, Base64.DEFAULT);
+      long commitWindowMs = getCommitWindowMs(options, false);
+      awaitPendingReplace(filepath);
+
+      if (position < 0) {
+        if (commitWindowMs >= 0) {
+          writeAndCommit(filepath, getDurableOutputStream(filepath, true), bytes, commitWindowMs, promise);
+          return;
+        }
+        OutputStream outputStream = getOutputStream(filepath, true);
+        outputStream.write(bytes);
+        outputStream.close();
+      } else {
+        RandomAccessFile file = new RandomAccessFile(filepath, "rw");
+        try {
+          file.seek(position);
+          file.write(bytes);
+        } catch (IOException ex) {
+          file.close();
+          throw ex;
+        }
+        if (commitWindowMs >= 0) {
+          WriteCommitter.getInstance().sync(file, file.getFD(), commitWindowMs, commitCallback(filepath, promise));
+          return;
+        }
+        file.close();
+      }
+
+      promise.resolve(null);
+    } catch (Exception ex) {
+      ex.printStackTrace();
+      reject(promise, filepath, ex);
+    }
+  }
+
+  /**
+   * How long a durable write may wait for others to share its fsync: -1 for no fsync, 0 for
+   * an fsync right away. Atomic writes are always synced, or the rename could expose an empty
+   * file after a power loss.
+   */
+  private long getCommitWindowMs(ReadableMap options, boolean atomic) throws IORejectionException {
+    String durability = getStringOption(options, "durability", "none");
+    if ("none".equals(durability)) {
+      return atomic ? 0 : -1;
+    }
+    if ("fsync".equals(durability)) {
+      return 0;
+    }
+    if ("group".equals(durability)) {
+      int windowMs = getIntOption(options, "groupCommitWindowMs", RNFSDefaultGroupCommitWindowMs);
+      return Math.max(1, Math.min(WriteCommitter.MAX_WINDOW_MS, windowMs));
+    }
+    throw new IORejectionException("EINVAL", "EINVAL: unknown durability '" + durability + "'");
+  }
+
+  /** Writes into a hidden temp file next to the target, which the committer renames over it. */
+  private void writeFileAtomic(String filepath, byte[] bytes, long commitWindowMs, Promise promise) throws Exception {
+    File target = getFileFromFileUri(filepath, false);
+    if (target == null) {
+      throw new IORejectionException("EINVAL", "EINVAL: atomic writes need a file path, open '" + filepath + "'");
+    }
+    File temp = WriteCommitter.tempFileFor(target);
+    FileOutputStream outputStream = new FileOutputStream(temp);
+    try {
+      outputStream.write(bytes);
+    } catch (IOException ex) {
+      outputStream.close();
+      temp.delete();
+      throw ex;
+    }
+    WriteCommitter.getInstance().replace(
+        outputStream, outputStream.getFD(), temp, target, commitWindowMs, commitCallback(filepath, promise));
+  }
+
+  private void writeAndCommit(String filepath, FileOutputStream outputStream, byte[] bytes, long commitWindowMs, Promise promise)
+      throws IOException {
+    try {
+      outputStream.write(bytes);
+    } catch (IOException ex) {
+      outputStream.close();
+      throw ex;
+    }
+    WriteCommitter.getInstance().sync(
+        outputStream, outputStream.getFD(), commitWindowMs, commitCallback(filepath, promise));
+  }
+
+  private WriteCommitter.Callback commitCallback(final String filepath, final Promise promise) {
+    return new WriteCommitter.Callback() {
+      @Override
+      public void onCommitted(Exception error) {
+        if (error != null) {
+          reject(promise, filepath, error);
+        } else {
+          promise.resolve(null);
+        }
+      }
+    };
+  }
+
   @ReactMethod
   public void exists(String filepath, Promise promise) {
     try {
@@ -290,9 +478,175 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     }
   }
 
+  @ReactMethod
+  public void existsMany(ReadableArray filepaths, Promise promise) {
+    new BatchLookupTask(BatchLookupTask.EXISTS, promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), filepaths);
+  }
+
+  @ReactMethod
+  public void existsAssetsMany(ReadableArray filepaths, Promise promise) {
+    new BatchLookupTask(BatchLookupTask.EXISTS_ASSET, promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), filepaths);
+  }
+
+  @ReactMethod
+  public void existsResMany(ReadableArray filenames, Promise promise) {
+    new BatchLookupTask(BatchLookupTask.EXISTS_RES, promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), filenames);
+  }
+
+  @ReactMethod
+  public void statMany(ReadableArray filepaths, Promise promise) {
+    new BatchLookupTask(BatchLookupTask.STAT, promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), filepaths);
+  }
+
+  private static class BatchLookupResult {
+    WritableArray results;
+    int count;
+    long durationUs;
+    Exception exception;
+  }
+
+  /** Answers a whole batch of exists/stat lookups with one bridge call and one DISK lane task. */
+  private class BatchLookupTask extends AsyncTask<ReadableArray, Void, BatchLookupResult> {
+    static final int EXISTS = 0;
+    static final int EXISTS_ASSET = 1;
+    static final int EXISTS_RES = 2;
+    static final int STAT = 3;
+
+    private final int mode;
+    private final Promise promise;
+
+    BatchLookupTask(int mode, Promise promise) {
+      this.mode = mode;
+      this.promise = promise;
+    }
+
+    @Override
+    protected BatchLookupResult doInBackground(ReadableArray... args) {
+      BatchLookupResult result = new BatchLookupResult();
+      long startedAt = System.nanoTime();
+      ReadableArray paths = args[0];
+      result.results = Arguments.createArray();
+
+      try {
+        AssetManager assetManager = mode == EXISTS_ASSET ? getReactApplicationContext().getAssets() : null;
+        for (int index = 0; index < paths.size(); index += 1) {
+          String path = paths.getString(index);
+          if (mode == EXISTS) {
+            result.results.pushBoolean(new File(path).exists());
+          } else if (mode == EXISTS_ASSET) {
+            result.results.pushBoolean(assetExists(assetManager, path));
+          } else if (mode == EXISTS_RES) {
+            result.results.pushBoolean(getResIdentifier(path) > 0);
+          } else {
+            result.results.pushMap(statEntry(path));
+          }
+          result.count += 1;
+        }
+      } catch (Exception ex) {
+        result.exception = ex;
+      } finally {
+        result.durationUs = (System.nanoTime() - startedAt) / 1000;
+      }
+      return result;
+    }
+
+    @Override
+    protected void onPostExecute(BatchLookupResult result) {
+      if (result.exception != null) {
+        result.exception.printStackTrace();
+        reject(promise, null, result.exception);
+        return;
+      }
+
+      Log.i(
+          "RabbyNativeFS",
+          String.format(
+              Locale.US,
+              "[batch] op=%s paths=%d duration_us=%d",
+              mode == STAT ? "statMany" : (mode == EXISTS ? "existsMany" : (mode == EXISTS_ASSET ? "existsAssetsMany" : "existsResMany")),
+              result.count,
+              result.durationUs));
+      promise.resolve(result.results);
+    }
+  }
+
+  /**
+   * One stat() for one entry of a batch. Failures are reported per path instead of failing the
+   * batch: a missing file has {@code exists: false}, anything else also carries an error code.
+   */
+  private WritableMap statEntry(String filepath) {
+    WritableMap statMap = Arguments.createMap();
+    statMap.putString("path", filepath);
+    try {
+      String originalFilepath = getOriginalFilepath(filepath, true);
+      StructStat stat = Os.stat(originalFilepath);
+      statMap.putBoolean("exists", true);
+      // Same ctime as stat(), which reports lastModified; st_ctime is the inode change time.
+      statMap.putInt("ctime", (int) stat.st_mtime);
+      statMap.putInt("mtime", (int) stat.st_mtime);
+      statMap.putDouble("size", (double) stat.st_size);
+      statMap.putInt("mode", stat.st_mode);
+      statMap.putInt("type", OsConstants.S_ISDIR(stat.st_mode) ? 1 : 0);
+      statMap.putString("originalFilepath", originalFilepath);
+    } catch (ErrnoException ex) {
+      statMap.putBoolean("exists", false);
+      if (ex.errno != OsConstants.ENOENT && ex.errno != OsConstants.ENOTDIR) {
+        statMap.putString("error", OsConstants.errnoName(ex.errno));
+      }
+    } catch (IORejectionException ex) {
+      statMap.putBoolean("exists", false);
+      statMap.putString("error", ex.getCode());
+    }
+    return statMap;
+  }
+
+  /**
+   * Encodes a regular file to Base64 straight from a read-only mapping, one chunk at a time, so
+   * the file bytes never land on the heap. The builder is presized to the encoded length; peak
+   * heap is that builder plus the copy {@code toString()} makes, and one short-lived String per
+   * chunk. A file truncated while mapped makes the read throw {@link InternalError}, which is
+   * reported as EIO.
+   */
+  private static String readMappedFileAsBase64(File file)
+      throws IOException, IORejectionException {
+    try (FileInputStream inputStream = new FileInputStream(file);
+         FileChannel channel = inputStream.getChannel()) {
+      long size = channel.size();
+      if (size > (long) Integer.MAX_VALUE / 4 * 3) {
+        throw new IOException("File is too large to read as Base64: " + file.getPath());
+      }
+
+      StringBuilder base64Content = new StringBuilder((int) ((size + 2) / 3 * 4));
+      if (size == 0) {
+        return "";
+      }
+
+      MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      byte[] chunk = new byte[(int) Math.min(RNFSBase64ChunkSize, size)];
+      try {
+        while (mappedBuffer.hasRemaining()) {
+          int length = Math.min(chunk.length, mappedBuffer.remaining());
+          mappedBuffer.get(chunk, 0, length);
+          base64Content.append(Base64.encodeToString(chunk, 0, length, Base64.NO_WRAP));
+        }
+      } catch (InternalError e) {
+        // ART surfaces the SIGBUS from a page past the new end of file this way.
+        throw new IORejectionException(
+            "EIO", "EIO: file was truncated while being read, '" + file.getPath() + "'");
+      }
+      return base64Content.toString();
+    }
+  }
+
   @ReactMethod
   public void readFile(String filepath, Promise promise) {
     try {
+      File file = getFileFromFileUri(filepath, false);
+      if (file != null && file.isFile()) {
+        promise.resolve(readMappedFileAsBase64(file));
+        return;
+      }
+
       InputStream inputStream = getInputStream(filepath);
       byte[] inputData = getInputStreamBytes(inputStream);
       String base64Content = Base64.encodeToString(inputData, Base64.NO_WRAP);
@@ -325,6 +679,12 @@ public class RNFSManager extends ReactContextBaseJavaModule {
   public void readFileAssets(String filepath, Promise promise) {
     InputStream stream = null;
     try {
+      File cachedFile = AssetCache.getInstance(getReactApplicationContext()).cachedFile(filepath);
+      if (cachedFile != null) {
+        promise.resolve(readMappedFileAsBase64(cachedFile));
+        return;
+      }
+
       // ensure isn't a directory
       AssetManager assetManager = getReactApplicationContext().getAssets();
       stream = assetManager.open(filepath, 0);
@@ -333,9 +693,8 @@ public class RNFSManager extends ReactContextBaseJavaModule {
         return;
       }
 
-      byte[] buffer = new byte[stream.available()];
-      stream.read(buffer);
-      String base64Content = Base64.encodeToString(buffer, Base64.NO_WRAP);
+      // available() is only an estimate for compressed assets, so read to the end.
+      String base64Content = Base64.encodeToString(getInputStreamBytes(stream), Base64.NO_WRAP);
       promise.resolve(base64Content);
     } catch (Exception ex) {
       ex.printStackTrace();
@@ -388,16 +747,7 @@ public class RNFSManager extends ReactContextBaseJavaModule {
   @ReactMethod
   public void hash(String filepath, String algorithm, Promise promise) {
     try {
-      Map<String, String> algorithms = new HashMap<>();
-
-      algorithms.put("md5", "MD5");
-      algorithms.put("sha1", "SHA-1");
-      algorithms.put("sha224", "SHA-224");
-      algorithms.put("sha256", "SHA-256");
-      algorithms.put("sha384", "SHA-384");
-      algorithms.put("sha512", "SHA-512");
-
-      if (!algorithms.containsKey(algorithm)) throw new Exception("Invalid hash algorithm");
+      if (!FileHasher.isSupported(algorithm)) throw new Exception("Invalid hash algorithm");
 
       File file = new File(filepath);
 
@@ -411,21 +761,7 @@ public class RNFSManager extends ReactContextBaseJavaModule {
         return;
       }
 
-      MessageDigest md = MessageDigest.getInstance(algorithms.get(algorithm));
-
-      FileInputStream inputStream = new FileInputStream(filepath);
-      byte[] buffer = new byte[1024 * 10]; // 10 KB Buffer
-
-      int read;
-      while ((read = inputStream.read(buffer)) != -1) {
-        md.update(buffer, 0, read);
-      }
-
-      StringBuilder hexString = new StringBuilder();
-      for (byte digestByte : md.digest())
-        hexString.append(String.format("%02x", digestByte));
-
-      promise.resolve(hexString.toString());
+      promise.resolve(FileHasher.hash(file, algorithm).digests.get(algorithm));
     } catch (Exception ex) {
       ex.printStackTrace();
       reject(promise, filepath, ex);
@@ -433,71 +769,527 @@ public class RNFSManager extends ReactContextBaseJavaModule {
   }
 
   @ReactMethod
-  public void moveFile(final String filepath, String destPath, ReadableMap options, final Promise promise) {
-    try {
-      final File inFile = new File(filepath);
+  public void hashFiles(final ReadableArray filepaths, final ReadableArray algorithms, final Promise promise) {
+    new HashFilesTask(promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), filepaths, algorithms);
+  }
 
-      if (!inFile.renameTo(new File(destPath))) {
-        new CopyFileTask() {
-          @Override
-          protected void onPostExecute (Exception ex) {
-            if (ex == null) {
-              inFile.delete();
-              promise.resolve(true);
-            } else {
-              ex.printStackTrace();
-              reject(promise, filepath, ex);
+  private static class HashFilesResult {
+    WritableArray files;
+    int fileCount;
+    int parallelism;
+    long totalBytes;
+    long durationMs;
+    String failedPath;
+    Exception exception;
+  }
+
+  private class HashFilesTask extends AsyncTask<Object, Void, HashFilesResult> {
+    private final Promise promise;
+
+    HashFilesTask(Promise promise) {
+      this.promise = promise;
+    }
+
+    @Override
+    protected HashFilesResult doInBackground(Object... args) {
+      HashFilesResult result = new HashFilesResult();
+      long startedAt = System.nanoTime();
+      ReadableArray filepaths = (ReadableArray) args[0];
+      ReadableArray algorithmList = (ReadableArray) args[1];
+      result.files = Arguments.createArray();
+      ArrayList<FutureTask<FileHasher.Result>> tasks = new ArrayList<>();
+
+      try {
+        final String[] algorithms = new String[algorithmList.size()];
+        for (int index = 0; index < algorithms.length; index += 1) {
+          algorithms[index] = algorithmList.getString(index);
+          if (!FileHasher.isSupported(algorithms[index])) {
+            throw new Exception("Invalid hash algorithm");
+          }
+        }
+
+        // Files are hashed concurrently on the CPU lane; a single file is still one sequential pass.
+        IOScheduler scheduler = IOScheduler.getInstance();
+        result.parallelism = Math.min(filepaths.size(), scheduler.threadCount(IOScheduler.Lane.CPU) + 1);
+        for (int index = 0; index < filepaths.size(); index += 1) {
+          final File file = new File(filepaths.getString(index));
+          tasks.add(scheduler.submit(IOScheduler.Lane.CPU, new Callable<FileHasher.Result>() {
+            @Override
+            public FileHasher.Result call() throws Exception {
+              if (file.isDirectory()) {
+                throw new IORejectionException("EISDIR", "EISDIR: illegal operation on a directory, read '" + file.getPath() + "'");
+              }
+              if (!file.exists()) {
+                throw new IORejectionException("ENOENT", "ENOENT: no such file or directory, open '" + file.getPath() + "'");
+              }
+              return FileHasher.hash(file, algorithms);
             }
+          }));
+        }
+
+        for (int index = 0; index < tasks.size(); index += 1) {
+          result.failedPath = filepaths.getString(index);
+          FileHasher.Result fileResult = IOScheduler.awaitHelping(tasks.get(index));
+          WritableMap digestsMap = Arguments.createMap();
+          for (Map.Entry<String, String> digest : fileResult.digests.entrySet()) {
+            digestsMap.putString(digest.getKey(), digest.getValue());
           }
-        }.execute(filepath, destPath);
-      } else {
-          promise.resolve(true);
+          WritableMap fileMap = Arguments.createMap();
+          fileMap.putString("path", result.failedPath);
+          fileMap.putMap("digests", digestsMap);
+          fileMap.putDouble("bytes", (double) fileResult.bytes);
+          fileMap.putDouble("durationMs", fileResult.durationNs / 1000000.0);
+          result.files.pushMap(fileMap);
+          result.fileCount += 1;
+          result.totalBytes += fileResult.bytes;
+        }
+        result.failedPath = null;
+      } catch (Exception ex) {
+        for (FutureTask<FileHasher.Result> task : tasks) {
+          task.cancel(false);
+        }
+        result.exception = ex;
+      } finally {
+        result.durationMs = (System.nanoTime() - startedAt) / 1000000;
       }
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
+
+      return result;
     }
-  }
 
-  @ReactMethod
-  public void copyFile(final String filepath, final String destPath, ReadableMap options, final Promise promise) {
-    new CopyFileTask() {
-      @Override
-      protected void onPostExecute (Exception ex) {
-        if (ex == null) {
-          promise.resolve(null);
-        } else {
-          ex.printStackTrace();
-          reject(promise, filepath, ex);
-        }
+    @Override
+    protected void onPostExecute(HashFilesResult result) {
+      if (result.exception != null) {
+        result.exception.printStackTrace();
+        reject(promise, result.failedPath, result.exception);
+        return;
       }
-    }.execute(filepath, destPath);
-  }
 
-  @ReactMethod
-  public void persistFile(final String sourceUri, final String targetPath, final ReadableMap options, final Promise promise) {
-    new PersistFileTask(promise).execute(sourceUri, targetPath, options);
+      double bytesPerSecond = result.durationMs > 0
+          ? result.totalBytes * 1000.0 / result.durationMs
+          : (double) result.totalBytes;
+      Log.i(
+          "RabbyNativeFS",
+          String.format(
+              Locale.US,
+              "[hash] op=hashFiles files=%d parallelism=%d bytes=%d duration_ms=%d bytes_per_sec=%.0f",
+              result.fileCount,
+              result.parallelism,
+              result.totalBytes,
+              result.durationMs,
+              bytesPerSecond));
+
+      WritableMap infoMap = Arguments.createMap();
+      infoMap.putArray("files", result.files);
+      infoMap.putInt("fileCount", result.fileCount);
+      infoMap.putInt("parallelism", result.parallelism);
+      infoMap.putDouble("totalBytes", (double) result.totalBytes);
+      infoMap.putDouble("durationMs", (double) result.durationMs);
+      infoMap.putDouble("bytesPerSecond", bytesPerSecond);
+      promise.resolve(infoMap);
+    }
   }
 
   @ReactMethod
-  public void createZipArchive(final String targetPath, final ReadableArray entries, final ReadableMap options, final Promise promise) {
-    new CreateZipArchiveTask(promise).execute(targetPath, entries, options);
+  public void getDiskUsage(final String path, final ReadableMap options, final Promise promise) {
+    // Registered before the task is queued, so a cancel that arrives while it waits for a DISK
+    // thread is not lost.
+    int scanId = getIntOption(options, "scanId", -1);
+    DiskUsageScanner scanner = new DiskUsageScanner(
+        new File(path),
+        getIntOption(options, "topCount", DiskUsageScanner.DEFAULT_TOP_COUNT));
+    if (scanId >= 0) {
+      synchronized (diskUsageScans) {
+        diskUsageScans.put(scanId, scanner);
+      }
+    }
+    new DiskUsageTask(promise, scanId, scanner)
+        .executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), path, options);
   }
 
   @ReactMethod
-  public void extractZipEntry(final String archivePath, final String targetPath, final ReadableMap options, final Promise promise) {
-    new ExtractZipEntryTask(promise).execute(archivePath, targetPath, options);
+  public void cancelDiskUsage(int scanId) {
+    DiskUsageScanner scanner;
+    synchronized (diskUsageScans) {
+      scanner = diskUsageScans.get(scanId);
+    }
+    if (scanner != null) {
+      scanner.cancel();
+    }
   }
 
-  @ReactMethod
-  public void listZipEntries(final String archivePath, final ReadableMap options, final Promise promise) {
-    new ListZipEntriesTask(promise).execute(archivePath, options);
+  private static class DiskUsageTaskResult {
+    String path;
+    DiskUsageScanner.Result usage;
+    long durationMs;
+    Exception exception;
   }
 
-  private static String normalizeZipEntryName(String entryName) throws IOException {
-    if (entryName == null) {
-      throw new IOException("Zip entry path is required");
-    }
+  private class DiskUsageTask extends AsyncTask<Object, Void, DiskUsageTaskResult> {
+    private final Promise promise;
+    private final int scanId;
+    private final DiskUsageScanner scanner;
+
+    DiskUsageTask(Promise promise, int scanId, DiskUsageScanner scanner) {
+      this.promise = promise;
+      this.scanId = scanId;
+      this.scanner = scanner;
+    }
+
+    @Override
+    protected DiskUsageTaskResult doInBackground(Object... args) {
+      DiskUsageTaskResult result = new DiskUsageTaskResult();
+      long startedAt = System.nanoTime();
+      result.path = (String) args[0];
+      ReadableMap options = (ReadableMap) args[1];
+
+      try {
+        int parallelism = getIntOption(
+            options,
+            "parallelism",
+            IOScheduler.getInstance().threadCount(IOScheduler.Lane.DISK));
+        result.usage = scanner.scan(Math.min(parallelism, IOScheduler.MAX_LANE_THREADS));
+      } catch (Exception ex) {
+        result.exception = ex;
+      } finally {
+        if (scanId >= 0) {
+          synchronized (diskUsageScans) {
+            diskUsageScans.remove(scanId);
+          }
+        }
+        result.durationMs = (System.nanoTime() - startedAt) / 1000000;
+      }
+      return result;
+    }
+
+    @Override
+    protected void onPostExecute(DiskUsageTaskResult result) {
+      if (result.exception != null) {
+        result.exception.printStackTrace();
+        reject(promise, result.path, result.exception);
+        return;
+      }
+
+      DiskUsageScanner.Result usage = result.usage;
+      Log.i(
+          "RabbyNativeFS",
+          String.format(
+              Locale.US,
+              "[du] op=getDiskUsage files=%d dirs=%d bytes=%d errors=%d parallelism=%d duration_ms=%d path_tail=%s",
+              usage.fileCount,
+              usage.directoryCount,
+              usage.totalBytes,
+              usage.errorCount,
+              usage.parallelism,
+              result.durationMs,
+              pathTail(result.path)));
+
+      WritableArray largest = Arguments.createArray();
+      for (DiskUsageScanner.Entry entry : usage.largest) {
+        WritableMap entryMap = Arguments.createMap();
+        entryMap.putString("path", entry.path);
+        entryMap.putDouble("size", (double) entry.size);
+        entryMap.putDouble("mtime", (double) entry.mtimeMs / 1000);
+        largest.pushMap(entryMap);
+      }
+
+      WritableMap infoMap = Arguments.createMap();
+      infoMap.putString("path", result.path);
+      infoMap.putDouble("totalBytes", (double) usage.totalBytes);
+      infoMap.putDouble("allocatedBytes", (double) usage.allocatedBytes);
+      infoMap.putInt("fileCount", usage.fileCount);
+      infoMap.putInt("directoryCount", usage.directoryCount);
+      infoMap.putInt("otherCount", usage.otherCount);
+      infoMap.putInt("errorCount", usage.errorCount);
+      infoMap.putArray("largest", largest);
+      infoMap.putInt("parallelism", usage.parallelism);
+      infoMap.putDouble("durationMs", (double) result.durationMs);
+      promise.resolve(infoMap);
+    }
+  }
+
+  @ReactMethod
+  public void openCacheStore(final String name, final ReadableMap options, final Promise promise) {
+    new OpenCacheStoreTask(promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), name, options);
+  }
+
+  @ReactMethod
+  public void cacheStoreGet(String name, String key, Promise promise) {
+    try {
+      File file = getCacheStore(name).get(key);
+      promise.resolve(file != null ? file.getAbsolutePath() : null);
+    } catch (Exception ex) {
+      reject(promise, name, ex);
+    }
+  }
+
+  @ReactMethod
+  public void cacheStorePut(final String name, final String key, final String sourcePath, final ReadableMap options, final Promise promise) {
+    new CacheStorePutTask(promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), name, key, sourcePath, options);
+  }
+
+  @ReactMethod
+  public void cacheStoreTouch(String name, String key, Promise promise) {
+    try {
+      promise.resolve(getCacheStore(name).touch(key));
+    } catch (Exception ex) {
+      reject(promise, name, ex);
+    }
+  }
+
+  @ReactMethod
+  public void cacheStoreRemove(String name, String key, Promise promise) {
+    try {
+      promise.resolve(getCacheStore(name).remove(key));
+    } catch (Exception ex) {
+      reject(promise, name, ex);
+    }
+  }
+
+  @ReactMethod
+  public void cacheStoreClear(String name, Promise promise) {
+    try {
+      getCacheStore(name).clear();
+      promise.resolve(null);
+    } catch (Exception ex) {
+      reject(promise, name, ex);
+    }
+  }
+
+  @ReactMethod
+  public void getCacheStoreStats(String name, Promise promise) {
+    try {
+      promise.resolve(cacheStoreStatsToMap(name, getCacheStore(name).stats()));
+    } catch (Exception ex) {
+      reject(promise, name, ex);
+    }
+  }
+
+  private static CacheStore getCacheStore(String name) throws IORejectionException {
+    FutureTask<CacheStore> opening;
+    synchronized (cacheStores) {
+      opening = cacheStores.get(name);
+    }
+    if (opening != null && opening.isDone()) {
+      try {
+        return opening.get();
+      } catch (Exception ex) {
+        // Failed to open; openCacheStore reported it.
+      }
+    }
+    throw new IORejectionException("EINVAL", "EINVAL: cache store '" + name + "' is not open");
+  }
+
+  private static WritableMap cacheStoreStatsToMap(String name, CacheStore.Stats stats) {
+    WritableMap statsMap = Arguments.createMap();
+    statsMap.putString("name", name);
+    statsMap.putInt("entries", stats.entries);
+    statsMap.putDouble("bytes", (double) stats.bytes);
+    statsMap.putDouble("maxBytes", (double) stats.maxBytes);
+    statsMap.putString("policy", CacheStore.policyName(stats.policy));
+    statsMap.putDouble("hits", (double) stats.hits);
+    statsMap.putDouble("misses", (double) stats.misses);
+    statsMap.putDouble("evictions", (double) stats.evictions);
+    statsMap.putDouble("evictedBytes", (double) stats.evictedBytes);
+    return statsMap;
+  }
+
+  private static class CacheStoreTaskResult {
+    String name;
+    CacheStore.Stats stats;
+    File file;
+    Exception exception;
+  }
+
+  private class OpenCacheStoreTask extends AsyncTask<Object, Void, CacheStoreTaskResult> {
+    private final Promise promise;
+
+    OpenCacheStoreTask(Promise promise) {
+      this.promise = promise;
+    }
+
+    @Override
+    protected CacheStoreTaskResult doInBackground(Object... args) {
+      CacheStoreTaskResult result = new CacheStoreTaskResult();
+      result.name = (String) args[0];
+      ReadableMap options = (ReadableMap) args[1];
+
+      try {
+        if (result.name == null || !result.name.matches("[A-Za-z0-9_-][A-Za-z0-9._-]{0,63}")) {
+          throw new IORejectionException("EINVAL", "EINVAL: invalid cache store name '" + result.name + "'");
+        }
+        long maxBytes = options != null && options.hasKey("maxBytes") && !options.isNull("maxBytes")
+            ? (long) options.getDouble("maxBytes")
+            : CacheStore.DEFAULT_MAX_BYTES;
+        final int policy = CacheStore.parsePolicy(getStringOption(options, "policy", "lru"));
+
+        // Opening twice only updates the budget, so every caller can open at startup.
+        FutureTask<CacheStore> opening;
+        boolean opener = false;
+        synchronized (cacheStores) {
+          opening = cacheStores.get(result.name);
+          if (opening == null) {
+            final String name = result.name;
+            final long budget = maxBytes;
+            final File directory = new File(new File(getReactApplicationContext().getCacheDir(), "rnfs-cache-stores"), name);
+            opening = new FutureTask<>(new Callable<CacheStore>() {
+              @Override
+              public CacheStore call() throws Exception {
+                CacheStore store = new CacheStore(directory, name);
+                store.open(budget, policy);
+                return store;
+              }
+            });
+            cacheStores.put(name, opening);
+            opener = true;
+          }
+        }
+
+        // Loading and reconciling the index runs without the map lock, so it no longer holds
+        // up opens and lookups of other stores.
+        if (opener) {
+          opening.run();
+        }
+        CacheStore store;
+        try {
+          store = opening.get();
+        } catch (ExecutionException ex) {
+          synchronized (cacheStores) {
+            if (cacheStores.get(result.name) == opening) {
+              cacheStores.remove(result.name);
+            }
+          }
+          throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+        }
+        if (!opener) {
+          store.configure(maxBytes, policy);
+        }
+        result.stats = store.stats();
+      } catch (Exception ex) {
+        result.exception = ex;
+      }
+      return result;
+    }
+
+    @Override
+    protected void onPostExecute(CacheStoreTaskResult result) {
+      if (result.exception != null) {
+        result.exception.printStackTrace();
+        reject(promise, result.name, result.exception);
+        return;
+      }
+      promise.resolve(cacheStoreStatsToMap(result.name, result.stats));
+    }
+  }
+
+  private class CacheStorePutTask extends AsyncTask<Object, Void, CacheStoreTaskResult> {
+    private final Promise promise;
+
+    CacheStorePutTask(Promise promise) {
+      this.promise = promise;
+    }
+
+    @Override
+    protected CacheStoreTaskResult doInBackground(Object... args) {
+      CacheStoreTaskResult result = new CacheStoreTaskResult();
+      result.name = (String) args[0];
+      String key = (String) args[1];
+      String sourcePath = (String) args[2];
+      ReadableMap options = (ReadableMap) args[3];
+
+      try {
+        result.file = getCacheStore(result.name).put(key, new File(sourcePath), getBooleanOption(options, "move", false));
+      } catch (Exception ex) {
+        result.exception = ex;
+      }
+      return result;
+    }
+
+    @Override
+    protected void onPostExecute(CacheStoreTaskResult result) {
+      if (result.exception != null) {
+        result.exception.printStackTrace();
+        reject(promise, result.name, result.exception);
+        return;
+      }
+
+      WritableMap entryMap = Arguments.createMap();
+      entryMap.putString("path", result.file.getAbsolutePath());
+      entryMap.putDouble("size", (double) result.file.length());
+      promise.resolve(entryMap);
+    }
+  }
+
+  @ReactMethod
+  public void moveFile(final String filepath, String destPath, ReadableMap options, final Promise promise) {
+    try {
+      final File inFile = new File(filepath);
+
+      if (!inFile.renameTo(new File(destPath))) {
+        new CopyFileTask() {
+          @Override
+          protected void onPostExecute (Exception ex) {
+            if (ex == null) {
+              inFile.delete();
+              promise.resolve(true);
+            } else {
+              ex.printStackTrace();
+              reject(promise, filepath, ex);
+            }
+          }
+        }.executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), filepath, destPath);
+      } else {
+          promise.resolve(true);
+      }
+    } catch (Exception ex) {
+      ex.printStackTrace();
+      reject(promise, filepath, ex);
+    }
+  }
+
+  @ReactMethod
+  public void copyFile(final String filepath, final String destPath, ReadableMap options, final Promise promise) {
+    new CopyFileTask() {
+      @Override
+      protected void onPostExecute (Exception ex) {
+        if (ex == null) {
+          promise.resolve(null);
+        } else {
+          ex.printStackTrace();
+          reject(promise, filepath, ex);
+        }
+      }
+    }.executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), filepath, destPath);
+  }
+
+  @ReactMethod
+  public void persistFile(final String sourceUri, final String targetPath, final ReadableMap options, final Promise promise) {
+    new PersistFileTask(promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), sourceUri, targetPath, options);
+  }
+
+  @ReactMethod
+  public void createZipArchive(final String targetPath, final ReadableArray entries, final ReadableMap options, final Promise promise) {
+    new CreateZipArchiveTask(promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.CPU), targetPath, entries, options);
+  }
+
+  @ReactMethod
+  public void extractZipEntry(final String archivePath, final String targetPath, final ReadableMap options, final Promise promise) {
+    new ExtractZipEntryTask(promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.CPU), archivePath, targetPath, options);
+  }
+
+  @ReactMethod
+  public void extractZipEntries(final String archivePath, final String targetDirectory, final ReadableMap options, final Promise promise) {
+    new ExtractZipEntriesTask(promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.CPU), archivePath, targetDirectory, options);
+  }
+
+  @ReactMethod
+  public void listZipEntries(final String archivePath, final ReadableMap options, final Promise promise) {
+    new ListZipEntriesTask(promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), archivePath, options);
+  }
+
+  static String normalizeZipEntryName(String entryName) throws IOException {
+    if (entryName == null) {
+      throw new IOException("Zip entry path is required");
+    }
 
     String normalized = entryName.replace('\\', '/');
     while (normalized.startsWith("/")) {
@@ -550,6 +1342,11 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     long bytesRead;
     long bytesWritten;
     long durationMs;
+    int parallelism;
+    long readMs;
+    long compressMs;
+    long writeMs;
+    long waitMs;
     Exception exception;
   }
 
@@ -559,6 +1356,19 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     String entryName;
     long bytesWritten;
     long durationMs;
+    boolean indexCached;
+    Exception exception;
+  }
+
+  private static class ZipEntriesExtractionResult {
+    String archivePath;
+    String targetDirectory;
+    WritableArray entries;
+    int entryCount;
+    int parallelism;
+    long bytesWritten;
+    long durationMs;
+    boolean indexCached;
     Exception exception;
   }
 
@@ -568,6 +1378,7 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     int entryCount;
     long totalBytes;
     long durationMs;
+    boolean indexCached;
     Exception exception;
   }
 
@@ -594,6 +1405,13 @@ public class RNFSManager extends ReactContextBaseJavaModule {
           parent.mkdirs();
         }
 
+        ZipIndex.invalidate(targetPath);
+        if (getBooleanOption(options, "parallel", false)) {
+          writeParallelZipArchive(targetFile, entries, options, result);
+          result.bytesWritten = targetFile.length();
+          return result;
+        }
+
         byte[] buffer = new byte[256 * 1024];
         try (FileOutputStream outputStream = new FileOutputStream(targetFile, false);
              ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
@@ -641,6 +1459,39 @@ public class RNFSManager extends ReactContextBaseJavaModule {
       return result;
     }
 
+    private void writeParallelZipArchive(
+        File targetFile,
+        ReadableArray entries,
+        ReadableMap options,
+        ZipArchiveResult result) throws Exception {
+      ArrayList<ParallelZipArchiver.Source> sources = new ArrayList<>(entries.size());
+      HashSet<String> archivePaths = new HashSet<>();
+      for (int index = 0; index < entries.size(); index += 1) {
+        ReadableMap entry = entries.getMap(index);
+        String sourcePath = entry.getString("sourcePath");
+        String archivePath = normalizeZipEntryName(entry.getString("archivePath"));
+        File sourceFile = new File(sourcePath);
+        if (!sourceFile.isFile()) {
+          throw new IOException("Zip source file does not exist: " + sourcePath);
+        }
+        if (!archivePaths.add(archivePath)) {
+          throw new ZipException("duplicate entry: " + archivePath);
+        }
+        long mtimeMs = entry.hasKey("mtimeMs") ? (long) entry.getDouble("mtimeMs") : sourceFile.lastModified();
+        sources.add(new ParallelZipArchiver.Source(sourceFile, archivePath, mtimeMs));
+      }
+
+      ParallelZipArchiver.Stats stats =
+          new ParallelZipArchiver(normalizeCompressionLevel(options)).write(targetFile, sources);
+      result.entryCount = stats.entryCount;
+      result.bytesRead = stats.bytesRead;
+      result.parallelism = stats.parallelism;
+      result.readMs = stats.readMs;
+      result.compressMs = stats.compressMs;
+      result.writeMs = stats.writeMs;
+      result.waitMs = stats.waitMs;
+    }
+
     @Override
     protected void onPostExecute(ZipArchiveResult result) {
       if (result.exception != null) {
@@ -659,111 +1510,273 @@ public class RNFSManager extends ReactContextBaseJavaModule {
               result.bytesWritten,
               result.durationMs,
               pathTail(result.targetPath)));
+      if (result.parallelism > 0) {
+        Log.i(
+            "RabbyNativeFS",
+            String.format(
+                Locale.US,
+                "[zip] op=createZipArchiveStages parallelism=%d read_ms=%d compress_ms=%d write_ms=%d wait_ms=%d path_tail=%s",
+                result.parallelism,
+                result.readMs,
+                result.compressMs,
+                result.writeMs,
+                result.waitMs,
+                pathTail(result.targetPath)));
+      }
+
+      WritableMap infoMap = Arguments.createMap();
+      infoMap.putString("targetPath", result.targetPath);
+      infoMap.putInt("entries", result.entryCount);
+      infoMap.putDouble("bytesRead", (double) result.bytesRead);
+      infoMap.putDouble("bytesWritten", (double) result.bytesWritten);
+      infoMap.putDouble("durationMs", (double) result.durationMs);
+      if (result.parallelism > 0) {
+        infoMap.putInt("parallelism", result.parallelism);
+        infoMap.putDouble("readMs", (double) result.readMs);
+        infoMap.putDouble("compressMs", (double) result.compressMs);
+        infoMap.putDouble("writeMs", (double) result.writeMs);
+        infoMap.putDouble("waitMs", (double) result.waitMs);
+      }
+      promise.resolve(infoMap);
+    }
+  }
+
+  private class ExtractZipEntryTask extends AsyncTask<Object, Void, ZipEntryExtractionResult> {
+    private final Promise promise;
+
+    ExtractZipEntryTask(Promise promise) {
+      this.promise = promise;
+    }
+
+    @Override
+    protected ZipEntryExtractionResult doInBackground(Object... args) {
+      ZipEntryExtractionResult result = new ZipEntryExtractionResult();
+      long startedAt = System.nanoTime();
+      String archivePath = (String) args[0];
+      String targetPath = (String) args[1];
+      ReadableMap options = (ReadableMap) args[2];
+      File archiveFile = new File(archivePath);
+      File targetFile = new File(targetPath);
+      result.archivePath = archivePath;
+      result.targetPath = targetPath;
+
+      try {
+        if (!archiveFile.isFile()) {
+          throw new IOException("Zip archive file does not exist: " + archivePath);
+        }
+
+        File parent = targetFile.getParentFile();
+        if (parent != null) {
+          parent.mkdirs();
+        }
+
+        String requestedEntryName = getOptionalString(options, "entryName");
+        if (requestedEntryName != null && requestedEntryName.length() > 0) {
+          requestedEntryName = normalizeZipEntryName(requestedEntryName);
+        } else {
+          requestedEntryName = null;
+        }
+        String entryNameSuffix = getOptionalString(options, "entryNameSuffix");
+
+        ZipIndex.Lookup lookup = ZipIndex.load(archiveFile);
+        result.indexCached = lookup.cached;
+        ZipIndex.Entry selectedEntry = null;
+
+        if (requestedEntryName != null) {
+          ZipIndex.Entry entry = lookup.index.getEntry(requestedEntryName);
+          if (entry != null && !entry.directory) {
+            selectedEntry = entry;
+          }
+        } else {
+          for (ZipIndex.Entry entry : lookup.index.entries) {
+            if (entry.directory || entry.name == null) {
+              continue;
+            }
+
+            if (entryNameSuffix != null && !entry.name.endsWith(entryNameSuffix)) {
+              continue;
+            }
+
+            if (selectedEntry == null || entry.name.compareTo(selectedEntry.name) > 0) {
+              selectedEntry = entry;
+            }
+          }
+        }
+
+        if (selectedEntry == null) {
+          throw new IOException("Zip entry not found in " + archivePath);
+        }
+
+        try (RandomAccessFile archive = new RandomAccessFile(archiveFile, "r")) {
+          result.bytesWritten = ZipIndex.extractTo(archive.getChannel(), selectedEntry, targetFile);
+        }
+        result.entryName = requestedEntryName != null ? requestedEntryName : selectedEntry.name;
+      } catch (Exception ex) {
+        targetFile.delete();
+        result.exception = ex;
+      } finally {
+        result.durationMs = (System.nanoTime() - startedAt) / 1000000;
+      }
+
+      return result;
+    }
+
+    @Override
+    protected void onPostExecute(ZipEntryExtractionResult result) {
+      if (result.exception != null) {
+        result.exception.printStackTrace();
+        reject(promise, result.archivePath, result.exception);
+        return;
+      }
+
+      Log.i(
+          "RabbyNativeFS",
+          String.format(
+              Locale.US,
+              "[zip] op=extractZipEntry entry=%s bytes_written=%d duration_ms=%d index=%s target_tail=%s",
+              result.entryName,
+              result.bytesWritten,
+              result.durationMs,
+              result.indexCached ? "hit" : "miss",
+              pathTail(result.targetPath)));
 
       WritableMap infoMap = Arguments.createMap();
+      infoMap.putString("archivePath", result.archivePath);
       infoMap.putString("targetPath", result.targetPath);
-      infoMap.putInt("entries", result.entryCount);
-      infoMap.putDouble("bytesRead", (double) result.bytesRead);
+      infoMap.putString("entryName", result.entryName);
       infoMap.putDouble("bytesWritten", (double) result.bytesWritten);
       infoMap.putDouble("durationMs", (double) result.durationMs);
+      infoMap.putBoolean("indexCached", result.indexCached);
       promise.resolve(infoMap);
     }
   }
 
-  private class ExtractZipEntryTask extends AsyncTask<Object, Void, ZipEntryExtractionResult> {
+  private class ExtractZipEntriesTask extends AsyncTask<Object, Void, ZipEntriesExtractionResult> {
     private final Promise promise;
 
-    ExtractZipEntryTask(Promise promise) {
+    ExtractZipEntriesTask(Promise promise) {
       this.promise = promise;
     }
 
     @Override
-    protected ZipEntryExtractionResult doInBackground(Object... args) {
-      ZipEntryExtractionResult result = new ZipEntryExtractionResult();
+    protected ZipEntriesExtractionResult doInBackground(Object... args) {
+      ZipEntriesExtractionResult result = new ZipEntriesExtractionResult();
       long startedAt = System.nanoTime();
       String archivePath = (String) args[0];
-      String targetPath = (String) args[1];
+      String targetDirectory = (String) args[1];
       ReadableMap options = (ReadableMap) args[2];
       File archiveFile = new File(archivePath);
-      File targetFile = new File(targetPath);
+      File targetRoot = new File(targetDirectory);
       result.archivePath = archivePath;
-      result.targetPath = targetPath;
+      result.targetDirectory = targetDirectory;
+      result.entries = Arguments.createArray();
+      ArrayList<File> targetFiles = new ArrayList<>();
+      ArrayList<FutureTask<Long>> tasks = new ArrayList<>();
+      // Only files this batch brought into existence are removed on failure.
+      final Set<File> createdFiles = Collections.synchronizedSet(new HashSet<File>());
+      final AtomicBoolean abandoned = new AtomicBoolean();
 
       try {
         if (!archiveFile.isFile()) {
           throw new IOException("Zip archive file does not exist: " + archivePath);
         }
 
-        File parent = targetFile.getParentFile();
-        if (parent != null) {
-          parent.mkdirs();
-        }
-
-        String requestedEntryName = getOptionalString(options, "entryName");
-        if (requestedEntryName != null && requestedEntryName.length() > 0) {
-          requestedEntryName = normalizeZipEntryName(requestedEntryName);
-        } else {
-          requestedEntryName = null;
+        ArrayList<String> requestedEntryNames = null;
+        if (options != null && options.hasKey("entryNames") && !options.isNull("entryNames")) {
+          ReadableArray entryNames = options.getArray("entryNames");
+          requestedEntryNames = new ArrayList<>(entryNames.size());
+          for (int index = 0; index < entryNames.size(); index += 1) {
+            requestedEntryNames.add(normalizeZipEntryName(entryNames.getString(index)));
+          }
         }
         String entryNameSuffix = getOptionalString(options, "entryNameSuffix");
 
-        byte[] buffer = new byte[256 * 1024];
-        try (ZipFile zipFile = new ZipFile(archiveFile)) {
-          ZipEntry selectedEntry = null;
-          String selectedEntryName = null;
+        ZipIndex.Lookup lookup = ZipIndex.load(archiveFile);
+        result.indexCached = lookup.cached;
+        ArrayList<ZipIndex.Entry> selectedEntries = new ArrayList<>();
+        ArrayList<String> selectedEntryNames = new ArrayList<>();
 
-          if (requestedEntryName != null) {
-            ZipEntry entry = zipFile.getEntry(requestedEntryName);
-            if (entry != null && !entry.isDirectory()) {
-              selectedEntry = entry;
-              selectedEntryName = requestedEntryName;
+        if (requestedEntryNames != null) {
+          HashSet<String> seenEntryNames = new HashSet<>();
+          for (String requestedEntryName : requestedEntryNames) {
+            if (!seenEntryNames.add(requestedEntryName)) {
+              continue;
             }
-          } else {
-            Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
-            while (zipEntries.hasMoreElements()) {
-              ZipEntry entry = zipEntries.nextElement();
-              if (entry.isDirectory()) {
-                continue;
-              }
-
-              String entryName;
-              try {
-                entryName = normalizeZipEntryName(entry.getName());
-              } catch (IOException ignored) {
-                continue;
-              }
-
-              if (entryNameSuffix != null && !entryName.endsWith(entryNameSuffix)) {
-                continue;
-              }
-
-              if (selectedEntryName == null || entryName.compareTo(selectedEntryName) > 0) {
-                selectedEntry = entry;
-                selectedEntryName = entryName;
-              }
+            ZipIndex.Entry entry = lookup.index.getEntry(requestedEntryName);
+            if (entry == null || entry.directory) {
+              throw new IOException("Zip entry not found in " + archivePath + ": " + requestedEntryName);
             }
+            selectedEntries.add(entry);
+            selectedEntryNames.add(requestedEntryName);
           }
+        } else {
+          for (ZipIndex.Entry entry : lookup.index.entries) {
+            if (entry.directory || entry.name == null) {
+              continue;
+            }
+
+            if (entryNameSuffix != null && !entry.name.endsWith(entryNameSuffix)) {
+              continue;
+            }
 
-          if (selectedEntry == null || selectedEntryName == null) {
-            throw new IOException("Zip entry not found in " + archivePath);
+            selectedEntries.add(entry);
+            selectedEntryNames.add(entry.name);
           }
+        }
 
-          try (BufferedInputStream inputStream = new BufferedInputStream(zipFile.getInputStream(selectedEntry), buffer.length);
-               FileOutputStream outputStream = new FileOutputStream(targetFile, false)) {
-            int read;
-            while ((read = inputStream.read(buffer)) != -1) {
-              outputStream.write(buffer, 0, read);
-              result.bytesWritten += read;
+        try (RandomAccessFile archive = new RandomAccessFile(archiveFile, "r")) {
+          // Entries are inflated concurrently; every read on the shared channel is positional.
+          final FileChannel channel = archive.getChannel();
+          IOScheduler scheduler = IOScheduler.getInstance();
+          result.parallelism = Math.min(selectedEntries.size(), scheduler.threadCount(IOScheduler.Lane.CPU) + 1);
+          try {
+            for (int index = 0; index < selectedEntries.size(); index += 1) {
+              final ZipIndex.Entry entry = selectedEntries.get(index);
+              final File targetFile = new File(targetRoot, selectedEntryNames.get(index));
+              targetFiles.add(targetFile);
+              tasks.add(scheduler.submit(IOScheduler.Lane.CPU, new Callable<Long>() {
+                @Override
+                public Long call() throws Exception {
+                  if (abandoned.get()) {
+                    return 0L;
+                  }
+                  if (!targetFile.exists()) {
+                    createdFiles.add(targetFile);
+                  }
+                  return ZipIndex.extractTo(channel, entry, targetFile);
+                }
+              }));
             }
-          }
 
-          if (selectedEntry.getTime() > 0) {
-            targetFile.setLastModified(selectedEntry.getTime());
+            for (int index = 0; index < tasks.size(); index += 1) {
+              long bytesWritten = IOScheduler.awaitHelping(tasks.get(index));
+              WritableMap entryMap = Arguments.createMap();
+              entryMap.putString("entryName", selectedEntryNames.get(index));
+              entryMap.putString("targetPath", targetFiles.get(index).getAbsolutePath());
+              entryMap.putDouble("bytesWritten", (double) bytesWritten);
+              result.entries.pushMap(entryMap);
+              result.entryCount += 1;
+              result.bytesWritten += bytesWritten;
+            }
+          } catch (Exception ex) {
+            // Tasks that have not started skip their entry; running ones are waited for, so
+            // nothing still writes a target or reads the channel once it is closed below.
+            abandoned.set(true);
+            for (FutureTask<Long> task : tasks) {
+              try {
+                IOScheduler.awaitHelping(task);
+              } catch (Exception ignored) {
+              }
+            }
+            throw ex;
           }
-          result.entryName = selectedEntryName;
         }
       } catch (Exception ex) {
-        targetFile.delete();
+        synchronized (createdFiles) {
+          for (File createdFile : createdFiles) {
+            createdFile.delete();
+          }
+        }
         result.exception = ex;
       } finally {
         result.durationMs = (System.nanoTime() - startedAt) / 1000000;
@@ -773,7 +1786,7 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     }
 
     @Override
-    protected void onPostExecute(ZipEntryExtractionResult result) {
+    protected void onPostExecute(ZipEntriesExtractionResult result) {
       if (result.exception != null) {
         result.exception.printStackTrace();
         reject(promise, result.archivePath, result.exception);
@@ -784,18 +1797,23 @@ public class RNFSManager extends ReactContextBaseJavaModule {
           "RabbyNativeFS",
           String.format(
               Locale.US,
-              "[zip] op=extractZipEntry entry=%s bytes_written=%d duration_ms=%d target_tail=%s",
-              result.entryName,
+              "[zip] op=extractZipEntries entries=%d parallelism=%d bytes_written=%d duration_ms=%d index=%s target_tail=%s",
+              result.entryCount,
+              result.parallelism,
               result.bytesWritten,
               result.durationMs,
-              pathTail(result.targetPath)));
+              result.indexCached ? "hit" : "miss",
+              pathTail(result.targetDirectory)));
 
       WritableMap infoMap = Arguments.createMap();
       infoMap.putString("archivePath", result.archivePath);
-      infoMap.putString("targetPath", result.targetPath);
-      infoMap.putString("entryName", result.entryName);
+      infoMap.putString("targetDirectory", result.targetDirectory);
+      infoMap.putArray("entries", result.entries);
+      infoMap.putInt("entryCount", result.entryCount);
+      infoMap.putInt("parallelism", result.parallelism);
       infoMap.putDouble("bytesWritten", (double) result.bytesWritten);
       infoMap.putDouble("durationMs", (double) result.durationMs);
+      infoMap.putBoolean("indexCached", result.indexCached);
       promise.resolve(infoMap);
     }
   }
@@ -833,46 +1851,39 @@ public class RNFSManager extends ReactContextBaseJavaModule {
                 : 0;
         String entryNameSuffix = getOptionalString(options, "entryNameSuffix");
 
-        try (ZipFile zipFile = new ZipFile(archiveFile)) {
-          Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
-          while (zipEntries.hasMoreElements()) {
-            ZipEntry entry = zipEntries.nextElement();
-            boolean isDirectory = entry.isDirectory();
-            if (isDirectory && !includeDirectories) {
-              continue;
-            }
+        ZipIndex.Lookup lookup = ZipIndex.load(archiveFile);
+        result.indexCached = lookup.cached;
+        for (ZipIndex.Entry entry : lookup.index.entries) {
+          if (entry.directory && !includeDirectories) {
+            continue;
+          }
 
-            String entryName;
-            try {
-              entryName = normalizeZipEntryName(entry.getName());
-            } catch (IOException ignored) {
-              continue;
-            }
+          if (entry.name == null) {
+            continue;
+          }
 
-            if (entryNameSuffix != null && !entryName.endsWith(entryNameSuffix)) {
-              continue;
-            }
+          if (entryNameSuffix != null && !entry.name.endsWith(entryNameSuffix)) {
+            continue;
+          }
 
-            long uncompressedSize = Math.max(entry.getSize(), 0);
-            long compressedSize = Math.max(entry.getCompressedSize(), 0);
-            WritableMap entryMap = Arguments.createMap();
-            entryMap.putString("entryName", entryName);
-            entryMap.putBoolean("directory", isDirectory);
-            entryMap.putDouble("compressedSize", (double) compressedSize);
-            entryMap.putDouble("uncompressedSize", (double) uncompressedSize);
-            entryMap.putDouble("crc32", (double) Math.max(entry.getCrc(), 0));
-            entryMap.putInt("method", entry.getMethod());
-            if (entry.getTime() > 0) {
-              entryMap.putDouble("mtimeMs", (double) entry.getTime());
-            }
+          WritableMap entryMap = Arguments.createMap();
+          entryMap.putString("entryName", entry.name);
+          entryMap.putBoolean("directory", entry.directory);
+          entryMap.putDouble("compressedSize", (double) entry.compressedSize);
+          entryMap.putDouble("uncompressedSize", (double) entry.size);
+          entryMap.putDouble("crc32", (double) entry.crc);
+          entryMap.putInt("method", entry.method);
+          entryMap.putBoolean("encrypted", entry.encrypted);
+          if (entry.timeMs > 0) {
+            entryMap.putDouble("mtimeMs", (double) entry.timeMs);
+          }
 
-            result.entries.pushMap(entryMap);
-            result.entryCount += 1;
-            result.totalBytes += uncompressedSize;
+          result.entries.pushMap(entryMap);
+          result.entryCount += 1;
+          result.totalBytes += entry.size;
 
-            if (limit > 0 && result.entryCount >= limit) {
-              break;
-            }
+          if (limit > 0 && result.entryCount >= limit) {
+            break;
           }
         }
       } catch (Exception ex) {
@@ -896,10 +1907,11 @@ public class RNFSManager extends ReactContextBaseJavaModule {
           "RabbyNativeFS",
           String.format(
               Locale.US,
-              "[zip] op=listZipEntries entries=%d bytes=%d duration_ms=%d path_tail=%s",
+              "[zip] op=listZipEntries entries=%d bytes=%d duration_ms=%d index=%s path_tail=%s",
               result.entryCount,
               result.totalBytes,
               result.durationMs,
+              result.indexCached ? "hit" : "miss",
               pathTail(result.archivePath)));
 
       WritableMap infoMap = Arguments.createMap();
@@ -908,6 +1920,7 @@ public class RNFSManager extends ReactContextBaseJavaModule {
       infoMap.putInt("totalEntries", result.entryCount);
       infoMap.putDouble("totalBytes", (double) result.totalBytes);
       infoMap.putDouble("durationMs", (double) result.durationMs);
+      infoMap.putBoolean("indexCached", result.indexCached);
       promise.resolve(infoMap);
     }
   }
@@ -917,18 +1930,7 @@ public class RNFSManager extends ReactContextBaseJavaModule {
       try {
         String filepath = paths[0];
         String destPath = paths[1];
-
-        InputStream in = getInputStream(filepath);
-        OutputStream out = getOutputStream(destPath, false);
-
-        byte[] buffer = new byte[1024];
-        int length;
-        while ((length = in.read(buffer)) > 0) {
-          out.write(buffer, 0, length);
-          Thread.yield();
-        }
-        in.close();
-        out.close();
+        logCopy("copyFile", copyPath(filepath, destPath), filepath, destPath);
         return null;
       } catch (Exception ex) {
         return ex;
@@ -936,12 +1938,49 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     }
   }
 
+  /**
+   * Copies between two RNFS paths: plain files on both ends use the channel fast path, anything
+   * else (content:// URIs) goes through the resolver streams.
+   */
+  private FileCopier.Result copyPath(String sourcePath, String targetPath) throws Exception {
+    File sourceFile = getFileFromFileUri(sourcePath, false);
+    File targetFile = getFileFromFileUri(targetPath, false);
+    if (sourceFile != null && targetFile != null) {
+      if (!sourceFile.exists()) {
+        throw new IORejectionException("ENOENT", "ENOENT: no such file or directory, open '" + sourcePath + "'");
+      }
+      return FileCopier.copyFile(sourceFile, targetFile, false);
+    }
+
+    try (InputStream in = getInputStream(sourcePath);
+         OutputStream out = getOutputStream(targetPath, false)) {
+      return FileCopier.copyStream(in, out);
+    }
+  }
+
+  private static void logCopy(String op, FileCopier.Result result, String sourcePath, String targetPath) {
+    Log.i(
+        "RabbyNativeFS",
+        String.format(
+            Locale.US,
+            "[copy] op=%s strategy=%s bytes=%d duration_ms=%d bytes_per_sec=%.0f source_tail=%s target_tail=%s",
+            op,
+            result.strategy,
+            result.bytes,
+            result.durationMs(),
+            result.bytesPerSecond(),
+            pathTail(sourcePath),
+            pathTail(targetPath)));
+  }
+
   private static class PersistFileResult {
     String sourcePath;
     String targetPath;
     String mode;
+    String strategy;
     long bytesWritten;
     long durationMs;
+    double bytesPerSecond;
     Exception exception;
   }
 
@@ -952,6 +1991,13 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     return options.getBoolean(key);
   }
 
+  private int getIntOption(ReadableMap options, String key, int fallback) {
+    if (options == null || !options.hasKey(key) || options.isNull(key)) {
+      return fallback;
+    }
+    return options.getInt(key);
+  }
+
   private String getStringOption(ReadableMap options, String key, String fallback) {
     if (options == null || !options.hasKey(key) || options.isNull(key)) {
       return fallback;
@@ -985,36 +2031,6 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     }
   }
 
-  private long copyStreamToPath(String sourceUri, String targetPath) throws Exception {
-    InputStream in = null;
-    OutputStream out = null;
-    long bytesWritten = 0;
-    try {
-      in = getInputStream(sourceUri);
-      out = getOutputStream(targetPath, false);
-      byte[] buffer = new byte[256 * 1024];
-      int read;
-      while ((read = in.read(buffer)) != -1) {
-        out.write(buffer, 0, read);
-        bytesWritten += read;
-      }
-      return bytesWritten;
-    } finally {
-      if (in != null) {
-        try {
-          in.close();
-        } catch (IOException ignored) {
-        }
-      }
-      if (out != null) {
-        try {
-          out.close();
-        } catch (IOException ignored) {
-        }
-      }
-    }
-  }
-
   private class PersistFileTask extends AsyncTask<Object, Void, PersistFileResult> {
     private final Promise promise;
 
@@ -1055,20 +2071,18 @@ public class RNFSManager extends ReactContextBaseJavaModule {
         }
 
         File sourceFile = getFileFromFileUri(sourceUri, false);
-        boolean movedByRename = false;
+        FileCopier.Result copyResult;
         if ("move".equals(mode) && sourceFile != null && targetFile != null) {
-          movedByRename = sourceFile.renameTo(targetFile);
-          if (movedByRename) {
-            result.bytesWritten = targetFile.length();
-          }
-        }
-
-        if (!movedByRename) {
-          result.bytesWritten = copyStreamToPath(sourceUri, targetPath);
+          copyResult = FileCopier.moveFile(sourceFile, targetFile);
+        } else {
+          copyResult = copyPath(sourceUri, targetPath);
           if ("move".equals(mode) && sourceFile != null && sourceFile.exists() && !sourceFile.delete()) {
             throw new IOException("Failed to delete source file after move: " + sourceUri);
           }
         }
+        result.strategy = copyResult.strategy;
+        result.bytesWritten = copyResult.bytes;
+        result.bytesPerSecond = copyResult.bytesPerSecond();
       } catch (Exception ex) {
         result.exception = ex;
       } finally {
@@ -1090,10 +2104,12 @@ public class RNFSManager extends ReactContextBaseJavaModule {
           "RabbyNativeFS",
           String.format(
               Locale.US,
-              "[persist-file] mode=%s bytes=%d duration_ms=%d source_tail=%s target_tail=%s",
+              "[persist-file] mode=%s strategy=%s bytes=%d duration_ms=%d bytes_per_sec=%.0f source_tail=%s target_tail=%s",
               result.mode,
+              result.strategy,
               result.bytesWritten,
               result.durationMs,
+              result.bytesPerSecond,
               pathTail(result.sourcePath),
               pathTail(result.targetPath)));
 
@@ -1101,8 +2117,10 @@ public class RNFSManager extends ReactContextBaseJavaModule {
       infoMap.putString("sourcePath", result.sourcePath);
       infoMap.putString("targetPath", result.targetPath);
       infoMap.putString("mode", result.mode);
+      infoMap.putString("strategy", result.strategy);
       infoMap.putDouble("bytesWritten", (double) result.bytesWritten);
       infoMap.putDouble("durationMs", (double) result.durationMs);
+      infoMap.putDouble("bytesPerSecond", result.bytesPerSecond);
       promise.resolve(infoMap);
     }
   }
@@ -1137,6 +2155,127 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     }
   }
 
+  @ReactMethod
+  public void readDirPage(final String directory, final ReadableMap options, final Promise promise) {
+    new ReadDirPageTask(promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), directory, options);
+  }
+
+  @ReactMethod
+  public void closeReadDirCursor(String cursor, Promise promise) {
+    DirectoryPager.close(cursor);
+    promise.resolve(null);
+  }
+
+  private static class ReadDirPageResult {
+    String directory;
+    DirectoryPager.Page page;
+    long durationMs;
+    Exception exception;
+  }
+
+  private class ReadDirPageTask extends AsyncTask<Object, Void, ReadDirPageResult> {
+    private final Promise promise;
+
+    ReadDirPageTask(Promise promise) {
+      this.promise = promise;
+    }
+
+    @Override
+    protected ReadDirPageResult doInBackground(Object... args) {
+      ReadDirPageResult result = new ReadDirPageResult();
+      long startedAt = System.nanoTime();
+      result.directory = (String) args[0];
+      ReadableMap options = (ReadableMap) args[1];
+
+      try {
+        String cursor = getOptionalString(options, "cursor");
+        if (cursor != null) {
+          result.page = DirectoryPager.next(cursor);
+        } else {
+          result.page = DirectoryPager.open(new File(result.directory), readDirPageOptions(options));
+        }
+      } catch (Exception ex) {
+        result.exception = ex;
+      } finally {
+        result.durationMs = (System.nanoTime() - startedAt) / 1000000;
+      }
+      return result;
+    }
+
+    @Override
+    protected void onPostExecute(ReadDirPageResult result) {
+      if (result.exception != null) {
+        result.exception.printStackTrace();
+        reject(promise, result.directory, result.exception);
+        return;
+      }
+
+      DirectoryPager.Page page = result.page;
+      WritableArray entries = Arguments.createArray();
+      for (DirectoryPager.Entry entry : page.entries) {
+        WritableMap entryMap = Arguments.createMap();
+        entryMap.putString("name", entry.name);
+        entryMap.putString("path", entry.path);
+        if ((page.fields & DirectoryPager.FIELD_TYPE) != 0) {
+          entryMap.putInt("type", entry.type);
+        }
+        if ((page.fields & DirectoryPager.FIELD_SIZE) != 0) {
+          entryMap.putDouble("size", (double) entry.size);
+        }
+        if ((page.fields & DirectoryPager.FIELD_MTIME) != 0) {
+          entryMap.putDouble("mtime", (double) entry.mtimeMs / 1000);
+        }
+        entries.pushMap(entryMap);
+      }
+
+      WritableMap pageMap = Arguments.createMap();
+      pageMap.putArray("entries", entries);
+      pageMap.putString("cursor", page.cursor);
+      pageMap.putInt("scanned", page.scanned);
+      pageMap.putDouble("durationMs", (double) result.durationMs);
+      promise.resolve(pageMap);
+    }
+  }
+
+  private DirectoryPager.Options readDirPageOptions(ReadableMap options) {
+    DirectoryPager.Options pagerOptions = new DirectoryPager.Options();
+    pagerOptions.pageSize = getIntOption(options, "pageSize", DirectoryPager.DEFAULT_PAGE_SIZE);
+    String prefix = getOptionalString(options, "prefix");
+    pagerOptions.prefix = prefix == null ? null : prefix.toLowerCase(Locale.ROOT);
+    pagerOptions.includeHidden = getBooleanOption(options, "includeHidden", true);
+
+    String type = getStringOption(options, "type", "any");
+    if ("file".equals(type)) {
+      pagerOptions.type = DirectoryPager.TYPE_REGULAR;
+    } else if ("directory".equals(type)) {
+      pagerOptions.type = DirectoryPager.TYPE_DIRECTORY;
+    }
+
+    if (options != null && options.hasKey("suffixes") && !options.isNull("suffixes")) {
+      ReadableArray suffixes = options.getArray("suffixes");
+      pagerOptions.suffixes = new String[suffixes.size()];
+      for (int index = 0; index < suffixes.size(); index += 1) {
+        pagerOptions.suffixes[index] = suffixes.getString(index).toLowerCase(Locale.ROOT);
+      }
+    }
+
+    if (options != null && options.hasKey("fields") && !options.isNull("fields")) {
+      ReadableArray fields = options.getArray("fields");
+      pagerOptions.fields = 0;
+      for (int index = 0; index < fields.size(); index += 1) {
+        String field = fields.getString(index);
+        if ("type".equals(field)) {
+          pagerOptions.fields |= DirectoryPager.FIELD_TYPE;
+        } else if ("size".equals(field)) {
+          pagerOptions.fields |= DirectoryPager.FIELD_SIZE;
+        } else if ("mtime".equals(field)) {
+          pagerOptions.fields |= DirectoryPager.FIELD_MTIME;
+        }
+      }
+    }
+    return pagerOptions;
+  }
+
   @ReactMethod
   public void readDirAssets(String directory, Promise promise) {
     try {
@@ -1159,31 +2298,244 @@ public class RNFSManager extends ReactContextBaseJavaModule {
             assetFileDescriptor.close();
             isDirectory = false;
           }
-        } catch (IOException ex) {
-          //.. ah.. is a directory or a compressed file?
-          isDirectory = !ex.getMessage().contains("compressed");
+        } catch (IOException ex) {
+          //.. ah.. is a directory or a compressed file?
+          isDirectory = !ex.getMessage().contains("compressed");
+        }
+        fileMap.putInt("size", length);
+        fileMap.putInt("type", isDirectory ? 1 : 0); // if 0, probably a folder..
+
+        fileMaps.pushMap(fileMap);
+      }
+      promise.resolve(fileMaps);
+
+    } catch (IOException e) {
+      reject(promise, directory, e);
+    }
+  }
+
+  @ReactMethod
+  public void copyFileAssets(String assetPath, String destination, Promise promise) {
+    if (copyExtractedAsset(assetPath, destination, promise)) {
+      return;
+    }
+    AssetManager assetManager = getReactApplicationContext().getAssets();
+    if (copyUncompressedAsset(assetManager, assetPath, destination, promise)) {
+      return;
+    }
+    try {
+      InputStream in = assetManager.open(assetPath);
+      copyInputStream(in, assetPath, destination, promise);
+    } catch (IOException e) {
+      // Default error message is just asset name, so make a more helpful error here.
+      reject(promise, assetPath, new Exception(String.format("Asset '%s' could not be opened", assetPath)));
+    }
+  }
+
+  /** Copies from the asset cache when the asset is already extracted, skipping the APK. */
+  private boolean copyExtractedAsset(String assetPath, String destination, Promise promise) {
+    File cachedFile;
+    File targetFile;
+    try {
+      cachedFile = AssetCache.getInstance(getReactApplicationContext()).cachedFile(assetPath);
+      targetFile = getFileFromFileUri(destination, false);
+    } catch (Exception ignored) {
+      return false;
+    }
+    if (cachedFile == null || targetFile == null) {
+      return false;
+    }
+
+    try {
+      logCopy("copyFileAssets", FileCopier.copyFile(cachedFile, targetFile, false), assetPath, destination);
+      promise.resolve(null);
+    } catch (Exception ex) {
+      reject(promise, assetPath, new Exception(String.format("Failed to copy '%s' to %s (%s)", assetPath, destination, ex.getLocalizedMessage())));
+    }
+    return true;
+  }
+
+  /**
+   * Stored (uncompressed) assets are a byte range of the APK, so they can be copied with a
+   * channel transfer. Returns false when the asset is compressed or the destination is not a
+   * plain file, leaving the stream path to handle it.
+   */
+  private boolean copyUncompressedAsset(AssetManager assetManager, String assetPath, String destination, Promise promise) {
+    File targetFile;
+    AssetFileDescriptor descriptor;
+    try {
+      targetFile = getFileFromFileUri(destination, false);
+      if (targetFile == null) {
+        return false;
+      }
+      descriptor = assetManager.openFd(assetPath);
+    } catch (Exception ignored) {
+      return false;
+    }
+
+    try (AssetFileDescriptor assetDescriptor = descriptor;
+         FileInputStream in = assetDescriptor.createInputStream()) {
+      FileCopier.Result result = FileCopier.copyRange(
+          in,
+          assetDescriptor.getStartOffset(),
+          assetDescriptor.getLength(),
+          targetFile);
+      logCopy("copyFileAssets", result, assetPath, destination);
+      promise.resolve(null);
+    } catch (Exception ex) {
+      reject(promise, assetPath, new Exception(String.format("Failed to copy '%s' to %s (%s)", assetPath, destination, ex.getLocalizedMessage())));
+    }
+    return true;
+  }
+
+  @ReactMethod
+  public void extractAssets(ReadableArray assetPaths, ReadableMap options, Promise promise) {
+    new ExtractAssetsTask(promise).executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), assetPaths, options);
+  }
+
+  @ReactMethod
+  public void getCachedAssetPath(final String assetPath, final Promise promise) {
+    IOScheduler.getInstance().execute(IOScheduler.Lane.DISK, new Runnable() {
+      @Override
+      public void run() {
+        try {
+          promise.resolve(AssetCache.getInstance(getReactApplicationContext()).extract(assetPath).file.getAbsolutePath());
+        } catch (Exception ex) {
+          ex.printStackTrace();
+          reject(promise, assetPath, ex);
+        }
+      }
+    });
+  }
+
+  @ReactMethod
+  public void clearAssetCache(final Promise promise) {
+    IOScheduler.getInstance().execute(IOScheduler.Lane.DISK, new Runnable() {
+      @Override
+      public void run() {
+        try {
+          AssetCache.getInstance(getReactApplicationContext()).clear();
+          promise.resolve(null);
+        } catch (Exception ex) {
+          ex.printStackTrace();
+          reject(promise, AssetCache.DIRECTORY_NAME, ex);
+        }
+      }
+    });
+  }
+
+  private static class ExtractAssetsResult {
+    WritableArray entries;
+    String version;
+    String directory;
+    int extractedCount;
+    int errorCount;
+    int parallelism;
+    long durationMs;
+    Exception exception;
+  }
+
+  private class ExtractAssetsTask extends AsyncTask<Object, Void, ExtractAssetsResult> {
+    private final Promise promise;
+
+    ExtractAssetsTask(Promise promise) {
+      this.promise = promise;
+    }
+
+    @Override
+    protected ExtractAssetsResult doInBackground(Object... args) {
+      ExtractAssetsResult result = new ExtractAssetsResult();
+      long startedAt = System.nanoTime();
+      ReadableArray assetPaths = (ReadableArray) args[0];
+      ReadableMap options = (ReadableMap) args[1];
+      result.entries = Arguments.createArray();
+
+      try {
+        final AssetCache cache = AssetCache.getInstance(getReactApplicationContext());
+        result.version = cache.version();
+        result.directory = cache.directory().getAbsolutePath();
+
+        // First launch extracts on several DISK threads; later launches only stat.
+        IOScheduler scheduler = IOScheduler.getInstance();
+        boolean parallel = getBooleanOption(options, "parallel", true);
+        result.parallelism = parallel
+            ? Math.min(assetPaths.size(), scheduler.threadCount(IOScheduler.Lane.DISK) + 1)
+            : 1;
+        ArrayList<FutureTask<AssetCache.Entry>> tasks = new ArrayList<>();
+        for (int index = 0; index < assetPaths.size(); index += 1) {
+          final String assetPath = assetPaths.getString(index);
+          FutureTask<AssetCache.Entry> task = new FutureTask<>(new Callable<AssetCache.Entry>() {
+            @Override
+            public AssetCache.Entry call() throws Exception {
+              return cache.extract(assetPath);
+            }
+          });
+          if (parallel) {
+            scheduler.execute(IOScheduler.Lane.DISK, task);
+          } else {
+            task.run();
+          }
+          tasks.add(task);
         }
-        fileMap.putInt("size", length);
-        fileMap.putInt("type", isDirectory ? 1 : 0); // if 0, probably a folder..
 
-        fileMaps.pushMap(fileMap);
+        for (int index = 0; index < tasks.size(); index += 1) {
+          WritableMap entryMap = Arguments.createMap();
+          entryMap.putString("assetPath", assetPaths.getString(index));
+          try {
+            AssetCache.Entry entry = IOScheduler.awaitHelping(tasks.get(index));
+            entryMap.putString("path", entry.file.getAbsolutePath());
+            entryMap.putBoolean("extracted", entry.extracted);
+            entryMap.putDouble("durationMs", entry.durationNs / 1000000.0);
+            if (entry.extracted) {
+              result.extractedCount += 1;
+            }
+          } catch (IORejectionException ex) {
+            entryMap.putString("error", ex.getCode());
+            result.errorCount += 1;
+          } catch (Exception ex) {
+            entryMap.putString("error", "EIO");
+            result.errorCount += 1;
+          }
+          result.entries.pushMap(entryMap);
+        }
+      } catch (Exception ex) {
+        result.exception = ex;
+      } finally {
+        result.durationMs = (System.nanoTime() - startedAt) / 1000000;
       }
-      promise.resolve(fileMaps);
 
-    } catch (IOException e) {
-      reject(promise, directory, e);
+      return result;
     }
-  }
 
-  @ReactMethod
-  public void copyFileAssets(String assetPath, String destination, Promise promise) {
-    AssetManager assetManager = getReactApplicationContext().getAssets();
-    try {
-      InputStream in = assetManager.open(assetPath);
-      copyInputStream(in, assetPath, destination, promise);
-    } catch (IOException e) {
-      // Default error message is just asset name, so make a more helpful error here.
-      reject(promise, assetPath, new Exception(String.format("Asset '%s' could not be opened", assetPath)));
+    @Override
+    protected void onPostExecute(ExtractAssetsResult result) {
+      if (result.exception != null) {
+        result.exception.printStackTrace();
+        reject(promise, AssetCache.DIRECTORY_NAME, result.exception);
+        return;
+      }
+
+      Log.i(
+          "RabbyNativeFS",
+          String.format(
+              Locale.US,
+              "[assets] op=extractAssets assets=%d extracted=%d errors=%d parallelism=%d duration_ms=%d version=%s",
+              result.entries.size(),
+              result.extractedCount,
+              result.errorCount,
+              result.parallelism,
+              result.durationMs,
+              result.version));
+
+      WritableMap map = Arguments.createMap();
+      map.putString("version", result.version);
+      map.putString("directory", result.directory);
+      map.putArray("entries", result.entries);
+      map.putInt("extractedCount", result.extractedCount);
+      map.putInt("errorCount", result.errorCount);
+      map.putInt("parallelism", result.parallelism);
+      map.putDouble("durationMs", (double) result.durationMs);
+      promise.resolve(map);
     }
   }
 
@@ -1201,36 +2553,37 @@ public class RNFSManager extends ReactContextBaseJavaModule {
   @ReactMethod
   public void existsAssets(String filepath, Promise promise) {
     try {
-      AssetManager assetManager = getReactApplicationContext().getAssets();
+      promise.resolve(assetExists(getReactApplicationContext().getAssets(), filepath));
+    } catch (Exception ex) {
+      ex.printStackTrace();
+      reject(promise, filepath, ex);
+    }
+  }
 
-      try {
-        String[] list = assetManager.list(filepath);
-        if (list != null && list.length > 0) {
-          promise.resolve(true);
-          return;
-        }
-      } catch (Exception ignored) {
-        //.. probably not a directory then
+  private static boolean assetExists(AssetManager assetManager, String filepath) {
+    try {
+      String[] list = assetManager.list(filepath);
+      if (list != null && list.length > 0) {
+        return true;
       }
+    } catch (Exception ignored) {
+      //.. probably not a directory then
+    }
 
-      // Attempt to open file (win = exists)
-      InputStream fileStream = null;
-      try {
-        fileStream = assetManager.open(filepath);
-        promise.resolve(true);
-      } catch (Exception ex) {
-        promise.resolve(false); // don't throw an error, resolve false
-      } finally {
-        if (fileStream != null) {
-          try {
-            fileStream.close();
-          } catch (Exception ignored) {
-          }
+    // Attempt to open file (win = exists)
+    InputStream fileStream = null;
+    try {
+      fileStream = assetManager.open(filepath);
+      return true;
+    } catch (Exception ex) {
+      return false; // don't throw an error, resolve false
+    } finally {
+      if (fileStream != null) {
+        try {
+          fileStream.close();
+        } catch (Exception ignored) {
         }
       }
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
     }
   }
 
@@ -1261,12 +2614,7 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     OutputStream out = null;
     try {
       out = getOutputStream(destination, false);
-
-      byte[] buffer = new byte[1024 * 10]; // 10k buffer
-      int read;
-      while ((read = in.read(buffer)) != -1) {
-        out.write(buffer, 0, read);
-      }
+      logCopy("copyInputStream", FileCopier.copyStream(in, out), source, destination);
 
       // Success!
       promise.resolve(null);
@@ -1333,23 +2681,232 @@ public class RNFSManager extends ReactContextBaseJavaModule {
 
       if (!file.exists()) throw new Exception("File does not exist");
 
-      DeleteRecursive(file);
+      if (!file.isDirectory()) {
+        file.delete();
+        promise.resolve(null);
+        return;
+      }
 
-      promise.resolve(null);
+      // Directories are emptied on the DISK lane so a large tree no longer blocks this thread.
+      new DeleteTask(filepath, registerDeleteJob(-1), false, promise, true)
+          .executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), DeleteEngine.tombstone(file));
+    } catch (Exception ex) {
+      ex.printStackTrace();
+      reject(promise, filepath, ex);
+    }
+  }
+
+  @ReactMethod
+  public void unlinkAsync(String filepath, ReadableMap options, Promise promise) {
+    try {
+      File file = new File(filepath);
+
+      if (!file.exists()) throw new Exception("File does not exist");
+
+      // The rename happens here, before this call returns, so the path is free right away.
+      File tombstone = file.isDirectory() ? DeleteEngine.tombstone(file) : file;
+      // Resolving early is only safe once the path is free. A plain file, or a directory that
+      // could not be renamed, is deleted in place, so the call waits for it regardless.
+      boolean wait = getBooleanOption(options, "wait", true) || tombstone == file;
+      new DeleteTask(
+          filepath,
+          registerDeleteJob(getIntOption(options, "jobId", -1)),
+          getBooleanOption(options, "progress", false),
+          wait ? promise : null,
+          false).executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), tombstone);
+
+      if (!wait) {
+        WritableMap resultMap = Arguments.createMap();
+        resultMap.putString("path", filepath);
+        resultMap.putBoolean("pending", true);
+        promise.resolve(resultMap);
+      }
     } catch (Exception ex) {
       ex.printStackTrace();
       reject(promise, filepath, ex);
     }
   }
 
-  private void DeleteRecursive(File fileOrDirectory) {
-    if (fileOrDirectory.isDirectory()) {
-      for (File child : fileOrDirectory.listFiles()) {
-        DeleteRecursive(child);
+  @ReactMethod
+  public void cancelUnlink(int jobId) {
+    DeleteJob job;
+    synchronized (deleteJobs) {
+      job = deleteJobs.get(jobId);
+    }
+    if (job != null) {
+      job.cancel();
+    }
+  }
+
+  /**
+   * Cancel handle for one DeleteTask. It is registered before the task is queued, so a cancel
+   * that arrives while the task waits for a DISK thread, or between two of its roots, is kept.
+   */
+  private static final class DeleteJob {
+    final int jobId;
+    private boolean cancelled;
+    private DeleteEngine engine;
+
+    DeleteJob(int jobId) {
+      this.jobId = jobId;
+    }
+
+    synchronized void cancel() {
+      cancelled = true;
+      if (engine != null) {
+        engine.cancel();
+      }
+    }
+
+    synchronized boolean isCancelled() {
+      return cancelled;
+    }
+
+    synchronized void setEngine(DeleteEngine engine) {
+      this.engine = engine;
+      if (cancelled && engine != null) {
+        engine.cancel();
+      }
+    }
+  }
+
+  private DeleteJob registerDeleteJob(int jobId) {
+    DeleteJob job = new DeleteJob(jobId);
+    if (jobId >= 0) {
+      synchronized (deleteJobs) {
+        deleteJobs.put(jobId, job);
+      }
+    }
+    return job;
+  }
+
+  @ReactMethod
+  public void purgeTombstones(String directory, Promise promise) {
+    String[] names = new File(directory).list();
+    ArrayList<File> tombstones = new ArrayList<>();
+    for (int index = 0; names != null && index < names.length; index += 1) {
+      if (DeleteEngine.isTombstone(names[index])) {
+        tombstones.add(new File(directory, names[index]));
+      }
+    }
+    new DeleteTask(directory, registerDeleteJob(-1), false, promise, false)
+        .executeOnExecutor(ioExecutor(IOScheduler.Lane.DISK), tombstones.toArray(new File[0]));
+  }
+
+  private static class DeleteTaskResult {
+    long files;
+    long directories;
+    long bytes;
+    int errorCount;
+    int parallelism;
+    long durationMs;
+    Exception exception;
+  }
+
+  private class DeleteTask extends AsyncTask<File, Void, DeleteTaskResult> {
+    private final String filepath;
+    private final DeleteJob job;
+    private final boolean progress;
+    private final Promise promise;
+    private final boolean resolveNull;
+
+    /** A null promise runs the delete detached; the outcome is only logged. */
+    DeleteTask(String filepath, DeleteJob job, boolean progress, Promise promise, boolean resolveNull) {
+      this.filepath = filepath;
+      this.job = job;
+      this.progress = progress;
+      this.promise = promise;
+      this.resolveNull = resolveNull;
+    }
+
+    @Override
+    protected DeleteTaskResult doInBackground(File... roots) {
+      DeleteTaskResult result = new DeleteTaskResult();
+      long startedAt = System.nanoTime();
+      final ProgressAggregator.Job progressJob = progress && job.jobId >= 0
+          ? progressAggregator.register(job.jobId, ProgressAggregator.KIND_DELETE)
+          : null;
+      int parallelism = IOScheduler.getInstance().threadCount(IOScheduler.Lane.DISK);
+
+      try {
+        for (File root : roots) {
+          if (job.isCancelled()) {
+            throw new IORejectionException("ECANCELED", "ECANCELED: delete cancelled, unlink '" + root.getPath() + "'");
+          }
+          final long filesBefore = result.files;
+          final long bytesBefore = result.bytes;
+          DeleteEngine engine = new DeleteEngine(root, progressJob == null ? null : new DeleteEngine.ProgressListener() {
+            @Override
+            public void onProgress(long files, long bytes) {
+              progressAggregator.update(progressJob, filesBefore + files, bytesBefore + bytes);
+            }
+          });
+          job.setEngine(engine);
+
+          DeleteEngine.Result engineResult = engine.run(parallelism);
+          result.files += engineResult.files;
+          result.directories += engineResult.directories;
+          result.bytes += engineResult.bytes;
+          result.errorCount += engineResult.errorCount;
+          result.parallelism = Math.max(result.parallelism, engineResult.parallelism);
+        }
+      } catch (Exception ex) {
+        result.exception = ex;
+      } finally {
+        if (job.jobId >= 0) {
+          synchronized (deleteJobs) {
+            // A later unlinkAsync may have reused the id.
+            if (deleteJobs.get(job.jobId) == job) {
+              deleteJobs.remove(job.jobId);
+            }
+          }
+        }
+        progressAggregator.unregister(progressJob);
+        result.durationMs = (System.nanoTime() - startedAt) / 1000000;
       }
+      return result;
     }
 
-    fileOrDirectory.delete();
+    @Override
+    protected void onPostExecute(DeleteTaskResult result) {
+      Log.i(
+          "RabbyNativeFS",
+          String.format(
+              Locale.US,
+              "[delete] files=%d dirs=%d bytes=%d errors=%d parallelism=%d duration_ms=%d status=%s path_tail=%s",
+              result.files,
+              result.directories,
+              result.bytes,
+              result.errorCount,
+              result.parallelism,
+              result.durationMs,
+              result.exception == null ? "ok" : "error",
+              pathTail(filepath)));
+
+      if (promise == null) {
+        return;
+      }
+      if (result.exception != null) {
+        result.exception.printStackTrace();
+        reject(promise, filepath, result.exception);
+        return;
+      }
+      if (resolveNull) {
+        promise.resolve(null);
+        return;
+      }
+
+      WritableMap resultMap = Arguments.createMap();
+      resultMap.putString("path", filepath);
+      resultMap.putBoolean("pending", false);
+      resultMap.putDouble("files", (double) result.files);
+      resultMap.putDouble("directories", (double) result.directories);
+      resultMap.putDouble("bytes", (double) result.bytes);
+      resultMap.putInt("errorCount", result.errorCount);
+      resultMap.putInt("parallelism", result.parallelism);
+      resultMap.putDouble("durationMs", (double) result.durationMs);
+      promise.resolve(resultMap);
+    }
   }
 
   @ReactMethod
@@ -1399,15 +2956,72 @@ public class RNFSManager extends ReactContextBaseJavaModule {
       params.progressDivider = progressDivider;
       params.readTimeout = readTimeout;
       params.connectionTimeout = connectionTimeout;
+      params.resume = getBooleanOption(options, "resume", false);
+      params.segments = options.hasKey("segments") && !options.isNull("segments") ? options.getInt("segments") : 1;
+      params.transport = getOptionalString(options, "transport");
+
+      final ProgressAggregator.Job progressJob =
+          hasProgressCallback ? progressAggregator.register(jobId, ProgressAggregator.KIND_DOWNLOAD) : null;
+
+      final boolean persist = getBooleanOption(options, "persist", false);
+      final String journalKey = file.getAbsolutePath();
+      if (persist) {
+        getTransferJournal().put(journalKey, toJournalEntry(options, journalKey));
+      }
+
+      final DownloadParams downloadParams = params;
+      final TransferJobManager.Job job = new TransferJobManager.Job(
+          jobId,
+          url.getHost(),
+          TransferJobManager.parsePriority(getOptionalString(options, "priority")),
+          getIntOption(options, "retries", 0)) {
+        @Override
+        void start() {
+          Downloader downloader = new Downloader();
+          synchronized (downloaders) {
+            downloaders.put(jobId, downloader);
+          }
+          downloader.executeOnExecutor(ioExecutor(IOScheduler.Lane.NETWORK), downloadParams);
+        }
+
+        @Override
+        void onCancelled() {
+          DownloadResult res = new DownloadResult();
+          res.exception = new Exception("Download has been aborted");
+          downloadParams.onTaskCompleted.onTaskCompleted(res);
+        }
+      };
 
       params.onTaskCompleted = new DownloadParams.OnTaskCompleted() {
         public void onTaskCompleted(DownloadResult res) {
+          boolean succeeded = res.exception == null && res.statusCode >= 200 && res.statusCode < 300;
+          if (!succeeded && transferJobs.retry(job, res.exception, res.statusCode)) {
+            return;
+          }
+          transferJobs.finish(job);
+          synchronized (downloaders) {
+            downloaders.remove(jobId);
+          }
+          if (persist && (succeeded || !TransferJobManager.isRetriable(res.exception, res.statusCode))) {
+            // Keep the entry only when a later launch could still finish the download.
+            getTransferJournal().remove(journalKey);
+          }
+
+          progressAggregator.unregister(progressJob);
           if (res.exception == null) {
             WritableMap infoMap = Arguments.createMap();
 
             infoMap.putInt("jobId", jobId);
             infoMap.putInt("statusCode", res.statusCode);
             infoMap.putDouble("bytesWritten", (double)res.bytesWritten);
+            infoMap.putDouble("bytesResumed", (double)res.bytesResumed);
+            if (res.segments > 0) {
+              infoMap.putInt("segments", res.segments);
+            }
+            if (res.timing != null) {
+              infoMap.putMap("timings", timingsToMap(res.timing));
+              logHttpTiming("download", res.statusCode, res.timing);
+            }
 
             promise.resolve(infoMap);
           } else {
@@ -1440,22 +3054,12 @@ public class RNFSManager extends ReactContextBaseJavaModule {
       if (hasProgressCallback) {
         params.onDownloadProgress = new DownloadParams.OnDownloadProgress() {
           public void onDownloadProgress(long contentLength, long bytesWritten) {
-            WritableMap data = Arguments.createMap();
-
-            data.putInt("jobId", jobId);
-            data.putDouble("contentLength", (double)contentLength);
-            data.putDouble("bytesWritten", (double)bytesWritten);
-
-            sendEvent(getReactApplicationContext(), "DownloadProgress", data);
+            progressAggregator.update(progressJob, contentLength, bytesWritten);
           }
         };
       }
 
-      Downloader downloader = new Downloader();
-
-      downloader.execute(params);
-
-      this.downloaders.put(jobId, downloader);
+      transferJobs.submit(job);
     } catch (Exception ex) {
       ex.printStackTrace();
       reject(promise, options.getString("toFile"), ex);
@@ -1464,8 +3068,14 @@ public class RNFSManager extends ReactContextBaseJavaModule {
 
   @ReactMethod
   public void stopDownload(int jobId) {
-    Downloader downloader = this.downloaders.get(jobId);
+    if (transferJobs.cancel(jobId)) {
+      return;
+    }
 
+    Downloader downloader;
+    synchronized (downloaders) {
+      downloader = this.downloaders.get(jobId);
+    }
     if (downloader != null) {
       downloader.stop();
     }
@@ -1495,8 +3105,47 @@ public class RNFSManager extends ReactContextBaseJavaModule {
       params.method = method;
       params.fields = fields;
       params.binaryStreamOnly = binaryStreamOnly;
+      params.transport = getOptionalString(options, "transport");
+      params.chunked = getBooleanOption(options, "chunked", false);
+      params.readTimeout = getIntOption(options, "readTimeout", 0);
+      params.responseFile = getOptionalString(options, "responseFile");
+      final ProgressAggregator.Job progressJob =
+          hasProgressCallback ? progressAggregator.register(jobId, ProgressAggregator.KIND_UPLOAD) : null;
+
+      final UploadParams uploadParams = params;
+      final TransferJobManager.Job job = new TransferJobManager.Job(
+          jobId,
+          url.getHost(),
+          TransferJobManager.parsePriority(getOptionalString(options, "priority")),
+          getIntOption(options, "retries", 0)) {
+        @Override
+        void start() {
+          Uploader uploader = new Uploader();
+          synchronized (uploaders) {
+            uploaders.put(jobId, uploader);
+          }
+          uploader.executeOnExecutor(ioExecutor(IOScheduler.Lane.NETWORK), uploadParams);
+        }
+
+        @Override
+        void onCancelled() {
+          UploadResult res = new UploadResult();
+          res.exception = new Exception("Upload has been aborted");
+          uploadParams.onUploadComplete.onUploadComplete(res);
+        }
+      };
+
       params.onUploadComplete = new UploadParams.onUploadComplete() {
         public void onUploadComplete(UploadResult res) {
+          if (res.exception != null && transferJobs.retry(job, res.exception, res.statusCode)) {
+            return;
+          }
+          transferJobs.finish(job);
+          synchronized (uploaders) {
+            uploaders.remove(jobId);
+          }
+
+          progressAggregator.unregister(progressJob);
           if (res.exception == null) {
             WritableMap infoMap = Arguments.createMap();
 
@@ -1504,6 +3153,14 @@ public class RNFSManager extends ReactContextBaseJavaModule {
             infoMap.putInt("statusCode", res.statusCode);
             infoMap.putMap("headers",res.headers);
             infoMap.putString("body",res.body);
+            infoMap.putDouble("responseBytes", (double) res.responseBytes);
+            if (res.responseFile != null) {
+              infoMap.putString("responseFile", res.responseFile);
+            }
+            if (res.timing != null) {
+              infoMap.putMap("timings", timingsToMap(res.timing));
+              logHttpTiming("upload", res.statusCode, res.timing);
+            }
             promise.resolve(infoMap);
           } else {
             reject(promise, options.getString("toUrl"), res.exception);
@@ -1525,38 +3182,160 @@ public class RNFSManager extends ReactContextBaseJavaModule {
 
       if (hasProgressCallback) {
         params.onUploadProgress = new UploadParams.onUploadProgress() {
-          public void onUploadProgress(int totalBytesExpectedToSend,int totalBytesSent) {
-            WritableMap data = Arguments.createMap();
-
-            data.putInt("jobId", jobId);
-            data.putInt("totalBytesExpectedToSend", totalBytesExpectedToSend);
-            data.putInt("totalBytesSent", totalBytesSent);
-
-            sendEvent(getReactApplicationContext(), "UploadProgress", data);
+          public void onUploadProgress(long totalBytesExpectedToSend, long totalBytesSent) {
+            progressAggregator.update(progressJob, totalBytesExpectedToSend, totalBytesSent);
           }
         };
       }
 
-      Uploader uploader = new Uploader();
-
-      uploader.execute(params);
-
-      this.uploaders.put(jobId, uploader);
+      transferJobs.submit(job);
     } catch (Exception ex) {
       ex.printStackTrace();
       reject(promise, options.getString("toUrl"), ex);
     }
   }
 
+  private static WritableMap timingsToMap(HttpExchange.Timing timing) {
+    WritableMap map = Arguments.createMap();
+    map.putString("transport", timing.transport);
+    if (timing.protocol != null) {
+      map.putString("protocol", timing.protocol);
+    }
+    map.putBoolean("connectionReused", timing.connectionReused);
+    map.putDouble("dnsMs", (double) timing.dnsMs);
+    map.putDouble("connectMs", (double) timing.connectMs);
+    map.putDouble("tlsMs", (double) timing.tlsMs);
+    map.putDouble("ttfbMs", (double) timing.ttfbMs);
+    return map;
+  }
+
+  private static void logHttpTiming(String op, int statusCode, HttpExchange.Timing timing) {
+    Log.i(
+        "RabbyNativeFS",
+        String.format(
+            Locale.US,
+            "[http] op=%s status=%d transport=%s protocol=%s reused=%s dns_ms=%d connect_ms=%d tls_ms=%d ttfb_ms=%d",
+            op,
+            statusCode,
+            timing.transport,
+            timing.protocol,
+            timing.connectionReused,
+            timing.dnsMs,
+            timing.connectMs,
+            timing.tlsMs,
+            timing.ttfbMs));
+  }
+
   @ReactMethod
   public void stopUpload(int jobId) {
-    Uploader uploader = this.uploaders.get(jobId);
+    if (transferJobs.cancel(jobId)) {
+      return;
+    }
 
+    Uploader uploader;
+    synchronized (uploaders) {
+      uploader = this.uploaders.get(jobId);
+    }
     if (uploader != null) {
       uploader.stop();
     }
   }
 
+  @ReactMethod
+  public void setTransferLimits(ReadableMap options, Promise promise) {
+    transferJobs.setLimits(getIntOption(options, "maxConcurrent", 0), getIntOption(options, "maxPerHost", 0));
+
+    TransferJobManager.Stats stats = transferJobs.stats();
+    WritableMap result = Arguments.createMap();
+    result.putInt("queued", stats.queued);
+    result.putInt("running", stats.running);
+    result.putInt("maxConcurrent", stats.maxConcurrent);
+    result.putInt("maxPerHost", stats.maxPerHost);
+    promise.resolve(result);
+  }
+
+  @ReactMethod
+  public void getJournaledDownloads(Promise promise) {
+    try {
+      WritableArray downloads = Arguments.createArray();
+      for (JSONObject entry : getTransferJournal().entries()) {
+        WritableMap download = Arguments.createMap();
+        download.putString("fromUrl", entry.optString("fromUrl"));
+        download.putString("toFile", entry.optString("toFile"));
+        download.putString("priority", entry.optString("priority", "normal"));
+        download.putInt("retries", entry.optInt("retries", 0));
+        download.putInt("segments", entry.optInt("segments", 1));
+        if (entry.has("transport")) {
+          download.putString("transport", entry.optString("transport"));
+        }
+        download.putDouble("createdAt", (double) entry.optLong("createdAt", 0));
+
+        WritableMap headers = Arguments.createMap();
+        JSONObject journaledHeaders = entry.optJSONObject("headers");
+        if (journaledHeaders != null) {
+          for (Iterator<String> keys = journaledHeaders.keys(); keys.hasNext(); ) {
+            String key = keys.next();
+            headers.putString(key, journaledHeaders.optString(key));
+          }
+        }
+        download.putMap("headers", headers);
+
+        WritableArray redactedHeaders = Arguments.createArray();
+        JSONArray journaledRedactedHeaders = entry.optJSONArray("redactedHeaders");
+        if (journaledRedactedHeaders != null) {
+          for (int index = 0; index < journaledRedactedHeaders.length(); index += 1) {
+            redactedHeaders.pushString(journaledRedactedHeaders.optString(index));
+          }
+        }
+        download.putArray("redactedHeaders", redactedHeaders);
+        downloads.pushMap(download);
+      }
+      promise.resolve(downloads);
+    } catch (Exception ex) {
+      reject(promise, "getJournaledDownloads", ex);
+    }
+  }
+
+  @ReactMethod
+  public void clearJournaledDownloads(Promise promise) {
+    getTransferJournal().clear();
+    promise.resolve(null);
+  }
+
+  private synchronized TransferJournal getTransferJournal() {
+    if (transferJournal == null) {
+      transferJournal = new TransferJournal(getReactApplicationContext().getFilesDir());
+    }
+    return transferJournal;
+  }
+
+  private JSONObject toJournalEntry(ReadableMap options, String toFile) throws JSONException {
+    JSONObject headers = new JSONObject();
+    JSONArray redactedHeaders = new JSONArray();
+    ReadableMap headerMap = options.getMap("headers");
+    ReadableMapKeySetIterator iterator = headerMap.keySetIterator();
+    while (iterator.hasNextKey()) {
+      String key = iterator.nextKey();
+      if (RNFSCredentialHeaders.contains(key.toLowerCase(Locale.US))) {
+        redactedHeaders.put(key);
+      } else {
+        headers.put(key, headerMap.getString(key));
+      }
+    }
+
+    JSONObject entry = new JSONObject();
+    entry.put("fromUrl", options.getString("fromUrl"));
+    entry.put("toFile", toFile);
+    entry.put("headers", headers);
+    entry.put("redactedHeaders", redactedHeaders);
+    entry.put("priority", getStringOption(options, "priority", "normal"));
+    entry.put("retries", getIntOption(options, "retries", 0));
+    entry.put("segments", getIntOption(options, "segments", 1));
+    entry.put("transport", getOptionalString(options, "transport"));
+    entry.put("createdAt", System.currentTimeMillis());
+    return entry;
+  }
+
   @ReactMethod
   public void pathForBundle(String bundleNamed, Promise promise) {
     // TODO: Not sure what equivalent would be?
@@ -1633,6 +3412,47 @@ public class RNFSManager extends ReactContextBaseJavaModule {
     );
   }
 
+  @ReactMethod
+  public void configureIOScheduler(ReadableMap options, Promise promise) {
+    try {
+      IOScheduler scheduler = IOScheduler.getInstance();
+      for (IOScheduler.Lane lane : IOScheduler.Lane.values()) {
+        String key = lane.label + "Threads";
+        if (options != null && options.hasKey(key) && !options.isNull(key)) {
+          scheduler.setThreadCount(lane, options.getInt(key));
+        }
+      }
+      promise.resolve(getIOSchedulerStatsMap());
+    } catch (Exception ex) {
+      ex.printStackTrace();
+      reject(promise, "", ex);
+    }
+  }
+
+  @ReactMethod
+  public void getIOSchedulerStats(Promise promise) {
+    promise.resolve(getIOSchedulerStatsMap());
+  }
+
+  private WritableMap getIOSchedulerStatsMap() {
+    IOScheduler scheduler = IOScheduler.getInstance();
+    WritableMap statsMap = Arguments.createMap();
+    for (IOScheduler.Lane lane : IOScheduler.Lane.values()) {
+      IOScheduler.LaneStats stats = scheduler.stats(lane);
+      WritableMap laneMap = Arguments.createMap();
+      laneMap.putInt("threads", stats.threads);
+      laneMap.putInt("activeThreads", stats.activeThreads);
+      laneMap.putInt("queueDepth", stats.queueDepth);
+      laneMap.putInt("maxQueueDepth", stats.maxQueueDepth);
+      laneMap.putDouble("submitted", (double) stats.submitted);
+      laneMap.putDouble("completed", (double) stats.completed);
+      laneMap.putDouble("totalWaitMs", (double) stats.totalWaitMs);
+      laneMap.putDouble("maxWaitMs", (double) stats.maxWaitMs);
+      statsMap.putMap(stats.lane, laneMap);
+    }
+    return statsMap;
+  }
+
   // Required for rn built in EventEmitter Calls.
   @ReactMethod
   public void addListener(String eventName) {
@@ -0,0 +1,295 @@
+package com.rnfs;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads one resource over several concurrent HTTP range requests.
+ *
+ * The first request asks for {@code bytes=0-}; a 206 with a known total both proves range
+ * support and becomes segment 0, which stops reading at the end of its share. The remaining
+ * segments run on the SEGMENT lane with If-Range pinned to the first response's validator and
+ * write into a preallocated file with positional {@link FileChannel#write(ByteBuffer, long)}.
+ * Servers that answer with anything but a usable 206 make {@link #run} return false so the
+ * caller can fall back to the single-stream path; {@link #takeFallback} then hands over the probe
+ * response so the resource is not requested twice.
+ */
+final class SegmentedDownload {
+
+  interface Listener {
+    void onBegin(int statusCode, long contentLength, Map<String, String> headers);
+
+    void onProgress(long contentLength, long bytesWritten);
+  }
+
+  /** The probe response, reusable as a plain download. The caller owns and closes it. */
+  static final class Fallback {
+    final HttpExchange exchange;
+    final int statusCode;
+
+    Fallback(HttpExchange exchange, int statusCode) {
+      this.exchange = exchange;
+      this.statusCode = statusCode;
+    }
+  }
+
+  static final int MAX_SEGMENTS = 8;
+  private static final long MIN_SEGMENT_SIZE = 1024 * 1024;
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  private final DownloadParams param;
+  private final AtomicBoolean abort;
+  private final Listener listener;
+  private final AtomicBoolean failed = new AtomicBoolean();
+  private final AtomicLong downloaded = new AtomicLong();
+  private final Set<HttpExchange> open = Collections.synchronizedSet(new HashSet<HttpExchange>());
+  private long totalLength;
+  private long prefixBytes;
+  private Fallback fallback;
+
+  SegmentedDownload(DownloadParams param, AtomicBoolean abort, Listener listener) {
+    this.param = param;
+    this.abort = abort;
+    this.listener = listener;
+  }
+
+  boolean run(DownloadResult res) throws Exception {
+    HttpExchange probe = openExchange(param.src);
+    boolean handedOver = false;
+    ArrayList<FutureTask<Long>> tasks = new ArrayList<>();
+    try {
+      probe.setHeader("Range", "bytes=0-");
+      probe.setHeader("Accept-Encoding", "identity");
+
+      int statusCode = probe.execute();
+      res.timing = probe.timing;
+      totalLength = getContentRangeTotal(probe);
+      long rangeStart = Downloader.getContentRangeStart(probe);
+      if (statusCode != 206 || rangeStart != 0 || totalLength <= 0) {
+        if (statusCode != 206 || rangeStart == 0) {
+          // A full body (200 or a 206 from byte 0 without a usable total), a redirect or an
+          // error status: the single-stream path can use this response as it is.
+          fallback = new Fallback(probe, statusCode == 206 ? HttpURLConnection.HTTP_OK : statusCode);
+          open.remove(probe);
+          handedOver = true;
+        }
+        return false;
+      }
+
+      URL url = probe.url();
+      String validator = probe.header("ETag");
+      if (validator == null || validator.startsWith("W/")) {
+        validator = probe.header("Last-Modified");
+      }
+
+      int segmentCount = (int) Math.max(1, Math.min(
+          Math.min(param.segments, MAX_SEGMENTS),
+          (totalLength + MIN_SEGMENT_SIZE - 1) / MIN_SEGMENT_SIZE));
+      if (segmentCount > 1 && validator == null) {
+        // Without a validator the segments could silently mix two versions of the resource.
+        segmentCount = 1;
+      }
+      long segmentSize = (totalLength + segmentCount - 1) / segmentCount;
+
+      // The file now holds a whole resource, so report it the way a 200 download would be.
+      listener.onBegin(HttpURLConnection.HTTP_OK, totalLength, probe.headers());
+
+      try (RandomAccessFile file = new RandomAccessFile(param.dest, "rw")) {
+        try {
+          file.setLength(totalLength);
+          final FileChannel channel = file.getChannel();
+          IOScheduler scheduler = IOScheduler.getInstance();
+          final long startedAt = System.nanoTime();
+          // Start and end of each segment in ms since startedAt, logged to show they overlap.
+          final long[] spans = new long[segmentCount * 2];
+
+          for (int index = 1; index < segmentCount; index += 1) {
+            final int segment = index;
+            final long start = index * segmentSize;
+            final long end = Math.min(totalLength, start + segmentSize);
+            final URL segmentUrl = url;
+            final String segmentValidator = validator;
+            tasks.add(scheduler.submit(IOScheduler.Lane.SEGMENT, new Callable<Long>() {
+              @Override
+              public Long call() throws Exception {
+                spans[segment * 2] = (System.nanoTime() - startedAt) / 1000000;
+                long written = fetchSegment(segmentUrl, segmentValidator, start, end, channel);
+                spans[segment * 2 + 1] = (System.nanoTime() - startedAt) / 1000000;
+                return written;
+              }
+            }));
+          }
+
+          long written;
+          try (InputStream input = probe.body()) {
+            written = copySegment(input, channel, 0, Math.min(totalLength, segmentSize));
+          }
+          spans[1] = (System.nanoTime() - startedAt) / 1000000;
+          for (FutureTask<Long> task : tasks) {
+            written += IOScheduler.awaitHelping(task);
+          }
+
+          res.bytesWritten = written;
+          res.segments = segmentCount;
+          logSegments(spans, written, (System.nanoTime() - startedAt) / 1000000);
+        } catch (Exception ex) {
+          // Stop the other segments and wait for them, so nothing writes past the truncation below
+          // or into a closed channel.
+          failed.set(true);
+          cancel();
+          for (FutureTask<Long> task : tasks) {
+            try {
+              IOScheduler.awaitHelping(task);
+            } catch (Exception ignored) {
+            }
+          }
+          // Keep only what segment 0 wrote contiguously, as a failed single-stream download
+          // would, instead of a full-length file that is mostly zeros.
+          try {
+            file.setLength(prefixBytes);
+          } catch (IOException ignored) {
+          }
+          throw ex;
+        }
+      }
+      res.statusCode = HttpURLConnection.HTTP_OK;
+      return true;
+    } catch (Exception ex) {
+      failed.set(true);
+      throw ex;
+    } finally {
+      if (!handedOver) {
+        closeExchange(probe);
+      }
+    }
+  }
+
+  /** After {@link #run} returned false, the probe response if it can serve the download. */
+  Fallback takeFallback() {
+    Fallback result = fallback;
+    fallback = null;
+    return result;
+  }
+
+  private static void logSegments(long[] spans, long bytes, long durationMs) {
+    StringBuilder segments = new StringBuilder();
+    for (int index = 0; index < spans.length; index += 2) {
+      if (index > 0) {
+        segments.append(',');
+      }
+      segments.append(spans[index]).append('-').append(spans[index + 1]);
+    }
+    Log.i(
+        "RabbyNativeFS",
+        String.format(
+            Locale.US,
+            "[download] op=segmented segments=%d bytes=%d duration_ms=%d segment_ms=%s",
+            spans.length / 2,
+            bytes,
+            durationMs,
+            segments));
+  }
+
+  /** Cancels every in-flight request so blocked segments fail fast after an abort. */
+  void cancel() {
+    synchronized (open) {
+      for (HttpExchange exchange : open) {
+        exchange.cancel();
+      }
+    }
+  }
+
+  private HttpExchange openExchange(URL url) throws IOException {
+    HttpExchange exchange = HttpExchange.open(param.transport, url);
+    exchange.setHeaders(param.headers);
+    exchange.setTimeouts(param.connectionTimeout, param.readTimeout);
+    open.add(exchange);
+    return exchange;
+  }
+
+  private void closeExchange(HttpExchange exchange) {
+    open.remove(exchange);
+    exchange.close();
+  }
+
+  private long fetchSegment(URL url, String validator, long start, long end, FileChannel channel) throws Exception {
+    if (failed.get()) {
+      throw new IOException("Another segment failed");
+    }
+    HttpExchange connection = openExchange(url);
+    try {
+      connection.setHeader("Range", "bytes=" + start + "-" + (end - 1));
+      connection.setHeader("If-Range", validator);
+      connection.setHeader("Accept-Encoding", "identity");
+
+      int statusCode = connection.execute();
+      if (statusCode != 206 || Downloader.getContentRangeStart(connection) != start) {
+        throw new IOException("Server did not honor segment range " + start + "-" + (end - 1) + " (status " + statusCode + ")");
+      }
+
+      try (InputStream input = connection.body()) {
+        return copySegment(input, channel, start, end);
+      }
+    } finally {
+      closeExchange(connection);
+    }
+  }
+
+  private long copySegment(InputStream input, FileChannel channel, long start, long end) throws Exception {
+    byte[] data = new byte[BUFFER_SIZE];
+    long position = start;
+    while (position < end) {
+      if (abort.get()) throw new Exception("Download has been aborted");
+      if (failed.get()) throw new IOException("Another segment failed");
+
+      int count = input.read(data, 0, (int) Math.min(data.length, end - position));
+      if (count == -1) {
+        throw new IOException("Segment ended after " + (position - start) + " of " + (end - start) + " bytes");
+      }
+
+      ByteBuffer buffer = ByteBuffer.wrap(data, 0, count);
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+      if (start == 0) {
+        prefixBytes = position;
+      }
+      listener.onProgress(totalLength, downloaded.addAndGet(count));
+    }
+    return position - start;
+  }
+
+  private static long getContentRangeTotal(HttpExchange connection) {
+    // Content-Range: bytes <start>-<end>/<total>
+    String contentRange = connection.header("Content-Range");
+    if (contentRange == null) {
+      return -1;
+    }
+    int slash = contentRange.lastIndexOf('/');
+    if (slash < 0) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(contentRange.substring(slash + 1).trim());
+    } catch (NumberFormatException ex) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,278 @@
+package com.rnfs;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Admission control for downloads and uploads.
+ *
+ * Jobs wait in a priority queue (user-visible first, FIFO within a priority) until both the
+ * global and the per-host running counts are below their limits, so a burst of background
+ * prefetches can no longer starve a download the user is waiting for or open dozens of sockets
+ * to one CDN. Failed attempts that look transient (I/O errors, 408/429/5xx) go back into the
+ * queue after an exponential backoff with jitter.
+ *
+ * Every admitted job holds an {@link IOScheduler.Lane#NETWORK} thread for its whole run, so
+ * admissions never exceed that lane's size: jobs admitted past it would only wait in the lane's
+ * FIFO queue, where priority no longer applies.
+ */
+final class TransferJobManager {
+
+  static final int PRIORITY_HIGH = 2;
+  static final int PRIORITY_NORMAL = 1;
+  static final int PRIORITY_LOW = 0;
+
+  static final int DEFAULT_MAX_CONCURRENT = 4;
+  static final int DEFAULT_MAX_PER_HOST = 4;
+
+  private static final long BACKOFF_BASE_MS = 1000;
+  private static final long BACKOFF_MAX_MS = 30000;
+
+  abstract static class Job {
+    final int jobId;
+    final String host;
+    final int priority;
+    final int maxRetries;
+    int attempt;
+    private long sequence;
+    private boolean cancelled;
+    private boolean running;
+
+    Job(int jobId, String host, int priority, int maxRetries) {
+      this.jobId = jobId;
+      this.host = host != null ? host : "";
+      this.priority = priority;
+      this.maxRetries = Math.max(0, maxRetries);
+    }
+
+    /** Starts one attempt; must not block. Completion is reported through retry() or finish(). */
+    abstract void start();
+
+    /** Called when the job is stopped before it was started, or while it waits for a retry. */
+    abstract void onCancelled();
+  }
+
+  static final class Stats {
+    int queued;
+    int running;
+    int maxConcurrent;
+    int maxPerHost;
+  }
+
+  private static final Comparator<Job> ORDER = new Comparator<Job>() {
+    @Override
+    public int compare(Job left, Job right) {
+      if (left.priority != right.priority) {
+        return right.priority - left.priority;
+      }
+      return left.sequence < right.sequence ? -1 : (left.sequence == right.sequence ? 0 : 1);
+    }
+  };
+
+  private final PriorityQueue<Job> queue = new PriorityQueue<>(16, ORDER);
+  private final Map<Integer, Job> jobs = new HashMap<>();
+  private final Map<String, Integer> runningPerHost = new HashMap<>();
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final Random random = new Random();
+  private int running;
+  private long nextSequence;
+  private int maxConcurrent = DEFAULT_MAX_CONCURRENT;
+  private int maxPerHost = DEFAULT_MAX_PER_HOST;
+
+  static int parsePriority(String priority) {
+    if ("high".equals(priority)) {
+      return PRIORITY_HIGH;
+    }
+    if ("low".equals(priority)) {
+      return PRIORITY_LOW;
+    }
+    return PRIORITY_NORMAL;
+  }
+
+  void setLimits(int maxConcurrent, int maxPerHost) {
+    synchronized (this) {
+      if (maxConcurrent > 0) {
+        this.maxConcurrent = Math.min(maxConcurrent, IOScheduler.MAX_LANE_THREADS);
+        IOScheduler scheduler = IOScheduler.getInstance();
+        if (scheduler.threadCount(IOScheduler.Lane.NETWORK) < this.maxConcurrent) {
+          scheduler.setThreadCount(IOScheduler.Lane.NETWORK, this.maxConcurrent);
+        }
+      }
+      if (maxPerHost > 0) {
+        this.maxPerHost = maxPerHost;
+      }
+    }
+    drain();
+  }
+
+  void submit(Job job) {
+    synchronized (this) {
+      jobs.put(job.jobId, job);
+      enqueue(job);
+    }
+    drain();
+  }
+
+  /**
+   * Releases the job's slot and, if the failure looks transient and attempts remain, queues it
+   * again after a backoff. Returns false when the caller should settle the job instead.
+   */
+  boolean retry(final Job job, Exception exception, int statusCode) {
+    synchronized (this) {
+      release(job);
+      if (job.cancelled || job.attempt >= job.maxRetries || !isRetriable(exception, statusCode)) {
+        return false;
+      }
+      job.attempt += 1;
+    }
+
+    long delayMs = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(job.attempt - 1, 16));
+    delayMs = delayMs / 2 + (long) (random.nextDouble() * delayMs / 2);
+    handler.postDelayed(new Runnable() {
+      @Override
+      public void run() {
+        synchronized (TransferJobManager.this) {
+          if (job.cancelled) {
+            return;
+          }
+          enqueue(job);
+        }
+        drain();
+      }
+    }, delayMs);
+    drain();
+    return true;
+  }
+
+  void finish(Job job) {
+    synchronized (this) {
+      release(job);
+      jobs.remove(job.jobId);
+    }
+    drain();
+  }
+
+  /**
+   * Stops retries for {@code jobId}. Returns true if the job was not running, in which case it
+   * has been dropped and its {@link Job#onCancelled()} was called; a running job is left to the
+   * caller to abort.
+   */
+  boolean cancel(int jobId) {
+    Job job;
+    synchronized (this) {
+      job = jobs.get(jobId);
+      if (job == null) {
+        return false;
+      }
+      job.cancelled = true;
+      if (job.running) {
+        return false;
+      }
+      queue.remove(job);
+      jobs.remove(jobId);
+    }
+    job.onCancelled();
+    return true;
+  }
+
+  synchronized Stats stats() {
+    Stats stats = new Stats();
+    stats.queued = queue.size();
+    stats.running = running;
+    stats.maxConcurrent = admissionLimit();
+    stats.maxPerHost = maxPerHost;
+    return stats;
+  }
+
+  private void enqueue(Job job) {
+    job.sequence = nextSequence++;
+    queue.add(job);
+  }
+
+  private void release(Job job) {
+    if (!job.running) {
+      return;
+    }
+    job.running = false;
+    running -= 1;
+    Integer count = runningPerHost.get(job.host);
+    if (count != null && count > 1) {
+      runningPerHost.put(job.host, count - 1);
+    } else {
+      runningPerHost.remove(job.host);
+    }
+  }
+
+  // configureIOScheduler can still shrink the lane below maxConcurrent after setLimits.
+  private int admissionLimit() {
+    return Math.min(maxConcurrent, IOScheduler.getInstance().threadCount(IOScheduler.Lane.NETWORK));
+  }
+
+  private void drain() {
+    ArrayList<Job> ready = new ArrayList<>();
+    synchronized (this) {
+      int limit = admissionLimit();
+      if (running >= limit || queue.isEmpty()) {
+        return;
+      }
+      // Walk in priority order so a host at its limit does not block other hosts behind it.
+      ArrayList<Job> ordered = new ArrayList<>(queue);
+      Collections.sort(ordered, ORDER);
+      for (Iterator<Job> iterator = ordered.iterator(); iterator.hasNext() && running < limit; ) {
+        Job job = iterator.next();
+        Integer hostCount = runningPerHost.get(job.host);
+        if (hostCount != null && hostCount >= maxPerHost) {
+          continue;
+        }
+        queue.remove(job);
+        job.running = true;
+        running += 1;
+        runningPerHost.put(job.host, hostCount == null ? 1 : hostCount + 1);
+        ready.add(job);
+      }
+    }
+
+    for (Job job : ready) {
+      job.start();
+    }
+  }
+
+  static boolean isRetriable(Exception exception, int statusCode) {
+    if (exception == null) {
+      return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+    if (exception instanceof FileNotFoundException) {
+      return false;
+    }
+    String message = exception.getMessage();
+    if (message != null && message.contains("HTTP response code: ")) {
+      int code = parseStatus(message);
+      return code == 408 || code == 429 || code >= 500;
+    }
+    return exception instanceof IOException;
+  }
+
+  private static int parseStatus(String message) {
+    int start = message.indexOf("HTTP response code: ") + "HTTP response code: ".length();
+    int end = start;
+    while (end < message.length() && Character.isDigit(message.charAt(end))) {
+      end += 1;
+    }
+    try {
+      return Integer.parseInt(message.substring(start, end));
+    } catch (NumberFormatException ex) {
+      return -1;
+    }
+  }
+}
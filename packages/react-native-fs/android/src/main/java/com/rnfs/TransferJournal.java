@@ -0,0 +1,118 @@
+package com.rnfs;
+
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Small on-disk list of downloads that were queued or running with {@code persist: true}.
+ *
+ * Entries are keyed by destination path and hold what is needed to submit the download again
+ * (URL, headers, priority). Credential headers (Authorization, Proxy-Authorization, Cookie) are
+ * left out and only their names are kept, so nothing secret sits in plaintext on disk; the
+ * caller supplies them again on resume. Entries are removed when the download succeeds, is
+ * stopped or fails permanently, so whatever is left after process death is the work to resume
+ * on next launch; combined with {@link DownloadCheckpoint} the resumed job continues from its
+ * last synced byte.
+ * The whole file is rewritten through a temp file and rename on every change, which is fine for
+ * the handful of entries it is meant for.
+ */
+final class TransferJournal {
+
+  private static final String FILE_NAME = "rnfs-transfer-journal.json";
+
+  private final File file;
+  private LinkedHashMap<String, JSONObject> entries;
+
+  TransferJournal(File directory) {
+    this.file = new File(directory, FILE_NAME);
+  }
+
+  synchronized void put(String key, JSONObject entry) {
+    load().put(key, entry);
+    save();
+  }
+
+  synchronized void remove(String key) {
+    if (load().remove(key) != null) {
+      save();
+    }
+  }
+
+  synchronized List<JSONObject> entries() {
+    return new ArrayList<>(load().values());
+  }
+
+  synchronized void clear() {
+    load().clear();
+    file.delete();
+  }
+
+  private LinkedHashMap<String, JSONObject> load() {
+    if (entries != null) {
+      return entries;
+    }
+    entries = new LinkedHashMap<>();
+    if (!file.isFile()) {
+      return entries;
+    }
+
+    try (InputStream inputStream = new FileInputStream(file)) {
+      byte[] data = new byte[(int) file.length()];
+      int length = 0;
+      int read;
+      while (length < data.length && (read = inputStream.read(data, length, data.length - length)) != -1) {
+        length += read;
+      }
+      JSONObject json = new JSONObject(new String(data, 0, length, StandardCharsets.UTF_8));
+      JSONArray jobs = json.optJSONArray("jobs");
+      for (int index = 0; jobs != null && index < jobs.length(); index += 1) {
+        JSONObject entry = jobs.optJSONObject(index);
+        if (entry != null && entry.has("toFile")) {
+          entries.put(entry.optString("toFile"), entry);
+        }
+      }
+    } catch (IOException | JSONException ex) {
+      Log.w("RabbyNativeFS", "Ignoring unreadable transfer journal", ex);
+    }
+    return entries;
+  }
+
+  private void save() {
+    try {
+      JSONArray jobs = new JSONArray();
+      for (Iterator<JSONObject> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+        jobs.put(iterator.next());
+      }
+      JSONObject json = new JSONObject();
+      json.put("version", 1);
+      json.put("jobs", jobs);
+
+      File temp = new File(file.getPath() + ".tmp");
+      try (FileOutputStream outputStream = new FileOutputStream(temp, false)) {
+        outputStream.write(json.toString().getBytes(StandardCharsets.UTF_8));
+        outputStream.getFD().sync();
+      }
+      if (!temp.renameTo(file)) {
+        temp.delete();
+        throw new IOException("rename failed");
+      }
+    } catch (IOException | JSONException ex) {
+      // The journal is best effort; a lost entry only means the download is not resumed.
+      Log.w("RabbyNativeFS", "Failed to write transfer journal", ex);
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package com.rnfs;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams a multipart/form-data (or raw binary) request body straight from disk.
+ *
+ * Part headers are encoded one at a time while writing, so a request with thousands of files
+ * never holds more than one header in memory, and {@link #contentLength()} is computed up front
+ * as a {@code long} so fixed-length uploads work past 2 GB. Files are read through a single
+ * reusable buffer and progress is reported in byte counts for the whole request.
+ */
+final class UploadBody {
+
+  interface ProgressListener {
+    void onProgress(long totalBytesExpectedToSend, long totalBytesSent);
+  }
+
+  private static final byte[] CRLF = {'\r', '\n'};
+  private static final byte[] DASHES = {'-', '-'};
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  private static final class Part {
+    final String name;
+    final String value;
+    final File file;
+    final String filename;
+    final String contentType;
+
+    Part(String name, String value, File file, String filename, String contentType) {
+      this.name = name;
+      this.value = value;
+      this.file = file;
+      this.filename = filename;
+      this.contentType = contentType;
+    }
+  }
+
+  private final boolean binaryStreamOnly;
+  private final byte[] boundary;
+  private final ArrayList<Part> parts = new ArrayList<>();
+
+  UploadBody(boolean binaryStreamOnly) {
+    this.binaryStreamOnly = binaryStreamOnly;
+    this.boundary = newBoundary().getBytes(StandardCharsets.US_ASCII);
+  }
+
+  void addField(String name, String value) {
+    if (!binaryStreamOnly) {
+      parts.add(new Part(name, value, null, null, null));
+    }
+  }
+
+  void addFile(String name, String filename, String contentType, File file) {
+    parts.add(new Part(name, null, file, filename, contentType));
+  }
+
+  /** Content-Type header value, or null for raw binary bodies. */
+  String contentType() {
+    if (binaryStreamOnly) {
+      return null;
+    }
+    return "multipart/form-data; boundary=" + new String(boundary, StandardCharsets.US_ASCII);
+  }
+
+  /** Bytes of file content alone, which is what upload progress is measured against. */
+  long fileBytes() {
+    long total = 0;
+    for (Part part : parts) {
+      if (part.file != null) {
+        total += part.file.length();
+      }
+    }
+    return total;
+  }
+
+  long contentLength() {
+    if (binaryStreamOnly) {
+      return fileBytes();
+    }
+    long total = 0;
+    for (Part part : parts) {
+      // --boundary CRLF headers CRLF body CRLF
+      total += DASHES.length + boundary.length + CRLF.length;
+      total += partHeaders(part).length + CRLF.length;
+      total += part.file != null ? part.file.length() : utf8(part.value).length;
+      total += CRLF.length;
+    }
+    // --boundary-- CRLF
+    return total + DASHES.length + boundary.length + DASHES.length + CRLF.length;
+  }
+
+  void writeTo(OutputStream outputStream, AtomicBoolean abort, ProgressListener listener) throws IOException {
+    long totalFileBytes = fileBytes();
+    long progressStep = Math.max(1, totalFileBytes / 100);
+    long sent = 0;
+    long reported = 0;
+    byte[] buffer = new byte[BUFFER_SIZE];
+
+    for (Part part : parts) {
+      if (abort.get()) {
+        throw new IOException("Upload has been aborted");
+      }
+      if (!binaryStreamOnly) {
+        outputStream.write(DASHES);
+        outputStream.write(boundary);
+        outputStream.write(CRLF);
+        outputStream.write(partHeaders(part));
+        outputStream.write(CRLF);
+      }
+
+      if (part.file == null) {
+        outputStream.write(utf8(part.value));
+      } else {
+        long expected = part.file.length();
+        long written = 0;
+        try (FileInputStream inputStream = new FileInputStream(part.file)) {
+          int read;
+          while (written < expected
+              && (read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, expected - written))) != -1) {
+            if (abort.get()) {
+              throw new IOException("Upload has been aborted");
+            }
+            outputStream.write(buffer, 0, read);
+            written += read;
+            sent += read;
+            if (listener != null && (sent - reported >= progressStep || sent == totalFileBytes)) {
+              reported = sent;
+              listener.onProgress(totalFileBytes, sent);
+            }
+          }
+        }
+        if (written != expected) {
+          // The announced Content-Length can no longer be met.
+          throw new IOException("File changed during upload: " + part.file.getPath());
+        }
+      }
+
+      if (!binaryStreamOnly) {
+        outputStream.write(CRLF);
+      }
+    }
+
+    if (!binaryStreamOnly) {
+      outputStream.write(DASHES);
+      outputStream.write(boundary);
+      outputStream.write(DASHES);
+      outputStream.write(CRLF);
+    }
+    outputStream.flush();
+  }
+
+  private static byte[] partHeaders(Part part) {
+    StringBuilder headers = new StringBuilder(128);
+    headers.append("Content-Disposition: form-data; name=\"").append(escape(part.name)).append('"');
+    if (part.file != null) {
+      headers.append("; filename=\"").append(escape(part.filename)).append('"').append("\r\n");
+      headers.append("Content-Type: ").append(part.contentType).append("\r\n");
+      headers.append("Content-length: ").append(part.file.length());
+    }
+    return utf8(headers.append("\r\n").toString());
+  }
+
+  /** Percent-encodes the characters that would break a quoted header parameter (HTML form rules). */
+  private static String escape(String value) {
+    if (value == null) {
+      return "";
+    }
+    return value.replace("\r", "%0D").replace("\n", "%0A").replace("\"", "%22");
+  }
+
+  private static byte[] utf8(String value) {
+    return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String newBoundary() {
+    byte[] random = new byte[12];
+    new SecureRandom().nextBytes(random);
+    StringBuilder boundary = new StringBuilder("RNFSFormBoundary");
+    for (byte value : random) {
+      boundary.append(Character.forDigit((value >> 4) & 0x0F, 16)).append(Character.forDigit(value & 0x0F, 16));
+    }
+    return boundary.toString();
+  }
+}
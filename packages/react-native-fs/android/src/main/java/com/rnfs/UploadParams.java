@@ -10,7 +10,7 @@ public class UploadParams {
         void onUploadComplete(UploadResult res);
     }
     public interface onUploadProgress{
-        void onUploadProgress(int totalBytesExpectedToSend,int totalBytesSent);
+        void onUploadProgress(long totalBytesExpectedToSend, long totalBytesSent);
     }
     public interface onUploadBegin{
         void onUploadBegin();
@@ -22,6 +22,10 @@ public class UploadParams {
     public ReadableMap headers;
     public ReadableMap fields;
     public String method;
+    public String transport;
+    public boolean chunked;
+    public int readTimeout;
+    public String responseFile;
     public onUploadComplete onUploadComplete;
     public onUploadProgress onUploadProgress;
     public onUploadBegin onUploadBegin;
@@ -7,4 +7,7 @@ public class UploadResult {
     public WritableMap headers;
     public Exception exception;
     public String body;
+    public long responseBytes;
+    public String responseFile;
+    HttpExchange.Timing timing;
 }
@@ -4,22 +4,18 @@ import android.os.AsyncTask;
 import android.webkit.MimeTypeMap;
 
 import com.facebook.react.bridge.Arguments;
-import com.facebook.react.bridge.NoSuchKeyException;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.ReadableMapKeySetIterator;
 import com.facebook.react.bridge.WritableMap;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.DataOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.nio.channels.Channels;
-import java.nio.channels.FileChannel;
-import java.nio.channels.WritableByteChannel;
-import java.util.List;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -27,186 +23,105 @@ public class Uploader extends AsyncTask<UploadParams, int[], UploadResult> {
     private UploadParams mParams;
     private UploadResult res;
     private AtomicBoolean mAbort = new AtomicBoolean(false);
+    private volatile HttpExchange mExchange;
 
     @Override
     protected UploadResult doInBackground(UploadParams... uploadParams) {
         mParams = uploadParams[0];
         res = new UploadResult();
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    upload(mParams, res);
-                    mParams.onUploadComplete.onUploadComplete(res);
-                } catch (Exception e) {
-                    res.exception = e;
-                    mParams.onUploadComplete.onUploadComplete(res);
-                }
-            }
-        }).start();
+        try {
+            upload(mParams, res);
+        } catch (Exception e) {
+            res.exception = mAbort.get() ? new Exception("Upload has been aborted") : e;
+        }
+        mParams.onUploadComplete.onUploadComplete(res);
         return res;
     }
 
-    private void upload(UploadParams params, UploadResult result) throws Exception {
-        HttpURLConnection connection = null;
-        DataOutputStream request = null;
-        String crlf = "\r\n";
-        String twoHyphens = "--";
-        String boundary = "*****";
-        String tail = crlf + twoHyphens + boundary + twoHyphens + crlf;
-        String metaData = "", stringData = "";
-        String[] fileHeader;
-        int statusCode, byteSentTotal;
-        int fileCount = 0;
-        long totalFileLength = 0;
-        BufferedInputStream responseStream = null;
-        BufferedReader responseStreamReader = null;
-        String name, filename, filetype;
-        try {
-            Object[] files = params.files.toArray();
-            boolean binaryStreamOnly = params.binaryStreamOnly;
-
-            connection = (HttpURLConnection) params.src.openConnection();
-            connection.setDoOutput(true);
-            ReadableMapKeySetIterator headerIterator = params.headers.keySetIterator();
-            connection.setRequestMethod(params.method);
-            if (!binaryStreamOnly) {
-                connection.setRequestProperty("Content-Type", "multipart/form-data;boundary=" + boundary);
-            }
-            while (headerIterator.hasNextKey()) {
-                String key = headerIterator.nextKey();
-                String value = params.headers.getString(key);
-                connection.setRequestProperty(key, value);
-            }
+    private void upload(final UploadParams params, UploadResult result) throws Exception {
+        final UploadBody body = new UploadBody(params.binaryStreamOnly);
 
-            ReadableMapKeySetIterator fieldsIterator = params.fields.keySetIterator();
+        ReadableMapKeySetIterator fieldsIterator = params.fields.keySetIterator();
+        while (fieldsIterator.hasNextKey()) {
+            String key = fieldsIterator.nextKey();
+            body.addField(key, params.fields.getString(key));
+        }
+        for (ReadableMap map : params.files) {
+            String filepath = map.getString("filepath");
+            String filetype = map.hasKey("filetype") && !map.isNull("filetype")
+                    ? map.getString("filetype")
+                    : getMimeType(filepath);
+            body.addFile(map.getString("name"), map.getString("filename"), filetype, new File(filepath));
+        }
 
-            while (fieldsIterator.hasNextKey()) {
-                String key = fieldsIterator.nextKey();
-                String value = params.fields.getString(key);
-                metaData += twoHyphens + boundary + crlf + "Content-Disposition: form-data; name=\"" + key + "\"" + crlf + crlf + value +crlf;
+        HttpExchange connection = HttpExchange.open(params.transport, params.src);
+        mExchange = connection;
+        try {
+            connection.setMethod(params.method);
+            connection.setTimeouts(-1, params.readTimeout);
+            if (body.contentType() != null) {
+                connection.setHeader("Content-Type", body.contentType());
             }
-            stringData += metaData;
-            fileHeader = new String[files.length];
-            for (ReadableMap map : params.files) {
-                try {
-                    name = map.getString("name");
-                    filename = map.getString("filename");
-                    filetype = map.getString("filetype");
-                } catch (NoSuchKeyException e) {
-                    name = map.getString("name");
-                    filename = map.getString("filename");
-                    filetype = getMimeType(map.getString("filepath"));
-                }
-                File file = new File(map.getString("filepath"));
-                long fileLength = file.length();
-                totalFileLength += fileLength;
-                if (!binaryStreamOnly) {
-                    String fileHeaderType = twoHyphens + boundary + crlf +
-                            "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename + "\"" + crlf +
-                            "Content-Type: " + filetype + crlf;
-                    ;
-                    if (files.length - 1 == fileCount){
-                        totalFileLength += tail.length();
-                    }
+            connection.setHeaders(params.headers);
 
-                    String fileLengthHeader = "Content-length: " + fileLength + crlf;
-                    fileHeader[fileCount] = fileHeaderType + fileLengthHeader + crlf;
-                    stringData += fileHeaderType + fileLengthHeader + crlf;
-                }
-                fileCount++;
-            }
-            fileCount = 0;
             if (mParams.onUploadBegin != null) {
                 mParams.onUploadBegin.onUploadBegin();
             }
-            if (!binaryStreamOnly) {
-                long requestLength = totalFileLength;
-                requestLength += stringData.length() + files.length * crlf.length();
-                connection.setRequestProperty("Content-length", "" +(int) requestLength);
-                connection.setFixedLengthStreamingMode((int)requestLength);
-            }
-            connection.connect();
-
-            request = new DataOutputStream(connection.getOutputStream());
-            WritableByteChannel requestChannel = Channels.newChannel(request);
-
-            if (!binaryStreamOnly) {
-                request.writeBytes(metaData);
-            }
-
-            byteSentTotal = 0;
-
-            for (ReadableMap map : params.files) {
-                if (!binaryStreamOnly) {
-                    request.writeBytes(fileHeader[fileCount]);
-                }
-
-                File file = new File(map.getString("filepath"));
-
-                long fileLength = file.length();
-                long bufferSize = (long) Math.ceil(fileLength / 100.f);
-                long bytesRead = 0;
-
-                FileInputStream fileStream = new FileInputStream(file);
-                FileChannel fileChannel = fileStream.getChannel();
-
-                while (bytesRead < fileLength) {
-                    long transferredBytes = fileChannel.transferTo(bytesRead, bufferSize, requestChannel);
-                    bytesRead += transferredBytes;
-
-                    if (mParams.onUploadProgress != null) {
-                        byteSentTotal += transferredBytes;
-                        mParams.onUploadProgress.onUploadProgress((int) totalFileLength, byteSentTotal);
-                    }
+            connection.setBody(params.chunked ? -1 : body.contentLength(), new HttpExchange.BodyWriter() {
+                @Override
+                public void writeTo(OutputStream outputStream) throws IOException {
+                    body.writeTo(outputStream, mAbort, progressListener());
                 }
+            });
 
-                if (!binaryStreamOnly) {
-                    request.writeBytes(crlf);
-                }
-
-                fileCount++;
-                fileStream.close();
-            }
-
-            if (!binaryStreamOnly) {
-                request.writeBytes(tail);
-            }
-            request.flush();
-            request.close();
+            result.statusCode = connection.execute();
+            result.timing = connection.timing;
 
-            responseStream = new BufferedInputStream(connection.getInputStream());
-            responseStreamReader = new BufferedReader(new InputStreamReader(responseStream));
             WritableMap responseHeaders = Arguments.createMap();
-            Map<String, List<String>> map = connection.getHeaderFields();
-            for (Map.Entry<String, List<String>> entry : map.entrySet()) {
-                int count = 0;
-                responseHeaders.putString(entry.getKey(), entry.getValue().get(count));
+            for (Map.Entry<String, String> entry : connection.headers().entrySet()) {
+                responseHeaders.putString(entry.getKey(), entry.getValue());
             }
-            StringBuilder stringBuilder = new StringBuilder();
-            String line = "";
+            result.headers = responseHeaders;
 
-            while ((line = responseStreamReader.readLine()) != null) {
-                stringBuilder.append(line).append("\n");
+            try (InputStream responseStream = connection.body()) {
+                if (params.responseFile != null) {
+                    // Large responses go straight to disk instead of through the JS heap.
+                    try (FileOutputStream outputStream = new FileOutputStream(params.responseFile)) {
+                        result.responseBytes = FileCopier.copyStream(responseStream, outputStream).bytes;
+                    }
+                    result.body = "";
+                    result.responseFile = params.responseFile;
+                } else {
+                    ByteArrayOutputStream response = new ByteArrayOutputStream();
+                    result.responseBytes = FileCopier.copyStream(responseStream, response).bytes;
+                    // Every line ends with "\n", as the body always has.
+                    BufferedReader reader = new BufferedReader(new StringReader(response.toString("UTF-8")));
+                    StringBuilder text = new StringBuilder();
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        text.append(line).append("\n");
+                    }
+                    result.body = text.toString();
+                }
             }
-
-            String response = stringBuilder.toString();
-            statusCode = connection.getResponseCode();
-            res.headers = responseHeaders;
-            res.body = response;
-            res.statusCode = statusCode;
         } finally {
-            if (connection != null)
-                connection.disconnect();
-            if (request != null)
-                request.close();
-            if (responseStream != null)
-                responseStream.close();
-            if (responseStreamReader != null)
-                responseStreamReader.close();
+            connection.close();
+            mExchange = null;
         }
     }
 
+    private UploadBody.ProgressListener progressListener() {
+        if (mParams.onUploadProgress == null) {
+            return null;
+        }
+        return new UploadBody.ProgressListener() {
+            @Override
+            public void onProgress(long totalBytesExpectedToSend, long totalBytesSent) {
+                mParams.onUploadProgress.onUploadProgress(totalBytesExpectedToSend, totalBytesSent);
+            }
+        };
+    }
+
     protected String getMimeType(String path) {
         String type = null;
         String extension = MimeTypeMap.getFileExtensionFromUrl(path);
@@ -221,5 +136,10 @@ public class Uploader extends AsyncTask<UploadParams, int[], UploadResult> {
 
     protected void stop() {
         mAbort.set(true);
+
+        HttpExchange exchange = mExchange;
+        if (exchange != null) {
+            exchange.cancel();
+        }
     }
 }
@@ -0,0 +1,290 @@
+package com.rnfs;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+import android.system.StructStat;
+import android.util.Log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Makes written files durable, optionally in groups.
+ *
+ * Callers write their bytes first and hand over the still-open descriptor. Pending commits are
+ * collected for a short window and then committed together on the DISK lane. Each file is
+ * fsynced once, however many writes reached it in the window. Atomic writes are temp files that
+ * are renamed over their target after the fsync. When several atomic writes to one target land
+ * in a window, only the last one is synced and renamed. Each parent directory is fsynced once
+ * after its renames. Callbacks run only after their data is on disk. Batches commit in the order
+ * they were queued. A plain write to a target that still has an atomic write queued must call
+ * {@link #awaitReplaces} first, or it would land in the inode the rename is about to discard.
+ */
+final class WriteCommitter {
+
+  static final long MAX_WINDOW_MS = 100;
+
+  private static final int MAX_BATCH = 256;
+  private static final String TEMP_INFIX = ".rnfs-tmp-";
+  private static final AtomicLong nextTempId = new AtomicLong();
+  private static volatile WriteCommitter committer;
+
+  interface Callback {
+    void onCommitted(Exception error);
+  }
+
+  private static final class Commit {
+    final Closeable stream;
+    final FileDescriptor fd;
+    final File file;
+    final File target;
+    final Callback callback;
+    Exception error;
+
+    Commit(Closeable stream, FileDescriptor fd, File file, File target, Callback callback) {
+      this.stream = stream;
+      this.fd = fd;
+      this.file = file;
+      this.target = target;
+      this.callback = callback;
+    }
+  }
+
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final Object commitLock = new Object();
+  private ArrayList<Commit> pending = new ArrayList<>();
+  // Atomic writes per target that are queued or being committed.
+  private final HashMap<File, Integer> pendingReplaces = new HashMap<>();
+  private boolean flushScheduled;
+
+  private final Runnable flushRunnable = new Runnable() {
+    @Override
+    public void run() {
+      flushOnDiskLane();
+    }
+  };
+
+  private WriteCommitter() {
+  }
+
+  static WriteCommitter getInstance() {
+    if (committer == null) {
+      synchronized (WriteCommitter.class) {
+        if (committer == null) {
+          committer = new WriteCommitter();
+        }
+      }
+    }
+    return committer;
+  }
+
+  /** A hidden sibling of {@code target} for an atomic write. */
+  static File tempFileFor(File target) {
+    File absolute = target.getAbsoluteFile();
+    return new File(
+        absolute.getParentFile(),
+        "." + absolute.getName() + TEMP_INFIX + nextTempId.incrementAndGet());
+  }
+
+  /** Queues an fsync of {@code fd}, which stays open until the commit. */
+  void sync(Closeable stream, FileDescriptor fd, long windowMs, Callback callback) {
+    enqueue(new Commit(stream, fd, null, null, callback), windowMs);
+  }
+
+  /** Queues an fsync of the fully written {@code temp} followed by its rename onto {@code target}. */
+  void replace(Closeable stream, FileDescriptor fd, File temp, File target, long windowMs, Callback callback) {
+    File absoluteTarget = target.getAbsoluteFile();
+    synchronized (this) {
+      Integer count = pendingReplaces.get(absoluteTarget);
+      pendingReplaces.put(absoluteTarget, count == null ? 1 : count + 1);
+    }
+    enqueue(new Commit(stream, fd, temp, absoluteTarget, callback), windowMs);
+  }
+
+  /**
+   * Commits, on the calling thread, every atomic write queued so far if one of them targets
+   * {@code target}, so writes to that path keep their call order. Returns at once otherwise.
+   */
+  void awaitReplaces(File target) {
+    synchronized (this) {
+      if (!pendingReplaces.containsKey(target.getAbsoluteFile())) {
+        return;
+      }
+    }
+    // A batch already taken off the queue holds commitLock, so this also waits for it.
+    flush();
+  }
+
+  private void enqueue(Commit commit, long windowMs) {
+    boolean flushNow;
+    boolean schedule = false;
+    synchronized (this) {
+      pending.add(commit);
+      flushNow = windowMs <= 0 || pending.size() >= MAX_BATCH;
+      if (!flushNow && !flushScheduled) {
+        flushScheduled = true;
+        schedule = true;
+      }
+    }
+    if (flushNow) {
+      flushOnDiskLane();
+    } else if (schedule) {
+      handler.postDelayed(flushRunnable, Math.min(MAX_WINDOW_MS, windowMs));
+    }
+  }
+
+  private void flushOnDiskLane() {
+    IOScheduler.getInstance().execute(IOScheduler.Lane.DISK, new Runnable() {
+      @Override
+      public void run() {
+        flush();
+      }
+    });
+  }
+
+  private void flush() {
+    ArrayList<Commit> batch;
+    synchronized (commitLock) {
+      synchronized (this) {
+        batch = pending;
+        pending = new ArrayList<>();
+        flushScheduled = false;
+      }
+      if (batch.isEmpty()) {
+        return;
+      }
+      commit(batch);
+      synchronized (this) {
+        for (Commit commit : batch) {
+          if (commit.target == null) {
+            continue;
+          }
+          int count = pendingReplaces.get(commit.target);
+          if (count > 1) {
+            pendingReplaces.put(commit.target, count - 1);
+          } else {
+            pendingReplaces.remove(commit.target);
+          }
+        }
+      }
+    }
+    for (Commit commit : batch) {
+      commit.callback.onCommitted(commit.error);
+    }
+  }
+
+  private void commit(ArrayList<Commit> batch) {
+    long startedAt = System.nanoTime();
+    // Only the last atomic write to each target is kept; earlier ones are never visible anyway.
+    HashMap<File, Commit> lastReplace = new HashMap<>();
+    for (Commit commit : batch) {
+      if (commit.target != null) {
+        lastReplace.put(commit.target, commit);
+      }
+    }
+
+    HashSet<String> synced = new HashSet<>();
+    HashSet<File> directories = new HashSet<>();
+    int fsyncs = 0;
+    int renames = 0;
+    int superseded = 0;
+    for (Commit commit : batch) {
+      if (commit.target != null && lastReplace.get(commit.target) != commit) {
+        close(commit);
+        commit.file.delete();
+        superseded += 1;
+        continue;
+      }
+
+      if (commit.target != null || synced.add(inodeKey(commit))) {
+        try {
+          commit.fd.sync();
+          fsyncs += 1;
+        } catch (IOException ex) {
+          commit.error = ex;
+        }
+      }
+      close(commit);
+      if (commit.target == null || commit.error != null) {
+        if (commit.target != null) {
+          commit.file.delete();
+        }
+        continue;
+      }
+
+      if (commit.file.renameTo(commit.target)) {
+        renames += 1;
+        directories.add(commit.target.getParentFile());
+      } else {
+        commit.file.delete();
+        commit.error = new IOException("Failed to rename temporary file onto '" + commit.target.getPath() + "'");
+      }
+    }
+
+    for (File directory : directories) {
+      syncDirectory(directory);
+    }
+
+    Log.i(
+        "RabbyNativeFS",
+        String.format(
+            Locale.US,
+            "[write] op=commit entries=%d fsyncs=%d renames=%d superseded=%d directories=%d duration_ms=%d",
+            batch.size(),
+            fsyncs,
+            renames,
+            superseded,
+            directories.size(),
+            (System.nanoTime() - startedAt) / 1000000L));
+  }
+
+  /** Writes through any descriptor of an inode are flushed by one fsync of it. */
+  private static String inodeKey(Commit commit) {
+    try {
+      StructStat stat = Os.fstat(commit.fd);
+      return stat.st_dev + ":" + stat.st_ino;
+    } catch (ErrnoException ex) {
+      return "fd:" + System.identityHashCode(commit);
+    }
+  }
+
+  private static void close(Commit commit) {
+    try {
+      commit.stream.close();
+    } catch (IOException ex) {
+      if (commit.error == null) {
+        commit.error = ex;
+      }
+    }
+  }
+
+  /** Persists the directory entries of the renames; some filesystems refuse this, which is fine. */
+  private static void syncDirectory(File directory) {
+    if (directory == null) {
+      return;
+    }
+    FileDescriptor fd = null;
+    try {
+      fd = Os.open(directory.getPath(), OsConstants.O_RDONLY, 0);
+      Os.fsync(fd);
+    } catch (ErrnoException ignored) {
+    } finally {
+      if (fd != null) {
+        try {
+          Os.close(fd);
+        } catch (ErrnoException ignored) {
+        }
+      }
+    }
+  }
+}
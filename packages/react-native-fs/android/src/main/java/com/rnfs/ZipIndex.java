@@ -0,0 +1,510 @@
+package com.rnfs;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Parsed central directory of a zip archive.
+ *
+ * Indexes are cached process-wide keyed by absolute path, mtime and length, so listing or
+ * extracting from the same archive again skips the central directory walk. Entries keep the
+ * offset of their local header, which lets extraction read the data with positional channel
+ * reads, concurrently if needed, without going through {@link java.util.zip.ZipFile}.
+ */
+final class ZipIndex {
+
+  static final class Entry {
+    final String rawName;
+    /** Normalized entry name, or null when the name is unsafe (absolute, '..', empty). */
+    final String name;
+    final boolean directory;
+    final int method;
+    /** General purpose flag bit 0; extraction rejects these since no password is taken. */
+    final boolean encrypted;
+    final long crc;
+    final long compressedSize;
+    final long size;
+    final long timeMs;
+    final long localHeaderOffset;
+
+    Entry(
+        String rawName,
+        String name,
+        int method,
+        boolean encrypted,
+        long crc,
+        long compressedSize,
+        long size,
+        long timeMs,
+        long localHeaderOffset) {
+      this.rawName = rawName;
+      this.name = name;
+      this.directory = rawName.endsWith("/");
+      this.method = method;
+      this.encrypted = encrypted;
+      this.crc = crc;
+      this.compressedSize = compressedSize;
+      this.size = size;
+      this.timeMs = timeMs;
+      this.localHeaderOffset = localHeaderOffset;
+    }
+  }
+
+  private static final int MAX_CACHED_ARCHIVES = 16;
+  private static final long MAX_CACHED_BYTES = 8L * 1024 * 1024;
+
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+  private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+  private static final int ZIP64_EXTRA_ID = 0x0001;
+  private static final int FLAG_ENCRYPTED = 0x0001;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+  private static final LinkedHashMap<String, ZipIndex> cache = new LinkedHashMap<>(16, 0.75f, true);
+  private static long cachedBytes;
+  private static long hits;
+  private static long misses;
+
+  final String path;
+  final long mtimeMs;
+  final long length;
+  final List<Entry> entries;
+  private final Map<String, Entry> entriesByName;
+  private final long estimatedBytes;
+
+  private ZipIndex(String path, long mtimeMs, long length, List<Entry> entries, long estimatedBytes) {
+    this.path = path;
+    this.mtimeMs = mtimeMs;
+    this.length = length;
+    this.entries = Collections.unmodifiableList(entries);
+    this.estimatedBytes = estimatedBytes;
+    HashMap<String, Entry> byName = new HashMap<>(entries.size() * 2);
+    for (Entry entry : entries) {
+      if (!byName.containsKey(entry.rawName)) {
+        byName.put(entry.rawName, entry);
+      }
+    }
+    this.entriesByName = byName;
+  }
+
+  /** Same lookup rules as {@link java.util.zip.ZipFile#getEntry}: exact name, then name + "/". */
+  Entry getEntry(String name) {
+    Entry entry = entriesByName.get(name);
+    if (entry == null && !name.endsWith("/")) {
+      entry = entriesByName.get(name + "/");
+    }
+    return entry;
+  }
+
+  static final class Lookup {
+    final ZipIndex index;
+    final boolean cached;
+
+    Lookup(ZipIndex index, boolean cached) {
+      this.index = index;
+      this.cached = cached;
+    }
+  }
+
+  static Lookup load(File archiveFile) throws IOException {
+    String path = archiveFile.getAbsolutePath();
+    long mtimeMs = archiveFile.lastModified();
+    long length = archiveFile.length();
+
+    synchronized (cache) {
+      ZipIndex index = cache.get(path);
+      if (index != null && index.mtimeMs == mtimeMs && index.length == length) {
+        hits += 1;
+        return new Lookup(index, true);
+      }
+      misses += 1;
+    }
+
+    ZipIndex index;
+    try (RandomAccessFile file = new RandomAccessFile(archiveFile, "r")) {
+      index = parse(path, mtimeMs, length, file.getChannel());
+    }
+
+    synchronized (cache) {
+      ZipIndex previous = cache.remove(path);
+      if (previous != null) {
+        cachedBytes -= previous.estimatedBytes;
+      }
+      if (index.estimatedBytes <= MAX_CACHED_BYTES) {
+        cache.put(path, index);
+        cachedBytes += index.estimatedBytes;
+        Iterator<ZipIndex> eldest = cache.values().iterator();
+        while ((cache.size() > MAX_CACHED_ARCHIVES || cachedBytes > MAX_CACHED_BYTES) && eldest.hasNext()) {
+          ZipIndex evicted = eldest.next();
+          eldest.remove();
+          cachedBytes -= evicted.estimatedBytes;
+        }
+      }
+    }
+    return new Lookup(index, false);
+  }
+
+  static void invalidate(String path) {
+    synchronized (cache) {
+      ZipIndex previous = cache.remove(new File(path).getAbsolutePath());
+      if (previous != null) {
+        cachedBytes -= previous.estimatedBytes;
+      }
+    }
+  }
+
+  static final class CacheStats {
+    int archives;
+    long estimatedBytes;
+    long hits;
+    long misses;
+  }
+
+  static CacheStats cacheStats() {
+    CacheStats stats = new CacheStats();
+    synchronized (cache) {
+      stats.archives = cache.size();
+      stats.estimatedBytes = cachedBytes;
+      stats.hits = hits;
+      stats.misses = misses;
+    }
+    return stats;
+  }
+
+  /**
+   * Inflates one entry into {@code targetFile}, verifying size and CRC. Safe to call
+   * concurrently on the same channel since every read is positional.
+   */
+  static long extractTo(FileChannel channel, Entry entry, File targetFile)
+      throws IOException, IORejectionException {
+    if (entry.encrypted) {
+      throw new IORejectionException(
+          "ENOTSUP", "ENOTSUP: encrypted zip entries are not supported, extract '" + entry.rawName + "'");
+    }
+    File parent = targetFile.getParentFile();
+    if (parent != null) {
+      parent.mkdirs();
+    }
+
+    long bytesWritten = 0;
+    CRC32 crc = new CRC32();
+    byte[] buffer = new byte[256 * 1024];
+    try (InputStream inputStream = openEntry(channel, entry);
+         OutputStream outputStream = new FileOutputStream(targetFile, false)) {
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        outputStream.write(buffer, 0, read);
+        crc.update(buffer, 0, read);
+        bytesWritten += read;
+      }
+    }
+
+    if (bytesWritten != entry.size) {
+      throw new ZipException("Invalid entry size for " + entry.rawName + ": expected " + entry.size + " but got " + bytesWritten);
+    }
+    if (crc.getValue() != entry.crc) {
+      throw new ZipException("Invalid entry CRC for " + entry.rawName);
+    }
+    if (entry.timeMs > 0) {
+      targetFile.setLastModified(entry.timeMs);
+    }
+    return bytesWritten;
+  }
+
+  static InputStream openEntry(FileChannel channel, Entry entry) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    readFully(channel, header, entry.localHeaderOffset);
+    if (header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+      throw new ZipException("Invalid local header for " + entry.rawName);
+    }
+    long dataOffset = entry.localHeaderOffset
+        + LOCAL_HEADER_SIZE
+        + (header.getShort(26) & 0xFFFF)
+        + (header.getShort(28) & 0xFFFF);
+
+    RangeInputStream raw = new RangeInputStream(channel, dataOffset, entry.compressedSize);
+    if (entry.method == ZipEntry.STORED) {
+      return raw;
+    }
+    if (entry.method == ZipEntry.DEFLATED) {
+      return new EntryInflaterInputStream(raw);
+    }
+    throw new ZipException("Unsupported compression method " + entry.method + " for " + entry.rawName);
+  }
+
+  private static ZipIndex parse(String path, long mtimeMs, long length, FileChannel channel) throws IOException {
+    if (length < END_OF_CENTRAL_DIRECTORY_SIZE) {
+      throw new ZipException("File too short to be a zip archive: " + path);
+    }
+
+    int tailLength = (int) Math.min(length, END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_SIZE);
+    long tailOffset = length - tailLength;
+    ByteBuffer tail = ByteBuffer.allocate(tailLength).order(ByteOrder.LITTLE_ENDIAN);
+    readFully(channel, tail, tailOffset);
+
+    int eocd = -1;
+    for (int position = tailLength - END_OF_CENTRAL_DIRECTORY_SIZE; position >= 0; position -= 1) {
+      if (tail.getInt(position) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+        eocd = position;
+        break;
+      }
+    }
+    if (eocd < 0) {
+      throw new ZipException("End of central directory not found: " + path);
+    }
+
+    long entryCount = tail.getShort(eocd + 10) & 0xFFFF;
+    long directorySize = tail.getInt(eocd + 12) & 0xFFFFFFFFL;
+    long directoryOffset = tail.getInt(eocd + 16) & 0xFFFFFFFFL;
+
+    long locatorOffset = tailOffset + eocd - 20;
+    if (locatorOffset >= 0) {
+      ByteBuffer locator = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+      readFully(channel, locator, locatorOffset);
+      if (locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+        ByteBuffer record = ByteBuffer.allocate(56).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, record, locator.getLong(8));
+        if (record.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+          throw new ZipException("Invalid zip64 end of central directory: " + path);
+        }
+        entryCount = record.getLong(32);
+        directorySize = record.getLong(40);
+        directoryOffset = record.getLong(48);
+      }
+    }
+
+    if (directoryOffset + directorySize > length || directorySize > Integer.MAX_VALUE) {
+      throw new ZipException("Invalid central directory bounds: " + path);
+    }
+
+    ByteBuffer directory = ByteBuffer.allocate((int) directorySize).order(ByteOrder.LITTLE_ENDIAN);
+    readFully(channel, directory, directoryOffset);
+
+    ArrayList<Entry> entries = new ArrayList<>((int) Math.min(entryCount, 1 << 16));
+    long estimatedBytes = 256;
+    int position = 0;
+    Calendar calendar = Calendar.getInstance();
+    while (position + 46 <= directorySize && directory.getInt(position) == CENTRAL_HEADER_SIGNATURE) {
+      int flags = directory.getShort(position + 8) & 0xFFFF;
+      int method = directory.getShort(position + 10) & 0xFFFF;
+      int dosTime = directory.getShort(position + 12) & 0xFFFF;
+      int dosDate = directory.getShort(position + 14) & 0xFFFF;
+      long crc = directory.getInt(position + 16) & 0xFFFFFFFFL;
+      long compressedSize = directory.getInt(position + 20) & 0xFFFFFFFFL;
+      long size = directory.getInt(position + 24) & 0xFFFFFFFFL;
+      int nameLength = directory.getShort(position + 28) & 0xFFFF;
+      int extraLength = directory.getShort(position + 30) & 0xFFFF;
+      int commentLength = directory.getShort(position + 32) & 0xFFFF;
+      long localHeaderOffset = directory.getInt(position + 42) & 0xFFFFFFFFL;
+
+      int nameOffset = position + 46;
+      int extraOffset = nameOffset + nameLength;
+      int next = extraOffset + extraLength + commentLength;
+      if (next > directorySize) {
+        throw new ZipException("Truncated central directory entry: " + path);
+      }
+
+      String rawName = new String(directory.array(), nameOffset, nameLength, StandardCharsets.UTF_8);
+
+      if (size == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL || localHeaderOffset == 0xFFFFFFFFL) {
+        int extra = extraOffset;
+        int extraEnd = extraOffset + extraLength;
+        while (extra + 4 <= extraEnd) {
+          int id = directory.getShort(extra) & 0xFFFF;
+          int dataSize = directory.getShort(extra + 2) & 0xFFFF;
+          int data = extra + 4;
+          if (id == ZIP64_EXTRA_ID) {
+            int dataEnd = Math.min(data + dataSize, extraEnd);
+            if (size == 0xFFFFFFFFL && data + 8 <= dataEnd) {
+              size = directory.getLong(data);
+              data += 8;
+            }
+            if (compressedSize == 0xFFFFFFFFL && data + 8 <= dataEnd) {
+              compressedSize = directory.getLong(data);
+              data += 8;
+            }
+            if (localHeaderOffset == 0xFFFFFFFFL && data + 8 <= dataEnd) {
+              localHeaderOffset = directory.getLong(data);
+            }
+            break;
+          }
+          extra = data + dataSize;
+        }
+      }
+
+      String name;
+      try {
+        name = RNFSManager.normalizeZipEntryName(rawName);
+      } catch (IOException ignored) {
+        name = null;
+      }
+
+      entries.add(new Entry(
+          rawName,
+          name,
+          method,
+          (flags & FLAG_ENCRYPTED) != 0,
+          crc,
+          compressedSize,
+          size,
+          dosToJavaTime(calendar, dosDate, dosTime),
+          localHeaderOffset));
+      estimatedBytes += 96 + rawName.length() * 4L;
+      position = next;
+    }
+
+    return new ZipIndex(path, mtimeMs, length, entries, estimatedBytes);
+  }
+
+  private static long dosToJavaTime(Calendar calendar, int dosDate, int dosTime) {
+    if (dosDate == 0 && dosTime == 0) {
+      return -1;
+    }
+    calendar.clear();
+    calendar.set(
+        ((dosDate >> 9) & 0x7f) + 1980,
+        ((dosDate >> 5) & 0x0f) - 1,
+        dosDate & 0x1f,
+        (dosTime >> 11) & 0x1f,
+        (dosTime >> 5) & 0x3f,
+        (dosTime << 1) & 0x3e);
+    return calendar.getTimeInMillis();
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0) {
+        throw new EOFException("Unexpected end of zip archive");
+      }
+    }
+  }
+
+  private static final class RangeInputStream extends InputStream {
+    private final FileChannel channel;
+    private long position;
+    private long remaining;
+
+    RangeInputStream(FileChannel channel, long position, long length) {
+      this.channel = channel;
+      this.position = position;
+      this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] single = new byte[1];
+      return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int request = (int) Math.min(length, remaining);
+      int read = channel.read(ByteBuffer.wrap(buffer, offset, request), position);
+      if (read < 0) {
+        throw new EOFException("Unexpected end of zip entry data");
+      }
+      position += read;
+      remaining -= read;
+      return read;
+    }
+
+    @Override
+    public int available() {
+      return (int) Math.min(remaining, Integer.MAX_VALUE);
+    }
+  }
+
+  private static final class EntryInflaterInputStream extends InputStream {
+    private final InputStream source;
+    private final Inflater inflater = new Inflater(true);
+    private final byte[] input = new byte[64 * 1024];
+    private boolean sourceExhausted;
+    private boolean closed;
+
+    EntryInflaterInputStream(InputStream source) {
+      this.source = source;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] single = new byte[1];
+      return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      try {
+        while (true) {
+          int inflated = inflater.inflate(buffer, offset, length);
+          if (inflated > 0) {
+            return inflated;
+          }
+          if (inflater.finished()) {
+            return -1;
+          }
+          if (inflater.needsDictionary()) {
+            throw new ZipException("Zip entry requires a preset dictionary");
+          }
+          if (inflater.needsInput()) {
+            if (sourceExhausted) {
+              throw new EOFException("Unexpected end of deflated zip entry");
+            }
+            int read = source.read(input, 0, input.length);
+            if (read == -1) {
+              // Raw inflate may want one trailing byte past the data, same as ZipFile supplies.
+              sourceExhausted = true;
+              input[0] = 0;
+              inflater.setInput(input, 0, 1);
+            } else {
+              inflater.setInput(input, 0, read);
+            }
+          }
+        }
+      } catch (DataFormatException ex) {
+        throw new ZipException(ex.getMessage() != null ? ex.getMessage() : "Invalid deflated zip entry");
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        closed = true;
+        inflater.end();
+        source.close();
+      }
+    }
+  }
+}
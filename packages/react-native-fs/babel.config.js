@@ -0,0 +1,3 @@
+module.exports = {
+  plugins: ['@babel/plugin-transform-flow-strip-types'],
+};
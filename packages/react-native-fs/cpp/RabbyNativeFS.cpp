@@ -1,19 +1,26 @@
 #include "RabbyNativeFS.h"
 
 #include <algorithm>
+#include <array>
+#include <atomic>
 #include <cerrno>
 #include <chrono>
 #include <condition_variable>
 #include <cstdint>
 #include <cstring>
+#include <dirent.h>
 #include <fcntl.h>
+#include <ftw.h>
 #include <deque>
 #include <functional>
+#include <limits>
 #include <memory>
 #include <mutex>
 #include <stdexcept>
 #include <string>
+#include <sys/mman.h>
 #include <sys/stat.h>
+#include <sys/statvfs.h>
 #include <thread>
 #include <unistd.h>
 #include <utility>
@@ -23,6 +30,7 @@
 
 #ifdef __ANDROID__
 #include <android/log.h>
+#include <dlfcn.h>
 #include <sys/syscall.h>
 #endif
 
@@ -34,6 +42,7 @@ namespace {
 
 using SteadyClock = std::chrono::steady_clock;
 
+// Snapshot copy of one ring slot.
 struct DiagnosticEvent {
   uint64_t id;
   std::string category;
@@ -46,11 +55,62 @@ struct DiagnosticEvent {
   std::string message;
 };
 
-std::mutex diagnosticMutex;
-std::deque<DiagnosticEvent> diagnosticEvents;
-uint64_t nextDiagnosticEventId = 1;
-
+// Diagnostics stay on in release builds, so recording takes no lock: writers
+// claim a ring slot with one atomic increment and guard it with a sequence
+// number that readers check before and after copying. Category and operation
+// names are always string literals and are kept as pointers.
 constexpr size_t kMaxDiagnosticEvents = 256;
+constexpr size_t kDiagnosticPathTailBytes = 100;
+constexpr size_t kDiagnosticMessageBytes = 160;
+
+struct DiagnosticSlot {
+  // 2 * id - 1 while event `id` is being written, 2 * id once it is complete.
+  std::atomic<uint64_t> version{0};
+  const char* category = "";
+  const char* operation = "";
+  char pathTail[kDiagnosticPathTailBytes] = {};
+  char message[kDiagnosticMessageBytes] = {};
+  uint64_t bytes = 0;
+  int64_t durationUs = 0;
+  long tid = 0;
+  bool isError = false;
+};
+
+DiagnosticSlot diagnosticRing[kMaxDiagnosticEvents];
+std::atomic<uint64_t> nextDiagnosticEventId{1};
+std::atomic<uint64_t> firstVisibleDiagnosticEventId{1};
+std::atomic<uint64_t> droppedDiagnosticEvents{0};
+
+// Per-operation HDR-style histograms: values below 8 get a bucket each, and
+// every power of two above that is split into 8 linear sub-buckets, so a
+// bucket's bounds are within 12.5% of any value in it. The last bucket
+// starts at 2^36 and takes everything larger.
+constexpr size_t kHistogramSubBucketBits = 3;
+constexpr size_t kHistogramSubBuckets = size_t{1} << kHistogramSubBucketBits;
+constexpr size_t kHistogramBuckets = 280;
+constexpr size_t kMaxDiagnosticOperations = 64;
+
+struct OperationHistogram {
+  std::atomic<const char*> name{nullptr};
+  std::atomic<uint64_t> count{0};
+  std::atomic<uint64_t> errors{0};
+  std::atomic<uint64_t> totalUs{0};
+  std::atomic<uint64_t> maxUs{0};
+  std::atomic<uint64_t> totalBytes{0};
+  std::atomic<uint64_t> maxBytes{0};
+  std::atomic<uint32_t> latencyBuckets[kHistogramBuckets] = {};
+  std::atomic<uint32_t> sizeBuckets[kHistogramBuckets] = {};
+};
+
+OperationHistogram operationHistograms[kMaxDiagnosticOperations];
+
+#ifdef NDEBUG
+std::atomic<bool> diagnosticLogcatEnabled{false};
+#else
+std::atomic<bool> diagnosticLogcatEnabled{true};
+#endif
+std::atomic<bool> diagnosticEventsEnabled{true};
+std::atomic<bool> diagnosticTraceCountersEnabled{true};
 
 class VectorBuffer final : public jsi::MutableBuffer {
  public:
@@ -69,6 +129,63 @@ class VectorBuffer final : public jsi::MutableBuffer {
   std::vector<uint8_t> data_;
 };
 
+// Read-only view of a private file mapping, handed to JS without copying the
+// bytes. MAP_PRIVATE keeps accidental writes from JS copy-on-write instead of
+// reaching the file. The mapping is released when JS drops the ArrayBuffer.
+class MappedChunkBuffer final : public jsi::MutableBuffer {
+ public:
+  MappedChunkBuffer(void* mapping, size_t mappingLength, size_t offset, size_t length)
+      : mapping_(mapping),
+        mappingLength_(mappingLength),
+        offset_(offset),
+        length_(length) {}
+
+  ~MappedChunkBuffer() override {
+    if (mapping_ != MAP_FAILED && mapping_ != nullptr) {
+      munmap(mapping_, mappingLength_);
+    }
+  }
+
+  // Drops the file pages now rather than when JS collects the buffer. The
+  // range is replaced with anonymous zero pages instead of being unmapped, so
+  // a view JS still holds reads zeros instead of faulting; the address range
+  // itself is returned in the destructor.
+  bool release() {
+    std::lock_guard<std::mutex> lock(releaseMutex_);
+    if (released_ || mapping_ == MAP_FAILED || mapping_ == nullptr) {
+      return false;
+    }
+    void* replaced = mmap(
+        mapping_,
+        mappingLength_,
+        PROT_READ | PROT_WRITE,
+        MAP_PRIVATE | MAP_ANONYMOUS | MAP_FIXED,
+        -1,
+        0);
+    if (replaced == MAP_FAILED) {
+      return false;
+    }
+    released_ = true;
+    return true;
+  }
+
+  size_t size() const override {
+    return length_;
+  }
+
+  uint8_t* data() override {
+    return static_cast<uint8_t*>(mapping_) + offset_;
+  }
+
+ private:
+  void* mapping_;
+  size_t mappingLength_;
+  size_t offset_;
+  size_t length_;
+  std::mutex releaseMutex_;
+  bool released_ = false;
+};
+
 std::string errnoMessage(const std::string& operation, const std::string& path) {
   return operation + " '" + path + "' failed: " + std::strerror(errno);
 }
@@ -97,6 +214,119 @@ long currentTidForLog() {
 }
 #endif
 
+void updateAtomicMax(std::atomic<uint64_t>& target, uint64_t value) {
+  uint64_t current = target.load(std::memory_order_relaxed);
+  while (current < value &&
+         !target.compare_exchange_weak(current, value, std::memory_order_relaxed)) {
+  }
+}
+
+size_t histogramBucket(uint64_t value) {
+  if (value < kHistogramSubBuckets) {
+    return static_cast<size_t>(value);
+  }
+  size_t exponent = 63 - static_cast<size_t>(__builtin_clzll(value));
+  size_t index = (exponent - kHistogramSubBucketBits + 1) * kHistogramSubBuckets +
+      static_cast<size_t>((value >> (exponent - kHistogramSubBucketBits)) & (kHistogramSubBuckets - 1));
+  return std::min(index, kHistogramBuckets - 1);
+}
+
+uint64_t histogramBucketLowerBound(size_t index) {
+  if (index < kHistogramSubBuckets) {
+    return index;
+  }
+  size_t exponent = index / kHistogramSubBuckets + kHistogramSubBucketBits - 1;
+  return (kHistogramSubBuckets + index % kHistogramSubBuckets) << (exponent - kHistogramSubBucketBits);
+}
+
+// Finds or claims the histogram for `operation`. Slots are claimed in order,
+// so two threads racing on a new name always settle on the same slot.
+OperationHistogram* operationHistogramFor(const char* operation) {
+  for (auto& entry : operationHistograms) {
+    const char* name = entry.name.load(std::memory_order_acquire);
+    if (name == nullptr &&
+        entry.name.compare_exchange_strong(name, operation, std::memory_order_acq_rel)) {
+      return &entry;
+    }
+    if (name == operation || std::strcmp(name, operation) == 0) {
+      return &entry;
+    }
+  }
+  return nullptr;
+}
+
+#ifdef __ANDROID__
+// ATrace_setCounter is what android.os.Trace.setCounter calls; it only exists
+// from API 29, so it is looked up at runtime. Names follow RabbyStartupTrace
+// ("Rabby:" prefix, at most 120 characters) so the counters sit next to the
+// app's own startup sections in a trace.
+struct TraceCounterApi {
+  bool (*isEnabled)();
+  void (*setCounter)(const char*, int64_t);
+};
+
+const TraceCounterApi& traceCounterApi() {
+  static const TraceCounterApi api = [] {
+    TraceCounterApi result{nullptr, nullptr};
+    result.isEnabled = reinterpret_cast<bool (*)()>(dlsym(RTLD_DEFAULT, "ATrace_isEnabled"));
+    result.setCounter = reinterpret_cast<void (*)(const char*, int64_t)>(dlsym(RTLD_DEFAULT, "ATrace_setCounter"));
+    return result;
+  }();
+  return api;
+}
+
+void mirrorTraceCounters(const char* operation, size_t bytes, int64_t durationUs) {
+  if (!diagnosticTraceCountersEnabled.load(std::memory_order_relaxed)) {
+    return;
+  }
+  const auto& api = traceCounterApi();
+  if (api.setCounter == nullptr || api.isEnabled == nullptr || !api.isEnabled()) {
+    return;
+  }
+  char name[121];
+  snprintf(name, sizeof(name), "Rabby:NativeFS.%s.us", operation);
+  api.setCounter(name, durationUs);
+  if (bytes > 0) {
+    snprintf(name, sizeof(name), "Rabby:NativeFS.%s.bytes", operation);
+    api.setCounter(name, static_cast<int64_t>(bytes));
+  }
+}
+#else
+void mirrorTraceCounters(const char*, size_t, int64_t) {}
+#endif
+
+// Aggregates only; cheap enough for per-commit paths that never log.
+void recordOperationSample(
+    const char* operation,
+    size_t bytes,
+    int64_t durationUs,
+    bool isError) {
+  auto* histogram = operationHistogramFor(operation);
+  if (histogram == nullptr) {
+    return;
+  }
+  if (isError) {
+    histogram->errors.fetch_add(1, std::memory_order_relaxed);
+    return;
+  }
+
+  uint64_t latency = static_cast<uint64_t>(std::max<int64_t>(0, durationUs));
+  histogram->count.fetch_add(1, std::memory_order_relaxed);
+  histogram->totalUs.fetch_add(latency, std::memory_order_relaxed);
+  histogram->totalBytes.fetch_add(bytes, std::memory_order_relaxed);
+  updateAtomicMax(histogram->maxUs, latency);
+  updateAtomicMax(histogram->maxBytes, bytes);
+  histogram->latencyBuckets[histogramBucket(latency)].fetch_add(1, std::memory_order_relaxed);
+  histogram->sizeBuckets[histogramBucket(bytes)].fetch_add(1, std::memory_order_relaxed);
+  mirrorTraceCounters(operation, bytes, durationUs);
+}
+
+void copyTruncated(char* target, size_t capacity, const std::string& value) {
+  size_t length = std::min(value.size(), capacity - 1);
+  std::memcpy(target, value.data(), length);
+  target[length] = '\0';
+}
+
 void recordDiagnosticEvent(
     const char* category,
     const char* operation,
@@ -104,21 +334,69 @@ void recordDiagnosticEvent(
     size_t bytes,
     int64_t durationUs,
     bool isError,
-    std::string message) {
-  std::lock_guard<std::mutex> lock(diagnosticMutex);
-  diagnosticEvents.push_back(DiagnosticEvent{
-      nextDiagnosticEventId++,
-      category,
-      operation,
-      pathTail(path),
-      bytes,
-      durationUs,
-      currentTidForLog(),
-      isError,
-      std::move(message)});
-  while (diagnosticEvents.size() > kMaxDiagnosticEvents) {
-    diagnosticEvents.pop_front();
+    const std::string& message) {
+  if (!diagnosticEventsEnabled.load(std::memory_order_relaxed)) {
+    return;
+  }
+  uint64_t id = nextDiagnosticEventId.fetch_add(1, std::memory_order_relaxed);
+  auto& slot = diagnosticRing[id % kMaxDiagnosticEvents];
+
+  // A writer a full lap behind, or still writing, owns the slot; drop rather
+  // than wait for it.
+  uint64_t version = slot.version.load(std::memory_order_relaxed);
+  if ((version & 1) != 0 || version >= 2 * id ||
+      !slot.version.compare_exchange_strong(version, 2 * id - 1, std::memory_order_relaxed)) {
+    droppedDiagnosticEvents.fetch_add(1, std::memory_order_relaxed);
+    return;
+  }
+  std::atomic_thread_fence(std::memory_order_release);
+
+  slot.category = category;
+  slot.operation = operation;
+  copyTruncated(slot.pathTail, sizeof(slot.pathTail), pathTail(path));
+  copyTruncated(slot.message, sizeof(slot.message), message);
+  slot.bytes = bytes;
+  slot.durationUs = durationUs;
+  slot.tid = currentTidForLog();
+  slot.isError = isError;
+  slot.version.store(2 * id, std::memory_order_release);
+}
+
+// Events still in the ring, oldest first. Slots overwritten while being
+// copied are skipped.
+std::vector<DiagnosticEvent> snapshotDiagnosticEvents() {
+  uint64_t end = nextDiagnosticEventId.load(std::memory_order_acquire);
+  uint64_t begin = std::max<uint64_t>(
+      firstVisibleDiagnosticEventId.load(std::memory_order_acquire),
+      end > kMaxDiagnosticEvents ? end - kMaxDiagnosticEvents : 1);
+
+  std::vector<DiagnosticEvent> events;
+  events.reserve(static_cast<size_t>(end - std::min(begin, end)));
+  for (uint64_t id = begin; id < end; id += 1) {
+    auto& slot = diagnosticRing[id % kMaxDiagnosticEvents];
+    if (slot.version.load(std::memory_order_acquire) != 2 * id) {
+      continue;
+    }
+    DiagnosticEvent event{
+        id,
+        slot.category,
+        slot.operation,
+        std::string(slot.pathTail, strnlen(slot.pathTail, sizeof(slot.pathTail))),
+        static_cast<size_t>(slot.bytes),
+        slot.durationUs,
+        slot.tid,
+        slot.isError,
+        std::string(slot.message, strnlen(slot.message, sizeof(slot.message)))};
+    std::atomic_thread_fence(std::memory_order_acquire);
+    if (slot.version.load(std::memory_order_relaxed) == 2 * id) {
+      events.push_back(std::move(event));
+    }
   }
+  return events;
+}
+
+bool diagnosticLogcatOn() {
+  return diagnosticLogcatEnabled.load(std::memory_order_relaxed);
 }
 
 void logNativeFsInfo(
@@ -127,8 +405,12 @@ void logNativeFsInfo(
     const std::string& path,
     size_t bytes,
     int64_t durationUs) {
+  recordOperationSample(operation, bytes, durationUs, false);
   recordDiagnosticEvent(category, operation, path, bytes, durationUs, false, "");
 #ifdef __ANDROID__
+  if (!diagnosticLogcatOn()) {
+    return;
+  }
   __android_log_print(
       ANDROID_LOG_INFO,
       "RabbyNativeFS",
@@ -142,10 +424,12 @@ void logNativeFsInfo(
 #endif
 }
 
+// Errors are rare and always worth a logcat line.
 void logNativeFsError(
     const char* operation,
     const std::string& path,
     const char* message) {
+  recordOperationSample(operation, 0, 0, true);
   recordDiagnosticEvent("io-error", operation, path, 0, 0, true, message);
 #ifdef __ANDROID__
   __android_log_print(
@@ -159,12 +443,27 @@ void logNativeFsError(
 #endif
 }
 
+// Batch lookups are frequent and individually cheap, so they only go to the
+// diagnostics ring, not to logcat.
+void logNativeFsBatch(const char* operation, size_t pathCount, int64_t durationUs) {
+  recordOperationSample(operation, 0, durationUs, false);
+  recordDiagnosticEvent(
+      "batch",
+      operation,
+      "",
+      0,
+      durationUs,
+      false,
+      "paths=" + std::to_string(pathCount));
+}
+
 void logNativeFsOwnedClose(
     uint64_t writerId,
     const std::string& path,
     size_t bytes,
     size_t commits,
     int64_t durationUs) {
+  recordOperationSample("closeWriteStream", bytes, durationUs, false);
   recordDiagnosticEvent(
       "owned-write",
       "closeWriteStream",
@@ -174,6 +473,9 @@ void logNativeFsOwnedClose(
       false,
       "commits=" + std::to_string(commits) + ";writer_id=" + std::to_string(writerId));
 #ifdef __ANDROID__
+  if (!diagnosticLogcatOn()) {
+    return;
+  }
   __android_log_print(
       ANDROID_LOG_INFO,
       "RabbyNativeFS",
@@ -198,12 +500,12 @@ void logNativeFsInstall() {
 #endif
 }
 
-std::string requirePath(jsi::Runtime& runtime, const jsi::Value* arguments, size_t count) {
-  if (count < 1 || !arguments[0].isString()) {
+std::string requirePathValue(jsi::Runtime& runtime, const jsi::Value& value) {
+  if (!value.isString()) {
     throw jsi::JSError(runtime, "RabbyNativeFS expected a file path string");
   }
 
-  std::string path = arguments[0].asString(runtime).utf8(runtime);
+  std::string path = value.asString(runtime).utf8(runtime);
   static const std::string fileScheme = "file://";
   if (path.rfind(fileScheme, 0) == 0) {
     path = path.substr(fileScheme.size());
@@ -220,6 +522,31 @@ std::string requirePath(jsi::Runtime& runtime, const jsi::Value* arguments, size
   return path;
 }
 
+std::string requirePath(jsi::Runtime& runtime, const jsi::Value* arguments, size_t count) {
+  if (count < 1) {
+    throw jsi::JSError(runtime, "RabbyNativeFS expected a file path string");
+  }
+  return requirePathValue(runtime, arguments[0]);
+}
+
+std::vector<std::string> requirePathArray(
+    jsi::Runtime& runtime,
+    const jsi::Value* arguments,
+    size_t count) {
+  if (count < 1 || !arguments[0].isObject() || !arguments[0].asObject(runtime).isArray(runtime)) {
+    throw jsi::JSError(runtime, "RabbyNativeFS expected an array of file paths");
+  }
+
+  auto array = arguments[0].asObject(runtime).asArray(runtime);
+  size_t length = array.size(runtime);
+  std::vector<std::string> paths;
+  paths.reserve(length);
+  for (size_t index = 0; index < length; index += 1) {
+    paths.push_back(requirePathValue(runtime, array.getValueAtIndex(runtime, index)));
+  }
+  return paths;
+}
+
 int requireInt(jsi::Runtime& runtime, const jsi::Value& value, int fallback) {
   if (value.isUndefined() || value.isNull()) {
     return fallback;
@@ -254,6 +581,14 @@ jsi::Object makeUint8Array(jsi::Runtime& runtime, std::vector<uint8_t>&& bytes)
   return uint8ArrayConstructor.callAsConstructor(runtime, std::move(buffer)).asObject(runtime);
 }
 
+jsi::Object makeUint8Array(
+    jsi::Runtime& runtime,
+    std::shared_ptr<jsi::MutableBuffer> buffer) {
+  auto arrayBuffer = jsi::ArrayBuffer(runtime, std::move(buffer));
+  auto uint8ArrayConstructor = requireGlobalFunction(runtime, "Uint8Array");
+  return uint8ArrayConstructor.callAsConstructor(runtime, std::move(arrayBuffer)).asObject(runtime);
+}
+
 bool isArrayBufferView(jsi::Runtime& runtime, const jsi::Object& object) {
   auto arrayBuffer = runtime.global().getProperty(runtime, "ArrayBuffer");
   if (!arrayBuffer.isObject()) {
@@ -381,6 +716,93 @@ std::vector<uint8_t> readBytesFromFile(
   return bytes;
 }
 
+size_t mappingPageSize() {
+  static const size_t pageSize = [] {
+    long value = sysconf(_SC_PAGESIZE);
+    return value > 0 ? static_cast<size_t>(value) : static_cast<size_t>(4096);
+  }();
+  return pageSize;
+}
+
+std::shared_ptr<MappedChunkBuffer> mapFileWindow(
+    int fd,
+    int64_t position,
+    size_t length,
+    const std::string& path) {
+  size_t pageSize = mappingPageSize();
+  int64_t alignedPosition = position - (position % static_cast<int64_t>(pageSize));
+  size_t delta = static_cast<size_t>(position - alignedPosition);
+  size_t mappingLength = delta + length;
+
+  void* mapping = mmap(
+      nullptr,
+      mappingLength,
+      PROT_READ | PROT_WRITE,
+      MAP_PRIVATE,
+      fd,
+      static_cast<off_t>(alignedPosition));
+  if (mapping == MAP_FAILED) {
+    throw std::runtime_error(errnoMessage("mmap", path));
+  }
+  madvise(mapping, mappingLength, MADV_SEQUENTIAL);
+  return std::make_shared<MappedChunkBuffer>(mapping, mappingLength, delta, length);
+}
+
+// MAP_PRIVATE only keeps our own writes private: if the file is truncated in
+// place while mapped, touching a page past the new end raises SIGBUS. Files
+// the app can write (its documents, caches, downloads) may only be mapped when
+// the caller opts in, promising they are replaced by rename (writeFile with
+// atomic: true) and never rewritten in place.
+void requireMappableFile(const std::string& path, bool allowWritable) {
+  if (!allowWritable && access(path.c_str(), W_OK) == 0) {
+    throw std::runtime_error(
+        "EPERM: refusing to map writable file '" + path +
+        "', pass allowWritable if it is only ever replaced by rename (atomic: true)");
+  }
+}
+
+// Maps [offset, offset + length) of a file, clamped to its size; length 0
+// means to the end. Returns null for an empty range. The descriptor is closed
+// before returning, the mapping keeps the file alive.
+std::shared_ptr<MappedChunkBuffer> mapFileRange(
+    const std::string& path,
+    int64_t offset,
+    int64_t length,
+    bool allowWritable) {
+  if (offset < 0 || length < 0) {
+    throw std::runtime_error("mapFile '" + path + "' failed: offset and length must be >= 0");
+  }
+  requireMappableFile(path, allowWritable);
+
+  int fd = open(path.c_str(), O_RDONLY | O_CLOEXEC);
+  if (fd == -1) {
+    throw std::runtime_error(errnoMessage("open", path));
+  }
+
+  std::shared_ptr<MappedChunkBuffer> buffer;
+  try {
+    struct stat fileStat {};
+    if (fstat(fd, &fileStat) == -1) {
+      throw std::runtime_error(errnoMessage("stat", path));
+    }
+    if (S_ISDIR(fileStat.st_mode)) {
+      throw std::runtime_error("EISDIR: illegal operation on a directory, read '" + path + "'");
+    }
+
+    int64_t fileSize = static_cast<int64_t>(fileStat.st_size);
+    int64_t available = offset < fileSize ? fileSize - offset : 0;
+    int64_t mappedLength = length == 0 ? available : std::min(length, available);
+    if (mappedLength > 0) {
+      buffer = mapFileWindow(fd, offset, static_cast<size_t>(mappedLength), path);
+    }
+  } catch (...) {
+    close(fd);
+    throw;
+  }
+  close(fd);
+  return buffer;
+}
+
 void writeAllToFd(
     int fd,
     const uint8_t* data,
@@ -402,6 +824,241 @@ void writeAllToFd(
   }
 }
 
+void pwriteAllToFd(
+    int fd,
+    const uint8_t* data,
+    size_t length,
+    int64_t offset,
+    const std::string& path) {
+  size_t totalWritten = 0;
+  while (totalWritten < length) {
+    ssize_t writeCount = pwrite(
+        fd,
+        data + totalWritten,
+        length - totalWritten,
+        static_cast<off_t>(offset + static_cast<int64_t>(totalWritten)));
+    if (writeCount == -1) {
+      if (errno == EINTR) {
+        continue;
+      }
+      throw std::runtime_error(errnoMessage("pwrite", path));
+    }
+    if (writeCount == 0) {
+      throw std::runtime_error("pwrite '" + path + "' failed: wrote zero bytes");
+    }
+    totalWritten += static_cast<size_t>(writeCount);
+  }
+}
+
+// Reads until `length` bytes or end of file; returns the byte count.
+size_t preadFromFd(
+    int fd,
+    uint8_t* data,
+    size_t length,
+    int64_t offset,
+    const std::string& path) {
+  size_t totalRead = 0;
+  while (totalRead < length) {
+    ssize_t readCount = pread(
+        fd,
+        data + totalRead,
+        length - totalRead,
+        static_cast<off_t>(offset + static_cast<int64_t>(totalRead)));
+    if (readCount == -1) {
+      if (errno == EINTR) {
+        continue;
+      }
+      throw std::runtime_error(errnoMessage("pread", path));
+    }
+    if (readCount == 0) {
+      break;
+    }
+    totalRead += static_cast<size_t>(readCount);
+  }
+  return totalRead;
+}
+
+enum class IOKind : size_t {
+  Read = 0,
+  Write,
+  Close,
+  Stat,
+  Sync,
+  Remove,
+  Hash,
+  Count,
+};
+
+const char* ioKindName(IOKind kind) {
+  switch (kind) {
+    case IOKind::Read:
+      return "read";
+    case IOKind::Write:
+      return "write";
+    case IOKind::Close:
+      return "close";
+    case IOKind::Stat:
+      return "stat";
+    case IOKind::Sync:
+      return "sync";
+    case IOKind::Remove:
+      return "remove";
+    case IOKind::Hash:
+      return "hash";
+    default:
+      return "unknown";
+  }
+}
+
+// Bucket 0 holds zero, bucket i holds values in [2^(i-1), 2^i); the last
+// bucket also takes everything larger.
+constexpr size_t kLatencyBuckets = 24;
+constexpr size_t kQueueDepthBuckets = 12;
+
+size_t log2Bucket(uint64_t value, size_t bucketCount) {
+  size_t bucket = 0;
+  while (value != 0 && bucket + 1 < bucketCount) {
+    value >>= 1;
+    bucket += 1;
+  }
+  return bucket;
+}
+
+struct IOKindStats {
+  uint64_t count = 0;
+  uint64_t totalRunUs = 0;
+  uint64_t maxRunUs = 0;
+  uint64_t runBuckets[kLatencyBuckets] = {};
+  uint64_t waitBuckets[kLatencyBuckets] = {};
+};
+
+struct IOEngineSnapshot {
+  size_t workers = 0;
+  size_t queueDepth = 0;
+  size_t maxQueueDepth = 0;
+  uint64_t submitted = 0;
+  uint64_t completed = 0;
+  uint64_t queueDepthBuckets[kQueueDepthBuckets] = {};
+  IOKindStats kinds[static_cast<size_t>(IOKind::Count)];
+};
+
+// Fixed pool of I/O threads shared by every async stream and async batch call,
+// so opening more streams adds queue entries instead of threads. Each stream
+// keeps its own order by having at most one item queued or running here and
+// submitting the next when it finishes, which also interleaves streams fairly.
+// Work uses plain pread/pwrite: io_uring is blocked for app processes on
+// Android, so there is nothing to probe for.
+class IOEngine {
+ public:
+  static IOEngine& shared() {
+    // Leaked on purpose: workers may still be running during static destruction.
+    static IOEngine* engine = new IOEngine(defaultWorkerCount());
+    return *engine;
+  }
+
+  // Emptying a directory tree or hashing a whole file can take seconds, so
+  // that work gets its own thread instead of holding up streams, stat
+  // batches and append-log syncs on the shared pool.
+  static IOEngine& bulk() {
+    static IOEngine* engine = new IOEngine(1);
+    return *engine;
+  }
+
+  static IOEngine& forKind(IOKind kind) {
+    return kind == IOKind::Remove || kind == IOKind::Hash ? bulk() : shared();
+  }
+
+  void submit(IOKind kind, std::function<void()> task) {
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      queue_.push_back(Task{kind, SteadyClock::now(), std::move(task)});
+      submitted_ += 1;
+      maxQueueDepth_ = std::max(maxQueueDepth_, queue_.size());
+      queueDepthBuckets_[log2Bucket(queue_.size(), kQueueDepthBuckets)] += 1;
+    }
+    cv_.notify_one();
+  }
+
+  IOEngineSnapshot snapshot() const {
+    std::lock_guard<std::mutex> lock(mutex_);
+    IOEngineSnapshot result;
+    result.workers = workers_.size();
+    result.queueDepth = queue_.size();
+    result.maxQueueDepth = maxQueueDepth_;
+    result.submitted = submitted_;
+    result.completed = completed_;
+    std::copy(
+        std::begin(queueDepthBuckets_),
+        std::end(queueDepthBuckets_),
+        std::begin(result.queueDepthBuckets));
+    std::copy(std::begin(kinds_), std::end(kinds_), std::begin(result.kinds));
+    return result;
+  }
+
+  void resetStats() {
+    std::lock_guard<std::mutex> lock(mutex_);
+    maxQueueDepth_ = queue_.size();
+    std::fill(std::begin(queueDepthBuckets_), std::end(queueDepthBuckets_), 0);
+    std::fill(std::begin(kinds_), std::end(kinds_), IOKindStats{});
+  }
+
+ private:
+  struct Task {
+    IOKind kind;
+    SteadyClock::time_point queuedAt;
+    std::function<void()> run;
+  };
+
+  static size_t defaultWorkerCount() {
+    unsigned int cores = std::thread::hardware_concurrency();
+    return std::max<size_t>(2, std::min<size_t>(4, cores / 2));
+  }
+
+  explicit IOEngine(size_t workerCount) {
+    workers_.reserve(workerCount);
+    for (size_t index = 0; index < workerCount; index += 1) {
+      workers_.emplace_back([this] { workerLoop(); });
+    }
+  }
+
+  void workerLoop() {
+    for (;;) {
+      Task task;
+      {
+        std::unique_lock<std::mutex> lock(mutex_);
+        cv_.wait(lock, [this] { return !queue_.empty(); });
+        task = std::move(queue_.front());
+        queue_.pop_front();
+      }
+
+      auto startedAt = SteadyClock::now();
+      task.run();
+      auto finishedAt = SteadyClock::now();
+      auto waitUs = std::chrono::duration_cast<std::chrono::microseconds>(startedAt - task.queuedAt).count();
+      auto runUs = std::chrono::duration_cast<std::chrono::microseconds>(finishedAt - startedAt).count();
+
+      std::lock_guard<std::mutex> lock(mutex_);
+      auto& stats = kinds_[static_cast<size_t>(task.kind)];
+      stats.count += 1;
+      stats.totalRunUs += static_cast<uint64_t>(runUs);
+      stats.maxRunUs = std::max(stats.maxRunUs, static_cast<uint64_t>(runUs));
+      stats.runBuckets[log2Bucket(static_cast<uint64_t>(runUs), kLatencyBuckets)] += 1;
+      stats.waitBuckets[log2Bucket(static_cast<uint64_t>(waitUs), kLatencyBuckets)] += 1;
+      completed_ += 1;
+    }
+  }
+
+  mutable std::mutex mutex_;
+  std::condition_variable cv_;
+  std::deque<Task> queue_;
+  std::vector<std::thread> workers_;
+  uint64_t submitted_ = 0;
+  uint64_t completed_ = 0;
+  size_t maxQueueDepth_ = 0;
+  uint64_t queueDepthBuckets_[kQueueDepthBuckets] = {};
+  IOKindStats kinds_[static_cast<size_t>(IOKind::Count)];
+};
+
 void writeBytesToFile(
     const std::string& path,
     const uint8_t* data,
@@ -492,245 +1149,2012 @@ jsi::Value wrapHostFunction(
     unsigned int argCount,
     jsi::HostFunctionType function);
 
-struct PromiseCallbacks {
-  PromiseCallbacks(jsi::Function&& resolveFn, jsi::Function&& rejectFn)
-      : resolve(std::move(resolveFn)), reject(std::move(rejectFn)) {}
-
-  jsi::Function resolve;
-  jsi::Function reject;
+// Result of one stat() in a batch. Errors stay per path so one unreadable
+// entry does not fail the whole batch.
+struct PathStatus {
+  bool exists = false;
+  bool isDirectory = false;
+  int64_t size = 0;
+  int64_t ctime = 0;
+  int64_t mtime = 0;
+  uint32_t mode = 0;
+  int error = 0;
 };
 
-struct WriteStreamStatsSnapshot {
-  uint64_t writerId;
-  std::string path;
-  size_t bufferSize;
-  size_t bufferCount;
-  size_t freeBuffers;
-  size_t acquiredBuffers;
-  size_t pendingBuffers;
-  size_t bytesWritten;
-  size_t commits;
-  bool closed;
-};
+const char* errnoCode(int error) {
+  switch (error) {
+    case EACCES:
+      return "EACCES";
+    case EIO:
+      return "EIO";
+    case ELOOP:
+      return "ELOOP";
+    case ENAMETOOLONG:
+      return "ENAMETOOLONG";
+    case EPERM:
+      return "EPERM";
+    case ENOENT:
+      return "ENOENT";
+    case ENOTDIR:
+      return "ENOTDIR";
+    case EISDIR:
+      return "EISDIR";
+    case EEXIST:
+      return "EEXIST";
+    case ENOTEMPTY:
+      return "ENOTEMPTY";
+    case EXDEV:
+      return "EXDEV";
+    case ENOSPC:
+      return "ENOSPC";
+    case EROFS:
+      return "EROFS";
+    case EBUSY:
+      return "EBUSY";
+    case EINVAL:
+      return "EINVAL";
+    default:
+      return "EUNKNOWN";
+  }
+}
 
-struct ReadStreamStatsSnapshot {
-  uint64_t readerId;
-  std::string path;
-  size_t bufferSize;
-  size_t bytesRead;
-  size_t reads;
-  bool closed;
-  bool eof;
-};
+PathStatus statPath(const std::string& path) {
+  PathStatus status;
+  struct stat info;
+  if (::stat(path.c_str(), &info) != 0) {
+    if (errno != ENOENT && errno != ENOTDIR) {
+      status.error = errno;
+    }
+    return status;
+  }
 
-using PromiseStart = std::function<void(std::shared_ptr<PromiseCallbacks>)>;
+  status.exists = true;
+  status.isDirectory = S_ISDIR(info.st_mode);
+  status.size = static_cast<int64_t>(info.st_size);
+  // Same ctime as RNFS.stat: the creation date on iOS, lastModified on Android.
+#ifdef __APPLE__
+  status.ctime = static_cast<int64_t>(info.st_birthtimespec.tv_sec);
+#else
+  status.ctime = static_cast<int64_t>(info.st_mtime);
+#endif
+  status.mtime = static_cast<int64_t>(info.st_mtime);
+  status.mode = static_cast<uint32_t>(info.st_mode);
+  return status;
+}
 
-jsi::Object makePromise(
+std::vector<PathStatus> statPaths(const std::vector<std::string>& paths) {
+  std::vector<PathStatus> statuses;
+  statuses.reserve(paths.size());
+  for (const auto& path : paths) {
+    statuses.push_back(statPath(path));
+  }
+  return statuses;
+}
+
+// Same shape as RNFSManager.statMany so JS can treat both alike.
+jsi::Array makePathStatusArray(
     jsi::Runtime& runtime,
-    const char* name,
-    PromiseStart start) {
-  auto promiseConstructor = requireGlobalFunction(runtime, "Promise");
-  auto executor = jsi::Function::createFromHostFunction(
-      runtime,
-      jsi::PropNameID::forAscii(runtime, name),
-      2,
-      [start = std::move(start)](jsi::Runtime& runtime,
-                                 const jsi::Value&,
-                                 const jsi::Value* arguments,
-                                 size_t count) -> jsi::Value {
-        if (count < 2 || !arguments[0].isObject() || !arguments[1].isObject()) {
-          throw jsi::JSError(runtime, "RabbyNativeFS Promise executor expected resolve and reject");
-        }
+    const std::vector<std::string>& paths,
+    const std::vector<PathStatus>& statuses) {
+  jsi::Array result(runtime, statuses.size());
+  for (size_t index = 0; index < statuses.size(); index += 1) {
+    const auto& status = statuses[index];
+    jsi::Object item(runtime);
+    item.setProperty(runtime, "path", jsi::String::createFromUtf8(runtime, paths[index]));
+    item.setProperty(runtime, "exists", status.exists);
+    if (status.exists) {
+      item.setProperty(runtime, "ctime", static_cast<double>(status.ctime));
+      item.setProperty(runtime, "mtime", static_cast<double>(status.mtime));
+      item.setProperty(runtime, "size", static_cast<double>(status.size));
+      item.setProperty(runtime, "mode", static_cast<double>(status.mode));
+      item.setProperty(runtime, "type", status.isDirectory ? 1 : 0);
+      item.setProperty(
+          runtime,
+          "originalFilepath",
+          jsi::String::createFromUtf8(runtime, paths[index]));
+    } else if (status.error != 0) {
+      item.setProperty(
+          runtime,
+          "error",
+          jsi::String::createFromAscii(runtime, errnoCode(status.error)));
+    }
+    result.setValueAtIndex(runtime, index, item);
+  }
+  return result;
+}
 
-        auto resolve = arguments[0].asObject(runtime).asFunction(runtime);
-        auto reject = arguments[1].asObject(runtime).asFunction(runtime);
-        try {
-          start(std::make_shared<PromiseCallbacks>(
-              std::move(resolve),
-              std::move(reject)));
-        } catch (const jsi::JSError&) {
-          throw;
-        } catch (const std::exception& error) {
-          throw jsi::JSError(runtime, error.what());
-        }
-        return jsi::Value::undefined();
-      });
+// Digests for hash(). The algorithms and lower-case hex output match
+// FileHasher on Android and CommonCrypto on iOS, so either path can serve a
+// call.
+class FileDigest {
+ public:
+  virtual ~FileDigest() = default;
+  virtual void update(const uint8_t* data, size_t length) = 0;
+  virtual std::vector<uint8_t> finish() = 0;
+};
 
-  return promiseConstructor.callAsConstructor(runtime, std::move(executor)).asObject(runtime);
+template <size_t BlockBytes, typename Derived>
+class BlockDigest : public FileDigest {
+ public:
+  void update(const uint8_t* data, size_t length) override {
+    totalBytes_ += length;
+    while (length > 0) {
+      size_t take = std::min(length, BlockBytes - buffered_);
+      std::memcpy(block_ + buffered_, data, take);
+      buffered_ += take;
+      data += take;
+      length -= take;
+      if (buffered_ == BlockBytes) {
+        static_cast<Derived*>(this)->compress(block_);
+        buffered_ = 0;
+      }
+    }
+  }
+
+ protected:
+  // Merkle-Damgard padding: 0x80, zeros, then the message length in bits in
+  // the last `lengthBytes` bytes of the final block.
+  void pad(size_t lengthBytes, bool bigEndian) {
+    uint64_t bits = totalBytes_ * 8;
+    const uint8_t terminator = 0x80;
+    const uint8_t zero = 0;
+    update(&terminator, 1);
+    while (buffered_ != BlockBytes - lengthBytes) {
+      update(&zero, 1);
+    }
+    uint8_t encoded[16] = {};
+    for (size_t index = 0; index < 8; index += 1) {
+      uint8_t byte = static_cast<uint8_t>(bits >> (8 * index));
+      encoded[bigEndian ? lengthBytes - 1 - index : index] = byte;
+    }
+    update(encoded, lengthBytes);
+  }
+
+  uint8_t block_[BlockBytes] = {};
+  size_t buffered_ = 0;
+  uint64_t totalBytes_ = 0;
+};
+
+inline uint32_t rotateLeft32(uint32_t value, int bits) {
+  return (value << bits) | (value >> (32 - bits));
 }
 
-void resolvePromiseNumber(
-    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
-    std::shared_ptr<PromiseCallbacks> callbacks,
-    double value) {
-  jsCallInvoker->invokeAsync(
-      [callbacks = std::move(callbacks), value](jsi::Runtime& runtime) {
-        callbacks->resolve.call(runtime, jsi::Value(value));
-      });
+inline uint32_t rotateRight32(uint32_t value, int bits) {
+  return (value >> bits) | (value << (32 - bits));
 }
 
-void resolvePromiseNull(
-    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
-    std::shared_ptr<PromiseCallbacks> callbacks) {
-  jsCallInvoker->invokeAsync(
-      [callbacks = std::move(callbacks)](jsi::Runtime& runtime) {
-        callbacks->resolve.call(runtime, jsi::Value::null());
-      });
+inline uint64_t rotateRight64(uint64_t value, int bits) {
+  return (value >> bits) | (value << (64 - bits));
 }
 
-void resolvePromiseBytes(
-    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
-    std::shared_ptr<PromiseCallbacks> callbacks,
-    std::vector<uint8_t>&& bytes) {
-  jsCallInvoker->invokeAsync(
-      [callbacks = std::move(callbacks),
-       bytes = std::move(bytes)](jsi::Runtime& runtime) mutable {
-        auto result = makeUint8Array(runtime, std::move(bytes));
-        callbacks->resolve.call(runtime, jsi::Value(runtime, result));
-      });
+uint32_t loadBigEndian32(const uint8_t* bytes) {
+  return (static_cast<uint32_t>(bytes[0]) << 24) | (static_cast<uint32_t>(bytes[1]) << 16) |
+      (static_cast<uint32_t>(bytes[2]) << 8) | static_cast<uint32_t>(bytes[3]);
 }
 
-void rejectPromise(
-    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
-    std::shared_ptr<PromiseCallbacks> callbacks,
-    std::string message) {
-  jsCallInvoker->invokeAsync(
-      [callbacks = std::move(callbacks),
-       message = std::move(message)](jsi::Runtime& runtime) {
-        callbacks->reject.call(
-            runtime,
-            jsi::String::createFromUtf8(runtime, message));
-      });
+uint64_t loadBigEndian64(const uint8_t* bytes) {
+  return (static_cast<uint64_t>(loadBigEndian32(bytes)) << 32) | loadBigEndian32(bytes + 4);
 }
 
-jsi::Object makeWriteStreamStatsObject(
-    jsi::Runtime& runtime,
-    const WriteStreamStatsSnapshot& snapshot) {
-  jsi::Object result(runtime);
-  result.setProperty(runtime, "writerId", static_cast<double>(snapshot.writerId));
-  result.setProperty(runtime, "path", jsi::String::createFromUtf8(runtime, snapshot.path));
-  result.setProperty(runtime, "bufferSize", static_cast<double>(snapshot.bufferSize));
-  result.setProperty(runtime, "bufferCount", static_cast<double>(snapshot.bufferCount));
-  result.setProperty(runtime, "freeBuffers", static_cast<double>(snapshot.freeBuffers));
-  result.setProperty(runtime, "acquiredBuffers", static_cast<double>(snapshot.acquiredBuffers));
-  result.setProperty(runtime, "pendingBuffers", static_cast<double>(snapshot.pendingBuffers));
-  result.setProperty(runtime, "bytesWritten", static_cast<double>(snapshot.bytesWritten));
-  result.setProperty(runtime, "commits", static_cast<double>(snapshot.commits));
-  result.setProperty(runtime, "closed", snapshot.closed);
+template <typename Word>
+void appendBigEndian(std::vector<uint8_t>& output, Word value) {
+  for (int shift = static_cast<int>(sizeof(Word) * 8) - 8; shift >= 0; shift -= 8) {
+    output.push_back(static_cast<uint8_t>(value >> shift));
+  }
+}
+
+class Md5Digest final : public BlockDigest<64, Md5Digest> {
+ public:
+  std::vector<uint8_t> finish() override {
+    pad(8, false);
+    std::vector<uint8_t> output;
+    for (uint32_t word : state_) {
+      for (int shift = 0; shift < 32; shift += 8) {
+        output.push_back(static_cast<uint8_t>(word >> shift));
+      }
+    }
+    return output;
+  }
+
+  void compress(const uint8_t* block) {
+    static const uint32_t kTable[64] = {
+        0xd76aa478u, 0xe8c7b756u, 0x242070dbu, 0xc1bdceeeu,
+        0xf57c0fafu, 0x4787c62au, 0xa8304613u, 0xfd469501u,
+        0x698098d8u, 0x8b44f7afu, 0xffff5bb1u, 0x895cd7beu,
+        0x6b901122u, 0xfd987193u, 0xa679438eu, 0x49b40821u,
+        0xf61e2562u, 0xc040b340u, 0x265e5a51u, 0xe9b6c7aau,
+        0xd62f105du, 0x02441453u, 0xd8a1e681u, 0xe7d3fbc8u,
+        0x21e1cde6u, 0xc33707d6u, 0xf4d50d87u, 0x455a14edu,
+        0xa9e3e905u, 0xfcefa3f8u, 0x676f02d9u, 0x8d2a4c8au,
+        0xfffa3942u, 0x8771f681u, 0x6d9d6122u, 0xfde5380cu,
+        0xa4beea44u, 0x4bdecfa9u, 0xf6bb4b60u, 0xbebfbc70u,
+        0x289b7ec6u, 0xeaa127fau, 0xd4ef3085u, 0x04881d05u,
+        0xd9d4d039u, 0xe6db99e5u, 0x1fa27cf8u, 0xc4ac5665u,
+        0xf4292244u, 0x432aff97u, 0xab9423a7u, 0xfc93a039u,
+        0x655b59c3u, 0x8f0ccc92u, 0xffeff47du, 0x85845dd1u,
+        0x6fa87e4fu, 0xfe2ce6e0u, 0xa3014314u, 0x4e0811a1u,
+        0xf7537e82u, 0xbd3af235u, 0x2ad7d2bbu, 0xeb86d391u,
+    };
+    static const int kShifts[16] = {7, 12, 17, 22, 5, 9, 14, 20, 4, 11, 16, 23, 6, 10, 15, 21};
+
+    uint32_t words[16];
+    for (int index = 0; index < 16; index += 1) {
+      const uint8_t* bytes = block + index * 4;
+      words[index] = static_cast<uint32_t>(bytes[0]) | (static_cast<uint32_t>(bytes[1]) << 8) |
+          (static_cast<uint32_t>(bytes[2]) << 16) | (static_cast<uint32_t>(bytes[3]) << 24);
+    }
+
+    uint32_t a = state_[0], b = state_[1], c = state_[2], d = state_[3];
+    for (int round = 0; round < 64; round += 1) {
+      uint32_t mixed;
+      int word;
+      if (round < 16) {
+        mixed = (b & c) | (~b & d);
+        word = round;
+      } else if (round < 32) {
+        mixed = (d & b) | (~d & c);
+        word = (5 * round + 1) % 16;
+      } else if (round < 48) {
+        mixed = b ^ c ^ d;
+        word = (3 * round + 5) % 16;
+      } else {
+        mixed = c ^ (b | ~d);
+        word = (7 * round) % 16;
+      }
+      mixed += a + kTable[round] + words[word];
+      a = d;
+      d = c;
+      c = b;
+      b += rotateLeft32(mixed, kShifts[(round / 16) * 4 + round % 4]);
+    }
+    state_[0] += a;
+    state_[1] += b;
+    state_[2] += c;
+    state_[3] += d;
+  }
+
+ private:
+  uint32_t state_[4] = {0x67452301u, 0xefcdab89u, 0x98badcfeu, 0x10325476u};
+};
+
+class Sha1Digest final : public BlockDigest<64, Sha1Digest> {
+ public:
+  std::vector<uint8_t> finish() override {
+    pad(8, true);
+    std::vector<uint8_t> output;
+    for (uint32_t word : state_) {
+      appendBigEndian(output, word);
+    }
+    return output;
+  }
+
+  void compress(const uint8_t* block) {
+    uint32_t words[80];
+    for (int index = 0; index < 16; index += 1) {
+      words[index] = loadBigEndian32(block + index * 4);
+    }
+    for (int index = 16; index < 80; index += 1) {
+      words[index] = rotateLeft32(words[index - 3] ^ words[index - 8] ^ words[index - 14] ^ words[index - 16], 1);
+    }
+
+    uint32_t a = state_[0], b = state_[1], c = state_[2], d = state_[3], e = state_[4];
+    for (int round = 0; round < 80; round += 1) {
+      uint32_t mixed;
+      uint32_t constant;
+      if (round < 20) {
+        mixed = (b & c) | (~b & d);
+        constant = 0x5a827999u;
+      } else if (round < 40) {
+        mixed = b ^ c ^ d;
+        constant = 0x6ed9eba1u;
+      } else if (round < 60) {
+        mixed = (b & c) | (b & d) | (c & d);
+        constant = 0x8f1bbcdcu;
+      } else {
+        mixed = b ^ c ^ d;
+        constant = 0xca62c1d6u;
+      }
+      uint32_t next = rotateLeft32(a, 5) + mixed + e + constant + words[round];
+      e = d;
+      d = c;
+      c = rotateLeft32(b, 30);
+      b = a;
+      a = next;
+    }
+    state_[0] += a;
+    state_[1] += b;
+    state_[2] += c;
+    state_[3] += d;
+    state_[4] += e;
+  }
+
+ private:
+  uint32_t state_[5] = {0x67452301u, 0xefcdab89u, 0x98badcfeu, 0x10325476u, 0xc3d2e1f0u};
+};
+
+// SHA-224 is SHA-256 with other initial values, truncated to 28 bytes.
+class Sha256Digest final : public BlockDigest<64, Sha256Digest> {
+ public:
+  explicit Sha256Digest(bool sha224) : outputWords_(sha224 ? 7 : 8) {
+    static const uint32_t kSha256Initial[8] = {
+        0x6a09e667u, 0xbb67ae85u, 0x3c6ef372u, 0xa54ff53au,
+        0x510e527fu, 0x9b05688cu, 0x1f83d9abu, 0x5be0cd19u,
+    };
+    static const uint32_t kSha224Initial[8] = {
+        0xc1059ed8u, 0x367cd507u, 0x3070dd17u, 0xf70e5939u,
+        0xffc00b31u, 0x68581511u, 0x64f98fa7u, 0xbefa4fa4u,
+    };
+    std::memcpy(state_, sha224 ? kSha224Initial : kSha256Initial, sizeof(state_));
+  }
+
+  std::vector<uint8_t> finish() override {
+    pad(8, true);
+    std::vector<uint8_t> output;
+    for (size_t index = 0; index < outputWords_; index += 1) {
+      appendBigEndian(output, state_[index]);
+    }
+    return output;
+  }
+
+  void compress(const uint8_t* block) {
+    static const uint32_t kRounds[64] = {
+        0x428a2f98u, 0x71374491u, 0xb5c0fbcfu, 0xe9b5dba5u,
+        0x3956c25bu, 0x59f111f1u, 0x923f82a4u, 0xab1c5ed5u,
+        0xd807aa98u, 0x12835b01u, 0x243185beu, 0x550c7dc3u,
+        0x72be5d74u, 0x80deb1feu, 0x9bdc06a7u, 0xc19bf174u,
+        0xe49b69c1u, 0xefbe4786u, 0x0fc19dc6u, 0x240ca1ccu,
+        0x2de92c6fu, 0x4a7484aau, 0x5cb0a9dcu, 0x76f988dau,
+        0x983e5152u, 0xa831c66du, 0xb00327c8u, 0xbf597fc7u,
+        0xc6e00bf3u, 0xd5a79147u, 0x06ca6351u, 0x14292967u,
+        0x27b70a85u, 0x2e1b2138u, 0x4d2c6dfcu, 0x53380d13u,
+        0x650a7354u, 0x766a0abbu, 0x81c2c92eu, 0x92722c85u,
+        0xa2bfe8a1u, 0xa81a664bu, 0xc24b8b70u, 0xc76c51a3u,
+        0xd192e819u, 0xd6990624u, 0xf40e3585u, 0x106aa070u,
+        0x19a4c116u, 0x1e376c08u, 0x2748774cu, 0x34b0bcb5u,
+        0x391c0cb3u, 0x4ed8aa4au, 0x5b9cca4fu, 0x682e6ff3u,
+        0x748f82eeu, 0x78a5636fu, 0x84c87814u, 0x8cc70208u,
+        0x90befffau, 0xa4506cebu, 0xbef9a3f7u, 0xc67178f2u,
+    };
+
+    uint32_t words[64];
+    for (int index = 0; index < 16; index += 1) {
+      words[index] = loadBigEndian32(block + index * 4);
+    }
+    for (int index = 16; index < 64; index += 1) {
+      uint32_t s0 = rotateRight32(words[index - 15], 7) ^ rotateRight32(words[index - 15], 18) ^ (words[index - 15] >> 3);
+      uint32_t s1 = rotateRight32(words[index - 2], 17) ^ rotateRight32(words[index - 2], 19) ^ (words[index - 2] >> 10);
+      words[index] = words[index - 16] + s0 + words[index - 7] + s1;
+    }
+
+    uint32_t v[8];
+    std::memcpy(v, state_, sizeof(v));
+    for (int round = 0; round < 64; round += 1) {
+      uint32_t s1 = rotateRight32(v[4], 6) ^ rotateRight32(v[4], 11) ^ rotateRight32(v[4], 25);
+      uint32_t choice = (v[4] & v[5]) ^ (~v[4] & v[6]);
+      uint32_t temp1 = v[7] + s1 + choice + kRounds[round] + words[round];
+      uint32_t s0 = rotateRight32(v[0], 2) ^ rotateRight32(v[0], 13) ^ rotateRight32(v[0], 22);
+      uint32_t majority = (v[0] & v[1]) ^ (v[0] & v[2]) ^ (v[1] & v[2]);
+      std::memmove(v + 1, v, 7 * sizeof(uint32_t));
+      v[4] += temp1;
+      v[0] = temp1 + s0 + majority;
+    }
+    for (int index = 0; index < 8; index += 1) {
+      state_[index] += v[index];
+    }
+  }
+
+ private:
+  size_t outputWords_;
+  uint32_t state_[8];
+};
+
+// SHA-384 is SHA-512 with other initial values, truncated to 48 bytes.
+class Sha512Digest final : public BlockDigest<128, Sha512Digest> {
+ public:
+  explicit Sha512Digest(bool sha384) : outputWords_(sha384 ? 6 : 8) {
+    static const uint64_t kSha512Initial[8] = {
+        0x6a09e667f3bcc908ull, 0xbb67ae8584caa73bull, 0x3c6ef372fe94f82bull, 0xa54ff53a5f1d36f1ull,
+        0x510e527fade682d1ull, 0x9b05688c2b3e6c1full, 0x1f83d9abfb41bd6bull, 0x5be0cd19137e2179ull,
+    };
+    static const uint64_t kSha384Initial[8] = {
+        0xcbbb9d5dc1059ed8ull, 0x629a292a367cd507ull, 0x9159015a3070dd17ull, 0x152fecd8f70e5939ull,
+        0x67332667ffc00b31ull, 0x8eb44a8768581511ull, 0xdb0c2e0d64f98fa7ull, 0x47b5481dbefa4fa4ull,
+    };
+    std::memcpy(state_, sha384 ? kSha384Initial : kSha512Initial, sizeof(state_));
+  }
+
+  std::vector<uint8_t> finish() override {
+    // The length field is 128 bits; the high half stays zero.
+    pad(16, true);
+    std::vector<uint8_t> output;
+    for (size_t index = 0; index < outputWords_; index += 1) {
+      appendBigEndian(output, state_[index]);
+    }
+    return output;
+  }
+
+  void compress(const uint8_t* block) {
+    static const uint64_t kRounds[80] = {
+        0x428a2f98d728ae22ull, 0x7137449123ef65cdull, 0xb5c0fbcfec4d3b2full, 0xe9b5dba58189dbbcull,
+        0x3956c25bf348b538ull, 0x59f111f1b605d019ull, 0x923f82a4af194f9bull, 0xab1c5ed5da6d8118ull,
+        0xd807aa98a3030242ull, 0x12835b0145706fbeull, 0x243185be4ee4b28cull, 0x550c7dc3d5ffb4e2ull,
+        0x72be5d74f27b896full, 0x80deb1fe3b1696b1ull, 0x9bdc06a725c71235ull, 0xc19bf174cf692694ull,
+        0xe49b69c19ef14ad2ull, 0xefbe4786384f25e3ull, 0x0fc19dc68b8cd5b5ull, 0x240ca1cc77ac9c65ull,
+        0x2de92c6f592b0275ull, 0x4a7484aa6ea6e483ull, 0x5cb0a9dcbd41fbd4ull, 0x76f988da831153b5ull,
+        0x983e5152ee66dfabull, 0xa831c66d2db43210ull, 0xb00327c898fb213full, 0xbf597fc7beef0ee4ull,
+        0xc6e00bf33da88fc2ull, 0xd5a79147930aa725ull, 0x06ca6351e003826full, 0x142929670a0e6e70ull,
+        0x27b70a8546d22ffcull, 0x2e1b21385c26c926ull, 0x4d2c6dfc5ac42aedull, 0x53380d139d95b3dfull,
+        0x650a73548baf63deull, 0x766a0abb3c77b2a8ull, 0x81c2c92e47edaee6ull, 0x92722c851482353bull,
+        0xa2bfe8a14cf10364ull, 0xa81a664bbc423001ull, 0xc24b8b70d0f89791ull, 0xc76c51a30654be30ull,
+        0xd192e819d6ef5218ull, 0xd69906245565a910ull, 0xf40e35855771202aull, 0x106aa07032bbd1b8ull,
+        0x19a4c116b8d2d0c8ull, 0x1e376c085141ab53ull, 0x2748774cdf8eeb99ull, 0x34b0bcb5e19b48a8ull,
+        0x391c0cb3c5c95a63ull, 0x4ed8aa4ae3418acbull, 0x5b9cca4f7763e373ull, 0x682e6ff3d6b2b8a3ull,
+        0x748f82ee5defb2fcull, 0x78a5636f43172f60ull, 0x84c87814a1f0ab72ull, 0x8cc702081a6439ecull,
+        0x90befffa23631e28ull, 0xa4506cebde82bde9ull, 0xbef9a3f7b2c67915ull, 0xc67178f2e372532bull,
+        0xca273eceea26619cull, 0xd186b8c721c0c207ull, 0xeada7dd6cde0eb1eull, 0xf57d4f7fee6ed178ull,
+        0x06f067aa72176fbaull, 0x0a637dc5a2c898a6ull, 0x113f9804bef90daeull, 0x1b710b35131c471bull,
+        0x28db77f523047d84ull, 0x32caab7b40c72493ull, 0x3c9ebe0a15c9bebcull, 0x431d67c49c100d4cull,
+        0x4cc5d4becb3e42b6ull, 0x597f299cfc657e2aull, 0x5fcb6fab3ad6faecull, 0x6c44198c4a475817ull,
+    };
+
+    uint64_t words[80];
+    for (int index = 0; index < 16; index += 1) {
+      words[index] = loadBigEndian64(block + index * 8);
+    }
+    for (int index = 16; index < 80; index += 1) {
+      uint64_t s0 = rotateRight64(words[index - 15], 1) ^ rotateRight64(words[index - 15], 8) ^ (words[index - 15] >> 7);
+      uint64_t s1 = rotateRight64(words[index - 2], 19) ^ rotateRight64(words[index - 2], 61) ^ (words[index - 2] >> 6);
+      words[index] = words[index - 16] + s0 + words[index - 7] + s1;
+    }
+
+    uint64_t v[8];
+    std::memcpy(v, state_, sizeof(v));
+    for (int round = 0; round < 80; round += 1) {
+      uint64_t s1 = rotateRight64(v[4], 14) ^ rotateRight64(v[4], 18) ^ rotateRight64(v[4], 41);
+      uint64_t choice = (v[4] & v[5]) ^ (~v[4] & v[6]);
+      uint64_t temp1 = v[7] + s1 + choice + kRounds[round] + words[round];
+      uint64_t s0 = rotateRight64(v[0], 28) ^ rotateRight64(v[0], 34) ^ rotateRight64(v[0], 39);
+      uint64_t majority = (v[0] & v[1]) ^ (v[0] & v[2]) ^ (v[1] & v[2]);
+      std::memmove(v + 1, v, 7 * sizeof(uint64_t));
+      v[4] += temp1;
+      v[0] = temp1 + s0 + majority;
+    }
+    for (int index = 0; index < 8; index += 1) {
+      state_[index] += v[index];
+    }
+  }
+
+ private:
+  size_t outputWords_;
+  uint64_t state_[8];
+};
+
+std::unique_ptr<FileDigest> makeFileDigest(const std::string& algorithm) {
+  if (algorithm == "md5") {
+    return std::make_unique<Md5Digest>();
+  }
+  if (algorithm == "sha1") {
+    return std::make_unique<Sha1Digest>();
+  }
+  if (algorithm == "sha224" || algorithm == "sha256") {
+    return std::make_unique<Sha256Digest>(algorithm == "sha224");
+  }
+  if (algorithm == "sha384" || algorithm == "sha512") {
+    return std::make_unique<Sha512Digest>(algorithm == "sha384");
+  }
+  return nullptr;
+}
+
+std::string toHex(const std::vector<uint8_t>& bytes) {
+  static const char kDigits[] = "0123456789abcdef";
+  std::string result;
+  result.reserve(bytes.size() * 2);
+  for (uint8_t byte : bytes) {
+    result.push_back(kDigits[byte >> 4]);
+    result.push_back(kDigits[byte & 0x0F]);
+  }
   return result;
 }
 
-void resolvePromiseWriteStats(
-    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
-    std::shared_ptr<PromiseCallbacks> callbacks,
-    WriteStreamStatsSnapshot snapshot) {
-  jsCallInvoker->invokeAsync(
-      [callbacks = std::move(callbacks),
-       snapshot = std::move(snapshot)](jsi::Runtime& runtime) {
-        auto result = makeWriteStreamStatsObject(runtime, snapshot);
-        callbacks->resolve.call(runtime, jsi::Value(runtime, result));
-      });
+// Messages follow the "CODE: reason, syscall 'path'" shape RNFSManager uses,
+// so JS can read the code off the front whichever path served the call.
+std::string fsErrorMessage(int error, const char* syscall, const std::string& path) {
+  return std::string(errnoCode(error)) + ": " + std::strerror(error) + ", " + syscall + " '" + path + "'";
 }
 
-jsi::Object makeReadStreamStatsObject(
-    jsi::Runtime& runtime,
-    const ReadStreamStatsSnapshot& snapshot) {
-  jsi::Object result(runtime);
-  result.setProperty(runtime, "readerId", static_cast<double>(snapshot.readerId));
-  result.setProperty(runtime, "path", jsi::String::createFromUtf8(runtime, snapshot.path));
-  result.setProperty(runtime, "bufferSize", static_cast<double>(snapshot.bufferSize));
-  result.setProperty(runtime, "bytesRead", static_cast<double>(snapshot.bytesRead));
-  result.setProperty(runtime, "reads", static_cast<double>(snapshot.reads));
-  result.setProperty(runtime, "closed", snapshot.closed);
-  result.setProperty(runtime, "eof", snapshot.eof);
+[[noreturn]] void throwFsError(const char* syscall, const std::string& path) {
+  throw std::runtime_error(fsErrorMessage(errno, syscall, path));
+}
+
+double timespecSeconds(const struct timespec& time) {
+  return static_cast<double>(time.tv_sec) + static_cast<double>(time.tv_nsec / 1000000) / 1000.0;
+}
+
+double modifiedSeconds(const struct stat& info) {
+#ifdef __APPLE__
+  return timespecSeconds(info.st_mtimespec);
+#else
+  return timespecSeconds(info.st_mtim);
+#endif
+}
+
+// The bridge reports ctime as the creation date on iOS and as lastModified on
+// Android; JSI results keep the same meaning per platform.
+double createdSeconds(const struct stat& info) {
+#ifdef __APPLE__
+  return timespecSeconds(info.st_birthtimespec);
+#else
+  return modifiedSeconds(info);
+#endif
+}
+
+std::string joinPath(const std::string& directory, const std::string& name) {
+  if (!directory.empty() && directory.back() == '/') {
+    return directory + name;
+  }
+  return directory + "/" + name;
+}
+
+struct FileStatus {
+  std::string path;
+  double ctime = 0;
+  double mtime = 0;
+  int64_t size = 0;
+  uint32_t mode = 0;
+  bool isDirectory = false;
+};
+
+FileStatus statFile(const std::string& path) {
+  struct stat info {};
+  if (::stat(path.c_str(), &info) != 0) {
+    throwFsError("stat", path);
+  }
+  FileStatus status;
+  status.path = path;
+  status.ctime = createdSeconds(info);
+  status.mtime = modifiedSeconds(info);
+  status.size = static_cast<int64_t>(info.st_size);
+  status.mode = static_cast<uint32_t>(info.st_mode);
+  status.isDirectory = S_ISDIR(info.st_mode);
+  return status;
+}
+
+// Entries that vanish or cannot be stat'ed mid-listing are still listed,
+// with zero size and times, as File.listFiles does on Android.
+std::vector<FileStatus> readDirectory(const std::string& path) {
+  DIR* dir = opendir(path.c_str());
+  if (dir == nullptr) {
+    throwFsError("scandir", path);
+  }
+  int descriptor = dirfd(dir);
+  std::vector<FileStatus> entries;
+  while (dirent* entry = readdir(dir)) {
+    if (std::strcmp(entry->d_name, ".") == 0 || std::strcmp(entry->d_name, "..") == 0) {
+      continue;
+    }
+    FileStatus status;
+    status.path = entry->d_name;
+    struct stat info {};
+    if (fstatat(descriptor, entry->d_name, &info, 0) == 0) {
+      status.ctime = createdSeconds(info);
+      status.mtime = modifiedSeconds(info);
+      status.size = static_cast<int64_t>(info.st_size);
+      status.mode = static_cast<uint32_t>(info.st_mode);
+      status.isDirectory = S_ISDIR(info.st_mode);
+    }
+    entries.push_back(std::move(status));
+  }
+  closedir(dir);
+  return entries;
+}
+
+// mkdir -p. Like File.mkdirs on Android, an existing path of any type counts
+// as success.
+void makeDirectories(const std::string& path) {
+  int lastError = 0;
+  for (size_t slash = path.find('/', 1); ; slash = path.find('/', slash + 1)) {
+    std::string prefix = path.substr(0, slash);
+    if (!prefix.empty() && mkdir(prefix.c_str(), 0777) != 0 && errno != EEXIST) {
+      lastError = errno;
+    }
+    if (slash == std::string::npos) {
+      break;
+    }
+  }
+  if (access(path.c_str(), F_OK) != 0) {
+    errno = lastError != 0 ? lastError : errno;
+    throwFsError("mkdir", path);
+  }
+}
+
+std::atomic<uint64_t> nextNativeTombstoneId{0};
+
+std::string toBase36(uint64_t value) {
+  static const char kDigits[] = "0123456789abcdefghijklmnopqrstuvwxyz";
+  std::string result;
+  do {
+    result.insert(result.begin(), kDigits[value % 36]);
+    value /= 36;
+  } while (value > 0);
   return result;
 }
 
-void resolvePromiseReadStats(
-    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
-    std::shared_ptr<PromiseCallbacks> callbacks,
-    ReadStreamStatsSnapshot snapshot) {
-  jsCallInvoker->invokeAsync(
-      [callbacks = std::move(callbacks),
-       snapshot = std::move(snapshot)](jsi::Runtime& runtime) {
-        auto result = makeReadStreamStatsObject(runtime, snapshot);
-        callbacks->resolve.call(runtime, jsi::Value(runtime, result));
-      });
+// Removes a file or symlink right away. A directory is first renamed to a
+// tombstone next to it, named like DeleteEngine's so purgeTombstones finds
+// any left behind; the returned tombstone still has to be removed with
+// removeTree. Returns an empty string when nothing is left to remove, and
+// throws when a directory cannot be moved aside.
+std::string unlinkOrTombstone(const std::string& path) {
+  struct stat info {};
+  if (lstat(path.c_str(), &info) != 0) {
+    throwFsError("unlink", path);
+  }
+  if (!S_ISDIR(info.st_mode)) {
+    if (::unlink(path.c_str()) != 0) {
+      throwFsError("unlink", path);
+    }
+    return "";
+  }
+
+  std::string trimmed = path;
+  while (trimmed.size() > 1 && trimmed.back() == '/') {
+    trimmed.pop_back();
+  }
+  size_t slash = trimmed.rfind('/');
+  if (slash == std::string::npos) {
+    errno = EINVAL;
+    throwFsError("unlink", path);
+  }
+  uint64_t nowMs = static_cast<uint64_t>(std::chrono::duration_cast<std::chrono::milliseconds>(
+      std::chrono::system_clock::now().time_since_epoch()).count());
+  std::string tombstone = trimmed.substr(0, slash + 1) + ".rnfs-trash-" + toBase36(nowMs) + "-n" +
+      std::to_string(nextNativeTombstoneId.fetch_add(1) + 1);
+  // Never fall back to removing the live path in the background: whatever the
+  // caller recreates there afterwards would be deleted too.
+  if (::rename(trimmed.c_str(), tombstone.c_str()) != 0) {
+    throwFsError("rename", path);
+  }
+  return tombstone;
+}
+
+int removeTreeEntry(const char* path, const struct stat*, int, struct FTW*) {
+  // Keep going past entries that cannot be removed; the final check reports them.
+  ::remove(path);
+  return 0;
+}
+
+void removeTree(const std::string& path) {
+  nftw(path.c_str(), removeTreeEntry, 16, FTW_DEPTH | FTW_PHYS);
+  struct stat info {};
+  if (lstat(path.c_str(), &info) == 0) {
+    errno = ENOTEMPTY;
+    throwFsError("rmdir", path);
+  }
+}
+
+// rename(), falling back to copy and delete across filesystems, as
+// RNFSManager.moveFile does. Directories cannot be copied that way.
+void movePath(const std::string& from, const std::string& to) {
+#ifdef __APPLE__
+  // moveItemAtPath refuses to replace an existing destination; keep that on iOS.
+  struct stat existing {};
+  if (lstat(to.c_str(), &existing) == 0) {
+    errno = EEXIST;
+    throwFsError("rename", to);
+  }
+#endif
+  if (::rename(from.c_str(), to.c_str()) == 0) {
+    return;
+  }
+  if (errno != EXDEV) {
+    throwFsError("rename", from);
+  }
+
+  int input = open(from.c_str(), O_RDONLY | O_CLOEXEC);
+  if (input == -1) {
+    throwFsError("open", from);
+  }
+  struct stat info {};
+  if (fstat(input, &info) != 0 || S_ISDIR(info.st_mode)) {
+    int savedErrno = S_ISDIR(info.st_mode) ? EXDEV : errno;
+    close(input);
+    errno = savedErrno;
+    throwFsError("rename", from);
+  }
+  int output = open(to.c_str(), O_WRONLY | O_CREAT | O_TRUNC | O_CLOEXEC, 0666);
+  if (output == -1) {
+    int savedErrno = errno;
+    close(input);
+    errno = savedErrno;
+    throwFsError("open", to);
+  }
+
+  try {
+    std::vector<uint8_t> buffer(256 * 1024);
+    while (true) {
+      ssize_t count = read(input, buffer.data(), buffer.size());
+      if (count == 0) {
+        break;
+      }
+      if (count < 0) {
+        if (errno == EINTR) {
+          continue;
+        }
+        throwFsError("read", from);
+      }
+      writeAllToFd(output, buffer.data(), static_cast<size_t>(count), to);
+    }
+  } catch (...) {
+    close(input);
+    close(output);
+    ::unlink(to.c_str());
+    throw;
+  }
+  close(input);
+  if (close(output) != 0) {
+    throwFsError("close", to);
+  }
+  ::unlink(from.c_str());
+}
+
+std::string hashFile(const std::string& path, const std::string& algorithm) {
+  auto digest = makeFileDigest(algorithm);
+  if (!digest) {
+    throw std::runtime_error("Invalid hash algorithm");
+  }
+  int fd = open(path.c_str(), O_RDONLY | O_CLOEXEC);
+  if (fd == -1) {
+    throwFsError("open", path);
+  }
+  struct stat info {};
+  if (fstat(fd, &info) == 0 && S_ISDIR(info.st_mode)) {
+    close(fd);
+    throw std::runtime_error("EISDIR: illegal operation on a directory, read");
+  }
+
+  std::vector<uint8_t> buffer(256 * 1024);
+  while (true) {
+    ssize_t count = read(fd, buffer.data(), buffer.size());
+    if (count == 0) {
+      break;
+    }
+    if (count < 0) {
+      if (errno == EINTR) {
+        continue;
+      }
+      int savedErrno = errno;
+      close(fd);
+      errno = savedErrno;
+      throwFsError("read", path);
+    }
+    digest->update(buffer.data(), static_cast<size_t>(count));
+  }
+  close(fd);
+  return toHex(digest->finish());
+}
+
+// Sets the modification time (now when mtimeMs is negative) and leaves the
+// access time alone. Returns false on failure, like File.setLastModified.
+bool touchPath(const std::string& path, int64_t mtimeMs) {
+  struct timespec times[2];
+  times[0].tv_sec = 0;
+  times[0].tv_nsec = UTIME_OMIT;
+  if (mtimeMs < 0) {
+    times[1].tv_sec = 0;
+    times[1].tv_nsec = UTIME_NOW;
+  } else {
+    times[1].tv_sec = static_cast<time_t>(mtimeMs / 1000);
+    times[1].tv_nsec = static_cast<long>((mtimeMs % 1000) * 1000000);
+  }
+  return utimensat(AT_FDCWD, path.c_str(), times, 0) == 0;
+}
+
+struct FilesystemSpace {
+  double totalSpace = 0;
+  double freeSpace = 0;
+  bool hasExternal = false;
+  double totalSpaceEx = 0;
+  double freeSpaceEx = 0;
+};
+
+void statFilesystem(const std::string& path, double* totalSpace, double* freeSpace) {
+  struct statvfs info {};
+  if (statvfs(path.c_str(), &info) != 0) {
+    throwFsError("statvfs", path);
+  }
+  *totalSpace = static_cast<double>(info.f_blocks) * static_cast<double>(info.f_frsize);
+  *freeSpace = static_cast<double>(info.f_bfree) * static_cast<double>(info.f_frsize);
+}
+
+// The directories come from JS, which knows the platform's data and shared
+// storage locations.
+FilesystemSpace filesystemSpace(const std::string& path, const std::string& externalPath) {
+  FilesystemSpace space;
+  statFilesystem(path, &space.totalSpace, &space.freeSpace);
+  if (!externalPath.empty()) {
+    space.hasExternal = true;
+    try {
+      statFilesystem(externalPath, &space.totalSpaceEx, &space.freeSpaceEx);
+    } catch (const std::exception&) {
+      // Shared storage may be unmounted; report zeros rather than failing the call.
+      space.totalSpaceEx = 0;
+      space.freeSpaceEx = 0;
+    }
+  }
+  return space;
+}
+
+jsi::Object makeFileStatusObject(jsi::Runtime& runtime, const FileStatus& status) {
+  jsi::Object result(runtime);
+  result.setProperty(runtime, "ctime", status.ctime);
+  result.setProperty(runtime, "mtime", status.mtime);
+  result.setProperty(runtime, "size", static_cast<double>(status.size));
+  result.setProperty(runtime, "mode", static_cast<double>(status.mode));
+  result.setProperty(runtime, "type", status.isDirectory ? 1 : 0);
+  result.setProperty(runtime, "originalFilepath", jsi::String::createFromUtf8(runtime, status.path));
+  return result;
+}
+
+// Same shape as RNFSManager.readDir.
+jsi::Array makeDirectoryEntryArray(
+    jsi::Runtime& runtime,
+    const std::string& directory,
+    const std::vector<FileStatus>& entries) {
+  jsi::Array result(runtime, entries.size());
+  for (size_t index = 0; index < entries.size(); index += 1) {
+    const auto& entry = entries[index];
+    jsi::Object item(runtime);
+    item.setProperty(runtime, "ctime", entry.ctime);
+    item.setProperty(runtime, "mtime", entry.mtime);
+    item.setProperty(runtime, "name", jsi::String::createFromUtf8(runtime, entry.path));
+    item.setProperty(runtime, "path", jsi::String::createFromUtf8(runtime, joinPath(directory, entry.path)));
+    item.setProperty(runtime, "size", static_cast<double>(entry.size));
+    item.setProperty(runtime, "type", entry.isDirectory ? 1 : 0);
+    result.setValueAtIndex(runtime, index, item);
+  }
+  return result;
+}
+
+jsi::Object makeFilesystemSpaceObject(jsi::Runtime& runtime, const FilesystemSpace& space) {
+  jsi::Object result(runtime);
+  result.setProperty(runtime, "totalSpace", space.totalSpace);
+  result.setProperty(runtime, "freeSpace", space.freeSpace);
+  if (space.hasExternal) {
+    result.setProperty(runtime, "totalSpaceEx", space.totalSpaceEx);
+    result.setProperty(runtime, "freeSpaceEx", space.freeSpaceEx);
+  }
+  return result;
+}
+
+struct PromiseCallbacks {
+  PromiseCallbacks(jsi::Function&& resolveFn, jsi::Function&& rejectFn)
+      : resolve(std::move(resolveFn)), reject(std::move(rejectFn)) {}
+
+  jsi::Function resolve;
+  jsi::Function reject;
+};
+
+struct WriteStreamStatsSnapshot {
+  uint64_t writerId;
+  std::string path;
+  size_t bufferSize;
+  size_t bufferCount;
+  size_t freeBuffers;
+  size_t acquiredBuffers;
+  size_t pendingBuffers;
+  size_t bytesWritten;
+  size_t commits;
+  bool closed;
+};
+
+struct ReadStreamStatsSnapshot {
+  uint64_t readerId;
+  std::string path;
+  size_t bufferSize;
+  size_t bytesRead;
+  size_t reads;
+  bool mapped;
+  bool closed;
+  bool eof;
+};
+
+using PromiseStart = std::function<void(std::shared_ptr<PromiseCallbacks>)>;
+
+jsi::Object makePromise(
+    jsi::Runtime& runtime,
+    const char* name,
+    PromiseStart start) {
+  auto promiseConstructor = requireGlobalFunction(runtime, "Promise");
+  auto executor = jsi::Function::createFromHostFunction(
+      runtime,
+      jsi::PropNameID::forAscii(runtime, name),
+      2,
+      [start = std::move(start)](jsi::Runtime& runtime,
+                                 const jsi::Value&,
+                                 const jsi::Value* arguments,
+                                 size_t count) -> jsi::Value {
+        if (count < 2 || !arguments[0].isObject() || !arguments[1].isObject()) {
+          throw jsi::JSError(runtime, "RabbyNativeFS Promise executor expected resolve and reject");
+        }
+
+        auto resolve = arguments[0].asObject(runtime).asFunction(runtime);
+        auto reject = arguments[1].asObject(runtime).asFunction(runtime);
+        try {
+          start(std::make_shared<PromiseCallbacks>(
+              std::move(resolve),
+              std::move(reject)));
+        } catch (const jsi::JSError&) {
+          throw;
+        } catch (const std::exception& error) {
+          throw jsi::JSError(runtime, error.what());
+        }
+        return jsi::Value::undefined();
+      });
+
+  return promiseConstructor.callAsConstructor(runtime, std::move(executor)).asObject(runtime);
+}
+
+void resolvePromiseNumber(
+    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
+    std::shared_ptr<PromiseCallbacks> callbacks,
+    double value) {
+  jsCallInvoker->invokeAsync(
+      [callbacks = std::move(callbacks), value](jsi::Runtime& runtime) {
+        callbacks->resolve.call(runtime, jsi::Value(value));
+      });
+}
+
+void resolvePromiseNull(
+    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
+    std::shared_ptr<PromiseCallbacks> callbacks) {
+  jsCallInvoker->invokeAsync(
+      [callbacks = std::move(callbacks)](jsi::Runtime& runtime) {
+        callbacks->resolve.call(runtime, jsi::Value::null());
+      });
+}
+
+void resolvePromiseBytes(
+    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
+    std::shared_ptr<PromiseCallbacks> callbacks,
+    std::vector<uint8_t>&& bytes) {
+  jsCallInvoker->invokeAsync(
+      [callbacks = std::move(callbacks),
+       bytes = std::move(bytes)](jsi::Runtime& runtime) mutable {
+        auto result = makeUint8Array(runtime, std::move(bytes));
+        callbacks->resolve.call(runtime, jsi::Value(runtime, result));
+      });
+}
+
+void resolvePromiseMappedBytes(
+    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
+    std::shared_ptr<PromiseCallbacks> callbacks,
+    std::shared_ptr<MappedChunkBuffer> buffer) {
+  jsCallInvoker->invokeAsync(
+      [callbacks = std::move(callbacks),
+       buffer = std::move(buffer)](jsi::Runtime& runtime) mutable {
+        auto result = makeUint8Array(runtime, std::move(buffer));
+        callbacks->resolve.call(runtime, jsi::Value(runtime, result));
+      });
+}
+
+void rejectPromise(
+    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
+    std::shared_ptr<PromiseCallbacks> callbacks,
+    std::string message) {
+  jsCallInvoker->invokeAsync(
+      [callbacks = std::move(callbacks),
+       message = std::move(message)](jsi::Runtime& runtime) {
+        callbacks->reject.call(
+            runtime,
+            jsi::String::createFromUtf8(runtime, message));
+      });
+}
+
+jsi::Object makeWriteStreamStatsObject(
+    jsi::Runtime& runtime,
+    const WriteStreamStatsSnapshot& snapshot) {
+  jsi::Object result(runtime);
+  result.setProperty(runtime, "writerId", static_cast<double>(snapshot.writerId));
+  result.setProperty(runtime, "path", jsi::String::createFromUtf8(runtime, snapshot.path));
+  result.setProperty(runtime, "bufferSize", static_cast<double>(snapshot.bufferSize));
+  result.setProperty(runtime, "bufferCount", static_cast<double>(snapshot.bufferCount));
+  result.setProperty(runtime, "freeBuffers", static_cast<double>(snapshot.freeBuffers));
+  result.setProperty(runtime, "acquiredBuffers", static_cast<double>(snapshot.acquiredBuffers));
+  result.setProperty(runtime, "pendingBuffers", static_cast<double>(snapshot.pendingBuffers));
+  result.setProperty(runtime, "bytesWritten", static_cast<double>(snapshot.bytesWritten));
+  result.setProperty(runtime, "commits", static_cast<double>(snapshot.commits));
+  result.setProperty(runtime, "closed", snapshot.closed);
+  return result;
+}
+
+void resolvePromiseWriteStats(
+    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
+    std::shared_ptr<PromiseCallbacks> callbacks,
+    WriteStreamStatsSnapshot snapshot) {
+  jsCallInvoker->invokeAsync(
+      [callbacks = std::move(callbacks),
+       snapshot = std::move(snapshot)](jsi::Runtime& runtime) {
+        auto result = makeWriteStreamStatsObject(runtime, snapshot);
+        callbacks->resolve.call(runtime, jsi::Value(runtime, result));
+      });
+}
+
+jsi::Object makeReadStreamStatsObject(
+    jsi::Runtime& runtime,
+    const ReadStreamStatsSnapshot& snapshot) {
+  jsi::Object result(runtime);
+  result.setProperty(runtime, "readerId", static_cast<double>(snapshot.readerId));
+  result.setProperty(runtime, "path", jsi::String::createFromUtf8(runtime, snapshot.path));
+  result.setProperty(runtime, "bufferSize", static_cast<double>(snapshot.bufferSize));
+  result.setProperty(runtime, "bytesRead", static_cast<double>(snapshot.bytesRead));
+  result.setProperty(runtime, "reads", static_cast<double>(snapshot.reads));
+  result.setProperty(runtime, "mapped", snapshot.mapped);
+  result.setProperty(runtime, "closed", snapshot.closed);
+  result.setProperty(runtime, "eof", snapshot.eof);
+  return result;
+}
+
+void resolvePromiseReadStats(
+    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
+    std::shared_ptr<PromiseCallbacks> callbacks,
+    ReadStreamStatsSnapshot snapshot) {
+  jsCallInvoker->invokeAsync(
+      [callbacks = std::move(callbacks),
+       snapshot = std::move(snapshot)](jsi::Runtime& runtime) {
+        auto result = makeReadStreamStatsObject(runtime, snapshot);
+        callbacks->resolve.call(runtime, jsi::Value(runtime, result));
+      });
+}
+
+class OwnedWriteStreamHostObject final : public jsi::HostObject {
+ public:
+  OwnedWriteStreamHostObject(
+      std::string path,
+      size_t bufferSize,
+      size_t bufferCount)
+      : path_(std::move(path)),
+        bufferSize_(bufferSize),
+        writerId_(nextOwnedWriterId()) {
+    fd_ = open(path_.c_str(), O_WRONLY | O_CREAT | O_TRUNC, 0666);
+    if (fd_ == -1) {
+      throw std::runtime_error(errnoMessage("open", path_));
+    }
+
+    slots_.reserve(bufferCount);
+    for (size_t index = 0; index < bufferCount; index += 1) {
+      slots_.push_back(Slot{std::make_shared<VectorBuffer>(bufferSize_)});
+    }
+  }
+
+  ~OwnedWriteStreamHostObject() override {
+    closeFd();
+  }
+
+  jsi::Value get(jsi::Runtime& runtime, const jsi::PropNameID& name) override {
+    auto property = name.utf8(runtime);
+    if (property == "acquireBuffer") {
+      return wrapHostFunction(
+          runtime,
+          "acquireBuffer",
+          0,
+          [this](jsi::Runtime& runtime,
+                 const jsi::Value&,
+                 const jsi::Value*,
+                 size_t) -> jsi::Value {
+            return jsi::Value(runtime, acquireBuffer(runtime));
+          });
+    }
+    if (property == "commit") {
+      return wrapHostFunction(
+          runtime,
+          "commit",
+          2,
+          [this](jsi::Runtime& runtime,
+                 const jsi::Value&,
+                 const jsi::Value* arguments,
+                 size_t count) -> jsi::Value {
+            return jsi::Value(static_cast<double>(commit(runtime, arguments, count)));
+          });
+    }
+    if (property == "close") {
+      return wrapHostFunction(
+          runtime,
+          "close",
+          0,
+          [this](jsi::Runtime& runtime,
+                 const jsi::Value&,
+                 const jsi::Value*,
+                 size_t) -> jsi::Value {
+            close(runtime);
+            return jsi::Value::undefined();
+          });
+    }
+    if (property == "stats") {
+      return wrapHostFunction(
+          runtime,
+          "stats",
+          0,
+          [this](jsi::Runtime& runtime,
+                 const jsi::Value&,
+                 const jsi::Value*,
+                 size_t) -> jsi::Value {
+            return jsi::Value(runtime, stats(runtime));
+          });
+    }
+    return jsi::Value::undefined();
+  }
+
+  std::vector<jsi::PropNameID> getPropertyNames(jsi::Runtime& runtime) override {
+    std::vector<jsi::PropNameID> names;
+    names.reserve(4);
+    names.push_back(jsi::PropNameID::forAscii(runtime, "acquireBuffer"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "commit"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "close"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "stats"));
+    return names;
+  }
+
+ private:
+  enum class SlotState {
+    Free,
+    Acquired,
+  };
+
+  struct Slot {
+    std::shared_ptr<VectorBuffer> buffer;
+    SlotState state = SlotState::Free;
+    uint64_t generation = 0;
+  };
+
+  void ensureOpen(jsi::Runtime& runtime) const {
+    if (closed_ || fd_ == -1) {
+      throw jsi::JSError(runtime, "RabbyNativeFS owned write stream is closed");
+    }
+  }
+
+  jsi::Object acquireBuffer(jsi::Runtime& runtime) {
+    ensureOpen(runtime);
+
+    for (size_t index = 0; index < slots_.size(); index += 1) {
+      auto& slot = slots_[index];
+      if (slot.state != SlotState::Free) {
+        continue;
+      }
+
+      slot.state = SlotState::Acquired;
+      slot.generation += 1;
+
+      auto arrayBuffer = jsi::ArrayBuffer(runtime, slot.buffer);
+      auto uint8ArrayConstructor = requireGlobalFunction(runtime, "Uint8Array");
+      auto uint8Array = uint8ArrayConstructor.callAsConstructor(runtime, std::move(arrayBuffer)).asObject(runtime);
+      uint8Array.setExternalMemoryPressure(runtime, slot.buffer->size());
+      uint8Array.setProperty(runtime, "__rabbyNativeFSWriterId", static_cast<double>(writerId_));
+      uint8Array.setProperty(runtime, "__rabbyNativeFSSlot", static_cast<double>(index));
+      uint8Array.setProperty(runtime, "__rabbyNativeFSGeneration", static_cast<double>(slot.generation));
+      return uint8Array;
+    }
+
+    throw jsi::JSError(runtime, "RabbyNativeFS owned write stream has no free buffer");
+  }
+
+  size_t commit(
+      jsi::Runtime& runtime,
+      const jsi::Value* arguments,
+      size_t count) {
+    ensureOpen(runtime);
+    if (count < 1 || !arguments[0].isObject()) {
+      throw jsi::JSError(runtime, "RabbyNativeFS commit expects an owned Uint8Array");
+    }
+
+    auto object = arguments[0].asObject(runtime);
+    auto writerId = requireTokenNumber(runtime, object, "__rabbyNativeFSWriterId");
+    auto slotIndex = requireTokenNumber(runtime, object, "__rabbyNativeFSSlot");
+    auto generation = requireTokenNumber(runtime, object, "__rabbyNativeFSGeneration");
+
+    if (writerId != writerId_) {
+      throw jsi::JSError(runtime, "RabbyNativeFS owned buffer belongs to another writer");
+    }
+    if (slotIndex >= slots_.size()) {
+      throw jsi::JSError(runtime, "RabbyNativeFS owned buffer slot is out of range");
+    }
+
+    auto& slot = slots_[static_cast<size_t>(slotIndex)];
+    if (slot.state != SlotState::Acquired || slot.generation != generation) {
+      throw jsi::JSError(runtime, "RabbyNativeFS owned buffer is not currently acquired");
+    }
+
+    auto bytes = requireBytes(runtime, arguments[0]);
+    if (bytes.byteOffset != 0) {
+      throw jsi::JSError(runtime, "RabbyNativeFS commit expects the original acquired buffer, not a subarray");
+    }
+    if (bytes.buffer.data(runtime) != slot.buffer->data()) {
+      throw jsi::JSError(runtime, "RabbyNativeFS owned buffer storage mismatch");
+    }
+
+    size_t byteLength = bytes.byteLength;
+    if (count > 1 && !arguments[1].isUndefined() && !arguments[1].isNull()) {
+      if (!arguments[1].isNumber()) {
+        throw jsi::JSError(runtime, "RabbyNativeFS commit length must be a number");
+      }
+      auto length = arguments[1].asNumber();
+      if (length < 0) {
+        throw jsi::JSError(runtime, "RabbyNativeFS commit length must be >= 0");
+      }
+      byteLength = static_cast<size_t>(length);
+    }
+    if (byteLength > bytes.byteLength || byteLength > slot.buffer->size()) {
+      throw jsi::JSError(runtime, "RabbyNativeFS commit length exceeds the acquired buffer");
+    }
+
+    auto startedAt = SteadyClock::now();
+    try {
+      writeAllToFd(fd_, slot.buffer->data(), byteLength, path_);
+    } catch (const std::exception& error) {
+      recordOperationSample("commit", 0, 0, true);
+      throw jsi::JSError(runtime, error.what());
+    }
+    recordOperationSample("commit", byteLength, durationUsSince(startedAt), false);
+
+    slot.state = SlotState::Free;
+    bytesWritten_ += byteLength;
+    commits_ += 1;
+    return bytesWritten_;
+  }
+
+  void close(jsi::Runtime& runtime) {
+    if (closed_) {
+      return;
+    }
+    for (const auto& slot : slots_) {
+      if (slot.state == SlotState::Acquired) {
+        throw jsi::JSError(runtime, "RabbyNativeFS cannot close an owned write stream with acquired buffers");
+      }
+    }
+    auto startedAt = SteadyClock::now();
+    if (closeFd() == -1) {
+      throw jsi::JSError(runtime, errnoMessage("close", path_));
+    }
+    closed_ = true;
+    logNativeFsOwnedClose(
+        writerId_,
+        path_,
+        bytesWritten_,
+        commits_,
+        durationUsSince(startedAt));
+  }
+
+  jsi::Object stats(jsi::Runtime& runtime) const {
+    size_t freeBuffers = 0;
+    size_t acquiredBuffers = 0;
+    for (const auto& slot : slots_) {
+      if (slot.state == SlotState::Free) {
+        freeBuffers += 1;
+      } else {
+        acquiredBuffers += 1;
+      }
+    }
+
+    jsi::Object result(runtime);
+    result.setProperty(runtime, "writerId", static_cast<double>(writerId_));
+    result.setProperty(runtime, "path", jsi::String::createFromUtf8(runtime, path_));
+    result.setProperty(runtime, "bufferSize", static_cast<double>(bufferSize_));
+    result.setProperty(runtime, "bufferCount", static_cast<double>(slots_.size()));
+    result.setProperty(runtime, "freeBuffers", static_cast<double>(freeBuffers));
+    result.setProperty(runtime, "acquiredBuffers", static_cast<double>(acquiredBuffers));
+    result.setProperty(runtime, "bytesWritten", static_cast<double>(bytesWritten_));
+    result.setProperty(runtime, "commits", static_cast<double>(commits_));
+    result.setProperty(runtime, "closed", closed_);
+    return result;
+  }
+
+  int closeFd() {
+    if (fd_ == -1) {
+      return 0;
+    }
+    int result = ::close(fd_);
+    fd_ = -1;
+    return result;
+  }
+
+  std::string path_;
+  size_t bufferSize_;
+  uint64_t writerId_;
+  int fd_ = -1;
+  bool closed_ = false;
+  size_t bytesWritten_ = 0;
+  size_t commits_ = 0;
+  std::vector<Slot> slots_;
+};
+
+class AsyncWriteStreamHostObject final
+    : public jsi::HostObject,
+      public std::enable_shared_from_this<AsyncWriteStreamHostObject> {
+ public:
+  AsyncWriteStreamHostObject(
+      std::string path,
+      size_t bufferSize,
+      size_t bufferCount,
+      std::shared_ptr<react::CallInvoker> jsCallInvoker)
+      : path_(std::move(path)),
+        bufferSize_(bufferSize),
+        writerId_(nextOwnedWriterId()),
+        jsCallInvoker_(std::move(jsCallInvoker)) {
+    if (!jsCallInvoker_) {
+      throw std::runtime_error("RabbyNativeFS async stream requires JS CallInvoker");
+    }
+
+    fd_ = open(path_.c_str(), O_WRONLY | O_CREAT | O_TRUNC, 0666);
+    if (fd_ == -1) {
+      throw std::runtime_error(errnoMessage("open", path_));
+    }
+
+    slots_.reserve(bufferCount);
+    for (size_t index = 0; index < bufferCount; index += 1) {
+      slots_.push_back(Slot{std::make_shared<VectorBuffer>(bufferSize_)});
+    }
+  }
+
+  // Queued work holds a reference, so nothing is in flight by now.
+  ~AsyncWriteStreamHostObject() override {
+    if (fd_ != -1) {
+      ::close(fd_);
+      fd_ = -1;
+    }
+  }
+
+  jsi::Value get(jsi::Runtime& runtime, const jsi::PropNameID& name) override {
+    auto property = name.utf8(runtime);
+    if (property == "acquireBuffer") {
+      return wrapHostFunction(
+          runtime,
+          "acquireAsyncWriteBuffer",
+          0,
+          [this](jsi::Runtime& runtime,
+                 const jsi::Value&,
+                 const jsi::Value*,
+                 size_t) -> jsi::Value {
+            return jsi::Value(runtime, acquireBuffer(runtime));
+          });
+    }
+    if (property == "commit") {
+      return wrapHostFunction(
+          runtime,
+          "commitAsyncWriteBuffer",
+          2,
+          [this](jsi::Runtime& runtime,
+                 const jsi::Value&,
+                 const jsi::Value* arguments,
+                 size_t count) -> jsi::Value {
+            return jsi::Value(runtime, commit(runtime, arguments, count));
+          });
+    }
+    if (property == "commitBatch") {
+      return wrapHostFunction(
+          runtime,
+          "commitAsyncWriteBufferBatch",
+          2,
+          [this](jsi::Runtime& runtime,
+                 const jsi::Value&,
+                 const jsi::Value* arguments,
+                 size_t count) -> jsi::Value {
+            return jsi::Value(runtime, commitBatch(runtime, arguments, count));
+          });
+    }
+    if (property == "close") {
+      return wrapHostFunction(
+          runtime,
+          "closeAsyncWriteStream",
+          0,
+          [this](jsi::Runtime& runtime,
+                 const jsi::Value&,
+                 const jsi::Value*,
+                 size_t) -> jsi::Value {
+            return jsi::Value(runtime, close(runtime));
+          });
+    }
+    if (property == "stats") {
+      return wrapHostFunction(
+          runtime,
+          "statsAsyncWriteStream",
+          0,
+          [this](jsi::Runtime& runtime,
+                 const jsi::Value&,
+                 const jsi::Value*,
+                 size_t) -> jsi::Value {
+            return jsi::Value(runtime, makeWriteStreamStatsObject(runtime, statsSnapshot()));
+          });
+    }
+    return jsi::Value::undefined();
+  }
+
+  std::vector<jsi::PropNameID> getPropertyNames(jsi::Runtime& runtime) override {
+    std::vector<jsi::PropNameID> names;
+    names.reserve(5);
+    names.push_back(jsi::PropNameID::forAscii(runtime, "acquireBuffer"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "commit"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "commitBatch"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "close"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "stats"));
+    return names;
+  }
+
+ private:
+  enum class SlotState {
+    Free,
+    Acquired,
+    Pending,
+  };
+
+  enum class WorkType {
+    Commit,
+    Close,
+  };
+
+  struct Slot {
+    std::shared_ptr<VectorBuffer> buffer;
+    SlotState state = SlotState::Free;
+    uint64_t generation = 0;
+  };
+
+  struct PendingWrite {
+    size_t slotIndex = 0;
+    uint64_t generation = 0;
+    size_t byteLength = 0;
+  };
+
+  struct WorkItem {
+    WorkType type;
+    std::vector<PendingWrite> writes;
+    size_t byteLength = 0;
+    SteadyClock::time_point startedAt;
+    std::shared_ptr<PromiseCallbacks> callbacks;
+  };
+
+  jsi::Object acquireBuffer(jsi::Runtime& runtime) {
+    std::shared_ptr<VectorBuffer> buffer;
+    size_t slotIndex = 0;
+    uint64_t generation = 0;
+
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      ensureOpenLocked();
+
+      bool found = false;
+      for (size_t index = 0; index < slots_.size(); index += 1) {
+        auto& slot = slots_[index];
+        if (slot.state != SlotState::Free) {
+          continue;
+        }
+
+        slot.state = SlotState::Acquired;
+        slot.generation += 1;
+        buffer = slot.buffer;
+        slotIndex = index;
+        generation = slot.generation;
+        found = true;
+        break;
+      }
+
+      if (!found) {
+        throw jsi::JSError(runtime, "RabbyNativeFS async write stream has no free buffer");
+      }
+    }
+
+    auto arrayBuffer = jsi::ArrayBuffer(runtime, buffer);
+    auto uint8ArrayConstructor = requireGlobalFunction(runtime, "Uint8Array");
+    auto uint8Array = uint8ArrayConstructor.callAsConstructor(runtime, std::move(arrayBuffer)).asObject(runtime);
+    uint8Array.setExternalMemoryPressure(runtime, buffer->size());
+    uint8Array.setProperty(runtime, "__rabbyNativeFSWriterId", static_cast<double>(writerId_));
+    uint8Array.setProperty(runtime, "__rabbyNativeFSSlot", static_cast<double>(slotIndex));
+    uint8Array.setProperty(runtime, "__rabbyNativeFSGeneration", static_cast<double>(generation));
+    return uint8Array;
+  }
+
+  jsi::Object commit(
+      jsi::Runtime& runtime,
+      const jsi::Value* arguments,
+      size_t count) {
+    if (count < 1 || !arguments[0].isObject()) {
+      throw jsi::JSError(runtime, "RabbyNativeFS async commit expects an owned Uint8Array");
+    }
+
+    auto write = parsePendingWrite(
+        runtime,
+        arguments[0],
+        count > 1 ? &arguments[1] : nullptr);
+
+    auto self = shared_from_this();
+    return makePromise(
+        runtime,
+        "commitAsyncWriteBufferPromise",
+        [self, write](std::shared_ptr<PromiseCallbacks> callbacks) {
+          std::vector<PendingWrite> writes;
+          writes.push_back(write);
+          self->enqueueCommit(std::move(writes), std::move(callbacks));
+        });
+  }
+
+  jsi::Object commitBatch(
+      jsi::Runtime& runtime,
+      const jsi::Value* arguments,
+      size_t count) {
+    if (count < 1 || !arguments[0].isObject()) {
+      throw jsi::JSError(runtime, "RabbyNativeFS async commitBatch expects an array of owned Uint8Array buffers");
+    }
+
+    auto arrayObject = arguments[0].asObject(runtime);
+    if (!arrayObject.isArray(runtime)) {
+      throw jsi::JSError(runtime, "RabbyNativeFS async commitBatch expects an array of owned Uint8Array buffers");
+    }
+
+    bool hasLengthArray = false;
+    if (count > 1 && !arguments[1].isUndefined() && !arguments[1].isNull()) {
+      if (!arguments[1].isObject() || !arguments[1].asObject(runtime).isArray(runtime)) {
+        throw jsi::JSError(runtime, "RabbyNativeFS async commitBatch lengths must be an array");
+      }
+      hasLengthArray = true;
+    }
+
+    auto array = arrayObject.asArray(runtime);
+    auto length = array.length(runtime);
+    if (length == 0) {
+      throw jsi::JSError(runtime, "RabbyNativeFS async commitBatch expects at least one buffer");
+    }
+
+    std::vector<PendingWrite> writes;
+    writes.reserve(length);
+    for (size_t index = 0; index < length; index += 1) {
+      auto bufferValue = array.getValueAtIndex(runtime, index);
+      auto lengthValue = hasLengthArray
+          ? arguments[1].asObject(runtime).asArray(runtime).getValueAtIndex(runtime, index)
+          : jsi::Value::undefined();
+      writes.push_back(parsePendingWrite(
+          runtime,
+          bufferValue,
+          hasLengthArray ? &lengthValue : nullptr));
+    }
+
+    auto self = shared_from_this();
+    return makePromise(
+        runtime,
+        "commitAsyncWriteBufferBatchPromise",
+        [self, writes = std::move(writes)](std::shared_ptr<PromiseCallbacks> callbacks) mutable {
+          self->enqueueCommit(std::move(writes), std::move(callbacks));
+        });
+  }
+
+  PendingWrite parsePendingWrite(
+      jsi::Runtime& runtime,
+      const jsi::Value& bufferValue,
+      const jsi::Value* lengthValue) {
+    if (!bufferValue.isObject()) {
+      throw jsi::JSError(runtime, "RabbyNativeFS async commit expects an owned Uint8Array");
+    }
+
+    auto object = bufferValue.asObject(runtime);
+    auto writerId = requireTokenNumber(runtime, object, "__rabbyNativeFSWriterId");
+    auto slotIndex = requireTokenNumber(runtime, object, "__rabbyNativeFSSlot");
+    auto generation = requireTokenNumber(runtime, object, "__rabbyNativeFSGeneration");
+
+    if (writerId != writerId_) {
+      throw jsi::JSError(runtime, "RabbyNativeFS async buffer belongs to another writer");
+    }
+    if (slotIndex >= slots_.size()) {
+      throw jsi::JSError(runtime, "RabbyNativeFS async buffer slot is out of range");
+    }
+
+    std::shared_ptr<VectorBuffer> expectedBuffer;
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      ensureOpenLocked();
+      auto& slot = slots_[static_cast<size_t>(slotIndex)];
+      expectedBuffer = slot.buffer;
+    }
+
+    auto bytes = requireBytes(runtime, bufferValue);
+    if (bytes.byteOffset != 0) {
+      throw jsi::JSError(runtime, "RabbyNativeFS async commit expects the original acquired buffer, not a subarray");
+    }
+    if (bytes.buffer.data(runtime) != expectedBuffer->data()) {
+      throw jsi::JSError(runtime, "RabbyNativeFS async buffer storage mismatch");
+    }
+
+    size_t byteLength = bytes.byteLength;
+    if (lengthValue != nullptr && !lengthValue->isUndefined() && !lengthValue->isNull()) {
+      if (!lengthValue->isNumber()) {
+        throw jsi::JSError(runtime, "RabbyNativeFS async commit length must be a number");
+      }
+      auto length = lengthValue->asNumber();
+      if (length < 0) {
+        throw jsi::JSError(runtime, "RabbyNativeFS async commit length must be >= 0");
+      }
+      byteLength = static_cast<size_t>(length);
+    }
+    if (byteLength > bytes.byteLength || byteLength > expectedBuffer->size()) {
+      throw jsi::JSError(runtime, "RabbyNativeFS async commit length exceeds the acquired buffer");
+    }
+
+    return PendingWrite{
+        static_cast<size_t>(slotIndex),
+        generation,
+        byteLength};
+  }
+
+  jsi::Object close(jsi::Runtime& runtime) {
+    auto self = shared_from_this();
+    return makePromise(
+        runtime,
+        "closeAsyncWriteStreamPromise",
+        [self](std::shared_ptr<PromiseCallbacks> callbacks) {
+          self->enqueueClose(std::move(callbacks));
+        });
+  }
+
+  void enqueueCommit(
+      std::vector<PendingWrite> writes,
+      std::shared_ptr<PromiseCallbacks> callbacks) {
+    size_t totalByteLength = 0;
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      ensureOpenLocked();
+
+      std::vector<bool> seenSlots(slots_.size(), false);
+      for (const auto& write : writes) {
+        if (write.slotIndex >= slots_.size()) {
+          throw std::runtime_error("RabbyNativeFS async buffer slot is out of range");
+        }
+        if (seenSlots[write.slotIndex]) {
+          throw std::runtime_error("RabbyNativeFS async commitBatch contains a duplicate buffer");
+        }
+        seenSlots[write.slotIndex] = true;
+
+        auto& slot = slots_[write.slotIndex];
+        if (slot.state != SlotState::Acquired || slot.generation != write.generation) {
+          throw std::runtime_error("RabbyNativeFS async buffer is not currently acquired");
+        }
+        totalByteLength += write.byteLength;
+      }
+
+      for (const auto& write : writes) {
+        slots_[write.slotIndex].state = SlotState::Pending;
+      }
+
+      queue_.push_back(WorkItem{
+          WorkType::Commit,
+          std::move(writes),
+          totalByteLength,
+          SteadyClock::now(),
+          std::move(callbacks)});
+      scheduleLocked();
+    }
+  }
+
+  void enqueueClose(std::shared_ptr<PromiseCallbacks> callbacks) {
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      if (closed_) {
+        throw std::runtime_error("RabbyNativeFS async write stream is already closed");
+      }
+      if (closing_) {
+        throw std::runtime_error("RabbyNativeFS async write stream close is already pending");
+      }
+      for (const auto& slot : slots_) {
+        if (slot.state == SlotState::Acquired) {
+          throw std::runtime_error("RabbyNativeFS cannot close an async write stream with acquired buffers");
+        }
+      }
+
+      closing_ = true;
+      queue_.push_back(WorkItem{
+          WorkType::Close,
+          {},
+          0,
+          SteadyClock::now(),
+          std::move(callbacks)});
+      scheduleLocked();
+    }
+  }
+
+  void scheduleLocked() {
+    if (scheduled_ || queue_.empty()) {
+      return;
+    }
+    scheduled_ = true;
+    auto self = shared_from_this();
+    IOEngine::shared().submit(
+        queue_.front().type == WorkType::Commit ? IOKind::Write : IOKind::Close,
+        [self] { self->runNext(); });
+  }
+
+  void runNext() {
+    WorkItem item;
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      item = std::move(queue_.front());
+      queue_.pop_front();
+    }
+
+    if (item.type == WorkType::Commit) {
+      processCommit(std::move(item));
+    } else {
+      processClose(std::move(item));
+    }
+
+    std::lock_guard<std::mutex> lock(mutex_);
+    scheduled_ = false;
+    scheduleLocked();
+  }
+
+  void processCommit(WorkItem item) {
+    try {
+      std::vector<std::pair<std::shared_ptr<VectorBuffer>, PendingWrite>> writes;
+      {
+        std::lock_guard<std::mutex> lock(mutex_);
+        writes.reserve(item.writes.size());
+        for (const auto& write : item.writes) {
+          writes.push_back({slots_[write.slotIndex].buffer, write});
+        }
+      }
+
+      for (const auto& write : writes) {
+        pwriteAllToFd(fd_, write.first->data(), write.second.byteLength, writeOffset_, path_);
+        writeOffset_ += static_cast<int64_t>(write.second.byteLength);
+      }
+
+      size_t totalBytes = 0;
+      {
+        std::lock_guard<std::mutex> lock(mutex_);
+        for (const auto& write : item.writes) {
+          auto& slot = slots_[write.slotIndex];
+          if (slot.generation == write.generation && slot.state == SlotState::Pending) {
+            slot.state = SlotState::Free;
+          }
+        }
+        bytesWritten_ += item.byteLength;
+        commits_ += item.writes.size();
+        totalBytes = bytesWritten_;
+      }
+
+      logNativeFsInfo(
+          "async-write",
+          item.writes.size() > 1 ? "commit-batch" : "commit",
+          path_,
+          item.byteLength,
+          durationUsSince(item.startedAt));
+      resolvePromiseNumber(jsCallInvoker_, std::move(item.callbacks), static_cast<double>(totalBytes));
+    } catch (const std::exception& error) {
+      {
+        std::lock_guard<std::mutex> lock(mutex_);
+        for (const auto& write : item.writes) {
+          if (write.slotIndex < slots_.size()) {
+            slots_[write.slotIndex].state = SlotState::Free;
+          }
+        }
+      }
+      logNativeFsError("asyncWriteCommit", path_, error.what());
+      rejectPromise(jsCallInvoker_, std::move(item.callbacks), error.what());
+    }
+  }
+
+  void processClose(WorkItem item) {
+    try {
+      if (fd_ != -1 && ::close(fd_) == -1) {
+        throw std::runtime_error(errnoMessage("close", path_));
+      }
+      fd_ = -1;
+
+      WriteStreamStatsSnapshot snapshot;
+      {
+        std::lock_guard<std::mutex> lock(mutex_);
+        closed_ = true;
+        closing_ = false;
+        snapshot = statsSnapshotLocked();
+      }
+
+      logNativeFsInfo(
+          "async-write",
+          "close",
+          path_,
+          snapshot.bytesWritten,
+          durationUsSince(item.startedAt));
+      resolvePromiseWriteStats(jsCallInvoker_, std::move(item.callbacks), std::move(snapshot));
+    } catch (const std::exception& error) {
+      logNativeFsError("asyncWriteClose", path_, error.what());
+      rejectPromise(jsCallInvoker_, std::move(item.callbacks), error.what());
+    }
+  }
+
+  void ensureOpenLocked() const {
+    if (closed_ || closing_ || fd_ == -1) {
+      throw std::runtime_error("RabbyNativeFS async write stream is closed");
+    }
+  }
+
+  WriteStreamStatsSnapshot statsSnapshot() const {
+    std::lock_guard<std::mutex> lock(mutex_);
+    return statsSnapshotLocked();
+  }
+
+  WriteStreamStatsSnapshot statsSnapshotLocked() const {
+    size_t freeBuffers = 0;
+    size_t acquiredBuffers = 0;
+    size_t pendingBuffers = 0;
+
+    for (const auto& slot : slots_) {
+      if (slot.state == SlotState::Free) {
+        freeBuffers += 1;
+      } else if (slot.state == SlotState::Acquired) {
+        acquiredBuffers += 1;
+      } else {
+        pendingBuffers += 1;
+      }
+    }
+
+    return WriteStreamStatsSnapshot{
+        writerId_,
+        path_,
+        bufferSize_,
+        slots_.size(),
+        freeBuffers,
+        acquiredBuffers,
+        pendingBuffers,
+        bytesWritten_,
+        commits_,
+        closed_};
+  }
+
+  std::string path_;
+  size_t bufferSize_;
+  uint64_t writerId_;
+  int fd_ = -1;
+  int64_t writeOffset_ = 0;
+  bool closed_ = false;
+  bool closing_ = false;
+  bool scheduled_ = false;
+  size_t bytesWritten_ = 0;
+  size_t commits_ = 0;
+  std::vector<Slot> slots_;
+  std::shared_ptr<react::CallInvoker> jsCallInvoker_;
+  mutable std::mutex mutex_;
+  std::deque<WorkItem> queue_;
+};
+
+uint64_t nextAsyncReaderId() {
+  static uint64_t nextId = 1;
+  return nextId++;
 }
 
-class OwnedWriteStreamHostObject final : public jsi::HostObject {
+class AsyncReadStreamHostObject final
+    : public jsi::HostObject,
+      public std::enable_shared_from_this<AsyncReadStreamHostObject> {
  public:
-  OwnedWriteStreamHostObject(
+  AsyncReadStreamHostObject(
       std::string path,
       size_t bufferSize,
-      size_t bufferCount)
+      bool mapped,
+      bool allowWritable,
+      std::shared_ptr<react::CallInvoker> jsCallInvoker)
       : path_(std::move(path)),
         bufferSize_(bufferSize),
-        writerId_(nextOwnedWriterId()) {
-    fd_ = open(path_.c_str(), O_WRONLY | O_CREAT | O_TRUNC, 0666);
+        readerId_(nextAsyncReaderId()),
+        mapped_(mapped),
+        jsCallInvoker_(std::move(jsCallInvoker)) {
+    if (!jsCallInvoker_) {
+      throw std::runtime_error("RabbyNativeFS async stream requires JS CallInvoker");
+    }
+    if (mapped_) {
+      requireMappableFile(path_, allowWritable);
+    }
+
+    fd_ = open(path_.c_str(), O_RDONLY);
     if (fd_ == -1) {
       throw std::runtime_error(errnoMessage("open", path_));
     }
 
-    slots_.reserve(bufferCount);
-    for (size_t index = 0; index < bufferCount; index += 1) {
-      slots_.push_back(Slot{std::make_shared<VectorBuffer>(bufferSize_)});
+    if (mapped_) {
+      struct stat fileStat {};
+      if (fstat(fd_, &fileStat) == -1) {
+        int savedErrno = errno;
+        ::close(fd_);
+        fd_ = -1;
+        errno = savedErrno;
+        throw std::runtime_error(errnoMessage("stat", path_));
+      }
+      if (S_ISDIR(fileStat.st_mode)) {
+        ::close(fd_);
+        fd_ = -1;
+        throw std::runtime_error("EISDIR: illegal operation on a directory, read '" + path_ + "'");
+      }
+      fileSize_ = static_cast<int64_t>(fileStat.st_size);
     }
   }
 
-  ~OwnedWriteStreamHostObject() override {
-    closeFd();
+  // Queued work holds a reference, so nothing is in flight by now.
+  ~AsyncReadStreamHostObject() override {
+    if (fd_ != -1) {
+      ::close(fd_);
+      fd_ = -1;
+    }
   }
 
   jsi::Value get(jsi::Runtime& runtime, const jsi::PropNameID& name) override {
     auto property = name.utf8(runtime);
-    if (property == "acquireBuffer") {
+    if (property == "readChunk") {
       return wrapHostFunction(
           runtime,
-          "acquireBuffer",
-          0,
+          "readAsyncChunk",
+          1,
           [this](jsi::Runtime& runtime,
                  const jsi::Value&,
-                 const jsi::Value*,
-                 size_t) -> jsi::Value {
-            return jsi::Value(runtime, acquireBuffer(runtime));
+                 const jsi::Value* arguments,
+                 size_t count) -> jsi::Value {
+            size_t length = count > 0
+                ? requirePositiveSize(runtime, arguments[0], bufferSize_, "length")
+                : bufferSize_;
+            auto self = shared_from_this();
+            return jsi::Value(
+                runtime,
+                makePromise(
+                    runtime,
+                    "readAsyncChunkPromise",
+                    [self, length](std::shared_ptr<PromiseCallbacks> callbacks) {
+                      self->enqueueRead(length, std::move(callbacks));
+                    }));
           });
     }
-    if (property == "commit") {
+    if (property == "readBatch") {
       return wrapHostFunction(
           runtime,
-          "commit",
-          2,
+          "readAsyncBatch",
+          1,
           [this](jsi::Runtime& runtime,
                  const jsi::Value&,
                  const jsi::Value* arguments,
                  size_t count) -> jsi::Value {
-            return jsi::Value(static_cast<double>(commit(runtime, arguments, count)));
+            size_t length = count > 0
+                ? requirePositiveSize(runtime, arguments[0], bufferSize_, "length")
+                : bufferSize_;
+            auto self = shared_from_this();
+            return jsi::Value(
+                runtime,
+                makePromise(
+                    runtime,
+                    "readAsyncBatchPromise",
+                    [self, length](std::shared_ptr<PromiseCallbacks> callbacks) {
+                      self->enqueueRead(length, std::move(callbacks));
+                    }));
           });
     }
     if (property == "close") {
       return wrapHostFunction(
           runtime,
-          "close",
+          "closeAsyncReadStream",
           0,
           [this](jsi::Runtime& runtime,
                  const jsi::Value&,
                  const jsi::Value*,
                  size_t) -> jsi::Value {
-            close(runtime);
-            return jsi::Value::undefined();
+            auto self = shared_from_this();
+            return jsi::Value(
+                runtime,
+                makePromise(
+                    runtime,
+                    "closeAsyncReadStreamPromise",
+                    [self](std::shared_ptr<PromiseCallbacks> callbacks) {
+                      self->enqueueClose(std::move(callbacks));
+                    }));
           });
     }
     if (property == "stats") {
       return wrapHostFunction(
           runtime,
-          "stats",
+          "statsAsyncReadStream",
           0,
           [this](jsi::Runtime& runtime,
                  const jsi::Value&,
                  const jsi::Value*,
                  size_t) -> jsi::Value {
-            return jsi::Value(runtime, stats(runtime));
+            return jsi::Value(runtime, makeReadStreamStatsObject(runtime, statsSnapshot()));
           });
     }
     return jsi::Value::undefined();
@@ -739,214 +3163,465 @@ class OwnedWriteStreamHostObject final : public jsi::HostObject {
   std::vector<jsi::PropNameID> getPropertyNames(jsi::Runtime& runtime) override {
     std::vector<jsi::PropNameID> names;
     names.reserve(4);
-    names.push_back(jsi::PropNameID::forAscii(runtime, "acquireBuffer"));
-    names.push_back(jsi::PropNameID::forAscii(runtime, "commit"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "readChunk"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "readBatch"));
     names.push_back(jsi::PropNameID::forAscii(runtime, "close"));
     names.push_back(jsi::PropNameID::forAscii(runtime, "stats"));
     return names;
   }
 
  private:
-  enum class SlotState {
-    Free,
-    Acquired,
+  enum class WorkType {
+    Read,
+    Close,
   };
 
-  struct Slot {
-    std::shared_ptr<VectorBuffer> buffer;
-    SlotState state = SlotState::Free;
-    uint64_t generation = 0;
+  struct WorkItem {
+    WorkType type;
+    size_t length = 0;
+    SteadyClock::time_point startedAt;
+    std::shared_ptr<PromiseCallbacks> callbacks;
   };
 
-  void ensureOpen(jsi::Runtime& runtime) const {
-    if (closed_ || fd_ == -1) {
-      throw jsi::JSError(runtime, "RabbyNativeFS owned write stream is closed");
+  void enqueueRead(size_t length, std::shared_ptr<PromiseCallbacks> callbacks) {
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      ensureOpenLocked();
+      queue_.push_back(WorkItem{
+          WorkType::Read,
+          length,
+          SteadyClock::now(),
+          std::move(callbacks)});
+      scheduleLocked();
+    }
+  }
+
+  void enqueueClose(std::shared_ptr<PromiseCallbacks> callbacks) {
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      if (closed_) {
+        throw std::runtime_error("RabbyNativeFS async read stream is already closed");
+      }
+      if (closing_) {
+        throw std::runtime_error("RabbyNativeFS async read stream close is already pending");
+      }
+      closing_ = true;
+      queue_.push_back(WorkItem{
+          WorkType::Close,
+          0,
+          SteadyClock::now(),
+          std::move(callbacks)});
+      scheduleLocked();
+    }
+  }
+
+  void scheduleLocked() {
+    if (scheduled_ || queue_.empty()) {
+      return;
+    }
+    scheduled_ = true;
+    auto self = shared_from_this();
+    IOEngine::shared().submit(
+        queue_.front().type == WorkType::Read ? IOKind::Read : IOKind::Close,
+        [self] { self->runNext(); });
+  }
+
+  void runNext() {
+    WorkItem item;
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      item = std::move(queue_.front());
+      queue_.pop_front();
+    }
+
+    if (item.type == WorkType::Read) {
+      processRead(std::move(item));
+    } else {
+      processClose(std::move(item));
+    }
+
+    std::lock_guard<std::mutex> lock(mutex_);
+    scheduled_ = false;
+    scheduleLocked();
+  }
+
+  void processRead(WorkItem item) {
+    try {
+      {
+        std::lock_guard<std::mutex> lock(mutex_);
+        if (eof_) {
+          resolvePromiseNull(jsCallInvoker_, std::move(item.callbacks));
+          return;
+        }
+      }
+
+      if (mapped_) {
+        processMappedRead(std::move(item));
+        return;
+      }
+
+      std::vector<uint8_t> bytes(item.length);
+      size_t totalRead = preadFromFd(fd_, bytes.data(), bytes.size(), position_, path_);
+      position_ += static_cast<int64_t>(totalRead);
+
+      if (totalRead == 0) {
+        {
+          std::lock_guard<std::mutex> lock(mutex_);
+          eof_ = true;
+        }
+        logNativeFsInfo(
+            "async-read",
+            "read-eof",
+            path_,
+            0,
+            durationUsSince(item.startedAt));
+        resolvePromiseNull(jsCallInvoker_, std::move(item.callbacks));
+        return;
+      }
+
+      if (totalRead != bytes.size()) {
+        bytes.resize(totalRead);
+      }
+      {
+        std::lock_guard<std::mutex> lock(mutex_);
+        bytesRead_ += totalRead;
+        reads_ += 1;
+      }
+
+      logNativeFsInfo(
+          "async-read",
+          "read",
+          path_,
+          totalRead,
+          durationUsSince(item.startedAt));
+      resolvePromiseBytes(jsCallInvoker_, std::move(item.callbacks), std::move(bytes));
+    } catch (const std::exception& error) {
+      logNativeFsError("asyncReadChunk", path_, error.what());
+      rejectPromise(jsCallInvoker_, std::move(item.callbacks), error.what());
+    }
+  }
+
+  // Hands out the next window of the file as an mmap-backed chunk instead of
+  // copying it into a heap vector. Pages are file-backed, so peak anonymous
+  // memory stays bounded by the chunks JS still references. The constructor
+  // refused writable files unless the caller promised they are only replaced
+  // by rename, since truncating the file under a live chunk raises SIGBUS.
+  void processMappedRead(WorkItem item) {
+    size_t length = 0;
+    if (position_ < fileSize_) {
+      length = static_cast<size_t>(std::min<int64_t>(
+          static_cast<int64_t>(item.length),
+          fileSize_ - position_));
+    }
+
+    if (length == 0) {
+      {
+        std::lock_guard<std::mutex> lock(mutex_);
+        eof_ = true;
+      }
+      logNativeFsInfo(
+          "async-read",
+          "mapped-read-eof",
+          path_,
+          0,
+          durationUsSince(item.startedAt));
+      resolvePromiseNull(jsCallInvoker_, std::move(item.callbacks));
+      return;
+    }
+
+    auto buffer = mapFileWindow(fd_, position_, length, path_);
+    position_ += static_cast<int64_t>(length);
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      bytesRead_ += length;
+      reads_ += 1;
+    }
+
+    logNativeFsInfo(
+        "async-read",
+        "mapped-read",
+        path_,
+        length,
+        durationUsSince(item.startedAt));
+    resolvePromiseMappedBytes(jsCallInvoker_, std::move(item.callbacks), std::move(buffer));
+  }
+
+  void processClose(WorkItem item) {
+    try {
+      if (fd_ != -1 && ::close(fd_) == -1) {
+        throw std::runtime_error(errnoMessage("close", path_));
+      }
+      fd_ = -1;
+
+      ReadStreamStatsSnapshot snapshot;
+      {
+        std::lock_guard<std::mutex> lock(mutex_);
+        closed_ = true;
+        closing_ = false;
+        snapshot = statsSnapshotLocked();
+      }
+
+      logNativeFsInfo(
+          "async-read",
+          "close",
+          path_,
+          snapshot.bytesRead,
+          durationUsSince(item.startedAt));
+      resolvePromiseReadStats(jsCallInvoker_, std::move(item.callbacks), std::move(snapshot));
+    } catch (const std::exception& error) {
+      logNativeFsError("asyncReadClose", path_, error.what());
+      rejectPromise(jsCallInvoker_, std::move(item.callbacks), error.what());
+    }
+  }
+
+  void ensureOpenLocked() const {
+    if (closed_ || closing_ || fd_ == -1) {
+      throw std::runtime_error("RabbyNativeFS async read stream is closed");
     }
   }
 
-  jsi::Object acquireBuffer(jsi::Runtime& runtime) {
-    ensureOpen(runtime);
+  ReadStreamStatsSnapshot statsSnapshot() const {
+    std::lock_guard<std::mutex> lock(mutex_);
+    return statsSnapshotLocked();
+  }
 
-    for (size_t index = 0; index < slots_.size(); index += 1) {
-      auto& slot = slots_[index];
-      if (slot.state != SlotState::Free) {
-        continue;
-      }
+  ReadStreamStatsSnapshot statsSnapshotLocked() const {
+    return ReadStreamStatsSnapshot{
+        readerId_,
+        path_,
+        bufferSize_,
+        bytesRead_,
+        reads_,
+        mapped_,
+        closed_,
+        eof_};
+  }
 
-      slot.state = SlotState::Acquired;
-      slot.generation += 1;
+  std::string path_;
+  size_t bufferSize_;
+  uint64_t readerId_;
+  bool mapped_;
+  int fd_ = -1;
+  int64_t fileSize_ = 0;
+  int64_t position_ = 0;
+  bool closed_ = false;
+  bool closing_ = false;
+  bool scheduled_ = false;
+  bool eof_ = false;
+  size_t bytesRead_ = 0;
+  size_t reads_ = 0;
+  std::shared_ptr<react::CallInvoker> jsCallInvoker_;
+  mutable std::mutex mutex_;
+  std::deque<WorkItem> queue_;
+};
 
-      auto arrayBuffer = jsi::ArrayBuffer(runtime, slot.buffer);
-      auto uint8ArrayConstructor = requireGlobalFunction(runtime, "Uint8Array");
-      auto uint8Array = uint8ArrayConstructor.callAsConstructor(runtime, std::move(arrayBuffer)).asObject(runtime);
-      uint8Array.setExternalMemoryPressure(runtime, slot.buffer->size());
-      uint8Array.setProperty(runtime, "__rabbyNativeFSWriterId", static_cast<double>(writerId_));
-      uint8Array.setProperty(runtime, "__rabbyNativeFSSlot", static_cast<double>(index));
-      uint8Array.setProperty(runtime, "__rabbyNativeFSGeneration", static_cast<double>(slot.generation));
-      return uint8Array;
+// CRC-32 (IEEE), as used by zip; kept local so the iOS build needs no zlib.
+uint32_t crc32Update(uint32_t crc, const uint8_t* data, size_t length) {
+  static const std::array<uint32_t, 256> table = [] {
+    std::array<uint32_t, 256> entries{};
+    for (uint32_t index = 0; index < 256; index += 1) {
+      uint32_t value = index;
+      for (int bit = 0; bit < 8; bit += 1) {
+        value = (value & 1) ? 0xEDB88320u ^ (value >> 1) : value >> 1;
+      }
+      entries[index] = value;
     }
+    return entries;
+  }();
 
-    throw jsi::JSError(runtime, "RabbyNativeFS owned write stream has no free buffer");
+  crc = ~crc;
+  for (size_t index = 0; index < length; index += 1) {
+    crc = table[(crc ^ data[index]) & 0xFF] ^ (crc >> 8);
   }
+  return ~crc;
+}
 
-  size_t commit(
-      jsi::Runtime& runtime,
-      const jsi::Value* arguments,
-      size_t count) {
-    ensureOpen(runtime);
-    if (count < 1 || !arguments[0].isObject()) {
-      throw jsi::JSError(runtime, "RabbyNativeFS commit expects an owned Uint8Array");
-    }
-
-    auto object = arguments[0].asObject(runtime);
-    auto writerId = requireTokenNumber(runtime, object, "__rabbyNativeFSWriterId");
-    auto slotIndex = requireTokenNumber(runtime, object, "__rabbyNativeFSSlot");
-    auto generation = requireTokenNumber(runtime, object, "__rabbyNativeFSGeneration");
+int syncFileData(int fd) {
+#ifdef __APPLE__
+  return fsync(fd);
+#else
+  return fdatasync(fd);
+#endif
+}
 
-    if (writerId != writerId_) {
-      throw jsi::JSError(runtime, "RabbyNativeFS owned buffer belongs to another writer");
-    }
-    if (slotIndex >= slots_.size()) {
-      throw jsi::JSError(runtime, "RabbyNativeFS owned buffer slot is out of range");
-    }
+void syncDirectory(const std::string& path) {
+  int fd = open(path.c_str(), O_RDONLY | O_CLOEXEC);
+  if (fd != -1) {
+    // Some filesystems refuse fsync on directories; the records are still synced.
+    fsync(fd);
+    close(fd);
+  }
+}
 
-    auto& slot = slots_[static_cast<size_t>(slotIndex)];
-    if (slot.state != SlotState::Acquired || slot.generation != generation) {
-      throw jsi::JSError(runtime, "RabbyNativeFS owned buffer is not currently acquired");
-    }
+// Append log record: [length u32 LE][checksum u32 LE][payload]. The checksum
+// covers the length and the payload and is masked, so a zero-filled tail left
+// by a crash never reads back as a valid empty record.
+constexpr size_t kAppendLogHeaderBytes = 8;
+constexpr size_t kMaxAppendLogRecordBytes = 16 * 1024 * 1024;
+constexpr uint32_t kAppendLogChecksumMask = 0xA282EAD8u;
+constexpr const char* kAppendLogSegmentSuffix = ".log";
+
+uint32_t appendLogChecksum(uint32_t length, const uint8_t* payload, size_t payloadLength) {
+  uint8_t lengthBytes[4] = {
+      static_cast<uint8_t>(length),
+      static_cast<uint8_t>(length >> 8),
+      static_cast<uint8_t>(length >> 16),
+      static_cast<uint8_t>(length >> 24)};
+  uint32_t crc = crc32Update(0, lengthBytes, sizeof(lengthBytes));
+  return crc32Update(crc, payload, payloadLength) ^ kAppendLogChecksumMask;
+}
 
-    auto bytes = requireBytes(runtime, arguments[0]);
-    if (bytes.byteOffset != 0) {
-      throw jsi::JSError(runtime, "RabbyNativeFS commit expects the original acquired buffer, not a subarray");
-    }
-    if (bytes.buffer.data(runtime) != slot.buffer->data()) {
-      throw jsi::JSError(runtime, "RabbyNativeFS owned buffer storage mismatch");
-    }
+void encodeAppendLogHeader(uint8_t* header, uint32_t length, uint32_t checksum) {
+  for (int index = 0; index < 4; index += 1) {
+    header[index] = static_cast<uint8_t>(length >> (8 * index));
+    header[4 + index] = static_cast<uint8_t>(checksum >> (8 * index));
+  }
+}
 
-    size_t byteLength = bytes.byteLength;
-    if (count > 1 && !arguments[1].isUndefined() && !arguments[1].isNull()) {
-      if (!arguments[1].isNumber()) {
-        throw jsi::JSError(runtime, "RabbyNativeFS commit length must be a number");
-      }
-      auto length = arguments[1].asNumber();
-      if (length < 0) {
-        throw jsi::JSError(runtime, "RabbyNativeFS commit length must be >= 0");
-      }
-      byteLength = static_cast<size_t>(length);
-    }
-    if (byteLength > bytes.byteLength || byteLength > slot.buffer->size()) {
-      throw jsi::JSError(runtime, "RabbyNativeFS commit length exceeds the acquired buffer");
-    }
+uint32_t decodeUint32(const uint8_t* bytes) {
+  return static_cast<uint32_t>(bytes[0]) |
+      (static_cast<uint32_t>(bytes[1]) << 8) |
+      (static_cast<uint32_t>(bytes[2]) << 16) |
+      (static_cast<uint32_t>(bytes[3]) << 24);
+}
 
-    try {
-      writeAllToFd(fd_, slot.buffer->data(), byteLength, path_);
-    } catch (const std::exception& error) {
-      throw jsi::JSError(runtime, error.what());
-    }
+std::string appendLogSegmentName(uint64_t baseSequence) {
+  char name[32];
+  snprintf(name, sizeof(name), "%016llx%s", static_cast<unsigned long long>(baseSequence), kAppendLogSegmentSuffix);
+  return name;
+}
 
-    slot.state = SlotState::Free;
-    bytesWritten_ += byteLength;
-    commits_ += 1;
-    return bytesWritten_;
+// Base sequences of the segments in `directory`, oldest first.
+std::vector<uint64_t> listAppendLogSegments(const std::string& directory) {
+  std::vector<uint64_t> bases;
+  DIR* dir = opendir(directory.c_str());
+  if (dir == nullptr) {
+    throw std::runtime_error(errnoMessage("opendir", directory));
   }
-
-  void close(jsi::Runtime& runtime) {
-    if (closed_) {
-      return;
-    }
-    for (const auto& slot : slots_) {
-      if (slot.state == SlotState::Acquired) {
-        throw jsi::JSError(runtime, "RabbyNativeFS cannot close an owned write stream with acquired buffers");
-      }
+  while (dirent* entry = readdir(dir)) {
+    std::string name = entry->d_name;
+    if (name.size() != 16 + std::strlen(kAppendLogSegmentSuffix) ||
+        name.compare(16, std::string::npos, kAppendLogSegmentSuffix) != 0) {
+      continue;
     }
-    auto startedAt = SteadyClock::now();
-    if (closeFd() == -1) {
-      throw jsi::JSError(runtime, errnoMessage("close", path_));
+    char* end = nullptr;
+    unsigned long long base = std::strtoull(name.substr(0, 16).c_str(), &end, 16);
+    if (end != nullptr && *end == '\0') {
+      bases.push_back(static_cast<uint64_t>(base));
     }
-    closed_ = true;
-    logNativeFsOwnedClose(
-        writerId_,
-        path_,
-        bytesWritten_,
-        commits_,
-        durationUsSince(startedAt));
   }
+  closedir(dir);
+  std::sort(bases.begin(), bases.end());
+  return bases;
+}
 
-  jsi::Object stats(jsi::Runtime& runtime) const {
-    size_t freeBuffers = 0;
-    size_t acquiredBuffers = 0;
-    for (const auto& slot : slots_) {
-      if (slot.state == SlotState::Free) {
-        freeBuffers += 1;
-      } else {
-        acquiredBuffers += 1;
-      }
-    }
-
-    jsi::Object result(runtime);
-    result.setProperty(runtime, "writerId", static_cast<double>(writerId_));
-    result.setProperty(runtime, "path", jsi::String::createFromUtf8(runtime, path_));
-    result.setProperty(runtime, "bufferSize", static_cast<double>(bufferSize_));
-    result.setProperty(runtime, "bufferCount", static_cast<double>(slots_.size()));
-    result.setProperty(runtime, "freeBuffers", static_cast<double>(freeBuffers));
-    result.setProperty(runtime, "acquiredBuffers", static_cast<double>(acquiredBuffers));
-    result.setProperty(runtime, "bytesWritten", static_cast<double>(bytesWritten_));
-    result.setProperty(runtime, "commits", static_cast<double>(commits_));
-    result.setProperty(runtime, "closed", closed_);
-    return result;
+// Reads the record at `offset`; returns false at the end of the valid data,
+// whether that is a clean end, a torn tail or a checksum mismatch.
+bool readAppendLogRecord(
+    int fd,
+    int64_t offset,
+    int64_t fileSize,
+    bool readPayload,
+    std::vector<uint8_t>* payload,
+    uint32_t* length,
+    const std::string& path) {
+  if (fileSize - offset < static_cast<int64_t>(kAppendLogHeaderBytes)) {
+    return false;
+  }
+  uint8_t header[kAppendLogHeaderBytes];
+  if (preadFromFd(fd, header, sizeof(header), offset, path) != sizeof(header)) {
+    return false;
+  }
+  *length = decodeUint32(header);
+  if (*length > kMaxAppendLogRecordBytes ||
+      fileSize - offset - static_cast<int64_t>(kAppendLogHeaderBytes) < static_cast<int64_t>(*length)) {
+    return false;
+  }
+  if (!readPayload) {
+    return true;
+  }
+  payload->resize(*length);
+  if (preadFromFd(fd, payload->data(), *length, offset + kAppendLogHeaderBytes, path) != *length) {
+    return false;
   }
+  return appendLogChecksum(*length, payload->data(), payload->size()) == decodeUint32(header + 4);
+}
 
-  int closeFd() {
-    if (fd_ == -1) {
-      return 0;
+struct AppendLogSegment {
+  AppendLogSegment(std::string segmentPath, uint64_t base, int descriptor, int64_t bytes)
+      : path(std::move(segmentPath)), baseSequence(base), fd(descriptor), size(bytes) {}
+
+  ~AppendLogSegment() {
+    if (fd != -1) {
+      ::close(fd);
     }
-    int result = ::close(fd_);
-    fd_ = -1;
-    return result;
   }
 
-  std::string path_;
-  size_t bufferSize_;
-  uint64_t writerId_;
-  int fd_ = -1;
-  bool closed_ = false;
-  size_t bytesWritten_ = 0;
-  size_t commits_ = 0;
-  std::vector<Slot> slots_;
+  std::string path;
+  uint64_t baseSequence;
+  int fd;
+  int64_t size;
 };
 
-class AsyncWriteStreamHostObject final
+struct AppendLogStatsSnapshot {
+  uint64_t logId;
+  std::string directory;
+  size_t segmentCount;
+  uint64_t nextSequence;
+  uint64_t durableSequence;
+  size_t bytesAppended;
+  size_t records;
+  size_t syncs;
+  size_t recoveredRecords;
+  int64_t truncatedBytes;
+  bool closed;
+};
+
+// Append-only record log in a directory of segment files. append() frames
+// the record and writes it straight away with pwrite on the calling thread,
+// from a pooled buffer like the owned write stream or from any byte array.
+// flush() is the group commit: it resolves once everything appended before
+// the call is synced, and every flush() issued while a sync is running shares
+// the next one. Rotation does not sync; a flush syncs the sealed segments
+// oldest first, then the current one. On open every segment is verified and
+// the log is cut at the first torn or corrupt record, so a crash loses at
+// most the unsynced tail.
+class AppendLogHostObject final
     : public jsi::HostObject,
-      public std::enable_shared_from_this<AsyncWriteStreamHostObject> {
+      public std::enable_shared_from_this<AppendLogHostObject> {
  public:
-  AsyncWriteStreamHostObject(
-      std::string path,
+  AppendLogHostObject(
+      std::string directory,
+      size_t segmentBytes,
       size_t bufferSize,
       size_t bufferCount,
       std::shared_ptr<react::CallInvoker> jsCallInvoker)
-      : path_(std::move(path)),
+      : directory_(std::move(directory)),
+        segmentBytes_(segmentBytes),
         bufferSize_(bufferSize),
-        writerId_(nextOwnedWriterId()),
+        logId_(nextOwnedWriterId()),
         jsCallInvoker_(std::move(jsCallInvoker)) {
     if (!jsCallInvoker_) {
-      throw std::runtime_error("RabbyNativeFS async stream requires JS CallInvoker");
+      throw std::runtime_error("RabbyNativeFS append log requires JS CallInvoker");
+    }
+    if (mkdir(directory_.c_str(), 0777) == -1 && errno != EEXIST) {
+      throw std::runtime_error(errnoMessage("mkdir", directory_));
     }
 
-    fd_ = open(path_.c_str(), O_WRONLY | O_CREAT | O_TRUNC, 0666);
-    if (fd_ == -1) {
-      throw std::runtime_error(errnoMessage("open", path_));
+    segmentBases_ = listAppendLogSegments(directory_);
+    if (segmentBases_.empty()) {
+      current_ = openSegment(0, true);
+      segmentBases_.push_back(0);
+      syncDirectory(directory_);
+    } else {
+      recover();
     }
+    durableSequence_ = nextSequence_;
 
     slots_.reserve(bufferCount);
     for (size_t index = 0; index < bufferCount; index += 1) {
       slots_.push_back(Slot{std::make_shared<VectorBuffer>(bufferSize_)});
     }
-
-    worker_ = std::thread([this] { workerLoop(); });
-  }
-
-  ~AsyncWriteStreamHostObject() override {
-    shutdownWorker();
   }
 
   jsi::Value get(jsi::Runtime& runtime, const jsi::PropNameID& name) override {
@@ -954,7 +3629,7 @@ class AsyncWriteStreamHostObject final
     if (property == "acquireBuffer") {
       return wrapHostFunction(
           runtime,
-          "acquireAsyncWriteBuffer",
+          "acquireAppendLogBuffer",
           0,
           [this](jsi::Runtime& runtime,
                  const jsi::Value&,
@@ -963,52 +3638,94 @@ class AsyncWriteStreamHostObject final
             return jsi::Value(runtime, acquireBuffer(runtime));
           });
     }
-    if (property == "commit") {
+    if (property == "append") {
       return wrapHostFunction(
           runtime,
-          "commitAsyncWriteBuffer",
+          "appendLogRecord",
           2,
           [this](jsi::Runtime& runtime,
                  const jsi::Value&,
                  const jsi::Value* arguments,
                  size_t count) -> jsi::Value {
-            return jsi::Value(runtime, commit(runtime, arguments, count));
+            return jsi::Value(static_cast<double>(append(runtime, arguments, count)));
           });
     }
-    if (property == "commitBatch") {
+    if (property == "flush") {
       return wrapHostFunction(
           runtime,
-          "commitAsyncWriteBufferBatch",
-          2,
+          "flushAppendLog",
+          0,
+          [this](jsi::Runtime& runtime,
+                 const jsi::Value&,
+                 const jsi::Value*,
+                 size_t) -> jsi::Value {
+            auto self = shared_from_this();
+            return jsi::Value(
+                runtime,
+                makePromise(
+                    runtime,
+                    "flushAppendLogPromise",
+                    [self](std::shared_ptr<PromiseCallbacks> callbacks) {
+                      self->enqueueFlush(std::move(callbacks), false);
+                    }));
+          });
+    }
+    if (property == "close") {
+      return wrapHostFunction(
+          runtime,
+          "closeAppendLog",
+          0,
+          [this](jsi::Runtime& runtime,
+                 const jsi::Value&,
+                 const jsi::Value*,
+                 size_t) -> jsi::Value {
+            auto self = shared_from_this();
+            return jsi::Value(
+                runtime,
+                makePromise(
+                    runtime,
+                    "closeAppendLogPromise",
+                    [self](std::shared_ptr<PromiseCallbacks> callbacks) {
+                      self->enqueueFlush(std::move(callbacks), true);
+                    }));
+          });
+    }
+    if (property == "replay") {
+      return wrapHostFunction(
+          runtime,
+          "replayAppendLog",
+          1,
           [this](jsi::Runtime& runtime,
                  const jsi::Value&,
                  const jsi::Value* arguments,
                  size_t count) -> jsi::Value {
-            return jsi::Value(runtime, commitBatch(runtime, arguments, count));
+            int64_t fromSequence = count > 0 ? requireInt64(runtime, arguments[0], 0) : 0;
+            return jsi::Value(runtime, replay(runtime, fromSequence));
           });
     }
-    if (property == "close") {
+    if (property == "dropSegmentsBefore") {
       return wrapHostFunction(
           runtime,
-          "closeAsyncWriteStream",
-          0,
+          "dropAppendLogSegmentsBefore",
+          1,
           [this](jsi::Runtime& runtime,
                  const jsi::Value&,
-                 const jsi::Value*,
-                 size_t) -> jsi::Value {
-            return jsi::Value(runtime, close(runtime));
+                 const jsi::Value* arguments,
+                 size_t count) -> jsi::Value {
+            int64_t sequence = count > 0 ? requireInt64(runtime, arguments[0], 0) : 0;
+            return jsi::Value(static_cast<double>(dropSegmentsBefore(sequence)));
           });
     }
     if (property == "stats") {
       return wrapHostFunction(
           runtime,
-          "statsAsyncWriteStream",
+          "statsAppendLog",
           0,
           [this](jsi::Runtime& runtime,
                  const jsi::Value&,
                  const jsi::Value*,
                  size_t) -> jsi::Value {
-            return jsi::Value(runtime, makeWriteStreamStatsObject(runtime, statsSnapshot()));
+            return jsi::Value(runtime, makeStatsObject(runtime, statsSnapshot()));
           });
     }
     return jsi::Value::undefined();
@@ -1016,25 +3733,37 @@ class AsyncWriteStreamHostObject final
 
   std::vector<jsi::PropNameID> getPropertyNames(jsi::Runtime& runtime) override {
     std::vector<jsi::PropNameID> names;
-    names.reserve(5);
+    names.reserve(7);
     names.push_back(jsi::PropNameID::forAscii(runtime, "acquireBuffer"));
-    names.push_back(jsi::PropNameID::forAscii(runtime, "commit"));
-    names.push_back(jsi::PropNameID::forAscii(runtime, "commitBatch"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "append"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "flush"));
     names.push_back(jsi::PropNameID::forAscii(runtime, "close"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "replay"));
+    names.push_back(jsi::PropNameID::forAscii(runtime, "dropSegmentsBefore"));
     names.push_back(jsi::PropNameID::forAscii(runtime, "stats"));
     return names;
   }
 
+  static jsi::Object makeStatsObject(jsi::Runtime& runtime, const AppendLogStatsSnapshot& snapshot) {
+    jsi::Object result(runtime);
+    result.setProperty(runtime, "logId", static_cast<double>(snapshot.logId));
+    result.setProperty(runtime, "directory", jsi::String::createFromUtf8(runtime, snapshot.directory));
+    result.setProperty(runtime, "segmentCount", static_cast<double>(snapshot.segmentCount));
+    result.setProperty(runtime, "nextSequence", static_cast<double>(snapshot.nextSequence));
+    result.setProperty(runtime, "durableSequence", static_cast<double>(snapshot.durableSequence));
+    result.setProperty(runtime, "bytesAppended", static_cast<double>(snapshot.bytesAppended));
+    result.setProperty(runtime, "records", static_cast<double>(snapshot.records));
+    result.setProperty(runtime, "syncs", static_cast<double>(snapshot.syncs));
+    result.setProperty(runtime, "recoveredRecords", static_cast<double>(snapshot.recoveredRecords));
+    result.setProperty(runtime, "truncatedBytes", static_cast<double>(snapshot.truncatedBytes));
+    result.setProperty(runtime, "closed", snapshot.closed);
+    return result;
+  }
+
  private:
   enum class SlotState {
     Free,
     Acquired,
-    Pending,
-  };
-
-  enum class WorkType {
-    Commit,
-    Close,
   };
 
   struct Slot {
@@ -1043,552 +3772,454 @@ class AsyncWriteStreamHostObject final
     uint64_t generation = 0;
   };
 
-  struct PendingWrite {
-    size_t slotIndex = 0;
-    uint64_t generation = 0;
-    size_t byteLength = 0;
-  };
-
-  struct WorkItem {
-    WorkType type;
-    std::vector<PendingWrite> writes;
-    size_t byteLength = 0;
-    SteadyClock::time_point startedAt;
+  struct FlushWaiter {
+    uint64_t sequence;
     std::shared_ptr<PromiseCallbacks> callbacks;
   };
 
-  jsi::Object acquireBuffer(jsi::Runtime& runtime) {
-    std::shared_ptr<VectorBuffer> buffer;
-    size_t slotIndex = 0;
-    uint64_t generation = 0;
-
-    {
-      std::lock_guard<std::mutex> lock(mutex_);
-      ensureOpenLocked();
-
-      bool found = false;
-      for (size_t index = 0; index < slots_.size(); index += 1) {
-        auto& slot = slots_[index];
-        if (slot.state != SlotState::Free) {
-          continue;
-        }
-
-        slot.state = SlotState::Acquired;
-        slot.generation += 1;
-        buffer = slot.buffer;
-        slotIndex = index;
-        generation = slot.generation;
-        found = true;
-        break;
-      }
-
-      if (!found) {
-        throw jsi::JSError(runtime, "RabbyNativeFS async write stream has no free buffer");
-      }
-    }
-
-    auto arrayBuffer = jsi::ArrayBuffer(runtime, buffer);
-    auto uint8ArrayConstructor = requireGlobalFunction(runtime, "Uint8Array");
-    auto uint8Array = uint8ArrayConstructor.callAsConstructor(runtime, std::move(arrayBuffer)).asObject(runtime);
-    uint8Array.setExternalMemoryPressure(runtime, buffer->size());
-    uint8Array.setProperty(runtime, "__rabbyNativeFSWriterId", static_cast<double>(writerId_));
-    uint8Array.setProperty(runtime, "__rabbyNativeFSSlot", static_cast<double>(slotIndex));
-    uint8Array.setProperty(runtime, "__rabbyNativeFSGeneration", static_cast<double>(generation));
-    return uint8Array;
-  }
-
-  jsi::Object commit(
-      jsi::Runtime& runtime,
-      const jsi::Value* arguments,
-      size_t count) {
-    if (count < 1 || !arguments[0].isObject()) {
-      throw jsi::JSError(runtime, "RabbyNativeFS async commit expects an owned Uint8Array");
-    }
-
-    auto write = parsePendingWrite(
-        runtime,
-        arguments[0],
-        count > 1 ? &arguments[1] : nullptr);
-
-    auto self = shared_from_this();
-    return makePromise(
-        runtime,
-        "commitAsyncWriteBufferPromise",
-        [self, write](std::shared_ptr<PromiseCallbacks> callbacks) {
-          std::vector<PendingWrite> writes;
-          writes.push_back(write);
-          self->enqueueCommit(std::move(writes), std::move(callbacks));
-        });
-  }
-
-  jsi::Object commitBatch(
-      jsi::Runtime& runtime,
-      const jsi::Value* arguments,
-      size_t count) {
-    if (count < 1 || !arguments[0].isObject()) {
-      throw jsi::JSError(runtime, "RabbyNativeFS async commitBatch expects an array of owned Uint8Array buffers");
-    }
-
-    auto arrayObject = arguments[0].asObject(runtime);
-    if (!arrayObject.isArray(runtime)) {
-      throw jsi::JSError(runtime, "RabbyNativeFS async commitBatch expects an array of owned Uint8Array buffers");
-    }
-
-    bool hasLengthArray = false;
-    if (count > 1 && !arguments[1].isUndefined() && !arguments[1].isNull()) {
-      if (!arguments[1].isObject() || !arguments[1].asObject(runtime).isArray(runtime)) {
-        throw jsi::JSError(runtime, "RabbyNativeFS async commitBatch lengths must be an array");
-      }
-      hasLengthArray = true;
-    }
-
-    auto array = arrayObject.asArray(runtime);
-    auto length = array.length(runtime);
-    if (length == 0) {
-      throw jsi::JSError(runtime, "RabbyNativeFS async commitBatch expects at least one buffer");
+  std::shared_ptr<AppendLogSegment> openSegment(uint64_t baseSequence, bool create) {
+    std::string path = directory_ + "/" + appendLogSegmentName(baseSequence);
+    int fd = open(path.c_str(), O_RDWR | O_CLOEXEC | (create ? O_CREAT | O_EXCL : 0), 0666);
+    if (fd == -1) {
+      throw std::runtime_error(errnoMessage("open", path));
     }
-
-    std::vector<PendingWrite> writes;
-    writes.reserve(length);
-    for (size_t index = 0; index < length; index += 1) {
-      auto bufferValue = array.getValueAtIndex(runtime, index);
-      auto lengthValue = hasLengthArray
-          ? arguments[1].asObject(runtime).asArray(runtime).getValueAtIndex(runtime, index)
-          : jsi::Value::undefined();
-      writes.push_back(parsePendingWrite(
-          runtime,
-          bufferValue,
-          hasLengthArray ? &lengthValue : nullptr));
+    struct stat fileStat {};
+    if (fstat(fd, &fileStat) == -1) {
+      int savedErrno = errno;
+      ::close(fd);
+      errno = savedErrno;
+      throw std::runtime_error(errnoMessage("stat", path));
     }
-
-    auto self = shared_from_this();
-    return makePromise(
-        runtime,
-        "commitAsyncWriteBufferBatchPromise",
-        [self, writes = std::move(writes)](std::shared_ptr<PromiseCallbacks> callbacks) mutable {
-          self->enqueueCommit(std::move(writes), std::move(callbacks));
-        });
+    return std::make_shared<AppendLogSegment>(path, baseSequence, fd, static_cast<int64_t>(fileStat.st_size));
   }
 
-  PendingWrite parsePendingWrite(
-      jsi::Runtime& runtime,
-      const jsi::Value& bufferValue,
-      const jsi::Value* lengthValue) {
-    if (!bufferValue.isObject()) {
-      throw jsi::JSError(runtime, "RabbyNativeFS async commit expects an owned Uint8Array");
-    }
-
-    auto object = bufferValue.asObject(runtime);
-    auto writerId = requireTokenNumber(runtime, object, "__rabbyNativeFSWriterId");
-    auto slotIndex = requireTokenNumber(runtime, object, "__rabbyNativeFSSlot");
-    auto generation = requireTokenNumber(runtime, object, "__rabbyNativeFSGeneration");
-
-    if (writerId != writerId_) {
-      throw jsi::JSError(runtime, "RabbyNativeFS async buffer belongs to another writer");
-    }
-    if (slotIndex >= slots_.size()) {
-      throw jsi::JSError(runtime, "RabbyNativeFS async buffer slot is out of range");
-    }
-
-    std::shared_ptr<VectorBuffer> expectedBuffer;
-    {
-      std::lock_guard<std::mutex> lock(mutex_);
-      ensureOpenLocked();
-      auto& slot = slots_[static_cast<size_t>(slotIndex)];
-      expectedBuffer = slot.buffer;
-    }
-
-    auto bytes = requireBytes(runtime, bufferValue);
-    if (bytes.byteOffset != 0) {
-      throw jsi::JSError(runtime, "RabbyNativeFS async commit expects the original acquired buffer, not a subarray");
-    }
-    if (bytes.buffer.data(runtime) != expectedBuffer->data()) {
-      throw jsi::JSError(runtime, "RabbyNativeFS async buffer storage mismatch");
-    }
-
-    size_t byteLength = bytes.byteLength;
-    if (lengthValue != nullptr && !lengthValue->isUndefined() && !lengthValue->isNull()) {
-      if (!lengthValue->isNumber()) {
-        throw jsi::JSError(runtime, "RabbyNativeFS async commit length must be a number");
-      }
-      auto length = lengthValue->asNumber();
-      if (length < 0) {
-        throw jsi::JSError(runtime, "RabbyNativeFS async commit length must be >= 0");
+  // Rotation does not sync the segment it seals, so after power loss any
+  // segment may end in a torn record, not just the newest. Each one is
+  // checked oldest first: a sealed segment is intact when it holds exactly
+  // the records up to the next segment's base. The log is cut at the first
+  // one that does not, and the newer segments are removed. A flush only
+  // resolves after every older segment is synced, so nothing it reported
+  // durable is lost.
+  void recover() {
+    auto startedAt = SteadyClock::now();
+    std::vector<uint8_t> payload;
+    size_t index = 0;
+    for (;; index += 1) {
+      bool newest = index + 1 == segmentBases_.size();
+      auto segment = openSegment(segmentBases_[index], false);
+      uint64_t expected = newest
+          ? std::numeric_limits<uint64_t>::max()
+          : segmentBases_[index + 1] - segmentBases_[index];
+      int64_t offset = 0;
+      uint32_t length = 0;
+      uint64_t records = 0;
+      while (records < expected &&
+             readAppendLogRecord(segment->fd, offset, segment->size, true, &payload, &length, segment->path)) {
+        offset += static_cast<int64_t>(kAppendLogHeaderBytes + length);
+        records += 1;
       }
-      byteLength = static_cast<size_t>(length);
-    }
-    if (byteLength > bytes.byteLength || byteLength > expectedBuffer->size()) {
-      throw jsi::JSError(runtime, "RabbyNativeFS async commit length exceeds the acquired buffer");
-    }
-
-    return PendingWrite{
-        static_cast<size_t>(slotIndex),
-        generation,
-        byteLength};
-  }
-
-  jsi::Object close(jsi::Runtime& runtime) {
-    auto self = shared_from_this();
-    return makePromise(
-        runtime,
-        "closeAsyncWriteStreamPromise",
-        [self](std::shared_ptr<PromiseCallbacks> callbacks) {
-          self->enqueueClose(std::move(callbacks));
-        });
-  }
-
-  void enqueueCommit(
-      std::vector<PendingWrite> writes,
-      std::shared_ptr<PromiseCallbacks> callbacks) {
-    size_t totalByteLength = 0;
-    {
-      std::lock_guard<std::mutex> lock(mutex_);
-      ensureOpenLocked();
-
-      std::vector<bool> seenSlots(slots_.size(), false);
-      for (const auto& write : writes) {
-        if (write.slotIndex >= slots_.size()) {
-          throw std::runtime_error("RabbyNativeFS async buffer slot is out of range");
-        }
-        if (seenSlots[write.slotIndex]) {
-          throw std::runtime_error("RabbyNativeFS async commitBatch contains a duplicate buffer");
-        }
-        seenSlots[write.slotIndex] = true;
 
-        auto& slot = slots_[write.slotIndex];
-        if (slot.state != SlotState::Acquired || slot.generation != write.generation) {
-          throw std::runtime_error("RabbyNativeFS async buffer is not currently acquired");
+      if (offset < segment->size) {
+        if (ftruncate(segment->fd, static_cast<off_t>(offset)) == -1) {
+          throw std::runtime_error(errnoMessage("ftruncate", segment->path));
         }
-        totalByteLength += write.byteLength;
-      }
-
-      for (const auto& write : writes) {
-        slots_[write.slotIndex].state = SlotState::Pending;
-      }
-
-      queue_.push_back(WorkItem{
-          WorkType::Commit,
-          std::move(writes),
-          totalByteLength,
-          SteadyClock::now(),
-          std::move(callbacks)});
-    }
-    cv_.notify_one();
-  }
-
-  void enqueueClose(std::shared_ptr<PromiseCallbacks> callbacks) {
-    {
-      std::lock_guard<std::mutex> lock(mutex_);
-      if (closed_) {
-        throw std::runtime_error("RabbyNativeFS async write stream is already closed");
+        syncFileData(segment->fd);
+        truncatedBytes_ += segment->size - offset;
+        segment->size = offset;
       }
-      if (closing_) {
-        throw std::runtime_error("RabbyNativeFS async write stream close is already pending");
+      recoveredRecords_ += static_cast<size_t>(records);
+      if (newest || records < expected) {
+        current_ = std::move(segment);
+        nextSequence_ = current_->baseSequence + records;
+        break;
       }
-      for (const auto& slot : slots_) {
-        if (slot.state == SlotState::Acquired) {
-          throw std::runtime_error("RabbyNativeFS cannot close an async write stream with acquired buffers");
+    }
+
+    if (index + 1 < segmentBases_.size()) {
+      for (size_t later = index + 1; later < segmentBases_.size(); later += 1) {
+        std::string path = directory_ + "/" + appendLogSegmentName(segmentBases_[later]);
+        struct stat fileStat {};
+        if (stat(path.c_str(), &fileStat) == 0) {
+          truncatedBytes_ += static_cast<int64_t>(fileStat.st_size);
+        }
+        if (unlink(path.c_str()) == -1 && errno != ENOENT) {
+          throw std::runtime_error(errnoMessage("unlink", path));
         }
       }
+      segmentBases_.resize(index + 1);
+      syncDirectory(directory_);
+    }
+    logNativeFsInfo(
+        "append-log",
+        "recover",
+        current_->path,
+        static_cast<size_t>(truncatedBytes_),
+        durationUsSince(startedAt));
+  }
 
-      closing_ = true;
-      queue_.push_back(WorkItem{
-          WorkType::Close,
-          {},
-          0,
-          SteadyClock::now(),
-          std::move(callbacks)});
+  void ensureOpenLocked(jsi::Runtime& runtime) const {
+    if (closed_ || closing_ || !current_) {
+      throw jsi::JSError(runtime, "RabbyNativeFS append log is closed");
     }
-    cv_.notify_one();
   }
 
-  void workerLoop() {
-    for (;;) {
-      WorkItem item;
-      {
-        std::unique_lock<std::mutex> lock(mutex_);
-        cv_.wait(lock, [this] { return stopRequested_ || !queue_.empty(); });
-        if (queue_.empty()) {
-          if (stopRequested_) {
-            break;
-          }
+  jsi::Object acquireBuffer(jsi::Runtime& runtime) {
+    std::shared_ptr<VectorBuffer> buffer;
+    size_t slotIndex = 0;
+    uint64_t generation = 0;
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      ensureOpenLocked(runtime);
+      bool found = false;
+      for (size_t index = 0; index < slots_.size(); index += 1) {
+        auto& slot = slots_[index];
+        if (slot.state != SlotState::Free) {
           continue;
         }
-        item = std::move(queue_.front());
-        queue_.pop_front();
+        slot.state = SlotState::Acquired;
+        slot.generation += 1;
+        buffer = slot.buffer;
+        slotIndex = index;
+        generation = slot.generation;
+        found = true;
+        break;
       }
-
-      if (item.type == WorkType::Commit) {
-        processCommit(std::move(item));
-      } else {
-        processClose(std::move(item));
+      if (!found) {
+        throw jsi::JSError(runtime, "RabbyNativeFS append log has no free buffer");
       }
     }
+
+    auto arrayBuffer = jsi::ArrayBuffer(runtime, buffer);
+    auto uint8ArrayConstructor = requireGlobalFunction(runtime, "Uint8Array");
+    auto uint8Array = uint8ArrayConstructor.callAsConstructor(runtime, std::move(arrayBuffer)).asObject(runtime);
+    uint8Array.setExternalMemoryPressure(runtime, buffer->size());
+    uint8Array.setProperty(runtime, "__rabbyNativeFSWriterId", static_cast<double>(logId_));
+    uint8Array.setProperty(runtime, "__rabbyNativeFSSlot", static_cast<double>(slotIndex));
+    uint8Array.setProperty(runtime, "__rabbyNativeFSGeneration", static_cast<double>(generation));
+    return uint8Array;
   }
 
-  void processCommit(WorkItem item) {
-    try {
-      std::vector<std::pair<std::shared_ptr<VectorBuffer>, PendingWrite>> writes;
-      {
-        std::lock_guard<std::mutex> lock(mutex_);
-        writes.reserve(item.writes.size());
-        for (const auto& write : item.writes) {
-          writes.push_back({slots_[write.slotIndex].buffer, write});
-        }
-      }
+  // Returns the sequence number of the appended record.
+  uint64_t append(jsi::Runtime& runtime, const jsi::Value* arguments, size_t count) {
+    if (count < 1 || !arguments[0].isObject()) {
+      throw jsi::JSError(runtime, "RabbyNativeFS append expects a Uint8Array, ArrayBuffer or acquired buffer");
+    }
 
-      for (const auto& write : writes) {
-        writeAllToFd(fd_, write.first->data(), write.second.byteLength, path_);
+    auto object = arguments[0].asObject(runtime);
+    auto bytes = requireBytes(runtime, arguments[0]);
+    size_t byteLength = bytes.byteLength;
+    if (count > 1 && !arguments[1].isUndefined() && !arguments[1].isNull()) {
+      if (!arguments[1].isNumber() || arguments[1].asNumber() < 0) {
+        throw jsi::JSError(runtime, "RabbyNativeFS append length must be a number >= 0");
       }
+      byteLength = static_cast<size_t>(arguments[1].asNumber());
+    }
+    if (byteLength > bytes.byteLength) {
+      throw jsi::JSError(runtime, "RabbyNativeFS append length exceeds the buffer");
+    }
+    if (byteLength > kMaxAppendLogRecordBytes) {
+      throw jsi::JSError(runtime, "RabbyNativeFS append log record is too large");
+    }
 
-      size_t totalBytes = 0;
-      {
-        std::lock_guard<std::mutex> lock(mutex_);
-        for (const auto& write : item.writes) {
-          auto& slot = slots_[write.slotIndex];
-          if (slot.generation == write.generation && slot.state == SlotState::Pending) {
-            slot.state = SlotState::Free;
-          }
-        }
-        bytesWritten_ += item.byteLength;
-        commits_ += item.writes.size();
-        totalBytes = bytesWritten_;
+    const uint8_t* data = bytes.buffer.data(runtime) + bytes.byteOffset;
+    Slot* slot = nullptr;
+    std::lock_guard<std::mutex> lock(mutex_);
+    ensureOpenLocked(runtime);
+    if (object.hasProperty(runtime, "__rabbyNativeFSWriterId")) {
+      slot = &requireAcquiredSlot(runtime, object);
+      if (bytes.byteOffset != 0 || data != slot->buffer->data()) {
+        throw jsi::JSError(runtime, "RabbyNativeFS append expects the original acquired buffer, not a subarray");
       }
+    }
 
-      logNativeFsInfo(
-          "async-write",
-          item.writes.size() > 1 ? "commit-batch" : "commit",
-          path_,
-          item.byteLength,
-          durationUsSince(item.startedAt));
-      resolvePromiseNumber(jsCallInvoker_, std::move(item.callbacks), static_cast<double>(totalBytes));
+    auto startedAt = SteadyClock::now();
+    uint64_t sequence = 0;
+    try {
+      sequence = appendLocked(data, byteLength);
+      recordOperationSample("appendLog", byteLength, durationUsSince(startedAt), false);
     } catch (const std::exception& error) {
-      {
-        std::lock_guard<std::mutex> lock(mutex_);
-        for (const auto& write : item.writes) {
-          if (write.slotIndex < slots_.size()) {
-            slots_[write.slotIndex].state = SlotState::Free;
-          }
-        }
+      if (slot != nullptr) {
+        slot->state = SlotState::Free;
       }
-      logNativeFsError("asyncWriteCommit", path_, error.what());
-      rejectPromise(jsCallInvoker_, std::move(item.callbacks), error.what());
+      logNativeFsError("appendLog", current_->path, error.what());
+      throw jsi::JSError(runtime, error.what());
+    }
+    if (slot != nullptr) {
+      slot->state = SlotState::Free;
     }
-    cv_.notify_all();
+    return sequence;
   }
 
-  void processClose(WorkItem item) {
-    try {
-      if (fd_ != -1 && ::close(fd_) == -1) {
-        throw std::runtime_error(errnoMessage("close", path_));
-      }
-      fd_ = -1;
+  Slot& requireAcquiredSlot(jsi::Runtime& runtime, const jsi::Object& object) {
+    auto writerId = requireTokenNumber(runtime, object, "__rabbyNativeFSWriterId");
+    auto slotIndex = requireTokenNumber(runtime, object, "__rabbyNativeFSSlot");
+    auto generation = requireTokenNumber(runtime, object, "__rabbyNativeFSGeneration");
+    if (writerId != logId_) {
+      throw jsi::JSError(runtime, "RabbyNativeFS owned buffer belongs to another writer");
+    }
+    if (slotIndex >= slots_.size()) {
+      throw jsi::JSError(runtime, "RabbyNativeFS owned buffer slot is out of range");
+    }
+    auto& slot = slots_[static_cast<size_t>(slotIndex)];
+    if (slot.state != SlotState::Acquired || slot.generation != generation) {
+      throw jsi::JSError(runtime, "RabbyNativeFS owned buffer is not currently acquired");
+    }
+    return slot;
+  }
 
-      WriteStreamStatsSnapshot snapshot;
-      {
-        std::lock_guard<std::mutex> lock(mutex_);
-        closed_ = true;
-        closing_ = false;
-        stopRequested_ = true;
-        snapshot = statsSnapshotLocked();
-      }
+  uint64_t appendLocked(const uint8_t* data, size_t length) {
+    int64_t recordBytes = static_cast<int64_t>(kAppendLogHeaderBytes + length);
+    if (current_->size > 0 && current_->size + recordBytes > static_cast<int64_t>(segmentBytes_)) {
+      rotateLocked();
+    }
 
-      logNativeFsInfo(
-          "async-write",
-          "close",
-          path_,
-          snapshot.bytesWritten,
-          durationUsSince(item.startedAt));
-      resolvePromiseWriteStats(jsCallInvoker_, std::move(item.callbacks), std::move(snapshot));
-    } catch (const std::exception& error) {
-      logNativeFsError("asyncWriteClose", path_, error.what());
-      rejectPromise(jsCallInvoker_, std::move(item.callbacks), error.what());
+    uint8_t header[kAppendLogHeaderBytes];
+    encodeAppendLogHeader(header, static_cast<uint32_t>(length), appendLogChecksum(static_cast<uint32_t>(length), data, length));
+    int64_t offset = current_->size;
+    try {
+      pwriteAllToFd(current_->fd, header, sizeof(header), offset, current_->path);
+      pwriteAllToFd(current_->fd, data, length, offset + static_cast<int64_t>(sizeof(header)), current_->path);
+    } catch (...) {
+      // Leave no partial record behind for the next append to follow.
+      ftruncate(current_->fd, static_cast<off_t>(offset));
+      throw;
     }
-    cv_.notify_all();
+
+    current_->size += recordBytes;
+    bytesAppended_ += length;
+    records_ += 1;
+    return nextSequence_++;
   }
 
-  void ensureOpenLocked() const {
-    if (closed_ || closing_ || fd_ == -1) {
-      throw std::runtime_error("RabbyNativeFS async write stream is closed");
-    }
+  // Runs on the appending thread, so it only creates the next segment. The
+  // sealed one is synced by the next flush, before the segments after it;
+  // recover() copes with a sealed segment whose tail never reached disk.
+  void rotateLocked() {
+    auto startedAt = SteadyClock::now();
+    auto next = openSegment(nextSequence_, true);
+    unsynced_.push_back(std::move(current_));
+    current_ = std::move(next);
+    segmentBases_.push_back(nextSequence_);
+    directoryDirty_ = true;
+    logNativeFsInfo("append-log", "rotate", current_->path, 0, durationUsSince(startedAt));
   }
 
-  WriteStreamStatsSnapshot statsSnapshot() const {
+  void enqueueFlush(std::shared_ptr<PromiseCallbacks> callbacks, bool close) {
     std::lock_guard<std::mutex> lock(mutex_);
-    return statsSnapshotLocked();
+    if (closed_ || closing_) {
+      throw std::runtime_error("RabbyNativeFS append log is closed");
+    }
+    if (close) {
+      for (const auto& slot : slots_) {
+        if (slot.state == SlotState::Acquired) {
+          throw std::runtime_error("RabbyNativeFS cannot close an append log with acquired buffers");
+        }
+      }
+      closing_ = true;
+    }
+    waiters_.push_back(FlushWaiter{nextSequence_, std::move(callbacks)});
+    startSyncLocked();
   }
 
-  WriteStreamStatsSnapshot statsSnapshotLocked() const {
-    size_t freeBuffers = 0;
-    size_t acquiredBuffers = 0;
-    size_t pendingBuffers = 0;
-
-    for (const auto& slot : slots_) {
-      if (slot.state == SlotState::Free) {
-        freeBuffers += 1;
-      } else if (slot.state == SlotState::Acquired) {
-        acquiredBuffers += 1;
-      } else {
-        pendingBuffers += 1;
-      }
+  void startSyncLocked() {
+    if (syncInFlight_ || waiters_.empty()) {
+      return;
     }
+    syncInFlight_ = true;
+    // Oldest first, so a segment is only durable once those before it are.
+    std::vector<std::shared_ptr<AppendLogSegment>> segments = unsynced_;
+    segments.push_back(current_);
+    bool syncDirectoryEntry = directoryDirty_;
+    directoryDirty_ = false;
+    uint64_t sequence = nextSequence_;
 
-    return WriteStreamStatsSnapshot{
-        writerId_,
-        path_,
-        bufferSize_,
-        slots_.size(),
-        freeBuffers,
-        acquiredBuffers,
-        pendingBuffers,
-        bytesWritten_,
-        commits_,
-        closed_};
+    auto self = shared_from_this();
+    IOEngine::shared().submit(
+        IOKind::Sync,
+        [self, segments = std::move(segments), syncDirectoryEntry, sequence]() {
+          self->runSync(segments, syncDirectoryEntry, sequence);
+        });
   }
 
-  void shutdownWorker() {
+  void runSync(
+      const std::vector<std::shared_ptr<AppendLogSegment>>& segments,
+      bool syncDirectoryEntry,
+      uint64_t sequence) {
+    auto startedAt = SteadyClock::now();
+    std::string error;
+    size_t synced = 0;
+    for (const auto& segment : segments) {
+      if (syncFileData(segment->fd) == -1) {
+        error = errnoMessage("fsync", segment->path);
+        break;
+      }
+      synced += 1;
+    }
+    if (syncDirectoryEntry && error.empty()) {
+      syncDirectory(directory_);
+    }
+
+    std::vector<FlushWaiter> finished;
+    double durableSequence = 0;
     {
       std::lock_guard<std::mutex> lock(mutex_);
-      stopRequested_ = true;
+      syncInFlight_ = false;
+      syncs_ += 1;
+      // Sealed segments synced this round lead unsynced_; anything rotated
+      // since was appended after them.
+      size_t sealed = std::min(synced, segments.size() - 1);
+      unsynced_.erase(unsynced_.begin(), unsynced_.begin() + static_cast<std::ptrdiff_t>(sealed));
+      if (error.empty()) {
+        durableSequence_ = std::max(durableSequence_, sequence);
+      } else {
+        directoryDirty_ = directoryDirty_ || syncDirectoryEntry;
+      }
+      durableSequence = static_cast<double>(durableSequence_);
+
+      auto split = std::stable_partition(
+          waiters_.begin(),
+          waiters_.end(),
+          [sequence](const FlushWaiter& waiter) { return waiter.sequence > sequence; });
+      finished.assign(std::make_move_iterator(split), std::make_move_iterator(waiters_.end()));
+      waiters_.erase(split, waiters_.end());
+
+      if (closing_ && waiters_.empty() && error.empty()) {
+        closed_ = true;
+        closing_ = false;
+        current_.reset();
+        unsynced_.clear();
+      } else if (closing_ && !error.empty()) {
+        closing_ = false;
+      }
+      startSyncLocked();
     }
-    cv_.notify_all();
-    if (worker_.joinable() && worker_.get_id() != std::this_thread::get_id()) {
-      worker_.join();
+
+    logNativeFsInfo(
+        "append-log",
+        "sync",
+        directory_,
+        segments.size(),
+        durationUsSince(startedAt));
+    for (auto& waiter : finished) {
+      if (error.empty()) {
+        resolvePromiseNumber(jsCallInvoker_, std::move(waiter.callbacks), durableSequence);
+      } else {
+        rejectPromise(jsCallInvoker_, std::move(waiter.callbacks), error);
+      }
     }
-    if (fd_ != -1) {
-      ::close(fd_);
-      fd_ = -1;
+  }
+
+  jsi::Object replay(jsi::Runtime& runtime, int64_t fromSequence);
+
+  size_t dropSegmentsBefore(int64_t sequence) {
+    std::lock_guard<std::mutex> lock(mutex_);
+    size_t dropped = 0;
+    // A segment can go once the next one starts at or before `sequence`; the
+    // current segment always stays.
+    while (segmentBases_.size() > 1 && static_cast<int64_t>(segmentBases_[1]) <= sequence) {
+      std::string path = directory_ + "/" + appendLogSegmentName(segmentBases_.front());
+      if (unlink(path.c_str()) == -1 && errno != ENOENT) {
+        break;
+      }
+      segmentBases_.erase(segmentBases_.begin());
+      dropped += 1;
+    }
+    if (dropped > 0) {
+      directoryDirty_ = true;
     }
+    return dropped;
   }
 
-  std::string path_;
+  AppendLogStatsSnapshot statsSnapshot() const {
+    std::lock_guard<std::mutex> lock(mutex_);
+    return AppendLogStatsSnapshot{
+        logId_,
+        directory_,
+        segmentBases_.size(),
+        nextSequence_,
+        durableSequence_,
+        bytesAppended_,
+        records_,
+        syncs_,
+        recoveredRecords_,
+        truncatedBytes_,
+        closed_};
+  }
+
+  std::string directory_;
+  size_t segmentBytes_;
   size_t bufferSize_;
-  uint64_t writerId_;
-  int fd_ = -1;
-  bool closed_ = false;
-  bool closing_ = false;
-  bool stopRequested_ = false;
-  size_t bytesWritten_ = 0;
-  size_t commits_ = 0;
-  std::vector<Slot> slots_;
+  uint64_t logId_;
   std::shared_ptr<react::CallInvoker> jsCallInvoker_;
   mutable std::mutex mutex_;
-  std::condition_variable cv_;
-  std::deque<WorkItem> queue_;
-  std::thread worker_;
+  std::shared_ptr<AppendLogSegment> current_;
+  // Sealed by rotation and not yet synced, oldest first.
+  std::vector<std::shared_ptr<AppendLogSegment>> unsynced_;
+  std::vector<uint64_t> segmentBases_;
+  std::vector<FlushWaiter> waiters_;
+  std::vector<Slot> slots_;
+  uint64_t nextSequence_ = 0;
+  uint64_t durableSequence_ = 0;
+  bool syncInFlight_ = false;
+  bool directoryDirty_ = false;
+  bool closing_ = false;
+  bool closed_ = false;
+  size_t bytesAppended_ = 0;
+  size_t records_ = 0;
+  size_t syncs_ = 0;
+  size_t recoveredRecords_ = 0;
+  int64_t truncatedBytes_ = 0;
 };
 
-uint64_t nextAsyncReaderId() {
-  static uint64_t nextId = 1;
-  return nextId++;
-}
-
-class AsyncReadStreamHostObject final
-    : public jsi::HostObject,
-      public std::enable_shared_from_this<AsyncReadStreamHostObject> {
+// Replays an append log's records in sequence order from the segments that
+// existed when it was created. Stops at the first torn or corrupt record.
+class AppendLogReaderHostObject final : public jsi::HostObject {
  public:
-  AsyncReadStreamHostObject(
-      std::string path,
-      size_t bufferSize,
-      std::shared_ptr<react::CallInvoker> jsCallInvoker)
-      : path_(std::move(path)),
-        bufferSize_(bufferSize),
-        readerId_(nextAsyncReaderId()),
-        jsCallInvoker_(std::move(jsCallInvoker)) {
-    if (!jsCallInvoker_) {
-      throw std::runtime_error("RabbyNativeFS async stream requires JS CallInvoker");
-    }
-
-    fd_ = open(path_.c_str(), O_RDONLY);
-    if (fd_ == -1) {
-      throw std::runtime_error(errnoMessage("open", path_));
+  AppendLogReaderHostObject(std::string directory, uint64_t fromSequence)
+      : directory_(std::move(directory)),
+        bases_(listAppendLogSegments(directory_)),
+        nextSequence_(fromSequence) {
+    // Skip whole segments that end before `fromSequence`.
+    while (segmentIndex_ + 1 < bases_.size() && bases_[segmentIndex_ + 1] <= fromSequence) {
+      segmentIndex_ += 1;
     }
-
-    worker_ = std::thread([this] { workerLoop(); });
   }
 
-  ~AsyncReadStreamHostObject() override {
-    shutdownWorker();
+  ~AppendLogReaderHostObject() override {
+    closeSegment();
   }
 
   jsi::Value get(jsi::Runtime& runtime, const jsi::PropNameID& name) override {
     auto property = name.utf8(runtime);
-    if (property == "readChunk") {
-      return wrapHostFunction(
-          runtime,
-          "readAsyncChunk",
-          1,
-          [this](jsi::Runtime& runtime,
-                 const jsi::Value&,
-                 const jsi::Value* arguments,
-                 size_t count) -> jsi::Value {
-            size_t length = count > 0
-                ? requirePositiveSize(runtime, arguments[0], bufferSize_, "length")
-                : bufferSize_;
-            auto self = shared_from_this();
-            return jsi::Value(
-                runtime,
-                makePromise(
-                    runtime,
-                    "readAsyncChunkPromise",
-                    [self, length](std::shared_ptr<PromiseCallbacks> callbacks) {
-                      self->enqueueRead(length, std::move(callbacks));
-                    }));
-          });
-    }
-    if (property == "readBatch") {
-      return wrapHostFunction(
-          runtime,
-          "readAsyncBatch",
-          1,
-          [this](jsi::Runtime& runtime,
-                 const jsi::Value&,
-                 const jsi::Value* arguments,
-                 size_t count) -> jsi::Value {
-            size_t length = count > 0
-                ? requirePositiveSize(runtime, arguments[0], bufferSize_, "length")
-                : bufferSize_;
-            auto self = shared_from_this();
-            return jsi::Value(
-                runtime,
-                makePromise(
-                    runtime,
-                    "readAsyncBatchPromise",
-                    [self, length](std::shared_ptr<PromiseCallbacks> callbacks) {
-                      self->enqueueRead(length, std::move(callbacks));
-                    }));
-          });
-    }
-    if (property == "close") {
+    if (property == "next") {
       return wrapHostFunction(
           runtime,
-          "closeAsyncReadStream",
+          "nextAppendLogRecord",
           0,
           [this](jsi::Runtime& runtime,
                  const jsi::Value&,
                  const jsi::Value*,
                  size_t) -> jsi::Value {
-            auto self = shared_from_this();
-            return jsi::Value(
-                runtime,
-                makePromise(
-                    runtime,
-                    "closeAsyncReadStreamPromise",
-                    [self](std::shared_ptr<PromiseCallbacks> callbacks) {
-                      self->enqueueClose(std::move(callbacks));
-                    }));
+            try {
+              return next(runtime);
+            } catch (const std::exception& error) {
+              logNativeFsError("replayAppendLog", directory_, error.what());
+              throw jsi::JSError(runtime, error.what());
+            }
           });
     }
-    if (property == "stats") {
+    if (property == "close") {
       return wrapHostFunction(
           runtime,
-          "statsAsyncReadStream",
+          "closeAppendLogReader",
           0,
-          [this](jsi::Runtime& runtime,
+          [this](jsi::Runtime&,
                  const jsi::Value&,
                  const jsi::Value*,
                  size_t) -> jsi::Value {
-            return jsi::Value(runtime, makeReadStreamStatsObject(runtime, statsSnapshot()));
+            done_ = true;
+            closeSegment();
+            return jsi::Value::undefined();
           });
     }
     return jsi::Value::undefined();
@@ -1596,250 +4227,381 @@ class AsyncReadStreamHostObject final
 
   std::vector<jsi::PropNameID> getPropertyNames(jsi::Runtime& runtime) override {
     std::vector<jsi::PropNameID> names;
-    names.reserve(4);
-    names.push_back(jsi::PropNameID::forAscii(runtime, "readChunk"));
-    names.push_back(jsi::PropNameID::forAscii(runtime, "readBatch"));
+    names.reserve(2);
+    names.push_back(jsi::PropNameID::forAscii(runtime, "next"));
     names.push_back(jsi::PropNameID::forAscii(runtime, "close"));
-    names.push_back(jsi::PropNameID::forAscii(runtime, "stats"));
     return names;
   }
 
  private:
-  enum class WorkType {
-    Read,
-    Close,
-  };
+  // { sequence, bytes } for the next record, or null at the end.
+  jsi::Value next(jsi::Runtime& runtime) {
+    while (!done_ && segmentIndex_ < bases_.size()) {
+      if (fd_ == -1 && !openSegment()) {
+        segmentIndex_ += 1;
+        continue;
+      }
 
-  struct WorkItem {
-    WorkType type;
-    size_t length = 0;
-    SteadyClock::time_point startedAt;
-    std::shared_ptr<PromiseCallbacks> callbacks;
-  };
+      uint32_t length = 0;
+      bool wanted = sequence_ >= nextSequence_;
+      if (!readAppendLogRecord(fd_, offset_, fileSize_, wanted, &payload_, &length, path_)) {
+        if (offset_ < fileSize_) {
+          // Torn or corrupt: nothing after it is part of the log.
+          break;
+        }
+        closeSegment();
+        segmentIndex_ += 1;
+        continue;
+      }
 
-  void enqueueRead(size_t length, std::shared_ptr<PromiseCallbacks> callbacks) {
-    {
-      std::lock_guard<std::mutex> lock(mutex_);
-      ensureOpenLocked();
-      queue_.push_back(WorkItem{
-          WorkType::Read,
-          length,
-          SteadyClock::now(),
-          std::move(callbacks)});
+      offset_ += static_cast<int64_t>(kAppendLogHeaderBytes + length);
+      uint64_t sequence = sequence_++;
+      if (!wanted) {
+        continue;
+      }
+      nextSequence_ = sequence + 1;
+
+      jsi::Object record(runtime);
+      record.setProperty(runtime, "sequence", static_cast<double>(sequence));
+      record.setProperty(runtime, "bytes", makeUint8Array(runtime, std::move(payload_)));
+      payload_ = std::vector<uint8_t>();
+      return jsi::Value(runtime, record);
     }
-    cv_.notify_one();
+
+    done_ = true;
+    closeSegment();
+    return jsi::Value::null();
   }
 
-  void enqueueClose(std::shared_ptr<PromiseCallbacks> callbacks) {
-    {
-      std::lock_guard<std::mutex> lock(mutex_);
-      if (closed_) {
-        throw std::runtime_error("RabbyNativeFS async read stream is already closed");
-      }
-      if (closing_) {
-        throw std::runtime_error("RabbyNativeFS async read stream close is already pending");
-      }
-      closing_ = true;
-      queue_.push_back(WorkItem{
-          WorkType::Close,
-          0,
-          SteadyClock::now(),
-          std::move(callbacks)});
+  bool openSegment() {
+    path_ = directory_ + "/" + appendLogSegmentName(bases_[segmentIndex_]);
+    fd_ = open(path_.c_str(), O_RDONLY | O_CLOEXEC);
+    if (fd_ == -1) {
+      // Dropped since the reader was created.
+      return false;
     }
-    cv_.notify_one();
+    struct stat fileStat {};
+    if (fstat(fd_, &fileStat) == -1) {
+      closeSegment();
+      return false;
+    }
+    fileSize_ = static_cast<int64_t>(fileStat.st_size);
+    offset_ = 0;
+    sequence_ = bases_[segmentIndex_];
+    return true;
   }
 
-  void workerLoop() {
-    for (;;) {
-      WorkItem item;
-      {
-        std::unique_lock<std::mutex> lock(mutex_);
-        cv_.wait(lock, [this] { return stopRequested_ || !queue_.empty(); });
-        if (queue_.empty()) {
-          if (stopRequested_) {
-            break;
-          }
-          continue;
-        }
-        item = std::move(queue_.front());
-        queue_.pop_front();
-      }
-
-      if (item.type == WorkType::Read) {
-        processRead(std::move(item));
-      } else {
-        processClose(std::move(item));
-      }
+  void closeSegment() {
+    if (fd_ != -1) {
+      ::close(fd_);
+      fd_ = -1;
     }
   }
 
-  void processRead(WorkItem item) {
-    try {
-      {
-        std::lock_guard<std::mutex> lock(mutex_);
-        if (eof_) {
-          resolvePromiseNull(jsCallInvoker_, std::move(item.callbacks));
-          return;
-        }
-      }
+  std::string directory_;
+  std::vector<uint64_t> bases_;
+  uint64_t nextSequence_;
+  size_t segmentIndex_ = 0;
+  std::string path_;
+  int fd_ = -1;
+  int64_t fileSize_ = 0;
+  int64_t offset_ = 0;
+  uint64_t sequence_ = 0;
+  bool done_ = false;
+  std::vector<uint8_t> payload_;
+};
 
-      std::vector<uint8_t> bytes(item.length);
-      size_t totalRead = 0;
-      while (totalRead < bytes.size()) {
-        ssize_t readCount = ::read(fd_, bytes.data() + totalRead, bytes.size() - totalRead);
-        if (readCount == -1) {
-          if (errno == EINTR) {
-            continue;
-          }
-          throw std::runtime_error(errnoMessage("read", path_));
-        }
-        if (readCount == 0) {
-          break;
-        }
-        totalRead += static_cast<size_t>(readCount);
-      }
+jsi::Object AppendLogHostObject::replay(jsi::Runtime& runtime, int64_t fromSequence) {
+  auto reader = std::make_shared<AppendLogReaderHostObject>(
+      directory_,
+      static_cast<uint64_t>(std::max<int64_t>(0, fromSequence)));
+  return jsi::Object::createFromHostObject(runtime, reader);
+}
 
-      if (totalRead == 0) {
-        {
-          std::lock_guard<std::mutex> lock(mutex_);
-          eof_ = true;
-        }
-        logNativeFsInfo(
-            "async-read",
-            "read-eof",
-            path_,
-            0,
-            durationUsSince(item.startedAt));
-        resolvePromiseNull(jsCallInvoker_, std::move(item.callbacks));
-        return;
-      }
+jsi::Value wrapHostFunction(
+    jsi::Runtime& runtime,
+    const char* name,
+    unsigned int argCount,
+    jsi::HostFunctionType function) {
+  return jsi::Value(
+      runtime,
+      jsi::Function::createFromHostFunction(
+          runtime,
+          jsi::PropNameID::forAscii(runtime, name),
+          argCount,
+          std::move(function)));
+}
 
-      if (totalRead != bytes.size()) {
-        bytes.resize(totalRead);
-      }
-      {
-        std::lock_guard<std::mutex> lock(mutex_);
-        bytesRead_ += totalRead;
-        reads_ += 1;
-      }
+jsi::Array makeBucketArray(jsi::Runtime& runtime, const uint64_t* buckets, size_t count) {
+  jsi::Array result(runtime, count);
+  for (size_t index = 0; index < count; index += 1) {
+    result.setValueAtIndex(runtime, index, static_cast<double>(buckets[index]));
+  }
+  return result;
+}
 
-      logNativeFsInfo(
-          "async-read",
-          "read",
-          path_,
-          totalRead,
-          durationUsSince(item.startedAt));
-      resolvePromiseBytes(jsCallInvoker_, std::move(item.callbacks), std::move(bytes));
-    } catch (const std::exception& error) {
-      logNativeFsError("asyncReadChunk", path_, error.what());
-      rejectPromise(jsCallInvoker_, std::move(item.callbacks), error.what());
-    }
+jsi::Object makeIOEngineStatsObject(jsi::Runtime& runtime, const IOEngineSnapshot& snapshot) {
+  jsi::Object result(runtime);
+  result.setProperty(runtime, "backend", jsi::String::createFromAscii(runtime, "pread"));
+  result.setProperty(runtime, "workers", static_cast<double>(snapshot.workers));
+  result.setProperty(runtime, "queueDepth", static_cast<double>(snapshot.queueDepth));
+  result.setProperty(runtime, "maxQueueDepth", static_cast<double>(snapshot.maxQueueDepth));
+  result.setProperty(runtime, "submitted", static_cast<double>(snapshot.submitted));
+  result.setProperty(runtime, "completed", static_cast<double>(snapshot.completed));
+  result.setProperty(
+      runtime,
+      "queueDepthHistogram",
+      makeBucketArray(runtime, snapshot.queueDepthBuckets, kQueueDepthBuckets));
+
+  jsi::Object operations(runtime);
+  for (size_t kind = 0; kind < static_cast<size_t>(IOKind::Count); kind += 1) {
+    const auto& stats = snapshot.kinds[kind];
+    jsi::Object item(runtime);
+    item.setProperty(runtime, "count", static_cast<double>(stats.count));
+    item.setProperty(runtime, "totalUs", static_cast<double>(stats.totalRunUs));
+    item.setProperty(runtime, "maxUs", static_cast<double>(stats.maxRunUs));
+    item.setProperty(
+        runtime,
+        "latencyHistogramUs",
+        makeBucketArray(runtime, stats.runBuckets, kLatencyBuckets));
+    item.setProperty(
+        runtime,
+        "queueWaitHistogramUs",
+        makeBucketArray(runtime, stats.waitBuckets, kLatencyBuckets));
+    operations.setProperty(runtime, ioKindName(static_cast<IOKind>(kind)), item);
   }
+  result.setProperty(runtime, "operations", operations);
+  return result;
+}
 
-  void processClose(WorkItem item) {
-    try {
-      if (fd_ != -1 && ::close(fd_) == -1) {
-        throw std::runtime_error(errnoMessage("close", path_));
-      }
-      fd_ = -1;
+struct OperationHistogramSnapshot {
+  std::string name;
+  uint64_t count;
+  uint64_t errors;
+  uint64_t totalUs;
+  uint64_t maxUs;
+  uint64_t totalBytes;
+  uint64_t maxBytes;
+  std::array<uint32_t, kHistogramBuckets> latencyBuckets;
+  std::array<uint32_t, kHistogramBuckets> sizeBuckets;
+};
 
-      ReadStreamStatsSnapshot snapshot;
-      {
-        std::lock_guard<std::mutex> lock(mutex_);
-        closed_ = true;
-        closing_ = false;
-        stopRequested_ = true;
-        snapshot = statsSnapshotLocked();
-      }
+std::vector<OperationHistogramSnapshot> snapshotOperationHistograms() {
+  std::vector<OperationHistogramSnapshot> result;
+  for (const auto& entry : operationHistograms) {
+    const char* name = entry.name.load(std::memory_order_acquire);
+    if (name == nullptr) {
+      break;
+    }
+    OperationHistogramSnapshot item{};
+    item.name = name;
+    item.count = entry.count.load(std::memory_order_relaxed);
+    item.errors = entry.errors.load(std::memory_order_relaxed);
+    item.totalUs = entry.totalUs.load(std::memory_order_relaxed);
+    item.maxUs = entry.maxUs.load(std::memory_order_relaxed);
+    item.totalBytes = entry.totalBytes.load(std::memory_order_relaxed);
+    item.maxBytes = entry.maxBytes.load(std::memory_order_relaxed);
+    for (size_t index = 0; index < kHistogramBuckets; index += 1) {
+      item.latencyBuckets[index] = entry.latencyBuckets[index].load(std::memory_order_relaxed);
+      item.sizeBuckets[index] = entry.sizeBuckets[index].load(std::memory_order_relaxed);
+    }
+    if (item.count > 0 || item.errors > 0) {
+      result.push_back(std::move(item));
+    }
+  }
+  return result;
+}
 
-      logNativeFsInfo(
-          "async-read",
-          "close",
-          path_,
-          snapshot.bytesRead,
-          durationUsSince(item.startedAt));
-      resolvePromiseReadStats(jsCallInvoker_, std::move(item.callbacks), std::move(snapshot));
-    } catch (const std::exception& error) {
-      logNativeFsError("asyncReadClose", path_, error.what());
-      rejectPromise(jsCallInvoker_, std::move(item.callbacks), error.what());
+void resetOperationHistograms() {
+  for (auto& entry : operationHistograms) {
+    if (entry.name.load(std::memory_order_acquire) == nullptr) {
+      break;
+    }
+    entry.count.store(0, std::memory_order_relaxed);
+    entry.errors.store(0, std::memory_order_relaxed);
+    entry.totalUs.store(0, std::memory_order_relaxed);
+    entry.maxUs.store(0, std::memory_order_relaxed);
+    entry.totalBytes.store(0, std::memory_order_relaxed);
+    entry.maxBytes.store(0, std::memory_order_relaxed);
+    for (size_t index = 0; index < kHistogramBuckets; index += 1) {
+      entry.latencyBuckets[index].store(0, std::memory_order_relaxed);
+      entry.sizeBuckets[index].store(0, std::memory_order_relaxed);
+    }
+  }
+}
+
+// Lower bound of the bucket holding the given fraction of the samples.
+uint64_t histogramPercentile(const std::array<uint32_t, kHistogramBuckets>& buckets, double fraction) {
+  uint64_t total = 0;
+  for (auto count : buckets) {
+    total += count;
+  }
+  if (total == 0) {
+    return 0;
+  }
+  uint64_t rank = static_cast<uint64_t>(fraction * static_cast<double>(total - 1)) + 1;
+  uint64_t seen = 0;
+  for (size_t index = 0; index < kHistogramBuckets; index += 1) {
+    seen += buckets[index];
+    if (seen >= rank) {
+      return histogramBucketLowerBound(index);
     }
-    cv_.notify_all();
   }
+  return histogramBucketLowerBound(kHistogramBuckets - 1);
+}
+
+jsi::Object makeOperationStatsObject(
+    jsi::Runtime& runtime,
+    const std::vector<OperationHistogramSnapshot>& histograms) {
+  jsi::Object result(runtime);
+  for (const auto& histogram : histograms) {
+    jsi::Object item(runtime);
+    item.setProperty(runtime, "count", static_cast<double>(histogram.count));
+    item.setProperty(runtime, "errorCount", static_cast<double>(histogram.errors));
+    item.setProperty(runtime, "totalUs", static_cast<double>(histogram.totalUs));
+    item.setProperty(runtime, "maxUs", static_cast<double>(histogram.maxUs));
+    item.setProperty(runtime, "p50Us", static_cast<double>(histogramPercentile(histogram.latencyBuckets, 0.5)));
+    item.setProperty(runtime, "p90Us", static_cast<double>(histogramPercentile(histogram.latencyBuckets, 0.9)));
+    item.setProperty(runtime, "p99Us", static_cast<double>(histogramPercentile(histogram.latencyBuckets, 0.99)));
+    item.setProperty(runtime, "totalBytes", static_cast<double>(histogram.totalBytes));
+    item.setProperty(runtime, "maxBytes", static_cast<double>(histogram.maxBytes));
+    item.setProperty(runtime, "p50Bytes", static_cast<double>(histogramPercentile(histogram.sizeBuckets, 0.5)));
+    result.setProperty(runtime, histogram.name.c_str(), item);
+  }
+  return result;
+}
 
-  void ensureOpenLocked() const {
-    if (closed_ || closing_ || fd_ == -1) {
-      throw std::runtime_error("RabbyNativeFS async read stream is closed");
-    }
+class BinaryWriter {
+ public:
+  void u8(uint8_t value) {
+    bytes_.push_back(value);
   }
 
-  ReadStreamStatsSnapshot statsSnapshot() const {
-    std::lock_guard<std::mutex> lock(mutex_);
-    return statsSnapshotLocked();
+  void u16(uint16_t value) {
+    put(value, 2);
   }
 
-  ReadStreamStatsSnapshot statsSnapshotLocked() const {
-    return ReadStreamStatsSnapshot{
-        readerId_,
-        path_,
-        bufferSize_,
-        bytesRead_,
-        reads_,
-        closed_,
-        eof_};
+  void u32(uint32_t value) {
+    put(value, 4);
   }
 
-  void shutdownWorker() {
-    {
-      std::lock_guard<std::mutex> lock(mutex_);
-      stopRequested_ = true;
-    }
-    cv_.notify_all();
-    if (worker_.joinable() && worker_.get_id() != std::this_thread::get_id()) {
-      worker_.join();
-    }
-    if (fd_ != -1) {
-      ::close(fd_);
-      fd_ = -1;
+  void u64(uint64_t value) {
+    put(value, 8);
+  }
+
+  // Strings are length-prefixed with one byte and cut at 255 bytes.
+  void string(const std::string& value) {
+    size_t length = std::min<size_t>(value.size(), 255);
+    u8(static_cast<uint8_t>(length));
+    bytes_.insert(bytes_.end(), value.begin(), value.begin() + static_cast<std::ptrdiff_t>(length));
+  }
+
+  std::vector<uint8_t> take() {
+    return std::move(bytes_);
+  }
+
+ private:
+  void put(uint64_t value, int width) {
+    for (int index = 0; index < width; index += 1) {
+      bytes_.push_back(static_cast<uint8_t>(value >> (8 * index)));
     }
   }
 
-  std::string path_;
-  size_t bufferSize_;
-  uint64_t readerId_;
-  int fd_ = -1;
-  bool closed_ = false;
-  bool closing_ = false;
-  bool stopRequested_ = false;
-  bool eof_ = false;
-  size_t bytesRead_ = 0;
-  size_t reads_ = 0;
-  std::shared_ptr<react::CallInvoker> jsCallInvoker_;
-  mutable std::mutex mutex_;
-  std::condition_variable cv_;
-  std::deque<WorkItem> queue_;
-  std::thread worker_;
+  std::vector<uint8_t> bytes_;
 };
 
-jsi::Value wrapHostFunction(
+void writeSparseHistogram(BinaryWriter& writer, const std::array<uint32_t, kHistogramBuckets>& buckets) {
+  uint16_t used = 0;
+  for (auto count : buckets) {
+    used += count != 0 ? 1 : 0;
+  }
+  writer.u16(used);
+  for (size_t index = 0; index < kHistogramBuckets; index += 1) {
+    if (buckets[index] != 0) {
+      writer.u16(static_cast<uint16_t>(index));
+      writer.u32(buckets[index]);
+    }
+  }
+}
+
+// Little-endian layout, decoded by decodeDiagnosticsSnapshot in FS.common.js:
+//   "RNFD" u16 version u16 subBucketBits u16 bucketCount u64 droppedEvents
+//   u32 operationCount, then per operation:
+//     str name, u64 count/errors/totalUs/maxUs/totalBytes/maxBytes,
+//     latency and size histograms as u16 used + used * (u16 bucket, u32 count)
+//   u32 eventCount, then per event:
+//     u64 id, u64 durationUs, u64 bytes, u32 tid, u8 isError,
+//     str category, str operation, str pathTail, str message
+// where str is a u8 length followed by UTF-8 bytes.
+constexpr uint16_t kDiagnosticsBinaryVersion = 1;
+
+std::vector<uint8_t> encodeDiagnosticsSnapshot() {
+  auto histograms = snapshotOperationHistograms();
+  auto events = snapshotDiagnosticEvents();
+
+  BinaryWriter writer;
+  writer.u8('R');
+  writer.u8('N');
+  writer.u8('F');
+  writer.u8('D');
+  writer.u16(kDiagnosticsBinaryVersion);
+  writer.u16(static_cast<uint16_t>(kHistogramSubBucketBits));
+  writer.u16(static_cast<uint16_t>(kHistogramBuckets));
+  writer.u64(droppedDiagnosticEvents.load(std::memory_order_relaxed));
+
+  writer.u32(static_cast<uint32_t>(histograms.size()));
+  for (const auto& histogram : histograms) {
+    writer.string(histogram.name);
+    writer.u64(histogram.count);
+    writer.u64(histogram.errors);
+    writer.u64(histogram.totalUs);
+    writer.u64(histogram.maxUs);
+    writer.u64(histogram.totalBytes);
+    writer.u64(histogram.maxBytes);
+    writeSparseHistogram(writer, histogram.latencyBuckets);
+    writeSparseHistogram(writer, histogram.sizeBuckets);
+  }
+
+  writer.u32(static_cast<uint32_t>(events.size()));
+  for (const auto& event : events) {
+    writer.u64(event.id);
+    writer.u64(static_cast<uint64_t>(std::max<int64_t>(0, event.durationUs)));
+    writer.u64(event.bytes);
+    writer.u32(static_cast<uint32_t>(event.tid));
+    writer.u8(event.isError ? 1 : 0);
+    writer.string(event.category);
+    writer.string(event.operation);
+    writer.string(event.pathTail);
+    writer.string(event.message);
+  }
+  return writer.take();
+}
+
+jsi::Object makeDiagnosticsConfigObject(jsi::Runtime& runtime) {
+  jsi::Object result(runtime);
+  result.setProperty(runtime, "logcat", diagnosticLogcatEnabled.load());
+  result.setProperty(runtime, "events", diagnosticEventsEnabled.load());
+  result.setProperty(runtime, "traceCounters", diagnosticTraceCountersEnabled.load());
+  return result;
+}
+
+void applyDiagnosticsOption(
     jsi::Runtime& runtime,
+    const jsi::Object& options,
     const char* name,
-    unsigned int argCount,
-    jsi::HostFunctionType function) {
-  return jsi::Value(
-      runtime,
-      jsi::Function::createFromHostFunction(
-          runtime,
-          jsi::PropNameID::forAscii(runtime, name),
-          argCount,
-          std::move(function)));
+    std::atomic<bool>& target) {
+  auto value = options.getProperty(runtime, name);
+  if (value.isUndefined()) {
+    return;
+  }
+  if (!value.isBool()) {
+    throw jsi::JSError(runtime, std::string("RabbyNativeFS diagnostics option ") + name + " must be a boolean");
+  }
+  target.store(value.getBool());
 }
 
 jsi::Array getDiagnosticsSnapshot(jsi::Runtime& runtime) {
-  std::deque<DiagnosticEvent> snapshot;
-  {
-    std::lock_guard<std::mutex> lock(diagnosticMutex);
-    snapshot = diagnosticEvents;
-  }
+  auto snapshot = snapshotDiagnosticEvents();
 
   jsi::Array result(runtime, snapshot.size());
   for (size_t index = 0; index < snapshot.size(); index += 1) {
@@ -1872,12 +4634,25 @@ jsi::Array getDiagnosticsSnapshot(jsi::Runtime& runtime) {
     result.setValueAtIndex(runtime, index, item);
   }
 
+  // Aggregates ride along on the array so existing consumers keep working.
+  result.setProperty(runtime, "ioEngine", makeIOEngineStatsObject(runtime, IOEngine::shared().snapshot()));
+  result.setProperty(runtime, "bulkIOEngine", makeIOEngineStatsObject(runtime, IOEngine::bulk().snapshot()));
+  result.setProperty(runtime, "operations", makeOperationStatsObject(runtime, snapshotOperationHistograms()));
+  result.setProperty(
+      runtime,
+      "droppedEvents",
+      static_cast<double>(droppedDiagnosticEvents.load(std::memory_order_relaxed)));
   return result;
 }
 
 void clearDiagnostics() {
-  std::lock_guard<std::mutex> lock(diagnosticMutex);
-  diagnosticEvents.clear();
+  firstVisibleDiagnosticEventId.store(
+      nextDiagnosticEventId.load(std::memory_order_relaxed),
+      std::memory_order_release);
+  droppedDiagnosticEvents.store(0, std::memory_order_relaxed);
+  resetOperationHistograms();
+  IOEngine::shared().resetStats();
+  IOEngine::bulk().resetStats();
 }
 
 jsi::Value makeCreateWriteStreamFunction(
@@ -1983,13 +4758,303 @@ jsi::Value makeCreateAsyncWriteStreamFunction(
       });
 }
 
+// One metadata call parsed on the JS thread: `run` does the file system work
+// and may run on any thread; `toValue` builds the JS result back on the JS
+// thread.
+template <typename Result>
+struct FileOperation {
+  std::string path;
+  std::function<Result()> run;
+  std::function<jsi::Value(jsi::Runtime&, Result&)> toValue;
+};
+
+template <typename Result>
+using FileOperationParser =
+    std::function<FileOperation<Result>(jsi::Runtime&, const jsi::Value*, size_t, bool)>;
+
+// Installs `name` as a synchronous host function and, when a CallInvoker is
+// available, `asyncName` returning a Promise whose work runs on the shared
+// I/O pool. These replace the bridge round trip for small, frequent calls.
+template <typename Result>
+void installFileOperation(
+    jsi::Runtime& runtime,
+    jsi::Object& fs,
+    const std::shared_ptr<react::CallInvoker>& jsCallInvoker,
+    const char* name,
+    const char* asyncName,
+    unsigned int argCount,
+    IOKind kind,
+    FileOperationParser<Result> parse) {
+  fs.setProperty(
+      runtime,
+      name,
+      wrapHostFunction(
+          runtime,
+          name,
+          argCount,
+          [name, parse](jsi::Runtime& runtime,
+                        const jsi::Value&,
+                        const jsi::Value* arguments,
+                        size_t count) -> jsi::Value {
+            auto operation = parse(runtime, arguments, count, false);
+            auto startedAt = SteadyClock::now();
+            try {
+              Result result = operation.run();
+              logNativeFsInfo("meta", name, operation.path, 0, durationUsSince(startedAt));
+              return operation.toValue(runtime, result);
+            } catch (const jsi::JSError&) {
+              throw;
+            } catch (const std::exception& error) {
+              logNativeFsError(name, operation.path, error.what());
+              throw jsi::JSError(runtime, error.what());
+            }
+          }));
+
+  if (!jsCallInvoker || asyncName == nullptr) {
+    return;
+  }
+  fs.setProperty(
+      runtime,
+      asyncName,
+      wrapHostFunction(
+          runtime,
+          asyncName,
+          argCount,
+          [asyncName, kind, parse, jsCallInvoker](jsi::Runtime& runtime,
+                                                  const jsi::Value&,
+                                                  const jsi::Value* arguments,
+                                                  size_t count) -> jsi::Value {
+            auto operation = std::make_shared<FileOperation<Result>>(parse(runtime, arguments, count, true));
+            return jsi::Value(
+                runtime,
+                makePromise(
+                    runtime,
+                    asyncName,
+                    [asyncName, kind, operation, jsCallInvoker](std::shared_ptr<PromiseCallbacks> callbacks) {
+                      IOEngine::forKind(kind).submit(
+                          kind,
+                          [asyncName,
+                           operation,
+                           jsCallInvoker,
+                           callbacks = std::move(callbacks)]() mutable {
+                            auto startedAt = SteadyClock::now();
+                            std::shared_ptr<Result> result;
+                            try {
+                              result = std::make_shared<Result>(operation->run());
+                            } catch (const std::exception& error) {
+                              logNativeFsError(asyncName, operation->path, error.what());
+                              rejectPromise(jsCallInvoker, std::move(callbacks), error.what());
+                              return;
+                            }
+                            logNativeFsInfo("meta", asyncName, operation->path, 0, durationUsSince(startedAt));
+                            jsCallInvoker->invokeAsync(
+                                [operation, result, callbacks = std::move(callbacks)](jsi::Runtime& runtime) {
+                                  callbacks->resolve.call(runtime, operation->toValue(runtime, *result));
+                                });
+                          });
+                    }));
+          }));
+}
+
+std::string requireStringArgument(
+    jsi::Runtime& runtime,
+    const jsi::Value* arguments,
+    size_t count,
+    size_t index,
+    const char* name) {
+  if (count <= index || !arguments[index].isString()) {
+    throw jsi::JSError(runtime, std::string("RabbyNativeFS expected ") + name + " to be a string");
+  }
+  return arguments[index].asString(runtime).utf8(runtime);
+}
+
+void installFileOperations(
+    jsi::Runtime& runtime,
+    jsi::Object& fs,
+    const std::shared_ptr<react::CallInvoker>& jsCallInvoker) {
+  installFileOperation<FileStatus>(
+      runtime, fs, jsCallInvoker, "stat", "statAsync", 1, IOKind::Stat,
+      [](jsi::Runtime& runtime, const jsi::Value* arguments, size_t count, bool) {
+        auto path = requirePath(runtime, arguments, count);
+        return FileOperation<FileStatus>{
+            path,
+            [path]() { return statFile(path); },
+            [](jsi::Runtime& runtime, FileStatus& status) {
+              return jsi::Value(runtime, makeFileStatusObject(runtime, status));
+            }};
+      });
+
+  installFileOperation<std::vector<FileStatus>>(
+      runtime, fs, jsCallInvoker, "readDir", "readDirAsync", 1, IOKind::Stat,
+      [](jsi::Runtime& runtime, const jsi::Value* arguments, size_t count, bool) {
+        auto path = requirePath(runtime, arguments, count);
+        return FileOperation<std::vector<FileStatus>>{
+            path,
+            [path]() { return readDirectory(path); },
+            [path](jsi::Runtime& runtime, std::vector<FileStatus>& entries) {
+              return jsi::Value(runtime, makeDirectoryEntryArray(runtime, path, entries));
+            }};
+      });
+
+  installFileOperation<bool>(
+      runtime, fs, jsCallInvoker, "mkdir", "mkdirAsync", 1, IOKind::Stat,
+      [](jsi::Runtime& runtime, const jsi::Value* arguments, size_t count, bool) {
+        auto path = requirePath(runtime, arguments, count);
+        return FileOperation<bool>{
+            path,
+            [path]() {
+              makeDirectories(path);
+              return true;
+            },
+            [](jsi::Runtime&, bool&) { return jsi::Value::undefined(); }};
+      });
+
+  // Synchronous only: returns once the path is gone and leaves emptying a
+  // directory's tombstone to the bulk thread. RNFS.unlink stays on the bridge,
+  // where DeleteEngine handles removal on Android.
+  installFileOperation<std::string>(
+      runtime, fs, jsCallInvoker, "unlink", nullptr, 1, IOKind::Remove,
+      [](jsi::Runtime& runtime, const jsi::Value* arguments, size_t count, bool) {
+        auto path = requirePath(runtime, arguments, count);
+        return FileOperation<std::string>{
+            path,
+            [path]() {
+              auto tombstone = unlinkOrTombstone(path);
+              if (tombstone.empty()) {
+                return tombstone;
+              }
+              IOEngine::bulk().submit(IOKind::Remove, [tombstone]() {
+                try {
+                  removeTree(tombstone);
+                } catch (const std::exception& error) {
+                  logNativeFsError("unlink", tombstone, error.what());
+                }
+              });
+              return tombstone;
+            },
+            [](jsi::Runtime&, std::string&) { return jsi::Value::undefined(); }};
+      });
+
+  installFileOperation<bool>(
+      runtime, fs, jsCallInvoker, "moveFile", "moveFileAsync", 2, IOKind::Write,
+      [](jsi::Runtime& runtime, const jsi::Value* arguments, size_t count, bool) {
+        auto from = requirePath(runtime, arguments, count);
+        if (count < 2) {
+          throw jsi::JSError(runtime, "RabbyNativeFS moveFile expected a destination path");
+        }
+        auto to = requirePathValue(runtime, arguments[1]);
+        return FileOperation<bool>{
+            from,
+            [from, to]() {
+              movePath(from, to);
+              return true;
+            },
+            [](jsi::Runtime&, bool&) { return jsi::Value::undefined(); }};
+      });
+
+  installFileOperation<std::string>(
+      runtime, fs, jsCallInvoker, "hash", "hashAsync", 2, IOKind::Hash,
+      [](jsi::Runtime& runtime, const jsi::Value* arguments, size_t count, bool) {
+        auto path = requirePath(runtime, arguments, count);
+        auto algorithm = requireStringArgument(runtime, arguments, count, 1, "algorithm");
+        return FileOperation<std::string>{
+            path,
+            [path, algorithm]() { return hashFile(path, algorithm); },
+            [](jsi::Runtime& runtime, std::string& digest) {
+              return jsi::Value(runtime, jsi::String::createFromUtf8(runtime, digest));
+            }};
+      });
+
+  installFileOperation<bool>(
+      runtime, fs, jsCallInvoker, "touch", "touchAsync", 2, IOKind::Stat,
+      [](jsi::Runtime& runtime, const jsi::Value* arguments, size_t count, bool) {
+        auto path = requirePath(runtime, arguments, count);
+        int64_t mtimeMs = count > 1 ? requireInt64(runtime, arguments[1], -1) : -1;
+        return FileOperation<bool>{
+            path,
+            [path, mtimeMs]() { return touchPath(path, mtimeMs); },
+            [](jsi::Runtime&, bool& touched) { return jsi::Value(touched); }};
+      });
+
+  installFileOperation<FilesystemSpace>(
+      runtime, fs, jsCallInvoker, "getFSInfo", "getFSInfoAsync", 2, IOKind::Stat,
+      [](jsi::Runtime& runtime, const jsi::Value* arguments, size_t count, bool) {
+        auto path = requirePath(runtime, arguments, count);
+        std::string externalPath = count > 1 && arguments[1].isString()
+            ? requirePathValue(runtime, arguments[1])
+            : "";
+        return FileOperation<FilesystemSpace>{
+            path,
+            [path, externalPath]() { return filesystemSpace(path, externalPath); },
+            [](jsi::Runtime& runtime, FilesystemSpace& space) {
+              return jsi::Value(runtime, makeFilesystemSpaceObject(runtime, space));
+            }};
+      });
+}
+
+jsi::Value makeOpenAppendLogFunction(
+    jsi::Runtime& runtime,
+    std::shared_ptr<react::CallInvoker> jsCallInvoker) {
+  return wrapHostFunction(
+      runtime,
+      "openAppendLog",
+      4,
+      [jsCallInvoker = std::move(jsCallInvoker)](jsi::Runtime& runtime,
+                                                  const jsi::Value&,
+                                                  const jsi::Value* arguments,
+                                                  size_t count) -> jsi::Value {
+        std::string path;
+        try {
+          path = requirePath(runtime, arguments, count);
+          size_t segmentBytes = count > 1
+              ? requirePositiveSize(runtime, arguments[1], 4 * 1024 * 1024, "segmentBytes")
+              : 4 * 1024 * 1024;
+          size_t bufferSize = count > 2
+              ? requirePositiveSize(runtime, arguments[2], 64 * 1024, "bufferSize")
+              : 64 * 1024;
+          size_t bufferCount = count > 3
+              ? requirePositiveSize(runtime, arguments[3], 2, "bufferCount")
+              : 2;
+
+          if (bufferSize > kMaxAppendLogRecordBytes) {
+            throw jsi::JSError(runtime, "RabbyNativeFS append log bufferSize is too large");
+          }
+          if (bufferCount > 16) {
+            throw jsi::JSError(runtime, "RabbyNativeFS append log bufferCount is too large");
+          }
+
+          auto startedAt = SteadyClock::now();
+          auto log = std::make_shared<AppendLogHostObject>(
+              path,
+              segmentBytes,
+              bufferSize,
+              bufferCount,
+              jsCallInvoker);
+          logNativeFsInfo(
+              "append-log",
+              "openAppendLog",
+              path,
+              bufferSize * bufferCount,
+              durationUsSince(startedAt));
+          auto object = jsi::Object::createFromHostObject(runtime, log);
+          object.setExternalMemoryPressure(runtime, bufferSize * bufferCount);
+          return jsi::Value(runtime, object);
+        } catch (const jsi::JSError&) {
+          throw;
+        } catch (const std::exception& error) {
+          logNativeFsError("openAppendLog", path, error.what());
+          throw jsi::JSError(runtime, error.what());
+        }
+      });
+}
+
 jsi::Value makeCreateAsyncReadStreamFunction(
     jsi::Runtime& runtime,
     std::shared_ptr<react::CallInvoker> jsCallInvoker) {
   return wrapHostFunction(
       runtime,
       "createAsyncReadStream",
-      2,
+      4,
       [jsCallInvoker = std::move(jsCallInvoker)](jsi::Runtime& runtime,
                                                   const jsi::Value&,
                                                   const jsi::Value* arguments,
@@ -2001,6 +5066,9 @@ jsi::Value makeCreateAsyncReadStreamFunction(
               ? requirePositiveSize(runtime, arguments[1], 256 * 1024, "bufferSize")
               : 256 * 1024;
 
+          bool mapped = count > 2 && arguments[2].isBool() && arguments[2].getBool();
+          bool allowWritable = count > 3 && arguments[3].isBool() && arguments[3].getBool();
+
           if (bufferSize > 16 * 1024 * 1024) {
             throw jsi::JSError(runtime, "RabbyNativeFS async read stream bufferSize is too large");
           }
@@ -2009,10 +5077,12 @@ jsi::Value makeCreateAsyncReadStreamFunction(
           auto reader = std::make_shared<AsyncReadStreamHostObject>(
               path,
               bufferSize,
+              mapped,
+              allowWritable,
               jsCallInvoker);
           logNativeFsInfo(
               "async-open",
-              "createAsyncReadStream",
+              mapped ? "createMappedAsyncReadStream" : "createAsyncReadStream",
               path,
               bufferSize,
               durationUsSince(startedAt));
@@ -2066,6 +5136,67 @@ void install(
             }
           }));
 
+  fs.setProperty(
+      runtime,
+      "mapFile",
+      wrapHostFunction(
+          runtime,
+          "mapFile",
+          4,
+          [](jsi::Runtime& runtime,
+             const jsi::Value&,
+             const jsi::Value* arguments,
+             size_t count) -> jsi::Value {
+            std::string path;
+            try {
+              path = requirePath(runtime, arguments, count);
+              int64_t offset = count > 1 ? requireInt64(runtime, arguments[1], 0) : 0;
+              int64_t length = count > 2 ? requireInt64(runtime, arguments[2], 0) : 0;
+              bool allowWritable = count > 3 && arguments[3].isBool() && arguments[3].getBool();
+              auto startedAt = SteadyClock::now();
+              auto buffer = mapFileRange(path, offset, length, allowWritable);
+              size_t byteLength = buffer ? buffer->size() : 0;
+              logNativeFsInfo(
+                  "io",
+                  "mapFile",
+                  path,
+                  byteLength,
+                  durationUsSince(startedAt));
+
+              jsi::Object result(runtime);
+              if (buffer) {
+                auto bytes = makeUint8Array(runtime, std::static_pointer_cast<jsi::MutableBuffer>(buffer));
+                bytes.setExternalMemoryPressure(runtime, byteLength);
+                result.setProperty(runtime, "bytes", bytes);
+              } else {
+                result.setProperty(runtime, "bytes", makeUint8Array(runtime, std::vector<uint8_t>()));
+              }
+              result.setProperty(runtime, "byteLength", static_cast<double>(byteLength));
+              result.setProperty(runtime, "offset", static_cast<double>(offset));
+              result.setProperty(
+                  runtime,
+                  "unmap",
+                  wrapHostFunction(
+                      runtime,
+                      "unmapFile",
+                      0,
+                      [buffer, path](jsi::Runtime&,
+                                     const jsi::Value&,
+                                     const jsi::Value*,
+                                     size_t) -> jsi::Value {
+                        bool released = buffer && buffer->release();
+                        if (released) {
+                          logNativeFsInfo("io", "unmapFile", path, buffer->size(), 0);
+                        }
+                        return jsi::Value(released);
+                      }));
+              return jsi::Value(runtime, result);
+            } catch (const std::exception& error) {
+              logNativeFsError("mapFile", path, error.what());
+              throw jsi::JSError(runtime, error.what());
+            }
+          }));
+
   fs.setProperty(
       runtime,
       "readBytes",
@@ -2238,7 +5369,12 @@ void install(
     fs.setProperty(
         runtime,
         "createAsyncReadStream",
-        makeCreateAsyncReadStreamFunction(runtime, std::move(jsCallInvoker)));
+        makeCreateAsyncReadStreamFunction(runtime, jsCallInvoker));
+
+    fs.setProperty(
+        runtime,
+        "openAppendLog",
+        makeOpenAppendLogFunction(runtime, jsCallInvoker));
   }
 
   fs.setProperty(
@@ -2270,6 +5406,40 @@ void install(
             return jsi::Value::undefined();
           }));
 
+  fs.setProperty(
+      runtime,
+      "getDiagnosticsBinarySnapshot",
+      wrapHostFunction(
+          runtime,
+          "getDiagnosticsBinarySnapshot",
+          0,
+          [](jsi::Runtime& runtime,
+             const jsi::Value&,
+             const jsi::Value*,
+             size_t) -> jsi::Value {
+            return jsi::Value(runtime, makeUint8Array(runtime, encodeDiagnosticsSnapshot()));
+          }));
+
+  fs.setProperty(
+      runtime,
+      "configureDiagnostics",
+      wrapHostFunction(
+          runtime,
+          "configureDiagnostics",
+          1,
+          [](jsi::Runtime& runtime,
+             const jsi::Value&,
+             const jsi::Value* arguments,
+             size_t count) -> jsi::Value {
+            if (count > 0 && arguments[0].isObject()) {
+              auto options = arguments[0].asObject(runtime);
+              applyDiagnosticsOption(runtime, options, "logcat", diagnosticLogcatEnabled);
+              applyDiagnosticsOption(runtime, options, "events", diagnosticEventsEnabled);
+              applyDiagnosticsOption(runtime, options, "traceCounters", diagnosticTraceCountersEnabled);
+            }
+            return jsi::Value(runtime, makeDiagnosticsConfigObject(runtime));
+          }));
+
   fs.setProperty(
       runtime,
       "exists",
@@ -2285,6 +5455,83 @@ void install(
             return jsi::Value(access(path.c_str(), F_OK) == 0);
           }));
 
+  fs.setProperty(
+      runtime,
+      "existsMany",
+      wrapHostFunction(
+          runtime,
+          "existsMany",
+          1,
+          [](jsi::Runtime& runtime,
+             const jsi::Value&,
+             const jsi::Value* arguments,
+             size_t count) -> jsi::Value {
+            auto paths = requirePathArray(runtime, arguments, count);
+            jsi::Array result(runtime, paths.size());
+            for (size_t index = 0; index < paths.size(); index += 1) {
+              result.setValueAtIndex(
+                  runtime,
+                  index,
+                  jsi::Value(access(paths[index].c_str(), F_OK) == 0));
+            }
+            return jsi::Value(runtime, result);
+          }));
+
+  fs.setProperty(
+      runtime,
+      "statMany",
+      wrapHostFunction(
+          runtime,
+          "statMany",
+          1,
+          [](jsi::Runtime& runtime,
+             const jsi::Value&,
+             const jsi::Value* arguments,
+             size_t count) -> jsi::Value {
+            auto paths = requirePathArray(runtime, arguments, count);
+            auto startedAt = SteadyClock::now();
+            auto statuses = statPaths(paths);
+            logNativeFsBatch("statMany", paths.size(), durationUsSince(startedAt));
+            return jsi::Value(runtime, makePathStatusArray(runtime, paths, statuses));
+          }));
+
+  if (jsCallInvoker) {
+    fs.setProperty(
+        runtime,
+        "statManyAsync",
+        wrapHostFunction(
+            runtime,
+            "statManyAsync",
+            1,
+            [jsCallInvoker](jsi::Runtime& runtime,
+                            const jsi::Value&,
+                            const jsi::Value* arguments,
+                            size_t count) -> jsi::Value {
+              auto paths = std::make_shared<std::vector<std::string>>(
+                  requirePathArray(runtime, arguments, count));
+              return jsi::Value(
+                  runtime,
+                  makePromise(
+                      runtime,
+                      "statManyAsyncPromise",
+                      [jsCallInvoker, paths](std::shared_ptr<PromiseCallbacks> callbacks) {
+                        IOEngine::shared().submit(IOKind::Stat, [jsCallInvoker, paths, callbacks = std::move(callbacks)]() mutable {
+                          auto startedAt = SteadyClock::now();
+                          auto statuses = std::make_shared<std::vector<PathStatus>>(statPaths(*paths));
+                          logNativeFsBatch("statManyAsync", paths->size(), durationUsSince(startedAt));
+                          jsCallInvoker->invokeAsync(
+                              [paths, statuses, callbacks = std::move(callbacks)](jsi::Runtime& runtime) {
+                                callbacks->resolve.call(
+                                    runtime,
+                                    jsi::Value(runtime, makePathStatusArray(runtime, *paths, *statuses)));
+                              });
+                        });
+                      }));
+            }));
+  }
+
+  installFileOperations(runtime, fs, jsCallInvoker);
+
   runtime.global().setProperty(runtime, "__RabbyNativeFS", std::move(fs));
 }
 
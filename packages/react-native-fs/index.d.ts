@@ -7,6 +7,22 @@ type FileOptions = {
   NSFileProtectionKey?: string; // IOS only
 };
 
+type WriteOptions = {
+  encoding?: string;
+  /**
+   * Android-only, writeFile only. Writes a hidden temp file, syncs it and renames it over
+   * `filepath`, so a crash leaves either the old or the new contents.
+   */
+  atomic?: boolean;
+  /**
+   * Android-only. 'fsync' resolves once the data is on disk; 'group' does too, but shares one
+   * fsync per file among writes within `groupCommitWindowMs`. Atomic writes default to 'fsync'.
+   */
+  durability?: 'none' | 'fsync' | 'group';
+  groupCommitWindowMs?: number; // Default 10, max 100
+  NSFileProtectionKey?: string; // IOS only
+};
+
 export type NativeFSPersistFileOptions = {
   mode?: 'copy' | 'move';
   overwrite?: boolean;
@@ -22,6 +38,10 @@ export type NativeFSPersistFileResult = {
   mode: 'copy' | 'move';
   bytesWritten: number;
   durationMs: number;
+  /** Android-only: which copy path ran. */
+  strategy?: 'rename' | 'hardlink' | 'transfer' | 'buffered';
+  /** Android-only */
+  bytesPerSecond?: number;
 };
 
 type ReadDirItem = {
@@ -34,6 +54,25 @@ type ReadDirItem = {
   isDirectory: () => boolean; // Is the file a directory?
 };
 
+/** Android-only */
+type ReadDirPageOptions = {
+  cursor?: string; // Continue the listing returned by a previous page
+  pageSize?: number; // Entries per page, default 500, max 5000
+  prefix?: string; // Only names starting with this, case-insensitive
+  suffixes?: string[]; // Only names ending with one of these, case-insensitive
+  type?: 'file' | 'directory' | 'any'; // Default 'any'
+  fields?: Array<'type' | 'size' | 'mtime'>; // Stat fields to fill in, default all; [] skips stat entirely
+  includeHidden?: boolean; // Include dot files, default true
+};
+
+/** Android-only */
+type ReadDirPage = {
+  items: ReadDirItem[];
+  cursor: string | null; // Null once the listing is complete
+  scanned: number; // Directory entries looked at for this page, matching or not
+  durationMs: number;
+};
+
 type StatResult = {
   name: string | undefined; // The name of the item TODO: why is this not documented?
   path: string; // The absolute path to the item
@@ -46,6 +85,38 @@ type StatResult = {
   isDirectory: () => boolean; // Is the file a directory?
 };
 
+type BatchStatItem = {
+  path: string;
+  exists: boolean;
+  error: string | null; // Errno code when the path exists but could not be stat'ed, e.g. EACCES
+  stat: StatResult | null; // Null when exists is false
+};
+
+/** Android-only */
+type UnlinkAsyncOptions = {
+  progress?: (res: UnlinkProgressCallbackResult) => void;
+  wait?: boolean; // Default true; false resolves once the path is free and deletes in the background. Ignored for files and for directories that cannot be moved aside
+};
+
+/** Android-only */
+type UnlinkProgressCallbackResult = {
+  jobId: number;
+  filesDeleted: number;
+  bytesDeleted: number;
+};
+
+/** Android-only */
+type UnlinkAsyncResult = {
+  path: string;
+  pending: boolean; // True when resolved early with wait: false
+  files?: number;
+  directories?: number;
+  bytes?: number; // Sum of deleted file sizes
+  errorCount?: number; // Entries that could not be deleted; they stay in a hidden tombstone
+  parallelism?: number;
+  durationMs?: number;
+};
+
 type Headers = { [name: string]: string };
 type Fields = { [name: string]: string };
 
@@ -64,6 +135,56 @@ type DownloadFileOptions = {
   connectionTimeout?: number; // only supported on Android yet
   readTimeout?: number; // supported on Android and iOS
   backgroundTimeout?: number; // Maximum time (in milliseconds) to download an entire resource (iOS only, useful for timing out background downloads)
+  resume?: boolean; // Continue a stopped or failed download of the same URL into the same file using Range/If-Range (Android only)
+  segments?: number; // Fetch up to this many (max 8) byte ranges concurrently when the server supports ranges (Android only, ignored with resume)
+  transport?: HttpTransport; // 'okhttp' (default) shares the app's OkHttp client, pool and interceptors; 'urlconnection' uses HttpURLConnection (Android only)
+  priority?: TransferPriority; // Queue position when the transfer limits are reached; 'high' is for downloads the user is waiting on (Android only)
+  retries?: number; // Retry transient failures (I/O errors, 408/429/5xx) with exponential backoff this many times (Android only)
+  persist?: boolean; // Journal the download so resumeJournaledDownloads can continue it after process death (Android only)
+};
+
+/** Android-only */
+type TransferPriority = 'high' | 'normal' | 'low';
+
+/** Android-only */
+type TransferLimits = {
+  maxConcurrent?: number; // Transfers running at once, default 4; the network lane grows to match
+  maxPerHost?: number; // Transfers running at once against one host, default 4
+};
+
+/** Android-only */
+type TransferQueueStats = {
+  queued: number;
+  running: number;
+  maxConcurrent: number;
+  maxPerHost: number;
+};
+
+/** Android-only */
+type JournaledDownload = {
+  fromUrl: string;
+  toFile: string;
+  headers: Headers; // Credential headers are not journaled
+  redactedHeaders: string[]; // Names of the headers left out, to be passed again on resume
+  priority: TransferPriority;
+  retries: number;
+  segments: number;
+  transport?: HttpTransport;
+  createdAt: number; // Milliseconds since epoch
+};
+
+/** Android-only */
+type HttpTransport = 'okhttp' | 'urlconnection';
+
+/** Android-only */
+type HttpTimings = {
+  transport: HttpTransport;
+  protocol?: string; // e.g. 'h2' or 'http/1.1'
+  connectionReused: boolean; // true when a pooled connection was used, so dns/connect/tls are -1
+  dnsMs: number; // -1 when not measured
+  connectMs: number; // -1 when not measured
+  tlsMs: number; // -1 when not measured
+  ttfbMs: number; // Time from the start of the request (including any upload body) to the response headers
 };
 
 type DownloadBeginCallbackResult = {
@@ -83,6 +204,9 @@ type DownloadResult = {
   jobId: number; // The download job ID, required if one wishes to cancel the download. See `stopDownload`.
   statusCode: number; // The HTTP status code
   bytesWritten: number; // The number of bytes written to the file
+  bytesResumed?: number; // Bytes kept from an earlier partial download; the file holds bytesResumed + bytesWritten (Android only)
+  segments?: number; // Number of concurrent ranges used by a segmented download (Android only)
+  timings?: HttpTimings; // Connection timings (Android only)
 };
 
 type UploadFileOptions = {
@@ -96,6 +220,12 @@ type UploadFileOptions = {
   progressCallback?: (res: UploadProgressCallbackResult) => void; // deprecated
   begin?: (res: UploadBeginCallbackResult) => void;
   progress?: (res: UploadProgressCallbackResult) => void;
+  transport?: HttpTransport; // Android only
+  priority?: TransferPriority; // Android only
+  retries?: number; // Retry transient failures with exponential backoff this many times (Android only)
+  chunked?: boolean; // Send the body with chunked transfer encoding instead of a precomputed Content-Length (Android only)
+  readTimeout?: number; // Milliseconds a read or body write may stall, default 0 waits forever (Android only)
+  responseFile?: string; // Write the response body to this path instead of returning it as `body` (Android only)
 };
 
 type UploadFileItem = {
@@ -119,12 +249,17 @@ type UploadResult = {
   jobId: number; // The upload job ID, required if one wishes to cancel the upload. See `stopUpload`.
   statusCode: number; // The HTTP status code
   headers: Headers; // The HTTP response headers from the server
-  body: string; // The HTTP response body
+  body: string; // The HTTP response body, empty when `responseFile` was used
+  timings?: HttpTimings; // Connection timings (Android only)
+  responseBytes?: number; // Size of the response body (Android only)
+  responseFile?: string; // Set when the body was written to `responseFile` (Android only)
 };
 
 type FSInfoResult = {
   totalSpace: number; // The total amount of storage space on the device (in bytes).
   freeSpace: number; // The amount of available storage space on the device (in bytes).
+  totalSpaceEx?: number; // Android-only: shared storage total (in bytes).
+  freeSpaceEx?: number; // Android-only: shared storage free (in bytes).
 };
 
 type ByteInput = Uint8Array | ArrayBuffer;
@@ -168,6 +303,14 @@ export type NativeFSAsyncWriteStream = {
 
 export type NativeFSAsyncReadStreamOptions = {
   bufferSize?: number;
+  /** Serve chunks from an mmap of the file instead of copying them into the JS heap. */
+  mapped?: boolean;
+  /**
+   * Allow `mapped` on a file the app can write. Such a file must only ever be replaced by
+   * rename (`writeFile(..., { atomic: true })`): truncating it in place while mapped crashes
+   * the process with SIGBUS. Without it, mapping a writable file fails with EPERM.
+   */
+  allowWritable?: boolean;
 };
 
 export type NativeFSAsyncReadStreamStats = {
@@ -176,10 +319,22 @@ export type NativeFSAsyncReadStreamStats = {
   bufferSize: number;
   bytesRead: number;
   reads: number;
+  mapped: boolean;
   closed: boolean;
   eof: boolean;
 };
 
+export type NativeFSReadFileChunksOptions = {
+  chunkSize?: number;
+  /**
+   * Unset maps the file when the app cannot write it and copies chunks otherwise. True
+   * always maps, failing with EPERM for writable files unless `allowWritable` is set.
+   */
+  mapped?: boolean;
+  /** See `NativeFSAsyncReadStreamOptions.allowWritable`. */
+  allowWritable?: boolean;
+};
+
 export type NativeFSAsyncReadStream = {
   readChunk(byteLength?: number): Promise<Uint8Array | null>;
   readBatch(byteLength?: number): Promise<Uint8Array | null>;
@@ -187,6 +342,68 @@ export type NativeFSAsyncReadStream = {
   stats(): NativeFSAsyncReadStreamStats;
 };
 
+export type NativeFSAppendLogOptions = {
+  /** A new segment file is started once the current one would grow past this. Defaults to 4 MB. */
+  segmentBytes?: number;
+  bufferSize?: number;
+  bufferCount?: number;
+};
+
+export type NativeFSAppendLogStats = {
+  logId: number;
+  directory: string;
+  segmentCount: number;
+  /** Sequence number the next append will get. */
+  nextSequence: number;
+  /** Every record below this sequence has been synced. */
+  durableSequence: number;
+  bytesAppended: number;
+  records: number;
+  syncs: number;
+  /** Valid records found in all segments when the log was opened. */
+  recoveredRecords: number;
+  /** Torn or corrupt bytes cut from the end of the log when it was opened. */
+  truncatedBytes: number;
+  closed: boolean;
+};
+
+export type NativeFSAppendLogRecord = {
+  sequence: number;
+  bytes: Uint8Array;
+};
+
+export type NativeFSDecodedAppendLogSegment = {
+  /** Payloads of the valid records, as views into the given bytes. */
+  records: Uint8Array[];
+  /** Length of the valid prefix; opening the log would cut the segment here. */
+  validBytes: number;
+};
+
+export type NativeFSAppendLogReader = {
+  /** The next valid record, or null at the end of the log. */
+  next(): NativeFSAppendLogRecord | null;
+  close(): void;
+};
+
+export type NativeFSAppendLog = {
+  acquireBuffer(): Uint8Array;
+  /**
+   * Writes one record and returns its sequence number. It is readable right away but only
+   * durable once a later flush() resolves.
+   */
+  append(bytes: Uint8Array | ArrayBuffer, byteLength?: number): number;
+  /**
+   * Resolves with the durable sequence once every record appended before the call is synced.
+   * Flushes issued while a sync is running share the next one.
+   */
+  flush(): Promise<number>;
+  close(): Promise<number>;
+  replay(fromSequence?: number): NativeFSAppendLogReader;
+  /** Deletes whole segments holding only records below `sequence`; returns how many. */
+  dropSegmentsBefore(sequence: number): number;
+  stats(): NativeFSAppendLogStats;
+};
+
 export type NativeFSZipArchiveEntry = {
   sourcePath: string;
   archivePath: string;
@@ -196,6 +413,8 @@ export type NativeFSZipArchiveEntry = {
 
 export type NativeFSZipArchiveOptions = {
   compressionLevel?: number;
+  /** Android-only: deflate 1 MB blocks of each entry on the CPU lane. */
+  parallel?: boolean;
 };
 
 export type NativeFSZipEntryExtractionOptions = {
@@ -203,6 +422,13 @@ export type NativeFSZipEntryExtractionOptions = {
   entryNameSuffix?: string;
 };
 
+export type NativeFSZipEntriesExtractionOptions = {
+  /** Extract exactly these entries; missing entries reject the whole batch. */
+  entryNames?: string[];
+  /** Used when `entryNames` is omitted: extract every file entry with this suffix. */
+  entryNameSuffix?: string;
+};
+
 export type NativeFSZipEntryListingOptions = {
   entryNameSuffix?: string;
   includeDirectories?: boolean;
@@ -215,6 +441,12 @@ export type NativeFSZipArchiveResult = {
   bytesRead: number;
   bytesWritten: number;
   durationMs: number;
+  /** Only reported for `parallel` archives. */
+  parallelism?: number;
+  readMs?: number;
+  compressMs?: number;
+  writeMs?: number;
+  waitMs?: number;
 };
 
 export type NativeFSZipEntryExtractionResult = {
@@ -223,6 +455,23 @@ export type NativeFSZipEntryExtractionResult = {
   entryName: string;
   bytesWritten: number;
   durationMs: number;
+  /** Android-only: the archive's central directory came from the in-memory index. */
+  indexCached?: boolean;
+};
+
+export type NativeFSZipEntriesExtractionResult = {
+  archivePath: string;
+  targetDirectory: string;
+  entries: Array<{
+    entryName: string;
+    targetPath: string;
+    bytesWritten: number;
+  }>;
+  entryCount: number;
+  parallelism: number;
+  bytesWritten: number;
+  durationMs: number;
+  indexCached: boolean;
 };
 
 export type NativeFSZipEntryInfo = {
@@ -232,6 +481,7 @@ export type NativeFSZipEntryInfo = {
   uncompressedSize: number;
   crc32: number;
   method: number;
+  encrypted: boolean; // Extracting an encrypted entry rejects with ENOTSUP
   mtimeMs?: number;
 };
 
@@ -241,6 +491,145 @@ export type NativeFSZipEntryListingResult = {
   totalEntries: number;
   totalBytes: number;
   durationMs: number;
+  /** Android-only: the archive's central directory came from the in-memory index. */
+  indexCached?: boolean;
+};
+
+export type HashAlgorithm =
+  | 'md5'
+  | 'sha1'
+  | 'sha224'
+  | 'sha256'
+  | 'sha384'
+  | 'sha512';
+
+export type NativeFSFileHashResult = {
+  path: string;
+  digests: Partial<Record<HashAlgorithm, string>>;
+  bytes: number;
+  durationMs: number;
+};
+
+export type NativeFSHashFilesResult = {
+  files: NativeFSFileHashResult[];
+  fileCount: number;
+  parallelism: number;
+  totalBytes: number;
+  durationMs: number;
+  bytesPerSecond: number;
+};
+
+export type NativeFSDiskUsageOptions = {
+  /** Largest files to return. Defaults to 20, at most 1000. */
+  topCount?: number;
+  /** Directory walkers. Defaults to the DISK lane size. */
+  parallelism?: number;
+};
+
+export type NativeFSDiskUsageEntry = {
+  path: string;
+  size: number;
+  /** Seconds since the epoch. */
+  mtime: number;
+};
+
+export type NativeFSExtractAssetsOptions = {
+  /** Extract on several DISK threads; default true. */
+  parallel?: boolean;
+};
+
+export type NativeFSExtractedAsset = {
+  assetPath: string;
+  /** Extracted file in internal storage. */
+  path?: string;
+  /** False when the asset was already cached for this app version. */
+  extracted?: boolean;
+  durationMs?: number;
+  /** ENOENT for a missing asset. */
+  error?: string;
+};
+
+export type NativeFSExtractAssetsResult = {
+  /** Version code and install time of the app; a new install extracts again. */
+  version: string;
+  directory: string;
+  entries: NativeFSExtractedAsset[];
+  extractedCount: number;
+  errorCount: number;
+  parallelism: number;
+  durationMs: number;
+};
+
+export type NativeFSDiskUsageResult = {
+  path: string;
+  /** Sum of file sizes; hard-linked files are counted once. */
+  totalBytes: number;
+  /** Blocks actually used on disk. */
+  allocatedBytes: number;
+  fileCount: number;
+  directoryCount: number;
+  /** Symlinks, sockets and other non-regular entries. Symlinks are not followed. */
+  otherCount: number;
+  /** Entries that vanished or could not be read during the walk. */
+  errorCount: number;
+  /** Biggest first. */
+  largest: NativeFSDiskUsageEntry[];
+  parallelism: number;
+  durationMs: number;
+};
+
+export type NativeFSCacheStoreOptions = {
+  /** Byte budget. Defaults to 64 MB. */
+  maxBytes?: number;
+  /** Eviction order. Defaults to 'lru'. */
+  policy?: 'lru' | 'lfu';
+};
+
+export type NativeFSCacheStorePutOptions = {
+  /** Rename the source into the store instead of copying it. */
+  move?: boolean;
+};
+
+export type NativeFSCacheStoreEntry = {
+  path: string;
+  size: number;
+};
+
+export type NativeFSCacheStoreStats = {
+  name: string;
+  entries: number;
+  bytes: number;
+  maxBytes: number;
+  policy: 'lru' | 'lfu';
+  hits: number;
+  misses: number;
+  evictions: number;
+  evictedBytes: number;
+};
+
+export type NativeFSIOSchedulerOptions = {
+  diskThreads?: number;
+  networkThreads?: number;
+  segmentThreads?: number; // Range requests of segmented downloads, default 4
+  cpuThreads?: number;
+};
+
+export type NativeFSIOSchedulerLaneStats = {
+  threads: number;
+  activeThreads: number;
+  queueDepth: number;
+  maxQueueDepth: number;
+  submitted: number;
+  completed: number;
+  totalWaitMs: number;
+  maxWaitMs: number;
+};
+
+export type NativeFSIOSchedulerStats = {
+  disk: NativeFSIOSchedulerLaneStats;
+  network: NativeFSIOSchedulerLaneStats;
+  segment: NativeFSIOSchedulerLaneStats;
+  cpu: NativeFSIOSchedulerLaneStats;
 };
 
 export type OwnedWriteStreamStatsForTest = NativeFSWriteStreamStats;
@@ -258,9 +647,128 @@ export type NativeFSDiagnosticEvent = {
   message: string;
 };
 
+/**
+ * Histogram arrays are log2 buckets: index 0 counts zeros, index i counts values in
+ * [2^(i-1), 2^i), and the last index also takes everything larger.
+ */
+export type NativeFSIOOperationStats = {
+  count: number;
+  totalUs: number;
+  maxUs: number;
+  latencyHistogramUs: number[];
+  queueWaitHistogramUs: number[];
+};
+
+/**
+ * Shared native I/O pool behind the JSI async streams, statManyAsync and the JSI metadata calls
+ * (stat, readDir, mkdir, touch and getFSInfo count as "stat"; moveFile as "write"). The bulk
+ * engine runs "remove" (unlinkSync tombstones) and "hash" on a thread of its own.
+ */
+export type NativeFSIOEngineStats = {
+  backend: 'pread';
+  workers: number;
+  queueDepth: number;
+  maxQueueDepth: number;
+  submitted: number;
+  completed: number;
+  /** Queue depth sampled at each submission. */
+  queueDepthHistogram: number[];
+  operations: {
+    read: NativeFSIOOperationStats;
+    write: NativeFSIOOperationStats;
+    close: NativeFSIOOperationStats;
+    stat: NativeFSIOOperationStats;
+    sync: NativeFSIOOperationStats;
+    remove: NativeFSIOOperationStats;
+    hash: NativeFSIOOperationStats;
+  };
+};
+
+/** Percentiles are bucket lower bounds, within 12.5% of the true value. */
+export type NativeFSOperationStats = {
+  count: number;
+  errorCount: number;
+  totalUs: number;
+  maxUs: number;
+  p50Us: number;
+  p90Us: number;
+  p99Us: number;
+  totalBytes: number;
+  maxBytes: number;
+  p50Bytes: number;
+};
+
+export type NativeFSDiagnosticsSnapshot = NativeFSDiagnosticEvent[] & {
+  ioEngine?: NativeFSIOEngineStats;
+  /** Single thread for directory removal and whole-file hashing. */
+  bulkIOEngine?: NativeFSIOEngineStats;
+  /** Keyed by operation name, e.g. readFileBytes, writeFileBytes, commit, closeWriteStream. */
+  operations?: Record<string, NativeFSOperationStats>;
+  /** Events lost because a writer found its ring slot still in use. */
+  droppedEvents?: number;
+};
+
+export type NativeFSDiagnosticsOptions = {
+  /** Log every operation to logcat. Defaults to on in debug native builds only. */
+  logcat?: boolean;
+  /** Keep recent operations in the event ring. Defaults to true. */
+  events?: boolean;
+  /** Android 10+: mirror per-operation latency and size to systrace counters. Defaults to true. */
+  traceCounters?: boolean;
+};
+
+/**
+ * Histogram keys are bucket indexes. Values below 2^subBucketBits have a bucket each; each
+ * larger power of two is split into 2^subBucketBits linear buckets.
+ */
+export type NativeFSDecodedOperationStats = {
+  count: number;
+  errorCount: number;
+  totalUs: number;
+  maxUs: number;
+  totalBytes: number;
+  maxBytes: number;
+  latencyBucketsUs: Record<number, number>;
+  sizeBuckets: Record<number, number>;
+};
+
+export type NativeFSDecodedDiagnosticsSnapshot = {
+  subBucketBits: number;
+  bucketCount: number;
+  droppedEvents: number;
+  operations: Record<string, NativeFSDecodedOperationStats>;
+  events: NativeFSDiagnosticEvent[];
+};
+
+export type NativeFSMappedFile = {
+  /** Backed by the mapping, not copied. Reads zeros after unmap(). */
+  bytes: Uint8Array;
+  byteLength: number;
+  offset: number;
+  /**
+   * Releases the file pages now instead of when `bytes` is collected. Returns false when
+   * already unmapped or when the range was empty.
+   */
+  unmap: () => boolean;
+};
+
 export function installJSI(): boolean;
 export function isJSIAvailable(): boolean;
 export function readFileBytes(filepath: string): Uint8Array;
+/**
+ * Maps `length` bytes of a file from `offset` (0 = to the end) read-only into memory. The
+ * bytes stay out of the JS heap; writes to them stay private and never reach the file.
+ *
+ * A mapped file must only be replaced by rename (`writeFile(..., { atomic: true })`): if it
+ * is truncated in place, reading `bytes` past the new end crashes the process with SIGBUS.
+ * Files the app can write are therefore refused with EPERM unless `allowWritable` is set.
+ */
+export function mapFile(
+  filepath: string,
+  offset?: number,
+  length?: number,
+  options?: { allowWritable?: boolean },
+): NativeFSMappedFile;
 export function readBytes(
   filepath: string,
   length?: number,
@@ -305,8 +813,31 @@ export function createAsyncReadStream(
   filepath: string,
   bufferSize?: number,
 ): NativeFSAsyncReadStream;
+/**
+ * Streams a file to `onChunk` in order and resolves with the total bytes read.
+ * The next chunk is not read until the promise returned by `onChunk` settles.
+ */
+export function readFileChunks(
+  filepath: string,
+  onChunk: (chunk: Uint8Array) => void | Promise<void>,
+  options?: NativeFSReadFileChunksOptions,
+): Promise<number>;
+/**
+ * Opens (creating if needed) a segmented append-only log in `dirpath`. A torn record left by a
+ * crash is cut off while opening, along with any segments after it.
+ */
+export function openAppendLog(
+  dirpath: string,
+  options?: NativeFSAppendLogOptions,
+): NativeFSAppendLog;
+/** Decodes the bytes of one append log segment file, e.g. one pulled from a device. */
+export function decodeAppendLogSegment(bytes: Uint8Array): NativeFSDecodedAppendLogSegment;
 export function isNativeZipArchiveAvailable(): boolean;
 export function isNativeZipEntryExtractionAvailable(): boolean;
+/**
+ * Android-only
+ */
+export function isNativeZipEntriesExtractionAvailable(): boolean;
 export function isNativeZipEntryListingAvailable(): boolean;
 export function createZipArchive(
   targetPath: string,
@@ -318,20 +849,62 @@ export function extractZipEntry(
   targetPath: string,
   options?: NativeFSZipEntryExtractionOptions,
 ): Promise<NativeFSZipEntryExtractionResult>;
+/**
+ * Android-only
+ *
+ * Opens the archive once and inflates the selected entries in parallel into
+ * `targetDirectory`, keeping their archive paths.
+ */
+export function extractZipEntries(
+  archivePath: string,
+  targetDirectory: string,
+  options?: NativeFSZipEntriesExtractionOptions,
+): Promise<NativeFSZipEntriesExtractionResult>;
 export function listZipEntries(
   archivePath: string,
   options?: NativeFSZipEntryListingOptions,
 ): Promise<NativeFSZipEntryListingResult>;
-export function getDiagnosticsSnapshot(): NativeFSDiagnosticEvent[];
+/**
+ * Android-only
+ */
+export function isNativeIOSchedulerAvailable(): boolean;
+/**
+ * Android-only
+ */
+export function configureIOScheduler(
+  options?: NativeFSIOSchedulerOptions,
+): Promise<NativeFSIOSchedulerStats>;
+/**
+ * Android-only
+ */
+export function getIOSchedulerStats(): Promise<NativeFSIOSchedulerStats>;
+export function getDiagnosticsSnapshot(): NativeFSDiagnosticsSnapshot;
 export function clearDiagnostics(): void;
+/** The histograms and event ring in a compact binary form, e.g. for upload. */
+export function getDiagnosticsBinarySnapshot(): Uint8Array;
+export function decodeDiagnosticsSnapshot(
+  bytes: Uint8Array,
+): NativeFSDecodedDiagnosticsSnapshot;
+/** Applies the given options and returns the full current configuration. */
+export function configureDiagnostics(
+  options?: NativeFSDiagnosticsOptions,
+): Required<NativeFSDiagnosticsOptions>;
 export function existsSync(filepath: string): boolean;
+/**
+ * Checks every path with one JSI call.
+ */
+export function existsManySync(filepaths: string[]): boolean[];
 
 export function mkdir(filepath: string, options?: MkdirOptions): Promise<void>;
+/** Creates missing parent directories too, like mkdir(). JSI only. */
+export function mkdirSync(filepath: string): void;
 export function moveFile(
   filepath: string,
   destPath: string,
   options?: FileOptions,
 ): Promise<void>;
+/** Falls back to copy and delete across file systems, like moveFile(). JSI only. */
+export function moveFileSync(filepath: string, destPath: string): void;
 export function copyFile(
   filepath: string,
   destPath: string,
@@ -345,9 +918,52 @@ export function persistFile(
 export function pathForBundle(bundleNamed: string): Promise<string>;
 export function pathForGroup(groupName: string): Promise<string>;
 export function getFSInfo(): Promise<FSInfoResult>;
+/** JSI only. */
+export function getFSInfoSync(): FSInfoResult;
 export function getAllExternalFilesDirs(): Promise<string[]>;
 export function unlink(filepath: string): Promise<void>;
+/**
+ * Returns once the path is gone. A directory is moved aside first and its contents are
+ * deleted in the background. JSI only.
+ */
+export function unlinkSync(filepath: string): void;
 export function exists(filepath: string): Promise<boolean>;
+/**
+ * Android-only
+ *
+ * Renames `filepath` to a hidden tombstone next to it, so the path is free
+ * at once, then deletes the tombstone on background threads. Pass `jobId` to
+ * cancelUnlink to stop; the tombstone is then left for purgeTombstones.
+ */
+export function unlinkAsync(
+  filepath: string,
+  options?: UnlinkAsyncOptions,
+): { jobId: number; promise: Promise<UnlinkAsyncResult> };
+
+/**
+ * Android-only
+ */
+export function cancelUnlink(jobId: number): void;
+
+/**
+ * Android-only. Deletes tombstones left in `dirpath` by a crash or a
+ * cancelled unlinkAsync.
+ */
+export function purgeTombstones(dirpath: string): Promise<UnlinkAsyncResult>;
+
+/**
+ * Checks every path with one native call on a background thread.
+ */
+export function existsMany(filepaths: string[]): Promise<boolean[]>;
+/**
+ * Stats every path in one native call off the JS thread. A missing path
+ * resolves with `exists: false` instead of rejecting the batch.
+ */
+export function statMany(filepaths: string[]): Promise<BatchStatItem[]>;
+/**
+ * Same as statMany, synchronously through JSI. Plain file paths only.
+ */
+export function statManySync(filepaths: string[]): BatchStatItem[];
 
 export function stopDownload(jobId: number): void;
 
@@ -357,9 +973,66 @@ export function isResumable(jobId: number): Promise<boolean>;
 
 export function stopUpload(jobId: number): void;
 
+export function isNativeTransferQueueAvailable(): boolean;
+
+/**
+ * Android-only
+ */
+export function setTransferLimits(
+  limits: TransferLimits,
+): Promise<TransferQueueStats>;
+
+/**
+ * Android-only
+ */
+export function getJournaledDownloads(): Promise<JournaledDownload[]>;
+
+/**
+ * Android-only
+ */
+export function clearJournaledDownloads(): Promise<void>;
+
+/**
+ * Android-only. Restarts every journaled download with `resume: true`. Credential headers
+ * listed in `redactedHeaders` are not journaled; pass them in `options.headers`.
+ */
+export function resumeJournaledDownloads(
+  options?: Partial<DownloadFileOptions>,
+): Promise<Array<{ jobId: number; promise: Promise<DownloadResult> }>>;
+
 export function completeHandlerIOS(jobId: number): void;
 
 export function readDir(dirpath: string): Promise<ReadDirItem[]>;
+/** JSI only. */
+export function readDirSync(dirpath: string): ReadDirItem[];
+
+export function isNativeReadDirPageAvailable(): boolean;
+
+/**
+ * Android-only. Returns one page of a directory listing; pass the returned
+ * `cursor` back to get the next page. Filtered pages may be empty while
+ * `cursor` is still set.
+ */
+export function readDirPage(
+  dirpath: string,
+  options?: ReadDirPageOptions,
+): Promise<ReadDirPage>;
+
+/**
+ * Android-only. Walks every page in order and resolves with the total number
+ * of items. The next page is not read until the promise returned by `onPage`
+ * settles.
+ */
+export function readDirPages(
+  dirpath: string,
+  onPage: (items: ReadDirItem[]) => void | Promise<void>,
+  options?: ReadDirPageOptions,
+): Promise<number>;
+
+/**
+ * Android-only. Releases a cursor that will not be read to the end.
+ */
+export function closeReadDirCursor(cursor: string): Promise<void>;
 
 /**
  * Android-only
@@ -381,6 +1054,16 @@ export function existsAssets(filepath: string): Promise<boolean>;
  */
 export function existsRes(filepath: string): Promise<boolean>;
 
+/**
+ * Android-only
+ */
+export function existsAssetsMany(filepaths: string[]): Promise<boolean[]>;
+
+/**
+ * Android-only
+ */
+export function existsResMany(filenames: string[]): Promise<boolean[]>;
+
 /**
  * Node style version (lowercase d). Returns just the names
  */
@@ -396,6 +1079,8 @@ export function setReadable(
 ): Promise<boolean>;
 
 export function stat(filepath: string): Promise<StatResult>;
+/** JSI only. */
+export function statSync(filepath: string): StatResult;
 
 export function readFile(
   filepath: string,
@@ -425,6 +1110,89 @@ export function readFileRes(
 ): Promise<string>;
 
 export function hash(filepath: string, algorithm: string): Promise<string>;
+/** Reads the whole file on the JS thread; prefer hash() for large files. JSI only. */
+export function hashSync(filepath: string, algorithm: string): string;
+/**
+ * Android-only
+ */
+export function isNativeHashFilesAvailable(): boolean;
+/**
+ * Android-only
+ *
+ * Computes every algorithm in one read of the file.
+ */
+export function hashMulti(
+  filepath: string,
+  algorithms: HashAlgorithm[],
+): Promise<NativeFSFileHashResult>;
+/**
+ * Android-only
+ *
+ * Hashes the files concurrently, one pass per file for all algorithms.
+ */
+export function hashFiles(
+  filepaths: string[],
+  algorithms: HashAlgorithm[],
+): Promise<NativeFSHashFilesResult>;
+export function isNativeCacheStoreAvailable(): boolean;
+/**
+ * Android-only
+ *
+ * Opens (or reconfigures) a keyed file cache under the caches directory.
+ * Entries past `maxBytes` are evicted in the background. Call once per
+ * store before the other cacheStore functions.
+ */
+export function openCacheStore(
+  name: string,
+  options?: NativeFSCacheStoreOptions,
+): Promise<NativeFSCacheStoreStats>;
+/**
+ * Android-only. Resolves with the cached file path, or null on a miss.
+ */
+export function cacheStoreGet(name: string, key: string): Promise<string | null>;
+/**
+ * Android-only. Copies (or moves) `sourcePath` into the store under `key`.
+ */
+export function cacheStorePut(
+  name: string,
+  key: string,
+  sourcePath: string,
+  options?: NativeFSCacheStorePutOptions,
+): Promise<NativeFSCacheStoreEntry>;
+/**
+ * Android-only
+ */
+export function cacheStoreTouch(name: string, key: string): Promise<boolean>;
+/**
+ * Android-only
+ */
+export function cacheStoreRemove(name: string, key: string): Promise<boolean>;
+/**
+ * Android-only
+ */
+export function cacheStoreClear(name: string): Promise<void>;
+/**
+ * Android-only
+ */
+export function getCacheStoreStats(
+  name: string,
+): Promise<NativeFSCacheStoreStats>;
+export function isNativeDiskUsageAvailable(): boolean;
+/**
+ * Android-only
+ *
+ * Walks the tree under `path` in parallel and totals its size. Pass `scanId`
+ * to cancelDiskUsage to stop the walk; the promise then rejects with
+ * ECANCELED.
+ */
+export function getDiskUsage(
+  path: string,
+  options?: NativeFSDiskUsageOptions,
+): { scanId: number; promise: Promise<NativeFSDiskUsageResult> };
+/**
+ * Android-only
+ */
+export function cancelDiskUsage(scanId: number): void;
 
 /**
  * Android only
@@ -434,6 +1202,29 @@ export function copyFileAssets(
   destPath: string,
 ): Promise<void>;
 
+/**
+ * Android only
+ *
+ * Extracts bundled assets once per app version to internal storage. Afterwards readFileAssets
+ * and copyFileAssets serve them from there instead of the APK.
+ */
+export function extractAssets(
+  filepaths: string[],
+  options?: NativeFSExtractAssetsOptions,
+): Promise<NativeFSExtractAssetsResult>;
+
+/**
+ * Android only
+ *
+ * Path of the extracted copy of an asset, extracting it first if needed.
+ */
+export function getCachedAssetPath(filepath: string): Promise<string>;
+
+/**
+ * Android only
+ */
+export function clearAssetCache(): Promise<void>;
+
 /**
  * Android only
  */
@@ -469,20 +1260,20 @@ export function copyAssetsVideoIOS(
 export function writeFile(
   filepath: string,
   contents: string,
-  encodingOrOptions?: any,
+  encodingOrOptions?: string | WriteOptions,
 ): Promise<void>;
 
 export function appendFile(
   filepath: string,
   contents: string,
-  encodingOrOptions?: string,
+  encodingOrOptions?: string | WriteOptions,
 ): Promise<void>;
 
 export function write(
   filepath: string,
   contents: string,
   position?: number,
-  encodingOrOptions?: any,
+  encodingOrOptions?: string | WriteOptions,
 ): Promise<void>;
 
 export function downloadFile(options: DownloadFileOptions): {
@@ -500,6 +1291,8 @@ export function touch(
   mtime?: Date,
   ctime?: Date,
 ): Promise<void>;
+/** Sets the modification time (now when omitted); false when that failed. JSI only. */
+export function touchSync(filepath: string, mtime?: Date): boolean;
 
 export const MainBundlePath: string;
 export const CachesDirectoryPath: string;